@@ -0,0 +1,47 @@
+package com.blog.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 文章标题筛选索引配置
+ */
+@Component
+@ConfigurationProperties(prefix = "blog.filter")
+public class FilterProperties {
+    
+    // 是否维护标题和摘要的三元组索引，关闭后标题筛选直接使用数据库模糊查询
+    private boolean enabled = true;
+    
+    // 匹配的文章超过此数量时回退到数据库模糊查询，避免过长的ID列表
+    private int maxCandidates = 1000;
+    
+    // 建立或更新索引失败后，等待此时间再重新建立
+    private Duration rebuildDelay = Duration.ofSeconds(30);
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+    
+    public int getMaxCandidates() {
+        return maxCandidates;
+    }
+    
+    public void setMaxCandidates(int maxCandidates) {
+        this.maxCandidates = maxCandidates;
+    }
+    
+    public Duration getRebuildDelay() {
+        return rebuildDelay;
+    }
+    
+    public void setRebuildDelay(Duration rebuildDelay) {
+        this.rebuildDelay = rebuildDelay;
+    }
+}
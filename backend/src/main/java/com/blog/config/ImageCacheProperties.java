@@ -0,0 +1,67 @@
+package com.blog.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 热点图片内存缓存配置
+ */
+@Component
+@ConfigurationProperties(prefix = "app.image.cache")
+public class ImageCacheProperties {
+    
+    // 是否启用缓存
+    private boolean enabled = true;
+    
+    // 缓存占用的堆外内存（字节），启动时一次性分配
+    private long maxBytes = 64L * 1024 * 1024;
+    
+    // 堆外内存的分块大小，每张图片占用若干整块
+    private int blockBytes = 16 * 1024;
+    
+    // 图片被访问达到此次数后才读入缓存，此前直接从磁盘发送
+    private int admissionFrequency = 2;
+    
+    // 单张图片可缓存的最大字节数，更大的图片直接从磁盘发送
+    private int maxEntryBytes = 2 * 1024 * 1024;
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+    
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+    
+    public void setMaxBytes(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+    
+    public int getBlockBytes() {
+        return blockBytes;
+    }
+    
+    public void setBlockBytes(int blockBytes) {
+        this.blockBytes = blockBytes;
+    }
+    
+    public int getAdmissionFrequency() {
+        return admissionFrequency;
+    }
+    
+    public void setAdmissionFrequency(int admissionFrequency) {
+        this.admissionFrequency = admissionFrequency;
+    }
+    
+    public int getMaxEntryBytes() {
+        return maxEntryBytes;
+    }
+    
+    public void setMaxEntryBytes(int maxEntryBytes) {
+        this.maxEntryBytes = maxEntryBytes;
+    }
+}
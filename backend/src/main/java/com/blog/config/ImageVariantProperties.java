@@ -0,0 +1,78 @@
+package com.blog.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 图片缩放变体配置
+ */
+@Component
+@ConfigurationProperties(prefix = "app.image.variants")
+public class ImageVariantProperties {
+    
+    // 变体缓存目录
+    private String path = "./data/image-variants";
+    
+    // 变体缓存的磁盘容量上限（字节）
+    private long maxBytes = 256L * 1024 * 1024;
+    
+    // 允许请求的最大宽高
+    private int maxDimension = 4096;
+    
+    // 编解码线程数，0表示使用CPU核数
+    private int workers = 0;
+    
+    // 等待处理的任务队列长度，超出后直接拒绝
+    private int queueCapacity = 64;
+    
+    // 请求线程等待变体生成的超时时间（毫秒）
+    private long timeoutMillis = 30000;
+    
+    public String getPath() {
+        return path;
+    }
+    
+    public void setPath(String path) {
+        this.path = path;
+    }
+    
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+    
+    public void setMaxBytes(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+    
+    public int getMaxDimension() {
+        return maxDimension;
+    }
+    
+    public void setMaxDimension(int maxDimension) {
+        this.maxDimension = maxDimension;
+    }
+    
+    public int getWorkers() {
+        return workers;
+    }
+    
+    public void setWorkers(int workers) {
+        this.workers = workers;
+    }
+    
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+    
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+    
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+    
+    public void setTimeoutMillis(long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+    }
+}
@@ -0,0 +1,34 @@
+package com.blog.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Markdown文件清单配置
+ */
+@Component
+@ConfigurationProperties(prefix = "blog.storage.manifest")
+public class ManifestProperties {
+    
+    // 是否维护内存中的文件清单，关闭后分页列出文件的接口不可用
+    private boolean enabled = true;
+    
+    // 启动时并行扫描目录的线程数，0表示使用CPU核数
+    private int parallelism = 0;
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+    
+    public int getParallelism() {
+        return parallelism;
+    }
+    
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+}
@@ -0,0 +1,58 @@
+package com.blog.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Markdown内容缓存配置
+ */
+@Component
+@ConfigurationProperties(prefix = "blog.storage.cache")
+public class MarkdownCacheProperties {
+    
+    // 是否启用缓存
+    private boolean enabled = true;
+    
+    // 缓存条目估算的堆内存占用上限（内容按UTF-8字节保存，另计每个条目的固定开销）
+    private long maxBytes = 32L * 1024 * 1024;
+    
+    // 单个文件可缓存的最大字节数
+    private long maxEntryBytes = 1024 * 1024;
+    
+    // 命中后在此时间内直接返回，不检查文件；超过后比对一次修改时间和大小，以发现绕过本服务的修改
+    private Duration revalidateInterval = Duration.ofSeconds(10);
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+    
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+    
+    public void setMaxBytes(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+    
+    public long getMaxEntryBytes() {
+        return maxEntryBytes;
+    }
+    
+    public void setMaxEntryBytes(long maxEntryBytes) {
+        this.maxEntryBytes = maxEntryBytes;
+    }
+    
+    public Duration getRevalidateInterval() {
+        return revalidateInterval;
+    }
+    
+    public void setRevalidateInterval(Duration revalidateInterval) {
+        this.revalidateInterval = revalidateInterval;
+    }
+}
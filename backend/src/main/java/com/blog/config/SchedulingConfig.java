@@ -0,0 +1,13 @@
+package com.blog.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * 定时任务配置
+ * 启用后台任务（如图片数据回填）的调度
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
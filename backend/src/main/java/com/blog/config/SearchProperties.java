@@ -0,0 +1,58 @@
+package com.blog.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 全文搜索配置
+ */
+@Component
+@ConfigurationProperties(prefix = "blog.search")
+public class SearchProperties {
+    
+    // 是否维护全文索引，关闭后搜索接口返回503
+    private boolean enabled = true;
+    
+    // 索引快照目录，重启时从快照加载，只重建有变化的文章
+    private String path = "./data/search";
+    
+    // 单次搜索的目标耗时，超过时记录警告日志
+    private Duration latencyTarget = Duration.ofMillis(50);
+    
+    // 搜索摘要使用的正文纯文本缓存的总字符数
+    private long snippetCacheChars = 4 * 1024 * 1024;
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+    
+    public String getPath() {
+        return path;
+    }
+    
+    public void setPath(String path) {
+        this.path = path;
+    }
+    
+    public Duration getLatencyTarget() {
+        return latencyTarget;
+    }
+    
+    public void setLatencyTarget(Duration latencyTarget) {
+        this.latencyTarget = latencyTarget;
+    }
+    
+    public long getSnippetCacheChars() {
+        return snippetCacheChars;
+    }
+    
+    public void setSnippetCacheChars(long snippetCacheChars) {
+        this.snippetCacheChars = snippetCacheChars;
+    }
+}
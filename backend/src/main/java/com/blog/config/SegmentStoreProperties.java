@@ -0,0 +1,45 @@
+package com.blog.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 分段存储配置（blog.storage.backend=segment时使用）
+ */
+@Component
+@ConfigurationProperties(prefix = "blog.storage.segment")
+public class SegmentStoreProperties {
+    
+    // 段文件目录
+    private String path = "./data/segments";
+    
+    // 段文件超过此大小后封存并新建下一段
+    private long maxSegmentBytes = 64L * 1024 * 1024;
+    
+    // 封存段中旧版本的字节数占比达到此值时压缩
+    private double compactionThreshold = 0.5;
+    
+    public String getPath() {
+        return path;
+    }
+    
+    public void setPath(String path) {
+        this.path = path;
+    }
+    
+    public long getMaxSegmentBytes() {
+        return maxSegmentBytes;
+    }
+    
+    public void setMaxSegmentBytes(long maxSegmentBytes) {
+        this.maxSegmentBytes = maxSegmentBytes;
+    }
+    
+    public double getCompactionThreshold() {
+        return compactionThreshold;
+    }
+    
+    public void setCompactionThreshold(double compactionThreshold) {
+        this.compactionThreshold = compactionThreshold;
+    }
+}
@@ -1,5 +1,7 @@
 package com.blog.config;
 
+import com.blog.util.StorageBackend;
+import com.blog.util.WriteDurability;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
@@ -7,9 +9,32 @@ import org.springframework.stereotype.Component;
 @ConfigurationProperties(prefix = "blog.storage")
 public class StorageProperties {
     
+    // Markdown内容的存储后端：每篇一个文件，或追加写入的段文件
+    private StorageBackend backend = StorageBackend.FILES;
+    
     private String markdownPath = "./data/markdown";
     private String imagesPath = "./data/images";
     
+    // 分片目录层数，0表示所有文件平铺在根目录下
+    private int shardDepth = 0;
+    
+    // 每层分片目录名的字符数（十六进制），每层最多 16^shardWidth 个子目录
+    private int shardWidth = 2;
+    
+    // Markdown写入的默认持久化级别
+    private WriteDurability writeDurability = WriteDurability.DATA;
+    
+    // 流式保存接口接收的请求体上限（字节），超过时返回413
+    private long maxMarkdownBytes = 16 * 1024 * 1024;
+    
+    public StorageBackend getBackend() {
+        return backend;
+    }
+    
+    public void setBackend(StorageBackend backend) {
+        this.backend = backend;
+    }
+    
     public String getMarkdownPath() {
         return markdownPath;
     }
@@ -25,4 +50,36 @@ public class StorageProperties {
     public void setImagesPath(String imagesPath) {
         this.imagesPath = imagesPath;
     }
-}
\ No newline at end of file
+    
+    public int getShardDepth() {
+        return shardDepth;
+    }
+    
+    public void setShardDepth(int shardDepth) {
+        this.shardDepth = shardDepth;
+    }
+    
+    public int getShardWidth() {
+        return shardWidth;
+    }
+    
+    public void setShardWidth(int shardWidth) {
+        this.shardWidth = shardWidth;
+    }
+    
+    public WriteDurability getWriteDurability() {
+        return writeDurability;
+    }
+    
+    public void setWriteDurability(WriteDurability writeDurability) {
+        this.writeDurability = writeDurability;
+    }
+    
+    public long getMaxMarkdownBytes() {
+        return maxMarkdownBytes;
+    }
+    
+    public void setMaxMarkdownBytes(long maxMarkdownBytes) {
+        this.maxMarkdownBytes = maxMarkdownBytes;
+    }
+}
@@ -0,0 +1,23 @@
+package com.blog.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 输入提示配置
+ */
+@Component
+@ConfigurationProperties(prefix = "blog.suggest")
+public class SuggestProperties {
+    
+    // 是否维护标题和标签的前缀索引，关闭后输入提示接口返回503
+    private boolean enabled = true;
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+}
@@ -0,0 +1,69 @@
+package com.blog.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Markdown目录监听配置
+ */
+@Component
+@ConfigurationProperties(prefix = "blog.storage.watcher")
+public class WatcherProperties {
+    
+    // 是否监听Markdown目录以发现绕过本服务的修改（需要启用文件清单）
+    private boolean enabled = true;
+    
+    // 文件最后一次变化后经过此时间没有新的变化，才作为一次修改处理
+    private Duration quietPeriod = Duration.ofMillis(500);
+    
+    // 待处理的文件数超过此值时，改为按目录重新扫描
+    private int maxPending = 10000;
+    
+    // 每批处理的文件或目录数
+    private int batchSize = 200;
+    
+    // 两批之间的间隔，限制大量外部修改时对应用的压力
+    private Duration batchPause = Duration.ofMillis(100);
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+    
+    public Duration getQuietPeriod() {
+        return quietPeriod;
+    }
+    
+    public void setQuietPeriod(Duration quietPeriod) {
+        this.quietPeriod = quietPeriod;
+    }
+    
+    public int getMaxPending() {
+        return maxPending;
+    }
+    
+    public void setMaxPending(int maxPending) {
+        this.maxPending = maxPending;
+    }
+    
+    public int getBatchSize() {
+        return batchSize;
+    }
+    
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+    
+    public Duration getBatchPause() {
+        return batchPause;
+    }
+    
+    public void setBatchPause(Duration batchPause) {
+        this.batchPause = batchPause;
+    }
+}
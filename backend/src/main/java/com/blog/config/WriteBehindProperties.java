@@ -0,0 +1,69 @@
+package com.blog.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Markdown自动保存合并写入配置
+ */
+@Component
+@ConfigurationProperties(prefix = "blog.storage.write-behind")
+public class WriteBehindProperties {
+    
+    // 是否启用合并写入，关闭后每次保存直接写入文件
+    private boolean enabled = true;
+    
+    // 暂存日志目录
+    private String journalPath = "./data/journal";
+    
+    // 最后一次保存后经过此时间没有新的保存，才写入文件
+    private Duration debounce = Duration.ofSeconds(2);
+    
+    // 持续编辑时，距第一次暂存超过此时间也会写入文件
+    private Duration maxDelay = Duration.ofSeconds(30);
+    
+    // 暂存日志超过此大小时压缩为仅包含未写入的最新版本
+    private long journalMaxBytes = 64L * 1024 * 1024;
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+    
+    public String getJournalPath() {
+        return journalPath;
+    }
+    
+    public void setJournalPath(String journalPath) {
+        this.journalPath = journalPath;
+    }
+    
+    public Duration getDebounce() {
+        return debounce;
+    }
+    
+    public void setDebounce(Duration debounce) {
+        this.debounce = debounce;
+    }
+    
+    public Duration getMaxDelay() {
+        return maxDelay;
+    }
+    
+    public void setMaxDelay(Duration maxDelay) {
+        this.maxDelay = maxDelay;
+    }
+    
+    public long getJournalMaxBytes() {
+        return journalMaxBytes;
+    }
+    
+    public void setJournalMaxBytes(long journalMaxBytes) {
+        this.journalMaxBytes = journalMaxBytes;
+    }
+}
@@ -1,93 +1,202 @@
 package com.blog.controller;
 
-import com.blog.api.FilesApi;
+import com.blog.config.StorageProperties;
 import com.blog.entity.Article;
-import com.blog.model.ErrorResponse;
-import com.blog.model.ErrorResponseError;
+import com.blog.event.ArticleChangedEvent;
+import com.blog.exception.ArticleNotFoundException;
+import com.blog.exception.FileOperationException;
+import com.blog.exception.PayloadTooLargeException;
 import com.blog.model.FileOperationResponse;
+import com.blog.model.MarkdownFileInfo;
+import com.blog.model.MarkdownFileListResponse;
+import com.blog.model.MarkdownPatchRequest;
+import com.blog.model.MarkdownTextEdit;
 import com.blog.repository.ArticleRepository;
 import com.blog.service.FileService;
+import com.blog.service.MarkdownFileEntry;
+import com.blog.service.MarkdownManifestService;
+import com.blog.service.MarkdownSnapshot;
+import com.blog.service.MarkdownWriteBehindService;
+import com.blog.service.PendingMarkdown;
+import com.blog.service.StagedMarkdown;
+import com.blog.util.ContentFingerprint;
+import com.blog.util.HttpFileSender;
+import com.blog.util.TextPatch;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.enums.ParameterIn;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
 import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.List;
 import java.util.Optional;
 
 /**
  * 文件操作REST控制器
- * 实现FilesApi接口，处理Markdown文件的读写操作
+ * 处理Markdown文件的读写操作；读取需要直接写入响应流，因此不使用生成的FilesApi接口，
+ * 路径和参数与API定义保持一致
  */
 @RestController
 @RequestMapping("/")
-public class FilesController implements FilesApi {
+public class FilesController {
 
     private static final Logger log = LoggerFactory.getLogger(FilesController.class);
 
+    private static final String MARKDOWN_CONTENT_TYPE = "text/plain;charset=UTF-8";
+    private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_LIST_LIMIT = 1000;
+
     private final FileService fileService;
     private final ArticleRepository articleRepository;
     private final ObjectMapper objectMapper;
-
-    public FilesController(FileService fileService, ArticleRepository articleRepository, ObjectMapper objectMapper) {
+    private final MarkdownWriteBehindService writeBehindService;
+    private final MarkdownManifestService manifestService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final StorageProperties storageProperties;
+
+    public FilesController(FileService fileService, ArticleRepository articleRepository, ObjectMapper objectMapper,
+                           MarkdownWriteBehindService writeBehindService, MarkdownManifestService manifestService,
+                           ApplicationEventPublisher eventPublisher, StorageProperties storageProperties) {
         this.fileService = fileService;
         this.articleRepository = articleRepository;
         this.objectMapper = objectMapper;
+        this.writeBehindService = writeBehindService;
+        this.manifestService = manifestService;
+        this.eventPublisher = eventPublisher;
+        this.storageProperties = storageProperties;
     }
 
-    @Override
-    public ResponseEntity<String> filesMarkdownArticleIdGet(
-            @Parameter(name = "articleId", description = "文章ID", in = ParameterIn.PATH) @PathVariable("articleId") Long articleId) {
-        try {
-            log.info("获取Markdown文件内容 - articleId: {}", articleId);
+    /**
+     * 分页列出Markdown文件，数据来自文件清单；清单未启用或尚未建立时返回503
+     */
+    @GetMapping(value = "/files/markdown", produces = "application/json")
+    public ResponseEntity<MarkdownFileListResponse> filesMarkdownGet(
+            @Parameter(name = "after", description = "上一页最后一个文件的路径", in = ParameterIn.QUERY) @RequestParam(value = "after", required = false) String after,
+            @Parameter(name = "limit", description = "每页数量", in = ParameterIn.QUERY) @RequestParam(value = "limit", required = false, defaultValue = "100") Integer limit) {
+        if (limit < 1 || limit > MAX_LIST_LIMIT) {
+            throw new IllegalArgumentException("每页数量必须在1到" + MAX_LIST_LIMIT + "之间");
+        }
+        MarkdownManifestService.Page page = manifestService.list(after, limit);
+        MarkdownFileListResponse response = new MarkdownFileListResponse()
+                .items(page.items().stream().map(FilesController::toFileInfo).toList())
+                .nextCursor(page.nextCursor())
+                .total(page.total());
+        return ResponseEntity.ok(response);
+    }
 
-            // 获取文章信息
-            Optional<Article> articleOpt = articleRepository.findById(articleId);
-            if (articleOpt.isEmpty()) {
-                log.warn("文章不存在 - articleId: {}", articleId);
-                ErrorResponseError errorError = new ErrorResponseError()
-                        .code("404")
-                        .message("文章不存在")
-                        .path("/files/markdown/" + articleId)
-                        .details("Article with id " + articleId + " not found")
-                        .timestamp(OffsetDateTime.now());
-                ErrorResponse error = new ErrorResponse()
-                        .error(errorError);
-                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error.toString());
+    private static MarkdownFileInfo toFileInfo(MarkdownFileEntry entry) {
+        return new MarkdownFileInfo()
+                .path(entry.path())
+                .size(entry.size())
+                .lastModified(OffsetDateTime.ofInstant(Instant.ofEpochMilli(entry.lastModified()), ZoneId.systemDefault()))
+                .contentHash(entry.contentHash());
+    }
+
+    /**
+     * 获取Markdown文件内容
+     * 支持Range请求；ETag为所发送内容的哈希，与暂存内容和保存接口返回的版本一致，内容未变时返回304。
+     * 有尚未写入文件的暂存内容时返回暂存内容；内容缓存未命中时由FileChannel.transferTo或sendfile直接发送文件
+     */
+    @GetMapping("/files/markdown/{articleId}")
+    public void filesMarkdownArticleIdGet(@PathVariable("articleId") Long articleId,
+                                          HttpServletRequest request,
+                                          HttpServletResponse response) throws IOException {
+        log.debug("获取Markdown文件内容 - articleId: {}", articleId);
+
+        Article article = articleRepository.findById(articleId)
+                .orElseThrow(() -> new ArticleNotFoundException(articleId));
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+
+        Optional<PendingMarkdown> pending = writeBehindService.getPending(articleId);
+        if (pending.isPresent()) {
+            PendingMarkdown buffered = pending.get();
+            String etag = buffered.getEtag();
+            if (HttpFileSender.checkNotModified(request, response, etag, buffered.getUpdatedAt())) {
+                return;
             }
+            HttpFileSender.send(request, response, ByteBuffer.wrap(buffered.getContent()), buffered.getUpdatedAt(),
+                    MARKDOWN_CONTENT_TYPE, etag);
+            return;
+        }
 
-            Article article = articleOpt.get();
-            String contentPath = article.getContentPath();
+        String contentPath = article.getContentPath();
+        Path file = fileService.getAbsolutePath(contentPath);
+        if (file != null && !fileService.isValidFilePath(file.toString())) {
+            throw new FileOperationException("文件路径不安全: " + contentPath);
+        }
 
-            // 读取Markdown文件
-            String content = fileService.readMarkdownFile(contentPath);
+        // 内容缓存命中时ETag、修改时间和发送的内容取自同一个快照
+        Optional<MarkdownSnapshot> cached = fileService.getCachedSnapshot(contentPath);
+        if (cached.isPresent() || file == null) {
+            MarkdownSnapshot snapshot = cached.isPresent() ? cached.get() : readSnapshot(contentPath);
+            if (HttpFileSender.checkNotModified(request, response, snapshot.getEtag(), snapshot.getLastModified())) {
+                return;
+            }
+            HttpFileSender.send(request, response, snapshot.asByteBuffer(), snapshot.getLastModified(),
+                    MARKDOWN_CONTENT_TYPE, snapshot.getEtag());
+            return;
+        }
 
-            log.info("成功读取Markdown文件 - articleId: {}, filePath: {}", articleId, contentPath);
-            return ResponseEntity.ok(content);
+        // 未缓存时只读取文件属性和按属性缓存的哈希，编辑器轮询内容未变时直接返回304，不打开文件
+        MarkdownFileEntry entry;
+        try {
+            entry = fileService.readMarkdownEntry(contentPath);
+        } catch (NoSuchFileException e) {
+            throw new FileOperationException("文件不存在: " + contentPath);
+        }
+        String etag = new ContentFingerprint(entry.contentHash(), entry.size()).etag();
+        if (HttpFileSender.checkNotModified(request, response, etag, entry.lastModified())) {
+            return;
+        }
+        HttpFileSender.send(request, response, file, MARKDOWN_CONTENT_TYPE, etag, entry.lastModified());
+    }
 
-        } catch (Exception e) {
-            log.error("获取Markdown文件内容失败 - articleId: {}", articleId, e);
-            ErrorResponseError errorError = new ErrorResponseError()
-                    .code("500")
-                    .message("服务器内部错误")
-                    .path("/files/markdown/" + articleId)
-                    .details(e.getMessage())
-                    .timestamp(OffsetDateTime.now());
-            ErrorResponse error = new ErrorResponse()
-                    .error(errorError);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error.toString());
+    private MarkdownSnapshot readSnapshot(String contentPath) throws IOException {
+        try {
+            return fileService.readMarkdownSnapshot(contentPath);
+        } catch (NoSuchFileException e) {
+            throw new FileOperationException("文件不存在: " + contentPath);
         }
     }
 
-    @Override
+    /**
+     * 保存Markdown文件内容（text/plain等，编辑器自动保存）
+     * 内容指纹与当前内容相同时直接返回，不读写文件和数据库；
+     * 已有文件的保存先暂存并记录到日志，由合并写入服务延迟写入文件；flush=true时立即写入
+     */
+    @PutMapping(value = "/files/markdown/{articleId}", produces = "application/json")
     public ResponseEntity<FileOperationResponse> filesMarkdownArticleIdPut(
             @Parameter(name = "articleId", description = "文章ID", in = ParameterIn.PATH) @PathVariable("articleId") Long articleId,
+            @Parameter(name = "flush", description = "是否立即写入文件", in = ParameterIn.QUERY) @RequestParam(value = "flush", required = false) Boolean flush,
             @Parameter(name = "body", description = "") @RequestBody(required = false) String body) {
         try {
             log.info("保存Markdown文件内容 - articleId: {}, contentLength: {}", articleId, body != null ? body.length() : 0);
@@ -109,22 +218,40 @@ public class FilesController implements FilesApi {
 
             // 解析内容，支持JSON和纯文本格式
             String content = parseContentFromBody(body);
-
-            // 检查文件是否存在，如果不存在则创建
-            if (!fileService.fileExists(contentPath)) {
+            ContentFingerprint fingerprint = ContentFingerprint.of(content);
+
+            Optional<PendingMarkdown> pending = writeBehindService.getPending(articleId);
+            boolean unchanged = pending.isPresent()
+                    ? pending.get().getFingerprint().equals(fingerprint)
+                    : fingerprint.matches(article.getContentHash(), article.getContentLength());
+
+            if (unchanged) {
+                // 自动保存的内容未变化，手动保存时仍把暂存内容写入文件
+                log.debug("Markdown内容未变化，跳过保存 - articleId: {}", articleId);
+                if (pending.isPresent() && Boolean.TRUE.equals(flush)) {
+                    writeBehindService.flush(articleId);
+                }
+            } else if (!fileService.fileExists(contentPath)) {
+                // 文件不存在则创建
                 log.info("Markdown文件不存在，创建新文件 - articleId: {}, filePath: {}", articleId, contentPath);
                 // 从contentPath中提取文件名
                 String filename = contentPath.substring(contentPath.lastIndexOf('/') + 1);
                 String newFilePath = fileService.saveMarkdownFile(filename, content);
 
-                // 更新文章的contentPath
+                // 更新文章的contentPath和内容指纹
                 article.setContentPath(newFilePath);
+                article.setContentHash(fingerprint.hash());
+                article.setContentLength(fingerprint.length());
                 articleRepository.save(article);
+                eventPublisher.publishEvent(new ArticleChangedEvent(articleId, ArticleChangedEvent.Kind.SAVED));
 
                 contentPath = newFilePath;
             } else {
-                // 更新现有文件
-                fileService.updateMarkdownFile(contentPath, content);
+                // 更新现有文件，自动保存的连续写入在暂存中合并
+                writeBehindService.submit(articleId, contentPath, content);
+                if (Boolean.TRUE.equals(flush)) {
+                    writeBehindService.flush(articleId);
+                }
             }
 
             log.info("成功保存Markdown文件 - articleId: {}, filePath: {}", articleId, contentPath);
@@ -133,6 +260,7 @@ public class FilesController implements FilesApi {
                     .success(true)
                     .filePath(contentPath)
                     .message("Markdown文件保存成功")
+                    .version(fingerprint.etag())
                     .timestamp(OffsetDateTime.now());
 
             return ResponseEntity.ok(response);
@@ -150,6 +278,286 @@ public class FilesController implements FilesApi {
         }
     }
 
+    /**
+     * 以流的方式保存Markdown文件内容（text/markdown或application/octet-stream）
+     * 请求体从输入流直接写入临时文件，不在内存中构造完整内容；不经过暂存，返回时已写入文件。
+     * 请求体超过blog.storage.max-markdown-bytes时返回413
+     */
+    @PutMapping(value = "/files/markdown/{articleId}", consumes = {"text/markdown", MediaType.APPLICATION_OCTET_STREAM_VALUE},
+            produces = "application/json")
+    public ResponseEntity<FileOperationResponse> filesMarkdownArticleIdPutStream(
+            @Parameter(name = "articleId", description = "文章ID", in = ParameterIn.PATH) @PathVariable("articleId") Long articleId,
+            HttpServletRequest request) throws IOException {
+        log.info("流式保存Markdown文件内容 - articleId: {}, contentLength: {}", articleId, request.getContentLengthLong());
+        checkContentLength(request);
+        String contentPath = prepareContentPath(articleId);
+        InputStream in = request.getInputStream();
+        ContentFingerprint fingerprint = writeBehindService.replace(articleId, contentPath, channel -> copyLimited(in, channel));
+        return saved(articleId, contentPath, fingerprint);
+    }
+
+    /**
+     * 以流的方式保存JSON请求体中的content（或body）字段
+     * 规则与普通保存接口相同：content优先于body，两者都没有或不是有效的JSON时按原文保存。
+     * 请求体先写入目标存储中的临时文件（大小限制与流式保存相同），找到字段位置后从文件中逐段反转义写入，
+     * 不在内存中保存完整内容
+     */
+    @PutMapping(value = "/files/markdown/{articleId}", consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = "application/json")
+    public ResponseEntity<FileOperationResponse> filesMarkdownArticleIdPutJson(
+            @Parameter(name = "articleId", description = "文章ID", in = ParameterIn.PATH) @PathVariable("articleId") Long articleId,
+            HttpServletRequest request) throws IOException {
+        log.info("流式保存Markdown文件内容(JSON) - articleId: {}, contentLength: {}", articleId, request.getContentLengthLong());
+        checkContentLength(request);
+        String contentPath = prepareContentPath(articleId);
+        InputStream in = request.getInputStream();
+        // 选择哪个字段要看完整个对象，先完整接收请求体；临时文件不会被提交
+        try (StagedMarkdown body = fileService.stageMarkdownFile(contentPath, channel -> copyLimited(in, channel))) {
+            ContentFingerprint fingerprint = writeBehindService.replace(articleId, contentPath,
+                    channel -> copyContentField(body.getFile(), channel));
+            return saved(articleId, contentPath, fingerprint);
+        }
+    }
+
+    /**
+     * 文章的Markdown文件路径，文件不存在时以空内容创建
+     */
+    private String prepareContentPath(Long articleId) throws IOException {
+        Article article = articleRepository.findById(articleId)
+                .orElseThrow(() -> new ArticleNotFoundException(articleId));
+        String contentPath = article.getContentPath();
+
+        if (!fileService.fileExists(contentPath)) {
+            log.info("Markdown文件不存在，创建新文件 - articleId: {}, filePath: {}", articleId, contentPath);
+            String filename = contentPath.substring(contentPath.lastIndexOf('/') + 1);
+            contentPath = fileService.saveMarkdownFile(filename, "");
+            article.setContentPath(contentPath);
+            articleRepository.save(article);
+            eventPublisher.publishEvent(new ArticleChangedEvent(articleId, ArticleChangedEvent.Kind.SAVED));
+        }
+        return contentPath;
+    }
+
+    private ResponseEntity<FileOperationResponse> saved(Long articleId, String contentPath, ContentFingerprint fingerprint) {
+        log.info("成功保存Markdown文件 - articleId: {}, filePath: {}, size: {}", articleId, contentPath, fingerprint.length());
+
+        FileOperationResponse response = new FileOperationResponse()
+                .success(true)
+                .filePath(contentPath)
+                .message("Markdown文件保存成功")
+                .version(fingerprint.etag())
+                .timestamp(OffsetDateTime.now());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * 声明的长度已超过上限时不读取请求体
+     */
+    private void checkContentLength(HttpServletRequest request) {
+        if (request.getContentLengthLong() > storageProperties.getMaxMarkdownBytes()) {
+            throw new PayloadTooLargeException("请求体超过" + storageProperties.getMaxMarkdownBytes() + "字节");
+        }
+    }
+
+    /**
+     * 复制请求体，超过上限时停止接收（分块传输的请求没有声明长度）
+     */
+    private void copyLimited(InputStream in, WritableByteChannel channel) throws IOException {
+        long maxBytes = storageProperties.getMaxMarkdownBytes();
+        ReadableByteChannel input = Channels.newChannel(in);
+        ByteBuffer buffer = ByteBuffer.allocate(STREAM_BUFFER_SIZE);
+        long total = 0;
+        int read;
+        while ((read = input.read(buffer)) != -1) {
+            total += read;
+            if (total > maxBytes) {
+                throw new PayloadTooLargeException("请求体超过" + maxBytes + "字节");
+            }
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+
+    private static void copy(InputStream in, WritableByteChannel channel) throws IOException {
+        ReadableByteChannel input = Channels.newChannel(in);
+        ByteBuffer buffer = ByteBuffer.allocate(STREAM_BUFFER_SIZE);
+        while (input.read(buffer) != -1) {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+
+    private void copyContentField(Path spool, WritableByteChannel channel) throws IOException {
+        ContentField field = findContentField(spool);
+        try (FileChannel in = FileChannel.open(spool, StandardOpenOption.READ)) {
+            if (field == null) {
+                copy(Channels.newInputStream(in), channel);
+                return;
+            }
+            Writer writer = Channels.newWriter(channel, StandardCharsets.UTF_8);
+            if (field.text() != null) {
+                writer.write(field.text());
+            } else {
+                copyJsonString(Channels.newReader(in.position(field.offset()), StandardCharsets.UTF_8), writer);
+            }
+            writer.flush();
+        }
+    }
+
+    /**
+     * 请求体中选用的字段：字符串值记录左引号的字节偏移，其他值直接保存文本
+     */
+    private record ContentField(long offset, String text) {
+    }
+
+    /**
+     * 查找content或body字段，与parseContentFromBody的规则相同
+     * 字符串值只记录位置，跳过时不解码内容
+     *
+     * @return 没有这两个字段或不是有效的JSON对象时返回null
+     */
+    private ContentField findContentField(Path spool) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(spool.toFile())) {
+            JsonToken first = parser.nextToken();
+            if (first == null) {
+                // 空白的请求体保存为空内容
+                return new ContentField(-1, "");
+            }
+            if (first != JsonToken.START_OBJECT) {
+                return null;
+            }
+            ContentField content = null;
+            ContentField body = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("content".equals(name)) {
+                    content = toContentField(parser, value);
+                } else if ("body".equals(name)) {
+                    body = toContentField(parser, value);
+                }
+                parser.skipChildren();
+            }
+            if (parser.nextToken() != null) {
+                return null;
+            }
+            return content != null ? content : body;
+        } catch (JsonProcessingException e) {
+            log.debug("请求体不是有效的JSON，按原文保存");
+            return null;
+        }
+    }
+
+    private static ContentField toContentField(JsonParser parser, JsonToken value) throws IOException {
+        long offset = parser.currentTokenLocation().getByteOffset();
+        if (value == JsonToken.VALUE_STRING && offset >= 0) {
+            return new ContentField(offset, null);
+        }
+        // 与JsonNode.asText()相同：对象和数组为空文本
+        return new ContentField(-1, value.isScalarValue() ? parser.getText() : "");
+    }
+
+    /**
+     * 从左引号开始读取一个JSON字符串，把反转义后的文本分段写入writer
+     */
+    private static void copyJsonString(Reader source, Writer writer) throws IOException {
+        Reader in = new BufferedReader(source, STREAM_BUFFER_SIZE);
+        if (in.read() != '"') {
+            throw new IllegalArgumentException("请求体不是有效的JSON");
+        }
+        char[] chunk = new char[STREAM_BUFFER_SIZE];
+        int length = 0;
+        while (true) {
+            int c = in.read();
+            if (c == '"') {
+                break;
+            }
+            if (c == '\\') {
+                c = unescape(in);
+            }
+            if (c < 0) {
+                throw new IllegalArgumentException("请求体不是有效的JSON");
+            }
+            chunk[length++] = (char) c;
+            if (length == chunk.length) {
+                writer.write(chunk, 0, length);
+                length = 0;
+            }
+        }
+        writer.write(chunk, 0, length);
+    }
+
+    private static int unescape(Reader in) throws IOException {
+        int c = in.read();
+        return switch (c) {
+            case 'b' -> '\b';
+            case 'f' -> '\f';
+            case 'n' -> '\n';
+            case 'r' -> '\r';
+            case 't' -> '\t';
+            case 'u' -> {
+                int code = 0;
+                for (int i = 0; i < 4; i++) {
+                    int digit = Character.digit(in.read(), 16);
+                    if (digit < 0) {
+                        yield -1;
+                    }
+                    code = code << 4 | digit;
+                }
+                yield code;
+            }
+            // 引号、反斜杠和斜杠原样保留
+            default -> c;
+        };
+    }
+
+    /**
+     * 增量修改Markdown文件内容
+     * 修改应用在暂存内容或（经缓存读取的）文件内容上，版本不一致时返回409
+     */
+    @PatchMapping(value = "/files/markdown/{articleId}", consumes = "application/json", produces = "application/json")
+    public ResponseEntity<FileOperationResponse> filesMarkdownArticleIdPatch(
+            @Parameter(name = "articleId", description = "文章ID", in = ParameterIn.PATH) @PathVariable("articleId") Long articleId,
+            @Parameter(name = "MarkdownPatchRequest", description = "") @RequestBody MarkdownPatchRequest patchRequest) throws IOException {
+        if (patchRequest.getBaseVersion() == null || patchRequest.getEdits() == null) {
+            throw new IllegalArgumentException("baseVersion和edits不能为空");
+        }
+        log.debug("增量修改Markdown文件内容 - articleId: {}, edits: {}", articleId, patchRequest.getEdits().size());
+
+        Article article = articleRepository.findById(articleId)
+                .orElseThrow(() -> new ArticleNotFoundException(articleId));
+        String contentPath = article.getContentPath();
+        if (!fileService.fileExists(contentPath)) {
+            throw new FileOperationException("文件不存在: " + contentPath);
+        }
+
+        List<TextPatch.Edit> edits = patchRequest.getEdits().stream()
+                .map(FilesController::toEdit)
+                .toList();
+        String version = writeBehindService.patch(articleId, contentPath, patchRequest.getBaseVersion(), edits);
+
+        FileOperationResponse response = new FileOperationResponse()
+                .success(true)
+                .filePath(contentPath)
+                .message("Markdown文件修改成功")
+                .version(version)
+                .timestamp(OffsetDateTime.now());
+        return ResponseEntity.ok().eTag(version).body(response);
+    }
+
+    private static TextPatch.Edit toEdit(MarkdownTextEdit edit) {
+        if (edit.getOffset() == null) {
+            throw new IllegalArgumentException("修改的offset不能为空");
+        }
+        return new TextPatch.Edit(edit.getOffset(), edit.getDelete() != null ? edit.getDelete() : 0, edit.getInsert());
+    }
+
     /**
      * 解析请求体中的内容
      * 支持JSON格式：{"content": "markdown内容"} 或 {"body": "markdown内容"}
@@ -3,20 +3,45 @@ package com.blog.controller;
 import com.blog.api.ImagesApi;
 import com.blog.entity.Image;
 import com.blog.exception.ImageNotFoundException;
+import com.blog.model.ImageBatchUploadResponse;
+import com.blog.model.ImageBatchUploadResult;
 import com.blog.model.ImagePageResponse;
 import com.blog.model.ImageResponse;
+import com.blog.repository.ImageSummary;
 import com.blog.service.ApiImageService;
+import com.blog.service.CachedImageContent;
+import com.blog.service.ImageCacheService;
 import com.blog.service.ImageService;
+import com.blog.service.ImageUploadOutcome;
+import com.blog.service.ImageVariantService;
+import com.blog.service.ImageVariantSpec;
+import com.blog.util.HttpFileSender;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.OffsetDateTime;
+import java.time.ZoneId;
 import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -28,18 +53,33 @@ public class ImageController implements ImagesApi {
     
     private static final Logger logger = LoggerFactory.getLogger(ImageController.class);
     
+    // 直传上传的请求体大小上限，与图片大小限制一致
+    private static final long MAX_RAW_UPLOAD_SIZE = 5 * 1024 * 1024;
+    
+    // 内容寻址地址的内容永不改变，可永久缓存
+    private static final String CACHE_CONTROL_IMMUTABLE = "public, max-age=31536000, immutable";
+    
+    // 其他地址可缓存，但使用前需以ETag重新校验
+    private static final String CACHE_CONTROL_REVALIDATE = "public, no-cache";
+    
     @Autowired
     private ImageService imageService;
 
     @Autowired
     private ApiImageService apiImageService;
 
+    @Autowired
+    private ImageVariantService imageVariantService;
+
+    @Autowired
+    private ImageCacheService imageCacheService;
+
     @Override
-    public ResponseEntity<ImagePageResponse> imagesGet(Integer page, Integer size) {
+    public ResponseEntity<ImagePageResponse> imagesGet(Integer page, Integer size, String include) {
         try {
-            logger.info("获取图片列表 - page: {}, size: {}", page, size);
+            logger.info("获取图片列表 - page: {}, size: {}, include: {}", page, size, include);
 
-            ImagePageResponse response = apiImageService.getImages(page, size);
+            ImagePageResponse response = apiImageService.getImages(page, size, include);
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             logger.error("获取图片列表失败", e);
@@ -53,7 +93,7 @@ public class ImageController implements ImagesApi {
                    file.getOriginalFilename(), description);
         try {
             Image savedImage = imageService.uploadImage(file, description);
-            ImageResponse response = convertToImageResponse(savedImage);
+            ImageResponse response = convertToImageResponse(savedImage, false);
             
             logger.info("图片上传成功: ID={}", savedImage.getId());
             return ResponseEntity.status(HttpStatus.CREATED).body(response);
@@ -68,6 +108,59 @@ public class ImageController implements ImagesApi {
         }
     }
     
+    @Override
+    public ResponseEntity<ImageBatchUploadResponse> imagesBatchPost(List<MultipartFile> files) {
+        logger.info("接收批量图片上传请求: 文件数={}", files != null ? files.size() : 0);
+        
+        List<ImageUploadOutcome> outcomes = imageService.uploadImages(files);
+        
+        ImageBatchUploadResponse response = new ImageBatchUploadResponse();
+        int succeeded = 0;
+        for (ImageUploadOutcome outcome : outcomes) {
+            ImageBatchUploadResult result = new ImageBatchUploadResult();
+            result.setIndex(outcome.getIndex());
+            result.setOriginalName(outcome.getOriginalName());
+            result.setSuccess(outcome.isSuccess());
+            if (outcome.isSuccess()) {
+                result.setImage(convertToImageResponse(outcome.getImage(), false));
+                succeeded++;
+            } else {
+                result.setError(outcome.getError());
+            }
+            response.addResultsItem(result);
+        }
+        response.setSucceeded(succeeded);
+        response.setFailed(outcomes.size() - succeeded);
+        
+        logger.info("批量图片上传完成: 成功={}, 失败={}", succeeded, outcomes.size() - succeeded);
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * 以请求体直接上传图片二进制内容
+     * 不经过multipart解析，内容从请求流单次读取写入磁盘，不产生容器临时文件
+     */
+    @PostMapping("/images/raw")
+    public ResponseEntity<ImageResponse> imagesRawPost(
+            @RequestHeader(value = "X-Filename", required = false) String encodedFilename,
+            @RequestParam(value = "description", required = false) String description,
+            HttpServletRequest request) throws IOException {
+        String originalName = encodedFilename != null
+                ? URLDecoder.decode(encodedFilename, StandardCharsets.UTF_8)
+                : null;
+        logger.info("接收图片直传请求: 文件名={}, 大小={}", originalName, request.getContentLengthLong());
+        
+        if (request.getContentLengthLong() > MAX_RAW_UPLOAD_SIZE) {
+            throw new IllegalArgumentException(
+                String.format("文件大小超过限制，最大允许 %d MB", MAX_RAW_UPLOAD_SIZE / (1024 * 1024)));
+        }
+        
+        Image savedImage = imageService.uploadImage(request.getInputStream(), originalName, description);
+        
+        logger.info("图片直传成功: ID={}", savedImage.getId());
+        return ResponseEntity.status(HttpStatus.CREATED).body(convertToImageResponse(savedImage, false));
+    }
+    
     @Override
     public ResponseEntity<ImageResponse> imagesIdGet(Long id) {
         logger.debug("获取图片信息: ID={}", id);
@@ -99,10 +192,187 @@ public class ImageController implements ImagesApi {
         return ResponseEntity.noContent().build();
     }
     
+    /**
+     * 获取图片原始二进制内容
+     * 热点图片从内存缓存发送，其余直接从磁盘流式发送，支持Range请求；指定w/h时返回缩放后的变体。
+     * 条件请求只用缓存的元数据校验，命中时直接返回304
+     */
+    @GetMapping("/images/{id}/raw")
+    public void imagesIdRawGet(@PathVariable("id") Long id,
+                               @RequestParam(value = "w", required = false) Integer width,
+                               @RequestParam(value = "h", required = false) Integer height,
+                               @RequestParam(value = "fit", required = false) String fit,
+                               @RequestParam(value = "q", required = false) Integer quality,
+                               HttpServletRequest request,
+                               HttpServletResponse response) throws IOException {
+        logger.debug("获取图片原始内容: ID={}, w={}, h={}, fit={}, q={}", id, width, height, fit, quality);
+        
+        ImageVariantSpec spec = ImageVariantSpec.fromRequest(width, height, fit, quality);
+        if (spec == null) {
+            // 热点图片直接从缓存发送，不查询数据库
+            CachedImageContent cached = imageCacheService.get(id);
+            if (cached != null) {
+                try (cached) {
+                    response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL_REVALIDATE);
+                    if (!HttpFileSender.checkNotModified(request, response, cached.getEtag(), cached.getLastModified())) {
+                        sendCachedContent(cached, request, response);
+                    }
+                }
+                return;
+            }
+        }
+        
+        ImageSummary summary = imageService.getImageSummaryById(id)
+                .orElseThrow(() -> new ImageNotFoundException(id));
+        // 按ID访问的地址不含内容哈希，允许缓存但每次使用前需重新校验
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL_REVALIDATE);
+        String etag = spec != null
+                ? "\"" + sourceTag(summary) + "-" + spec.toKey() + "\""
+                : contentEtag(summary);
+        long lastModified = lastModified(summary);
+        if (HttpFileSender.checkNotModified(request, response, etag, lastModified)) {
+            return;
+        }
+        
+        Image image = imageService.getImageById(id)
+                .orElseThrow(() -> new ImageNotFoundException(id));
+        if (spec != null) {
+            sendImageVariant(image, spec, etag, lastModified, request, response);
+            return;
+        }
+        sendImageContent(image, etag, lastModified, request, response);
+    }
+    
+    /**
+     * 根据存储文件名获取图片原始二进制内容
+     * 以内容哈希命名的文件名即内容寻址地址，内容永不改变，允许客户端永久缓存
+     */
+    @GetMapping("/images/raw/{filename:.+}")
+    public void imagesRawByFilenameGet(@PathVariable("filename") String filename,
+                                       HttpServletRequest request,
+                                       HttpServletResponse response) throws IOException {
+        logger.debug("根据文件名获取图片原始内容: {}", filename);
+        
+        ImageSummary summary = imageService.getImageSummaryByFilename(filename)
+                .orElseThrow(() -> new ImageNotFoundException("Image with filename " + filename + " not found"));
+        boolean contentAddressed = summary.getContentHash() != null && filename.startsWith(summary.getContentHash());
+        response.setHeader(HttpHeaders.CACHE_CONTROL,
+                contentAddressed ? CACHE_CONTROL_IMMUTABLE : CACHE_CONTROL_REVALIDATE);
+        String etag = contentEtag(summary);
+        long lastModified = lastModified(summary);
+        if (HttpFileSender.checkNotModified(request, response, etag, lastModified)) {
+            return;
+        }
+        
+        CachedImageContent cached = imageCacheService.get(summary.getId());
+        if (cached != null) {
+            try (cached) {
+                sendCachedContent(cached, request, response);
+            }
+            return;
+        }
+        Image image = imageService.getImageByFilename(filename)
+                .orElseThrow(() -> new ImageNotFoundException("Image with filename " + filename + " not found"));
+        sendImageContent(image, etag, lastModified, request, response);
+    }
+    
+    /**
+     * 发送缩放后的图片变体，原图不支持缩放时发送原图
+     */
+    private void sendImageVariant(Image image, ImageVariantSpec spec, String etag, long lastModified,
+                                  HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Path sourceFile = imageService.resolveImagePath(image);
+        if (!Files.isRegularFile(sourceFile)) {
+            // 尚未回填到磁盘的历史图片不做缩放
+            sendImageContent(image, etag, lastModified, request, response);
+            return;
+        }
+        
+        Path variantFile = imageVariantService.getVariant(image, sourceFile, spec);
+        if (variantFile.equals(sourceFile)) {
+            sendImageContent(image, etag, lastModified, request, response);
+            return;
+        }
+        
+        response.setHeader("X-Content-Type-Options", "nosniff");
+        String contentType = variantFile.getFileName().toString().endsWith(".png") ? "image/png" : "image/jpeg";
+        HttpFileSender.send(request, response, variantFile, contentType, etag, lastModified);
+    }
+    
+    /**
+     * 发送图片内容，磁盘文件尚未回填时回退到数据库中的Base64内容
+     */
+    private void sendImageContent(Image image, String etag, long lastModified, HttpServletRequest request,
+                                  HttpServletResponse response) throws IOException {
+        response.setHeader("X-Content-Type-Options", "nosniff");
+        
+        Path filePath = imageService.resolveImagePath(image);
+        if (Files.isRegularFile(filePath)) {
+            CachedImageContent cached = imageCacheService.load(image, filePath, etag, lastModified);
+            if (cached != null) {
+                try (cached) {
+                    sendCachedContent(cached, request, response);
+                }
+            } else {
+                HttpFileSender.send(request, response, filePath, image.getMimeType(), etag, lastModified);
+            }
+            return;
+        }
+        
+        if (image.getBase64Content() == null) {
+            logger.error("图片文件不存在: ID={}, 路径={}", image.getId(), filePath);
+            throw new ImageNotFoundException("Image file for ID " + image.getId() + " not found");
+        }
+        
+        byte[] content = Base64.getMimeDecoder().decode(imageService.loadBase64Content(image));
+        response.setContentType(image.getMimeType());
+        response.setContentLength(content.length);
+        response.getOutputStream().write(content);
+    }
+    
+    /**
+     * 图片内容的标识：内容寻址的图片使用内容哈希，历史图片使用ID（图片上传后内容不再变化）
+     */
+    private static String sourceTag(ImageSummary summary) {
+        return summary.getContentHash() != null ? summary.getContentHash() : "id" + summary.getId();
+    }
+    
+    private static String contentEtag(ImageSummary summary) {
+        return "\"" + sourceTag(summary) + "\"";
+    }
+    
+    /**
+     * 以记录的创建时间作为最后修改时间，不依赖文件的修改时间（迁移或去重时会变化）
+     */
+    private static long lastModified(ImageSummary summary) {
+        return summary.getCreatedAt() != null
+                ? summary.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                : -1;
+    }
+    
+    /**
+     * 从缓存的堆外缓冲区发送图片内容
+     */
+    private void sendCachedContent(CachedImageContent cached, HttpServletRequest request,
+                                   HttpServletResponse response) throws IOException {
+        response.setHeader("X-Content-Type-Options", "nosniff");
+        HttpFileSender.send(request, response, cached.getContent(), cached.getLastModified(),
+                cached.getMimeType(), cached.getEtag());
+    }
+    
     /**
      * 将Image实体转换为ImageResponse
      */
     private ImageResponse convertToImageResponse(Image image) {
+        return convertToImageResponse(image, true);
+    }
+    
+    /**
+     * 将Image实体转换为ImageResponse
+     *
+     * @param includeContent 是否包含Base64内容，上传响应不回传内容以免整文件读入内存
+     */
+    private ImageResponse convertToImageResponse(Image image, boolean includeContent) {
         ImageResponse response = new ImageResponse();
         response.setId(image.getId());
         response.setFilename(image.getFilename());
@@ -110,7 +380,9 @@ public class ImageController implements ImagesApi {
         response.setFilePath(image.getFilePath());
         response.setFileSize(image.getFileSize());
         response.setMimeType(image.getMimeType());
-        response.setBase64Content(image.getBase64Content());
+        if (includeContent) {
+            response.setBase64Content(imageService.loadBase64Content(image));
+        }
         
         // 转换LocalDateTime为OffsetDateTime
         if (image.getCreatedAt() != null) {
@@ -0,0 +1,69 @@
+package com.blog.controller;
+
+import com.blog.api.SearchApi;
+import com.blog.model.ArticleStatus;
+import com.blog.model.HighlightRange;
+import com.blog.model.SearchFragment;
+import com.blog.model.SearchHit;
+import com.blog.model.SearchResponse;
+import com.blog.service.SearchDocument;
+import com.blog.service.SearchService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * 全文搜索REST控制器
+ * 实现SearchApi接口，搜索结果由索引中保存的文章字段和正文片段生成
+ */
+@RestController
+@RequestMapping("/")
+public class SearchController implements SearchApi {
+
+    private static final Logger log = LoggerFactory.getLogger(SearchController.class);
+
+    private final SearchService searchService;
+
+    public SearchController(SearchService searchService) {
+        this.searchService = searchService;
+    }
+
+    @Override
+    public ResponseEntity<SearchResponse> searchGet(String q, ArticleStatus status, Integer page, Integer size) {
+        log.debug("全文搜索 - q: {}, status: {}, page: {}, size: {}", q, status, page, size);
+
+        SearchService.Result result = searchService.search(q,
+                status != null ? com.blog.entity.ArticleStatus.valueOf(status.getValue()) : null, page, size);
+
+        SearchResponse response = new SearchResponse()
+                .hits(result.hits().stream().map(SearchController::toSearchHit).toList())
+                .page(result.page())
+                .size(result.size())
+                .totalHits(result.total())
+                .totalPages((int) ((result.total() + result.size() - 1) / result.size()));
+        return ResponseEntity.ok(response);
+    }
+
+    private static SearchHit toSearchHit(SearchService.Hit hit) {
+        SearchDocument document = hit.document();
+        return new SearchHit()
+                .id(document.id())
+                .title(document.title())
+                .slug(document.slug())
+                .summary(document.summary())
+                .status(document.status() != null ? ArticleStatus.fromValue(document.status().name()) : ArticleStatus.DRAFT)
+                .tags(document.tags())
+                .score(hit.score())
+                .fragments(hit.fragments().stream().map(SearchController::toSearchFragment).toList());
+    }
+
+    private static SearchFragment toSearchFragment(SearchService.Fragment fragment) {
+        return new SearchFragment()
+                .text(fragment.text())
+                .highlights(fragment.highlights().stream()
+                        .map(highlight -> new HighlightRange().start(highlight.start()).end(highlight.end()))
+                        .toList());
+    }
+}
@@ -0,0 +1,79 @@
+package com.blog.controller;
+
+import com.blog.job.SegmentStoreMigrationJob;
+import com.blog.job.StorageLayoutMigrationJob;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * 存储管理控制器
+ * 提供存储目录布局迁移、分段存储导入的启动和进度查询
+ */
+@RestController
+public class StorageAdminController {
+
+    private static final Logger logger = LoggerFactory.getLogger(StorageAdminController.class);
+
+    private final StorageLayoutMigrationJob migrationJob;
+    private final ObjectProvider<SegmentStoreMigrationJob> segmentMigrationJob;
+
+    public StorageAdminController(StorageLayoutMigrationJob migrationJob,
+                                  ObjectProvider<SegmentStoreMigrationJob> segmentMigrationJob) {
+        this.migrationJob = migrationJob;
+        this.segmentMigrationJob = segmentMigrationJob;
+    }
+
+    /**
+     * 启动存储目录布局迁移，迁移在后台进行
+     */
+    @PostMapping("/admin/storage/migration")
+    public ResponseEntity<StorageLayoutMigrationJob.Status> startMigration() {
+        if (!migrationJob.start()) {
+            logger.warn("存储布局迁移已在进行中");
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(migrationJob.getStatus());
+        }
+        logger.info("已启动存储布局迁移");
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(migrationJob.getStatus());
+    }
+
+    /**
+     * 查询最近一次迁移的进度
+     */
+    @GetMapping("/admin/storage/migration")
+    public ResponseEntity<StorageLayoutMigrationJob.Status> getMigrationStatus() {
+        return ResponseEntity.ok(migrationJob.getStatus());
+    }
+
+    /**
+     * 启动原有Markdown文件到分段存储的导入，仅在使用分段存储时可用
+     */
+    @PostMapping("/admin/storage/segment-migration")
+    public ResponseEntity<SegmentStoreMigrationJob.Status> startSegmentMigration() {
+        SegmentStoreMigrationJob job = segmentMigrationJob.getIfAvailable();
+        if (job == null) {
+            logger.warn("未使用分段存储，无法导入");
+            return ResponseEntity.notFound().build();
+        }
+        if (!job.start()) {
+            logger.warn("分段存储导入已在进行中");
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(job.getStatus());
+        }
+        logger.info("已启动分段存储导入");
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(job.getStatus());
+    }
+
+    /**
+     * 查询最近一次分段存储导入的进度
+     */
+    @GetMapping("/admin/storage/segment-migration")
+    public ResponseEntity<SegmentStoreMigrationJob.Status> getSegmentMigrationStatus() {
+        SegmentStoreMigrationJob job = segmentMigrationJob.getIfAvailable();
+        return job != null ? ResponseEntity.ok(job.getStatus()) : ResponseEntity.notFound().build();
+    }
+}
@@ -0,0 +1,51 @@
+package com.blog.controller;
+
+import com.blog.api.SuggestApi;
+import com.blog.model.SuggestResponse;
+import com.blog.model.Suggestion;
+import com.blog.service.SuggestService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * 输入提示REST控制器
+ * 实现SuggestApi接口，提示由内存中的前缀索引生成
+ */
+@RestController
+@RequestMapping("/")
+public class SuggestController implements SuggestApi {
+
+    private static final Logger log = LoggerFactory.getLogger(SuggestController.class);
+
+    private final SuggestService suggestService;
+
+    public SuggestController(SuggestService suggestService) {
+        this.suggestService = suggestService;
+    }
+
+    @Override
+    public ResponseEntity<SuggestResponse> suggestGet(String prefix, String type, Integer limit) {
+        log.debug("输入提示 - prefix: {}, type: {}, limit: {}", prefix, type, limit);
+
+        SuggestService.Type suggestType = switch (type != null ? type : "title") {
+            case "title" -> SuggestService.Type.TITLE;
+            case "tag" -> SuggestService.Type.TAG;
+            default -> throw new IllegalArgumentException("不支持的提示类型: " + type);
+        };
+        SuggestResponse response = new SuggestResponse()
+                .suggestions(suggestService.suggest(prefix, suggestType, limit).stream()
+                        .map(SuggestController::toSuggestion)
+                        .toList());
+        return ResponseEntity.ok(response);
+    }
+
+    private static Suggestion toSuggestion(SuggestService.Suggestion suggestion) {
+        return new Suggestion()
+                .text(suggestion.text())
+                .articleId(suggestion.articleId())
+                .articleCount(suggestion.articleCount());
+    }
+}
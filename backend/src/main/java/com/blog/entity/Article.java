@@ -36,6 +36,14 @@ public class Article {
     @Column(name = "content_path", nullable = false)
     private String contentPath;
     
+    // 最近一次经本服务写入的Markdown内容的SHA-256（十六进制）和字节长度，用于跳过未修改的保存和生成ETag
+    @Size(max = 64)
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+    
+    @Column(name = "content_length")
+    private Long contentLength;
+    
     @Enumerated(EnumType.STRING)
     @Column(length = 20)
     private ArticleStatus status = ArticleStatus.DRAFT;
@@ -114,6 +122,22 @@ public class Article {
         this.contentPath = contentPath;
     }
     
+    public String getContentHash() {
+        return contentHash;
+    }
+    
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+    
+    public Long getContentLength() {
+        return contentLength;
+    }
+    
+    public void setContentLength(Long contentLength) {
+        this.contentLength = contentLength;
+    }
+    
     public ArticleStatus getStatus() {
         return status;
     }
@@ -11,7 +11,9 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "images")
+@Table(name = "images", indexes = {
+    @Index(name = "uk_images_content_hash", columnList = "content_hash", unique = true)
+})
 public class Image {
     
     @Id
@@ -42,6 +44,12 @@ public class Image {
     @Column(name = "mime_type", nullable = false)
     private String mimeType;
     
+    // 图片内容的SHA-256（十六进制），用于内容寻址存储和上传去重
+    @Size(max = 64)
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+    
+    // 历史数据列：新上传的图片不再写入，由回填任务迁移到磁盘后即可删除
     @Column(name = "base64_content", columnDefinition = "TEXT")
     private String base64Content;
     
@@ -120,6 +128,14 @@ public class Image {
         this.base64Content = base64Content;
     }
     
+    public String getContentHash() {
+        return contentHash;
+    }
+    
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+    
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -0,0 +1,15 @@
+package com.blog.event;
+
+/**
+ * 文章元数据变化事件，在事务提交后处理
+ *
+ * @param articleId 文章ID
+ * @param kind 变化类型
+ */
+public record ArticleChangedEvent(Long articleId, Kind kind) {
+
+    public enum Kind {
+        SAVED,
+        DELETED
+    }
+}
@@ -0,0 +1,26 @@
+package com.blog.event;
+
+import com.blog.util.ContentFingerprint;
+
+/**
+ * Markdown文件变化事件
+ *
+ * @param path 相对于Markdown根目录的路径
+ * @param kind 变化类型
+ * @param fingerprint 写入内容的指纹，删除时为null
+ * @param external 是否为绕过本服务的修改（由目录监听发现）
+ */
+public record MarkdownFileChangedEvent(String path, Kind kind, ContentFingerprint fingerprint, boolean external) {
+
+    /**
+     * 经本服务写入或删除的文件
+     */
+    public MarkdownFileChangedEvent(String path, Kind kind, ContentFingerprint fingerprint) {
+        this(path, kind, fingerprint, false);
+    }
+
+    public enum Kind {
+        WRITTEN,
+        DELETED
+    }
+}
@@ -49,6 +49,42 @@ public class GlobalExceptionHandler {
         );
     }
 
+    @ExceptionHandler(ServiceBusyException.class)
+    public ResponseEntity<Map<String, Object>> handleServiceBusyException(
+            ServiceBusyException ex, WebRequest request) {
+        return buildErrorResponse(
+                "SERVICE_BUSY",
+                ex.getMessage(),
+                "服务繁忙，请稍后重试",
+                HttpStatus.SERVICE_UNAVAILABLE,
+                request.getDescription(false).replace("uri=", "")
+        );
+    }
+
+    @ExceptionHandler(VersionConflictException.class)
+    public ResponseEntity<Map<String, Object>> handleVersionConflictException(
+            VersionConflictException ex, WebRequest request) {
+        return buildErrorResponse(
+                "VERSION_CONFLICT",
+                ex.getMessage(),
+                "内容已被修改，请重新获取后再提交",
+                HttpStatus.CONFLICT,
+                request.getDescription(false).replace("uri=", "")
+        );
+    }
+
+    @ExceptionHandler(PayloadTooLargeException.class)
+    public ResponseEntity<Map<String, Object>> handlePayloadTooLargeException(
+            PayloadTooLargeException ex, WebRequest request) {
+        return buildErrorResponse(
+                "PAYLOAD_TOO_LARGE",
+                ex.getMessage(),
+                "请求内容过大",
+                HttpStatus.PAYLOAD_TOO_LARGE,
+                request.getDescription(false).replace("uri=", "")
+        );
+    }
+
     @ExceptionHandler(ValidationException.class)
     public ResponseEntity<Map<String, Object>> handleValidationException(
             ValidationException ex, WebRequest request) {
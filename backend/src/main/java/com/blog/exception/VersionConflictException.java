@@ -0,0 +1,8 @@
+package com.blog.exception;
+
+public class VersionConflictException extends RuntimeException {
+    
+    public VersionConflictException(String message) {
+        super(message);
+    }
+}
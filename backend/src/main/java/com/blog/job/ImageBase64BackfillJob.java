@@ -0,0 +1,122 @@
+package com.blog.job;
+
+import com.blog.entity.Image;
+import com.blog.repository.ImageRepository;
+import com.blog.service.ImageService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * 图片Base64数据回填任务
+ * 分批将images.base64_content中的历史数据落盘，并清空该列，
+ * 全部完成后base64_content列即可删除
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.image.backfill", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ImageBase64BackfillJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageBase64BackfillJob.class);
+
+    private final ImageRepository imageRepository;
+    private final ImageService imageService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.image.storage.path:data/images}")
+    private String imageStoragePath;
+
+    @Value("${app.image.backfill.batch-size:50}")
+    private int batchSize;
+
+    // 本轮扫描的游标，扫描到末尾后归零重新开始
+    private long lastProcessedId = 0;
+
+    public ImageBase64BackfillJob(ImageRepository imageRepository, ImageService imageService,
+                                  PlatformTransactionManager transactionManager) {
+        this.imageRepository = imageRepository;
+        this.imageService = imageService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * 每次调度处理一批图片，每张图片独立事务，单张失败不影响其他图片
+     */
+    @Scheduled(initialDelayString = "${app.image.backfill.initial-delay:30000}",
+               fixedDelayString = "${app.image.backfill.interval:10000}")
+    public void backfillBatch() {
+        List<Long> ids = imageRepository.findIdsWithBase64ContentAfter(lastProcessedId, PageRequest.of(0, batchSize));
+        if (ids.isEmpty()) {
+            if (lastProcessedId > 0) {
+                logger.info("图片Base64回填完成一轮扫描");
+                lastProcessedId = 0;
+            }
+            return;
+        }
+
+        int migrated = 0;
+        for (Long id : ids) {
+            lastProcessedId = id;
+            try {
+                Boolean done = transactionTemplate.execute(status -> backfillImage(id));
+                if (Boolean.TRUE.equals(done)) {
+                    migrated++;
+                }
+            } catch (Exception e) {
+                logger.warn("图片Base64回填失败，稍后重试: ID={}, {}", id, e.getMessage());
+            }
+        }
+        logger.info("图片Base64回填批次完成: 成功={}, 批次大小={}", migrated, ids.size());
+    }
+
+    private boolean backfillImage(Long id) {
+        Image image = imageRepository.findById(id).orElse(null);
+        if (image == null || image.getBase64Content() == null) {
+            return false;
+        }
+
+        byte[] content = Base64.getMimeDecoder().decode(imageService.loadBase64Content(image));
+
+        try {
+            Path currentPath = imageService.resolveImagePath(image);
+            boolean onDisk = Files.isRegularFile(currentPath) && Files.size(currentPath) == content.length;
+            if (!onDisk) {
+                Path storageDir = Paths.get(imageStoragePath);
+                Path target = imageService.getLayoutPath(image.getContentHash(), image.getFilename());
+                Files.createDirectories(target.getParent());
+
+                // 先写临时文件再原子替换，避免读者看到半个文件
+                Path tempFile = Files.createTempFile(storageDir, ".backfill-", ".tmp");
+                try {
+                    Files.write(tempFile, content);
+                    Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } finally {
+                    Files.deleteIfExists(tempFile);
+                }
+
+                image.setFilePath(target.toString());
+                image.setFileSize((long) content.length);
+                logger.debug("图片内容已回填到磁盘: ID={}, 路径={}", id, target);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("写入图片文件失败: " + e.getMessage(), e);
+        }
+
+        image.setBase64Content(null);
+        imageRepository.save(image);
+        return true;
+    }
+}
@@ -0,0 +1,418 @@
+package com.blog.job;
+
+import com.blog.config.ManifestProperties;
+import com.blog.config.StorageProperties;
+import com.blog.config.WatcherProperties;
+import com.blog.event.MarkdownFileChangedEvent;
+import com.blog.service.MarkdownFileEntry;
+import com.blog.service.MarkdownManifestService;
+import com.blog.util.ContentFingerprint;
+import com.blog.util.StorageBackend;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Markdown目录监听
+ * 在独立线程中监听Markdown目录树，发现脚本、rsync等绕过本服务的修改后发布外部文件变化事件，
+ * 由各监听方失效内容缓存、更新文章的内容指纹和文件清单。
+ * 同一文件的连续变化在静默期后合并为一次；待处理文件过多或事件队列溢出时改为按目录重新扫描，
+ * 每批处理的数量和批间间隔受限，大量外部修改只会延后处理而不会压垮应用。
+ * 与文件清单记录的大小、修改时间一致的文件（如经本服务写入的文件）不会重复发布
+ */
+@Component
+public class MarkdownFileWatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(MarkdownFileWatcher.class);
+
+    private final Path markdownRoot;
+    private final StorageBackend storageBackend;
+    private final WatcherProperties properties;
+    private final ManifestProperties manifestProperties;
+    private final MarkdownManifestService manifestService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final Counter writtenCounter;
+    private final Counter deletedCounter;
+    private final Counter rescanCounter;
+    private final AtomicInteger pendingCount = new AtomicInteger();
+
+    // 以下状态仅由监听线程访问
+    // 待处理的文件及其最后一次变化的时间，按最后一次变化的先后排列
+    private final LinkedHashMap<String, Long> pendingFiles = new LinkedHashMap<>();
+    private final LinkedHashSet<Path> dirtyDirectories = new LinkedHashSet<>();
+    private final Set<Path> registeredDirectories = new HashSet<>();
+    private long nextBatchAt;
+
+    private volatile WatchService watchService;
+    private Thread worker;
+
+    public MarkdownFileWatcher(StorageProperties storageProperties, WatcherProperties properties,
+                               ManifestProperties manifestProperties, MarkdownManifestService manifestService,
+                               ApplicationEventPublisher eventPublisher, MeterRegistry meterRegistry) {
+        this.markdownRoot = Paths.get(storageProperties.getMarkdownPath()).toAbsolutePath().normalize();
+        this.storageBackend = storageProperties.getBackend();
+        this.properties = properties;
+        this.manifestProperties = manifestProperties;
+        this.manifestService = manifestService;
+        this.eventPublisher = eventPublisher;
+
+        this.writtenCounter = Counter.builder("blog.markdown.watcher.changes")
+                .description("目录监听发现的外部修改数")
+                .tag("kind", "written")
+                .register(meterRegistry);
+        this.deletedCounter = Counter.builder("blog.markdown.watcher.changes")
+                .description("目录监听发现的外部修改数")
+                .tag("kind", "deleted")
+                .register(meterRegistry);
+        this.rescanCounter = Counter.builder("blog.markdown.watcher.rescans")
+                .description("目录监听按目录重新扫描的次数")
+                .register(meterRegistry);
+        Gauge.builder("blog.markdown.watcher.pending", pendingCount, AtomicInteger::get)
+                .description("目录监听待处理的文件和目录数")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        if (storageBackend != StorageBackend.FILES) {
+            // 分段存储的内容不在Markdown目录下，外部修改无从发生
+            return;
+        }
+        if (!manifestProperties.isEnabled()) {
+            // 判断文件是否被外部修改依赖文件清单中记录的属性
+            logger.warn("文件清单未启用，不监听Markdown目录");
+            return;
+        }
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+        } catch (IOException e) {
+            logger.warn("无法创建目录监听，绕过本服务的修改不会被发现: {}", e.getMessage());
+            return;
+        }
+        worker = new Thread(this::run, "markdown-watcher");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    void stop() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+
+    /**
+     * 注册目录树后处理目录变化，直到监听被关闭
+     */
+    private void run() {
+        // 启动前的修改由文件清单的初次扫描发现，无需重新扫描
+        registerTree(markdownRoot, false);
+        nextBatchAt = System.nanoTime();
+        logger.info("开始监听Markdown目录: {}, 目录数={}", markdownRoot, registeredDirectories.size());
+        try {
+            while (true) {
+                WatchKey key = nextKey();
+                while (key != null) {
+                    handle(key);
+                    key = watchService.poll();
+                }
+                // 初次扫描完成前无法判断文件是否变化，先积累待处理的变化
+                if (manifestService.isReady()) {
+                    try {
+                        processBatch();
+                    } catch (RuntimeException e) {
+                        logger.error("处理Markdown目录变化失败", e);
+                    }
+                }
+                pendingCount.set(pendingFiles.size() + dirtyDirectories.size());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // 应用关闭
+        }
+    }
+
+    /**
+     * 等待下一个目录变化，有待处理的变化时最多等到其可以处理为止
+     */
+    private WatchKey nextKey() throws InterruptedException {
+        if (pendingFiles.isEmpty() && dirtyDirectories.isEmpty()) {
+            return watchService.take();
+        }
+        long now = System.nanoTime();
+        long dueAt;
+        if (!manifestService.isReady()) {
+            dueAt = now + properties.getQuietPeriod().toNanos();
+        } else if (!dirtyDirectories.isEmpty()) {
+            dueAt = nextBatchAt;
+        } else {
+            long oldest = pendingFiles.values().iterator().next();
+            dueAt = Math.max(oldest + properties.getQuietPeriod().toNanos(), nextBatchAt);
+        }
+        long waitNanos = dueAt - now;
+        return waitNanos > 0 ? watchService.poll(waitNanos, TimeUnit.NANOSECONDS) : watchService.poll();
+    }
+
+    private void handle(WatchKey key) {
+        Path directory = (Path) key.watchable();
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                // 事件队列溢出，丢失的变化只能通过重新扫描该目录发现
+                logger.warn("目录监听事件溢出，重新扫描目录: {}", directory);
+                dirtyDirectories.add(directory);
+                continue;
+            }
+            Path child = directory.resolve((Path) event.context());
+            if (isHidden(child)) {
+                continue;
+            }
+            if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE
+                    && Files.isDirectory(child, LinkOption.NOFOLLOW_LINKS)) {
+                // 新目录注册前已写入的文件不会产生事件，注册后逐个目录重新扫描
+                registerTree(child, true);
+            } else if (isMarkdown(child)) {
+                addPending(markdownRoot.relativize(child).toString());
+            } else if (event.kind() == StandardWatchEventKinds.ENTRY_DELETE && registeredDirectories.contains(child)) {
+                // 整个目录被删除或移走时，其中的文件不会各自产生事件
+                dirtyDirectories.add(child);
+            }
+        }
+        if (!key.reset()) {
+            registeredDirectories.remove(directory);
+        }
+    }
+
+    private void addPending(String path) {
+        pendingFiles.remove(path);
+        pendingFiles.put(path, System.nanoTime());
+        if (pendingFiles.size() > properties.getMaxPending()) {
+            // 大量修改（如整目录同步）时不再逐个跟踪文件，改为重新扫描涉及的目录
+            logger.warn("待处理的Markdown文件超过{}个，改为按目录重新扫描", properties.getMaxPending());
+            for (String pending : pendingFiles.keySet()) {
+                dirtyDirectories.add(markdownRoot.resolve(pending).getParent());
+            }
+            pendingFiles.clear();
+        }
+    }
+
+    /**
+     * 处理一批已过静默期的文件和待重新扫描的目录
+     */
+    private void processBatch() {
+        long now = System.nanoTime();
+        if (now - nextBatchAt < 0) {
+            return;
+        }
+        long quietNanos = properties.getQuietPeriod().toNanos();
+        int budget = properties.getBatchSize();
+
+        Iterator<Map.Entry<String, Long>> files = pendingFiles.entrySet().iterator();
+        while (budget > 0 && files.hasNext()) {
+            Map.Entry<String, Long> pending = files.next();
+            if (now - pending.getValue() < quietNanos) {
+                break;
+            }
+            files.remove();
+            sync(pending.getKey());
+            budget--;
+        }
+
+        Iterator<Path> directories = dirtyDirectories.iterator();
+        while (budget > 0 && directories.hasNext()) {
+            Path directory = directories.next();
+            directories.remove();
+            rescan(directory);
+            budget--;
+        }
+
+        if (budget < properties.getBatchSize()) {
+            nextBatchAt = System.nanoTime() + properties.getBatchPause().toNanos();
+        }
+    }
+
+    /**
+     * 比对单个文件与清单中的记录，有变化时发布事件
+     */
+    private void sync(String path) {
+        sync(path, manifestService.get(path).orElse(null));
+    }
+
+    private void sync(String path, MarkdownFileEntry known) {
+        Path file = markdownRoot.resolve(path);
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+            if (!attributes.isRegularFile()) {
+                return;
+            }
+            if (known != null && known.contentHash() != null && known.size() == attributes.size()
+                    && known.lastModified() == attributes.lastModifiedTime().toMillis()) {
+                return;
+            }
+            ContentFingerprint fingerprint = ContentFingerprint.of(Files.readAllBytes(file));
+            publish(path, MarkdownFileChangedEvent.Kind.WRITTEN, fingerprint);
+        } catch (NoSuchFileException e) {
+            if (known != null) {
+                publish(path, MarkdownFileChangedEvent.Kind.DELETED, null);
+            }
+        } catch (IOException e) {
+            logger.warn("读取外部修改的文件失败: {}, {}", path, e.getMessage());
+        }
+    }
+
+    /**
+     * 重新扫描单个目录（不含子目录）：比对目录中的文件与清单中的记录，
+     * 新出现的子目录注册后留待后续批次扫描；目录已不存在时其下所有文件视为删除
+     */
+    private void rescan(Path directory) {
+        rescanCounter.increment();
+        String relative = markdownRoot.relativize(directory).toString();
+        if (!Files.isDirectory(directory, LinkOption.NOFOLLOW_LINKS)) {
+            registeredDirectories.remove(directory);
+            publishSubtreeDeleted(relative);
+            return;
+        }
+
+        Map<String, MarkdownFileEntry> known = new HashMap<>();
+        for (MarkdownFileEntry entry : manifestService.listDirectory(relative)) {
+            known.put(entry.path(), entry);
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path child : stream) {
+                if (isHidden(child)) {
+                    continue;
+                }
+                if (Files.isDirectory(child, LinkOption.NOFOLLOW_LINKS)) {
+                    if (!registeredDirectories.contains(child)) {
+                        registerTree(child, true);
+                    }
+                } else if (isMarkdown(child)) {
+                    String path = markdownRoot.relativize(child).toString();
+                    sync(path, known.remove(path));
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("重新扫描目录失败: {}, {}", directory, e.getMessage());
+            return;
+        }
+        for (String path : known.keySet()) {
+            sync(path, known.get(path));
+        }
+    }
+
+    private void publishSubtreeDeleted(String directory) {
+        String prefix = directory + File.separator;
+        String after = prefix;
+        while (true) {
+            MarkdownManifestService.Page page = manifestService.list(after, properties.getBatchSize());
+            for (MarkdownFileEntry entry : page.items()) {
+                if (!entry.path().startsWith(prefix)) {
+                    return;
+                }
+                publish(entry.path(), MarkdownFileChangedEvent.Kind.DELETED, null);
+            }
+            if (page.nextCursor() == null) {
+                return;
+            }
+            after = page.nextCursor();
+        }
+    }
+
+    private void publish(String path, MarkdownFileChangedEvent.Kind kind, ContentFingerprint fingerprint) {
+        (kind == MarkdownFileChangedEvent.Kind.DELETED ? deletedCounter : writtenCounter).increment();
+        try {
+            eventPublisher.publishEvent(new MarkdownFileChangedEvent(path, kind, fingerprint, true));
+        } catch (RuntimeException e) {
+            logger.error("处理外部文件变化事件失败: {}", path, e);
+        }
+    }
+
+    /**
+     * 注册目录及其所有子目录
+     *
+     * @param rescan 是否安排重新扫描新注册的目录，以发现注册前已写入的文件
+     */
+    private void registerTree(Path directory, boolean rescan) {
+        try {
+            Files.walkFileTree(directory, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attributes) {
+                    if (!dir.equals(markdownRoot) && isHidden(dir)) {
+                        return FileVisitResult.SKIP_SUBTREE;
+                    }
+                    if (register(dir) && rescan) {
+                        dirtyDirectories.add(dir);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException e) {
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            logger.warn("注册目录监听失败: {}, {}", directory, e.getMessage());
+        }
+    }
+
+    /**
+     * @return 是否为新注册的目录
+     */
+    private boolean register(Path directory) {
+        try {
+            directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_DELETE,
+                    StandardWatchEventKinds.ENTRY_MODIFY);
+            return registeredDirectories.add(directory);
+        } catch (IOException e) {
+            // 如达到系统的监听数量上限，该目录下的外部修改不会被发现
+            logger.warn("无法监听目录: {}, {}", directory, e.getMessage());
+            return false;
+        }
+    }
+
+    private static boolean isMarkdown(Path file) {
+        return file.getFileName().toString().toLowerCase().endsWith(".md");
+    }
+
+    private static boolean isHidden(Path path) {
+        return path.getFileName().toString().startsWith(".");
+    }
+}
@@ -0,0 +1,370 @@
+package com.blog.job;
+
+import com.blog.repository.ArticleRepository;
+import com.blog.repository.ImageRepository;
+import com.blog.repository.ImageSummary;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * 孤儿文件回收任务
+ * 分页遍历图片和Markdown存储目录，与数据库中的引用逐页比对，
+ * 无引用的文件先移入隔离目录，超过保留期后再删除；两侧都按页流式处理，不加载完整列表
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.reclaim", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class OrphanFileReclaimJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrphanFileReclaimJob.class);
+
+    // 隔离目录名，位于各存储根目录下，保留文件原有的相对路径
+    static final String QUARANTINE_DIR = ".quarantine";
+
+    private final ImageRepository imageRepository;
+    private final ArticleRepository articleRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.image.storage.path:data/images}")
+    private String imageStoragePath;
+
+    @Value("${blog.storage.markdown-path:./data/markdown}")
+    private String markdownPath;
+
+    @Value("${app.reclaim.page-size:200}")
+    private int pageSize;
+
+    @Value("${app.reclaim.page-pause:100}")
+    private long pagePauseMillis;
+
+    @Value("${app.reclaim.max-files-per-run:1000}")
+    private int maxFilesPerRun;
+
+    @Value("${app.reclaim.min-age:PT1H}")
+    private Duration minAge;
+
+    @Value("${app.reclaim.quarantine-retention:P7D}")
+    private Duration quarantineRetention;
+
+    public OrphanFileReclaimJob(ImageRepository imageRepository, ArticleRepository articleRepository,
+                                MeterRegistry meterRegistry) {
+        this.imageRepository = imageRepository;
+        this.articleRepository = articleRepository;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * 执行一轮回收：隔离孤儿文件、删除过期的隔离文件
+     * 图片记录本身不在回收范围：文章与图片的关联(article_images)没有维护，无法判断记录是否仍被引用
+     */
+    @Scheduled(initialDelayString = "${app.reclaim.initial-delay:300000}",
+               fixedDelayString = "${app.reclaim.interval:3600000}")
+    public void reclaim() {
+        Path markdownRoot = Paths.get(markdownPath).toAbsolutePath().normalize();
+        List<Store> stores = List.of(
+                new Store("images", Paths.get(imageStoragePath).toAbsolutePath().normalize(),
+                        OrphanFileReclaimJob::isImageCandidate, this::referencedImages),
+                new Store("markdown", markdownRoot,
+                        OrphanFileReclaimJob::isMarkdownCandidate, files -> referencedMarkdown(markdownRoot, files)));
+
+        try {
+            int[] budget = {maxFilesPerRun};
+            for (Store store : stores) {
+                quarantineOrphans(store, budget);
+            }
+            for (Store store : stores) {
+                purgeQuarantine(store, budget);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("孤儿文件回收被中断");
+        } catch (IOException | RuntimeException e) {
+            logger.error("孤儿文件回收失败", e);
+        }
+    }
+
+    /**
+     * 分页遍历存储目录，把无引用的旧文件移入隔离目录
+     */
+    private void quarantineOrphans(Store store, int[] budget) throws IOException, InterruptedException {
+        if (!Files.isDirectory(store.root()) || budget[0] <= 0) {
+            return;
+        }
+        Path quarantineRoot = store.root().resolve(QUARANTINE_DIR);
+        FileTime cutoff = FileTime.from(Instant.now().minus(minAge));
+        List<Path> page = new ArrayList<>(pageSize);
+
+        walk(store.root(), quarantineRoot, (file, attrs) -> {
+            if (!store.candidate().test(file) || attrs.lastModifiedTime().compareTo(cutoff) > 0) {
+                return true;
+            }
+            page.add(file);
+            if (page.size() >= pageSize) {
+                budget[0] -= quarantinePage(store, quarantineRoot, page);
+                page.clear();
+                pause();
+            }
+            return budget[0] > 0;
+        });
+        if (!page.isEmpty()) {
+            budget[0] -= quarantinePage(store, quarantineRoot, page);
+        }
+    }
+
+    private int quarantinePage(Store store, Path quarantineRoot, List<Path> page) {
+        Set<Path> referenced = store.referenceCheck().apply(page);
+        List<Path[]> moved = new ArrayList<>();
+        for (Path file : page) {
+            if (referenced.contains(file)) {
+                continue;
+            }
+            Path target = quarantineRoot.resolve(store.root().relativize(file));
+            try {
+                Files.createDirectories(target.getParent());
+                Files.move(file, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                // 以移入时间作为保留期的起点
+                Files.setLastModifiedTime(target, FileTime.from(Instant.now()));
+                moved.add(new Path[]{file, target});
+            } catch (IOException e) {
+                logger.warn("隔离孤儿文件失败: {}, {}", file, e.getMessage());
+            }
+        }
+        if (moved.isEmpty()) {
+            return 0;
+        }
+
+        // 比对与移动之间可能有新记录引用了该文件，再检查一次并恢复
+        Set<Path> nowReferenced = store.referenceCheck().apply(moved.stream().map(pair -> pair[0]).toList());
+        int quarantined = 0;
+        for (Path[] pair : moved) {
+            if (nowReferenced.contains(pair[0])) {
+                restore(store, pair[1], pair[0]);
+            } else {
+                quarantined++;
+                logger.debug("孤儿文件已隔离: {}", pair[0]);
+            }
+        }
+        counter("blog.storage.reclaim.files", store, "quarantined").increment(quarantined);
+        if (quarantined > 0) {
+            logger.info("隔离孤儿文件: 存储={}, 数量={}", store.name(), quarantined);
+        }
+        return quarantined;
+    }
+
+    /**
+     * 删除超过保留期的隔离文件；若原路径在此期间重新被引用则恢复
+     */
+    private void purgeQuarantine(Store store, int[] budget) throws IOException, InterruptedException {
+        Path quarantineRoot = store.root().resolve(QUARANTINE_DIR);
+        if (!Files.isDirectory(quarantineRoot) || budget[0] <= 0) {
+            return;
+        }
+        FileTime cutoff = FileTime.from(Instant.now().minus(quarantineRetention));
+        List<Path> page = new ArrayList<>(pageSize);
+
+        walk(quarantineRoot, null, (file, attrs) -> {
+            if (attrs.lastModifiedTime().compareTo(cutoff) > 0) {
+                return true;
+            }
+            page.add(file);
+            if (page.size() >= pageSize) {
+                budget[0] -= purgePage(store, quarantineRoot, page);
+                page.clear();
+                pause();
+            }
+            return budget[0] > 0;
+        });
+        if (!page.isEmpty()) {
+            budget[0] -= purgePage(store, quarantineRoot, page);
+        }
+    }
+
+    private int purgePage(Store store, Path quarantineRoot, List<Path> page) {
+        List<Path> originals = page.stream()
+                .map(file -> store.root().resolve(quarantineRoot.relativize(file)))
+                .toList();
+        Set<Path> referenced = store.referenceCheck().apply(originals);
+
+        int deleted = 0;
+        long bytes = 0;
+        for (int i = 0; i < page.size(); i++) {
+            Path file = page.get(i);
+            Path original = originals.get(i);
+            if (referenced.contains(original)) {
+                restore(store, file, original);
+                continue;
+            }
+            try {
+                long size = Files.size(file);
+                Files.delete(file);
+                deleted++;
+                bytes += size;
+            } catch (IOException e) {
+                logger.warn("删除隔离文件失败: {}, {}", file, e.getMessage());
+            }
+        }
+
+        counter("blog.storage.reclaim.files", store, "deleted").increment(deleted);
+        Counter.builder("blog.storage.reclaim.bytes")
+                .description("孤儿文件回收释放的字节数")
+                .baseUnit("bytes")
+                .tag("store", store.name())
+                .register(meterRegistry)
+                .increment(bytes);
+        if (deleted > 0) {
+            logger.info("删除过期隔离文件: 存储={}, 数量={}, 释放字节={}", store.name(), deleted, bytes);
+        }
+        return deleted;
+    }
+
+    private void restore(Store store, Path quarantined, Path original) {
+        try {
+            if (!Files.exists(original)) {
+                Files.createDirectories(original.getParent());
+                Files.move(quarantined, original, StandardCopyOption.ATOMIC_MOVE);
+            } else {
+                Files.delete(quarantined);
+            }
+            counter("blog.storage.reclaim.files", store, "restored").increment();
+            logger.info("文件重新被引用，已从隔离目录恢复: {}", original);
+        } catch (IOException e) {
+            logger.warn("恢复隔离文件失败: {}, {}", quarantined, e.getMessage());
+        }
+    }
+
+    /**
+     * 找出被图片记录引用的文件：按文件名查询，再比对记录中的完整路径
+     */
+    private Set<Path> referencedImages(List<Path> files) {
+        Set<String> filenames = new HashSet<>();
+        for (Path file : files) {
+            filenames.add(file.getFileName().toString());
+        }
+        Set<Path> candidates = new HashSet<>(files);
+        Set<Path> referenced = new HashSet<>();
+        for (ImageSummary image : imageRepository.findSummariesByFilenameIn(filenames)) {
+            if (image.getFilePath() != null) {
+                Path path = Paths.get(image.getFilePath()).toAbsolutePath().normalize();
+                if (candidates.contains(path)) {
+                    referenced.add(path);
+                }
+            }
+        }
+        return referenced;
+    }
+
+    /**
+     * 找出被文章引用的Markdown文件（文章中保存的是相对于根目录的路径）
+     */
+    private Set<Path> referencedMarkdown(Path root, List<Path> files) {
+        List<String> relativePaths = files.stream()
+                .map(file -> root.relativize(file).toString().replace(File.separatorChar, '/'))
+                .toList();
+        Set<Path> referenced = new HashSet<>();
+        for (String contentPath : articleRepository.findExistingContentPaths(relativePaths)) {
+            referenced.add(root.resolve(contentPath).normalize());
+        }
+        return referenced;
+    }
+
+    /**
+     * 深度优先遍历目录，跳过隔离目录；访问函数返回false时提前结束
+     */
+    private void walk(Path root, Path skipDir, FileVisitor visitor) throws IOException, InterruptedException {
+        InterruptedException[] interrupted = new InterruptedException[1];
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                return dir.equals(skipDir) ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (!attrs.isRegularFile()) {
+                    return FileVisitResult.CONTINUE;
+                }
+                try {
+                    return visitor.visit(file, attrs) ? FileVisitResult.CONTINUE : FileVisitResult.TERMINATE;
+                } catch (InterruptedException e) {
+                    interrupted[0] = e;
+                    return FileVisitResult.TERMINATE;
+                }
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                // 遍历期间被删除的文件直接跳过
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        if (interrupted[0] != null) {
+            throw interrupted[0];
+        }
+    }
+
+    private void pause() throws InterruptedException {
+        if (pagePauseMillis > 0) {
+            Thread.sleep(pagePauseMillis);
+        }
+    }
+
+    private Counter counter(String name, Store store, String action) {
+        return Counter.builder(name)
+                .description("孤儿文件回收处理的文件数")
+                .tag("store", store.name())
+                .tag("action", action)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 图片目录中除临时文件外的所有文件都应有记录引用，残留的临时文件同样视为孤儿
+     */
+    private static boolean isImageCandidate(Path file) {
+        String name = file.getFileName().toString();
+        return !name.startsWith(".") || name.endsWith(".tmp");
+    }
+
+    /**
+     * Markdown目录中只处理.md文件和残留的临时文件，其他文件（如索引）不在回收范围
+     */
+    private static boolean isMarkdownCandidate(Path file) {
+        String name = file.getFileName().toString();
+        return name.startsWith(".") ? name.endsWith(".tmp") : name.endsWith(".md");
+    }
+
+    @FunctionalInterface
+    private interface FileVisitor {
+        boolean visit(Path file, BasicFileAttributes attrs) throws InterruptedException;
+    }
+
+    /**
+     * 一个存储目录及其引用检查方式
+     */
+    private record Store(String name, Path root, Predicate<Path> candidate,
+                         Function<List<Path>, Set<Path>> referenceCheck) {
+    }
+}
@@ -0,0 +1,164 @@
+package com.blog.job;
+
+import com.blog.config.StorageProperties;
+import com.blog.service.impl.SegmentFileService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 分段存储导入任务
+ * 切换到分段存储后，把Markdown目录下每篇一个的原有文件按原相对路径导入段文件，数据库中的路径不变。
+ * 导入期间读取仍可回退到原有文件，已被写入新版本的文章跳过；原有文件保留，确认无误后可手动删除
+ */
+@Component
+@ConditionalOnProperty(prefix = "blog.storage", name = "backend", havingValue = "segment")
+public class SegmentStoreMigrationJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(SegmentStoreMigrationJob.class);
+
+    private final SegmentFileService segmentFileService;
+    private final Path markdownRoot;
+
+    @Value("${blog.storage.migration.batch-size:100}")
+    private int batchSize;
+
+    @Value("${blog.storage.migration.batch-pause:200}")
+    private long batchPauseMillis;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final AtomicLong imported = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+
+    public SegmentStoreMigrationJob(SegmentFileService segmentFileService, StorageProperties storageProperties) {
+        this.segmentFileService = segmentFileService;
+        this.markdownRoot = Paths.get(storageProperties.getMarkdownPath()).toAbsolutePath().normalize();
+    }
+
+    /**
+     * 导入进度
+     */
+    public record Status(boolean running, long imported, long skipped, long failed,
+                         LocalDateTime startedAt, LocalDateTime finishedAt) {
+    }
+
+    /**
+     * 在后台线程中启动导入
+     *
+     * @return 已有导入在运行时返回false
+     */
+    public boolean start() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        Thread worker = new Thread(this::runMigration, "segment-store-migration");
+        worker.setDaemon(true);
+        worker.start();
+        return true;
+    }
+
+    /**
+     * 在当前线程中执行导入，完成后返回结果
+     *
+     * @throws IllegalStateException 已有导入在运行时
+     */
+    public Status migrate() {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("分段存储导入正在进行中");
+        }
+        runMigration();
+        return getStatus();
+    }
+
+    public Status getStatus() {
+        return new Status(running.get(), imported.get(), skipped.get(), failed.get(), startedAt, finishedAt);
+    }
+
+    private void runMigration() {
+        imported.set(0);
+        skipped.set(0);
+        failed.set(0);
+        startedAt = LocalDateTime.now();
+        finishedAt = null;
+        logger.info("开始导入Markdown文件到分段存储: {}", markdownRoot);
+        try {
+            if (Files.isDirectory(markdownRoot)) {
+                Files.walkFileTree(markdownRoot, new SimpleFileVisitor<>() {
+                    @Override
+                    public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attributes) {
+                        // 隔离区和临时目录不导入
+                        if (!dir.equals(markdownRoot) && dir.getFileName().toString().startsWith(".")) {
+                            return FileVisitResult.SKIP_SUBTREE;
+                        }
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    @Override
+                    public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) throws IOException {
+                        String name = file.getFileName().toString();
+                        if (attributes.isRegularFile() && !name.startsWith(".") && name.toLowerCase().endsWith(".md")) {
+                            importFile(file);
+                        }
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    @Override
+                    public FileVisitResult visitFileFailed(Path file, IOException e) {
+                        return FileVisitResult.CONTINUE;
+                    }
+                });
+            }
+            segmentFileService.sync();
+            logger.info("分段存储导入完成: 导入={}, 跳过={}, 失败={}", imported.get(), skipped.get(), failed.get());
+        } catch (IOException e) {
+            if (Thread.currentThread().isInterrupted()) {
+                logger.warn("分段存储导入被中断");
+            } else {
+                logger.error("分段存储导入异常终止", e);
+            }
+        } catch (RuntimeException e) {
+            logger.error("分段存储导入异常终止", e);
+        } finally {
+            finishedAt = LocalDateTime.now();
+            running.set(false);
+        }
+    }
+
+    private void importFile(Path file) throws IOException {
+        String key = markdownRoot.relativize(file).toString();
+        try {
+            if (segmentFileService.importFile(key, file)) {
+                imported.incrementAndGet();
+            } else {
+                skipped.incrementAndGet();
+            }
+        } catch (IOException e) {
+            failed.incrementAndGet();
+            logger.warn("导入Markdown文件失败: {}, {}", key, e.getMessage());
+        }
+        if ((imported.get() + skipped.get() + failed.get()) % batchSize == 0 && batchPauseMillis > 0) {
+            try {
+                Thread.sleep(batchPauseMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("分段存储导入被中断", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,325 @@
+package com.blog.job;
+
+import com.blog.repository.ArticleContentPath;
+import com.blog.repository.ArticleRepository;
+import com.blog.repository.ImageRepository;
+import com.blog.repository.ImageSummary;
+import com.blog.service.FileService;
+import com.blog.service.ImageService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 存储目录布局迁移任务
+ * 按批次把已有的图片和Markdown文件搬迁到当前分片布局下，并改写数据库中的路径。
+ * 每个文件先在新位置建立硬链接，数据库更新提交后再删除旧路径，迁移期间读写不受影响
+ */
+@Component
+public class StorageLayoutMigrationJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(StorageLayoutMigrationJob.class);
+
+    private final ImageRepository imageRepository;
+    private final ArticleRepository articleRepository;
+    private final ImageService imageService;
+    private final FileService fileService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${blog.storage.migration.batch-size:100}")
+    private int batchSize;
+
+    @Value("${blog.storage.migration.batch-pause:200}")
+    private long batchPauseMillis;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final AtomicLong imagesMoved = new AtomicLong();
+    private final AtomicLong articlesMoved = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+
+    public StorageLayoutMigrationJob(ImageRepository imageRepository, ArticleRepository articleRepository,
+                                     ImageService imageService, FileService fileService,
+                                     PlatformTransactionManager transactionManager) {
+        this.imageRepository = imageRepository;
+        this.articleRepository = articleRepository;
+        this.imageService = imageService;
+        this.fileService = fileService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * 迁移进度
+     */
+    public record Status(boolean running, long imagesMoved, long articlesMoved, long skipped, long failed,
+                         LocalDateTime startedAt, LocalDateTime finishedAt) {
+    }
+
+    /**
+     * 在后台线程中启动迁移
+     *
+     * @return 已有迁移在运行时返回false
+     */
+    public boolean start() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        Thread worker = new Thread(this::runMigration, "storage-layout-migration");
+        worker.setDaemon(true);
+        worker.start();
+        return true;
+    }
+
+    /**
+     * 在当前线程中执行迁移，完成后返回结果
+     *
+     * @throws IllegalStateException 已有迁移在运行时
+     */
+    public Status migrate() {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("存储布局迁移正在进行中");
+        }
+        runMigration();
+        return getStatus();
+    }
+
+    public Status getStatus() {
+        return new Status(running.get(), imagesMoved.get(), articlesMoved.get(), skipped.get(), failed.get(),
+                startedAt, finishedAt);
+    }
+
+    private void runMigration() {
+        imagesMoved.set(0);
+        articlesMoved.set(0);
+        skipped.set(0);
+        failed.set(0);
+        startedAt = LocalDateTime.now();
+        finishedAt = null;
+        logger.info("开始迁移存储目录布局");
+        try {
+            migrateImages();
+            migrateArticles();
+            logger.info("存储目录布局迁移完成: 图片={}, 文章={}, 跳过={}, 失败={}",
+                    imagesMoved.get(), articlesMoved.get(), skipped.get(), failed.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("存储目录布局迁移被中断");
+        } catch (RuntimeException e) {
+            logger.error("存储目录布局迁移异常终止", e);
+        } finally {
+            finishedAt = LocalDateTime.now();
+            running.set(false);
+        }
+    }
+
+    private void migrateImages() throws InterruptedException {
+        long cursor = 0;
+        while (true) {
+            List<ImageSummary> batch = imageRepository.findSummariesAfter(cursor, PageRequest.of(0, batchSize));
+            if (batch.isEmpty()) {
+                return;
+            }
+
+            List<PendingMove> moves = new ArrayList<>();
+            for (ImageSummary image : batch) {
+                cursor = image.getId();
+                if (image.getFilePath() == null) {
+                    continue;
+                }
+                Path current = Paths.get(image.getFilePath());
+                Path target = imageService.getLayoutPath(image.getContentHash(), image.getFilename());
+                PendingMove move = prepareMove(image.getId(), image.getFilePath(), current, target, target.toString());
+                if (move != null) {
+                    moves.add(move);
+                }
+            }
+
+            long moved = commitMoves(moves, move -> imageRepository.updateFilePath(move.id(), move.oldPath(), move.newPath()));
+            imagesMoved.addAndGet(moved);
+            pauseBetweenBatches();
+        }
+    }
+
+    private void migrateArticles() throws InterruptedException {
+        long cursor = 0;
+        while (true) {
+            List<ArticleContentPath> batch = articleRepository.findContentPathsAfter(cursor, PageRequest.of(0, batchSize));
+            if (batch.isEmpty()) {
+                return;
+            }
+
+            List<PendingMove> moves = new ArrayList<>();
+            for (ArticleContentPath article : batch) {
+                cursor = article.getId();
+                String contentPath = article.getContentPath();
+                // 只迁移位于Markdown根目录下的文件，尚未生成文件的文章没有实际路径
+                if (contentPath == null || !fileService.fileExists(contentPath)) {
+                    continue;
+                }
+                Path current = fileService.getAbsolutePath(contentPath);
+                if (current == null) {
+                    // 分段存储没有独立的文件，不涉及目录布局
+                    continue;
+                }
+                String newPath = fileService.getLayoutPath(current.getFileName().toString());
+                Path target = fileService.getAbsolutePath(newPath);
+                PendingMove move = prepareMove(article.getId(), contentPath, current, target, newPath);
+                if (move != null) {
+                    moves.add(move);
+                }
+            }
+
+            long moved = commitMoves(moves, move -> articleRepository.updateContentPath(move.id(), move.oldPath(), move.newPath()));
+            articlesMoved.addAndGet(moved);
+            pauseBetweenBatches();
+        }
+    }
+
+    /**
+     * 在目标位置建立文件的第二个名字，文件已在目标位置或无法迁移时返回null
+     */
+    private PendingMove prepareMove(Long id, String oldPath, Path current, Path target, String newPath) {
+        if (current.toAbsolutePath().normalize().equals(target.toAbsolutePath().normalize())) {
+            return null;
+        }
+        if (!Files.isRegularFile(current)) {
+            skipped.incrementAndGet();
+            return null;
+        }
+        try {
+            boolean created = linkOrCopy(current, target);
+            return new PendingMove(id, oldPath, newPath, current, target, created);
+        } catch (IOException e) {
+            failed.incrementAndGet();
+            logger.warn("迁移文件失败: ID={}, {} -> {}, {}", id, current, target, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 在一个事务中更新本批次的路径，提交后删除旧路径；未更新的记录撤销新建的链接
+     *
+     * @return 成功迁移的数量
+     */
+    private long commitMoves(List<PendingMove> moves, PathUpdater updater) {
+        if (moves.isEmpty()) {
+            return 0;
+        }
+
+        Set<PendingMove> updated = new HashSet<>();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (PendingMove move : moves) {
+                    // 路径已被并发修改的记录不覆盖
+                    if (updater.update(move) == 1) {
+                        updated.add(move);
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            logger.warn("更新文件路径失败，撤销本批次: {}", e.getMessage());
+            updated.clear();
+        }
+
+        for (PendingMove move : moves) {
+            if (updated.contains(move)) {
+                finishMove(move);
+            } else {
+                if (move.created()) {
+                    deleteQuietly(move.target());
+                }
+                failed.incrementAndGet();
+            }
+        }
+        return updated.size();
+    }
+
+    /**
+     * 删除旧路径；复制方式迁移时，若旧文件在此期间被修改则先同步到新位置
+     */
+    private void finishMove(PendingMove move) {
+        try {
+            if (!Files.isSameFile(move.current(), move.target()) && Files.mismatch(move.current(), move.target()) != -1) {
+                replaceWithCopy(move.current(), move.target());
+            }
+            Files.deleteIfExists(move.current());
+        } catch (IOException e) {
+            logger.warn("删除旧文件失败，稍后由孤儿文件清理处理: {}, {}", move.current(), e.getMessage());
+        }
+    }
+
+    /**
+     * 优先使用硬链接，不支持时（如跨文件系统）退化为复制
+     *
+     * @return 是否新建了目标文件
+     */
+    private boolean linkOrCopy(Path source, Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        if (Files.exists(target)) {
+            if (Files.isSameFile(source, target) || Files.mismatch(source, target) == -1) {
+                return false;
+            }
+            throw new IOException("目标文件已存在且内容不同");
+        }
+        try {
+            Files.createLink(target, source);
+        } catch (UnsupportedOperationException | IOException e) {
+            replaceWithCopy(source, target);
+        }
+        return true;
+    }
+
+    private void replaceWithCopy(Path source, Path target) throws IOException {
+        Path tempFile = Files.createTempFile(target.getParent(), ".migrate-", ".tmp");
+        try {
+            Files.copy(source, tempFile, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("删除文件失败: {}", path, e);
+        }
+    }
+
+    private void pauseBetweenBatches() throws InterruptedException {
+        if (batchPauseMillis > 0) {
+            Thread.sleep(batchPauseMillis);
+        }
+    }
+
+    @FunctionalInterface
+    private interface PathUpdater {
+        int update(PendingMove move);
+    }
+
+    /**
+     * 已建立新链接、等待更新数据库的文件
+     */
+    private record PendingMove(Long id, String oldPath, String newPath, Path current, Path target, boolean created) {
+    }
+}
@@ -0,0 +1,12 @@
+package com.blog.repository;
+
+/**
+ * 文章内容路径投影
+ * 仅包含ID和Markdown文件路径，用于批量遍历文章文件
+ */
+public interface ArticleContentPath {
+
+    Long getId();
+
+    String getContentPath();
+}
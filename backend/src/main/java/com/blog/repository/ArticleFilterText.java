@@ -0,0 +1,14 @@
+package com.blog.repository;
+
+/**
+ * 文章筛选文本投影
+ * 仅包含ID、标题和摘要，用于建立标题筛选索引
+ */
+public interface ArticleFilterText {
+
+    Long getId();
+
+    String getTitle();
+
+    String getSummary();
+}
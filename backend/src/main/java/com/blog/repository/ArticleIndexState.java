@@ -0,0 +1,18 @@
+package com.blog.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * 文章索引状态投影
+ * 仅包含判断全文索引是否过期所需的字段，用于启动时与索引快照比对
+ */
+public interface ArticleIndexState {
+
+    Long getId();
+
+    LocalDateTime getUpdatedAt();
+
+    String getContentHash();
+
+    String getContentPath();
+}
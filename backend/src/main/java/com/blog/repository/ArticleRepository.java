@@ -5,11 +5,14 @@ import com.blog.entity.ArticleStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -123,4 +126,81 @@ public interface ArticleRepository extends JpaRepository<Article, Long> {
      * 查找特定状态的文章数量
      */
     long countByStatus(ArticleStatus status);
-}
\ No newline at end of file
+    
+    /**
+     * 按ID游标查询一批文章的内容路径，用于批量任务遍历全表
+     */
+    @Query("SELECT a.id AS id, a.contentPath AS contentPath FROM Article a WHERE a.id > :afterId ORDER BY a.id")
+    List<ArticleContentPath> findContentPathsAfter(@Param("afterId") Long afterId, Pageable pageable);
+    
+    /**
+     * 按ID游标查询一批文章的索引状态，用于全文索引启动时比对快照
+     */
+    @Query("SELECT a.id AS id, a.updatedAt AS updatedAt, a.contentHash AS contentHash, a.contentPath AS contentPath " +
+           "FROM Article a WHERE a.id > :afterId ORDER BY a.id")
+    List<ArticleIndexState> findIndexStatesAfter(@Param("afterId") Long afterId, Pageable pageable);
+    
+    /**
+     * 按ID游标查询一批文章的标题和摘要，用于建立标题筛选索引
+     */
+    @Query("SELECT a.id AS id, a.title AS title, a.summary AS summary FROM Article a WHERE a.id > :afterId ORDER BY a.id")
+    List<ArticleFilterText> findFilterTextsAfter(@Param("afterId") Long afterId, Pageable pageable);
+    
+    /**
+     * 查询单篇文章的标题和摘要
+     */
+    @Query("SELECT a.id AS id, a.title AS title, a.summary AS summary FROM Article a WHERE a.id = :id")
+    Optional<ArticleFilterText> findFilterTextById(@Param("id") Long id);
+    
+    /**
+     * 按ID游标查询一批文章的标题和更新时间，用于建立输入提示索引
+     */
+    @Query("SELECT a.id AS id, a.title AS title, a.updatedAt AS updatedAt FROM Article a WHERE a.id > :afterId ORDER BY a.id")
+    List<ArticleSuggestSource> findSuggestSourcesAfter(@Param("afterId") Long afterId, Pageable pageable);
+    
+    /**
+     * 查询一批文章的标签，每行为文章ID和一个标签
+     */
+    @Query("SELECT a.id, t FROM Article a JOIN a.tags t WHERE a.id IN :ids")
+    List<Object[]> findTagsByArticleIds(@Param("ids") Collection<Long> ids);
+    
+    /**
+     * 按ID列表分页查询文章，不执行计数查询
+     */
+    List<Article> findByIdIn(Collection<Long> ids, Pageable pageable);
+    
+    /**
+     * 查找引用给定内容路径的文章ID
+     */
+    @Query("SELECT a.id FROM Article a WHERE a.contentPath = :path")
+    List<Long> findIdsByContentPath(@Param("path") String path);
+    
+    /**
+     * 查询给定路径中被文章引用的内容路径
+     */
+    @Query("SELECT a.contentPath FROM Article a WHERE a.contentPath IN :paths")
+    List<String> findExistingContentPaths(@Param("paths") Collection<String> paths);
+    
+    /**
+     * 仅在内容路径未被并发修改时更新内容路径（不修改更新时间）
+     */
+    @Modifying
+    @Query("UPDATE Article a SET a.contentPath = :newPath WHERE a.id = :id AND a.contentPath = :oldPath")
+    int updateContentPath(@Param("id") Long id, @Param("oldPath") String oldPath, @Param("newPath") String newPath);
+    
+    /**
+     * 记录写入文件的内容指纹（不修改更新时间）
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Article a SET a.contentHash = :hash, a.contentLength = :length WHERE a.id = :id")
+    int updateContentFingerprint(@Param("id") Long id, @Param("hash") String hash, @Param("length") Long length);
+    
+    /**
+     * 按内容路径更新内容指纹（不修改更新时间），用于绕过本服务修改的文件
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Article a SET a.contentHash = :hash, a.contentLength = :length WHERE a.contentPath = :path")
+    int updateContentFingerprintByPath(@Param("path") String path, @Param("hash") String hash, @Param("length") Long length);
+}
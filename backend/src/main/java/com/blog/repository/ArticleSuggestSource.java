@@ -0,0 +1,16 @@
+package com.blog.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * 文章输入提示投影
+ * 仅包含ID、标题和更新时间，用于建立标题前缀索引
+ */
+public interface ArticleSuggestSource {
+
+    Long getId();
+
+    String getTitle();
+
+    LocalDateTime getUpdatedAt();
+}
@@ -1,12 +1,16 @@
 package com.blog.repository;
 
 import com.blog.entity.Image;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,7 +18,7 @@ import java.util.Optional;
  * 图片数据访问接口
  */
 @Repository
-public interface ImageRepository extends JpaRepository<Image, Long> {
+public interface ImageRepository extends JpaRepository<Image, Long>, ImageRepositoryCustom {
     
     /**
      * 根据文件名查找图片
@@ -24,6 +28,22 @@ public interface ImageRepository extends JpaRepository<Image, Long> {
      */
     Optional<Image> findByFilename(String filename);
     
+    /**
+     * 根据内容哈希查找图片
+     * 
+     * @param contentHash 图片内容的SHA-256
+     * @return 图片实体
+     */
+    Optional<Image> findByContentHash(String contentHash);
+    
+    /**
+     * 根据多个内容哈希批量查找图片
+     * 
+     * @param contentHashes 内容哈希集合
+     * @return 已存在的图片列表
+     */
+    List<Image> findByContentHashIn(Collection<String> contentHashes);
+    
     /**
      * 根据原始文件名查找图片
      * 
@@ -76,4 +96,82 @@ public interface ImageRepository extends JpaRepository<Image, Long> {
      */
     @Query("SELECT i FROM Image i ORDER BY i.createdAt DESC")
     List<Image> findAllOrderByCreatedAtDesc();
-}
\ No newline at end of file
+    
+    /**
+     * 按ID顺序查找仍在数据库中保存Base64内容的图片ID（用于回填到磁盘）
+     * 
+     * @param afterId 起始ID（不含）
+     * @param pageable 分页参数，仅使用其大小
+     * @return 图片ID列表
+     */
+    @Query("SELECT i.id FROM Image i WHERE i.base64Content IS NOT NULL AND i.id > :afterId ORDER BY i.id")
+    List<Long> findIdsWithBase64ContentAfter(@Param("afterId") Long afterId, Pageable pageable);
+    
+    /**
+     * 分页查询图片元数据（不读取Base64内容）
+     * 
+     * @param pageable 分页参数
+     * @return 图片元数据分页数据
+     */
+    @Query(value = "SELECT i.id AS id, i.filename AS filename, i.originalName AS originalName, " +
+                   "i.filePath AS filePath, i.fileSize AS fileSize, i.mimeType AS mimeType, " +
+                   "i.contentHash AS contentHash, i.createdAt AS createdAt FROM Image i",
+           countQuery = "SELECT COUNT(i) FROM Image i")
+    Page<ImageSummary> findAllSummaries(Pageable pageable);
+    
+    /**
+     * 按ID游标查询一批图片元数据，用于批量任务遍历全表
+     * 
+     * @param afterId 起始ID（不含）
+     * @param pageable 分页参数，仅使用其大小
+     * @return 图片元数据列表
+     */
+    @Query("SELECT i.id AS id, i.filename AS filename, i.originalName AS originalName, " +
+           "i.filePath AS filePath, i.fileSize AS fileSize, i.mimeType AS mimeType, " +
+           "i.contentHash AS contentHash, i.createdAt AS createdAt FROM Image i " +
+           "WHERE i.id > :afterId ORDER BY i.id")
+    List<ImageSummary> findSummariesAfter(@Param("afterId") Long afterId, Pageable pageable);
+    
+    /**
+     * 按ID查询图片元数据
+     * 
+     * @param id 图片ID
+     * @return 图片元数据
+     */
+    @Query("SELECT i.id AS id, i.filename AS filename, i.originalName AS originalName, " +
+           "i.filePath AS filePath, i.fileSize AS fileSize, i.mimeType AS mimeType, " +
+           "i.contentHash AS contentHash, i.createdAt AS createdAt FROM Image i WHERE i.id = :id")
+    Optional<ImageSummary> findSummaryById(@Param("id") Long id);
+    
+    /**
+     * 按文件名查询图片元数据
+     * 
+     * @param filename 文件名
+     * @return 图片元数据
+     */
+    @Query("SELECT i.id AS id, i.filename AS filename, i.originalName AS originalName, " +
+           "i.filePath AS filePath, i.fileSize AS fileSize, i.mimeType AS mimeType, " +
+           "i.contentHash AS contentHash, i.createdAt AS createdAt FROM Image i WHERE i.filename = :filename")
+    Optional<ImageSummary> findSummaryByFilename(@Param("filename") String filename);
+    
+    /**
+     * 按文件名批量查询图片元数据
+     * 
+     * @param filenames 文件名集合
+     * @return 图片元数据列表
+     */
+    @Query("SELECT i.id AS id, i.filename AS filename, i.originalName AS originalName, " +
+           "i.filePath AS filePath, i.fileSize AS fileSize, i.mimeType AS mimeType, " +
+           "i.contentHash AS contentHash, i.createdAt AS createdAt FROM Image i " +
+           "WHERE i.filename IN :filenames")
+    List<ImageSummary> findSummariesByFilenameIn(@Param("filenames") Collection<String> filenames);
+    
+    /**
+     * 仅在文件路径未被并发修改时更新文件路径
+     * 
+     * @return 更新的行数
+     */
+    @Modifying
+    @Query("UPDATE Image i SET i.filePath = :newPath WHERE i.id = :id AND i.filePath = :oldPath")
+    int updateFilePath(@Param("id") Long id, @Param("oldPath") String oldPath, @Param("newPath") String newPath);
+}
@@ -0,0 +1,20 @@
+package com.blog.repository;
+
+import com.blog.entity.Image;
+
+import java.util.List;
+
+/**
+ * 图片数据访问的自定义扩展
+ */
+public interface ImageRepositoryCustom {
+
+    /**
+     * 以一次JDBC批量插入保存多条图片记录，并回填生成的ID
+     * 实体使用自增主键，Hibernate无法对其批量插入，因此直接使用JDBC
+     *
+     * @param images 待插入的图片（ID为空）
+     * @return 回填了ID和创建时间的同一批图片
+     */
+    List<Image> insertAll(List<Image> images);
+}
@@ -0,0 +1,71 @@
+package com.blog.repository;
+
+import com.blog.entity.Image;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 图片数据访问自定义扩展的实现
+ */
+public class ImageRepositoryCustomImpl implements ImageRepositoryCustom {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO images (filename, original_name, file_path, file_size, mime_type, content_hash, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ImageRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<Image> insertAll(List<Image> images) {
+        if (images.isEmpty()) {
+            return images;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(INSERT_SQL, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Image image = images.get(i);
+                        if (image.getCreatedAt() == null) {
+                            image.setCreatedAt(now);
+                        }
+                        ps.setString(1, image.getFilename());
+                        ps.setString(2, image.getOriginalName());
+                        ps.setString(3, image.getFilePath());
+                        ps.setLong(4, image.getFileSize());
+                        ps.setString(5, image.getMimeType());
+                        ps.setString(6, image.getContentHash());
+                        ps.setTimestamp(7, Timestamp.valueOf(image.getCreatedAt()));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return images.size();
+                    }
+                },
+                keyHolder);
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < images.size(); i++) {
+            Object id = keys.get(i).values().iterator().next();
+            images.get(i).setId(((Number) id).longValue());
+        }
+        return images;
+    }
+}
@@ -0,0 +1,26 @@
+package com.blog.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * 图片元数据投影
+ * 仅包含列表展示所需的字段，查询时不会读取base64_content列
+ */
+public interface ImageSummary {
+
+    Long getId();
+
+    String getFilename();
+
+    String getOriginalName();
+
+    String getFilePath();
+
+    Long getFileSize();
+
+    String getMimeType();
+
+    String getContentHash();
+
+    LocalDateTime getCreatedAt();
+}
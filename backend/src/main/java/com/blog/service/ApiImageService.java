@@ -9,6 +9,8 @@ public interface ApiImageService {
 
     /**
      * 获取图片列表
+     *
+     * @param include 附加字段，包含content时返回Base64内容
      */
-    ImagePageResponse getImages(Integer page, Integer size);
+    ImagePageResponse getImages(Integer page, Integer size, String include);
 }
\ No newline at end of file
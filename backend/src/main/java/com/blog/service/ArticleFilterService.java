@@ -0,0 +1,41 @@
+package com.blog.service;
+
+import com.blog.entity.Article;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 文章标题筛选服务接口
+ * 在内存中维护标题和摘要的三元组索引，子串筛选先由索引得到匹配的文章ID，再只按ID读取当前页，
+ * 不再对文章表做模糊匹配和计数查询。文章创建、更新和删除的事务提交后同步更新索引
+ */
+public interface ArticleFilterService {
+
+    /**
+     * 按标题子串（忽略大小写）分页查询文章
+     *
+     * @return 索引未就绪或匹配的文章过多时为空，调用方应回退到数据库模糊查询
+     */
+    Optional<Page<Article>> findByTitle(String title, Pageable pageable);
+
+    /**
+     * 标题（或摘要）包含文本（忽略大小写）的文章ID，按ID升序
+     *
+     * @param includeSummary 是否同时匹配摘要
+     * @return 索引未就绪或匹配的文章过多时为空
+     */
+    Optional<List<Long>> findIds(String text, boolean includeSummary);
+
+    /**
+     * 启动时的初次建立索引是否已完成
+     */
+    boolean isReady();
+
+    /**
+     * 索引中的文章数
+     */
+    int size();
+}
@@ -0,0 +1,93 @@
+package com.blog.service;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 缓存中的图片内容及发送响应所需的元数据
+ * 内容按顺序保存在若干只读的堆外缓冲区中，多个请求可同时读取。
+ * 内容所在的内存在淘汰后会被复用，使用引用计数保护：取得内容的调用方在发送完成后必须调用close
+ */
+public class CachedImageContent implements AutoCloseable {
+
+    private final ByteBuffer[] segments;
+    private final int size;
+    private final String mimeType;
+    private final String etag;
+    private final long lastModified;
+    private final Runnable onRelease;
+    // 缓存自身持有一个引用
+    private final AtomicInteger references = new AtomicInteger(1);
+
+    /**
+     * @param segments 依次拼接为完整内容的缓冲区，各自从position到limit的部分有效
+     * @param onRelease 最后一个引用释放后执行，用于归还内存
+     */
+    public CachedImageContent(ByteBuffer[] segments, String mimeType, String etag, long lastModified,
+                              Runnable onRelease) {
+        this.segments = new ByteBuffer[segments.length];
+        int total = 0;
+        for (int i = 0; i < segments.length; i++) {
+            this.segments[i] = segments[i].asReadOnlyBuffer();
+            total += segments[i].remaining();
+        }
+        this.size = total;
+        this.mimeType = mimeType;
+        this.etag = etag;
+        this.lastModified = lastModified;
+        this.onRelease = onRelease;
+    }
+
+    /**
+     * 返回独立位置的只读视图，调用方可自由移动position
+     */
+    public ByteBuffer[] getContent() {
+        ByteBuffer[] views = new ByteBuffer[segments.length];
+        for (int i = 0; i < segments.length; i++) {
+            views[i] = segments[i].duplicate();
+        }
+        return views;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public String getMimeType() {
+        return mimeType;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    /**
+     * 增加一个引用
+     *
+     * @return 内容已被释放时返回false，此时不可再读取
+     */
+    public boolean retain() {
+        int current;
+        do {
+            current = references.get();
+            if (current == 0) {
+                return false;
+            }
+        } while (!references.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    /**
+     * 释放一个引用
+     */
+    @Override
+    public void close() {
+        if (references.decrementAndGet() == 0) {
+            onRelease.run();
+        }
+    }
+}
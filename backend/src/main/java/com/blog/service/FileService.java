@@ -1,25 +1,106 @@
 package com.blog.service;
 
+import com.blog.util.ContentFingerprint;
+import com.blog.util.WriteDurability;
+
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.List;
+import java.util.Optional;
 
 public interface FileService {
     
     /**
-     * 保存Markdown文件内容
+     * 以流的方式向通道写入Markdown内容
+     */
+    @FunctionalInterface
+    interface ContentSource {
+        void writeTo(WritableByteChannel channel) throws IOException;
+    }
+    
+    /**
+     * 保存Markdown文件内容，使用配置的默认持久化级别
      */
     String saveMarkdownFile(String filename, String content) throws IOException;
     
+    /**
+     * 以指定的持久化级别保存Markdown文件内容
+     */
+    String saveMarkdownFile(String filename, String content, WriteDurability durability) throws IOException;
+    
     /**
      * 读取Markdown文件内容
      */
     String readMarkdownFile(String filePath) throws IOException;
     
     /**
-     * 更新Markdown文件内容
+     * 读取Markdown文件的原始字节，不做字符解码
+     */
+    ByteBuffer readMarkdownBytes(String filePath) throws IOException;
+    
+    /**
+     * 读取Markdown文件的内容、指纹和修改时间，三者来自同一版本的文件，
+     * 读取期间文件被原子替换或写入时重新读取；文件不存在时抛出NoSuchFileException
+     */
+    MarkdownSnapshot readMarkdownSnapshot(String filePath) throws IOException;
+    
+    /**
+     * 内容缓存中仍然有效的快照，不读取文件内容；没有内容缓存或未缓存时返回空
+     */
+    Optional<MarkdownSnapshot> getCachedSnapshot(String filePath);
+    
+    /**
+     * 读取文件的大小、修改时间和内容哈希，不把内容读入内存：
+     * 哈希按文件标识、大小和修改时间缓存，未命中时流式计算；文件不存在时抛出NoSuchFileException
+     */
+    MarkdownFileEntry readMarkdownEntry(String filePath) throws IOException;
+    
+    /**
+     * 读取文件的大小和修改时间，文件不存在时抛出NoSuchFileException
      */
-    void updateMarkdownFile(String filePath, String content) throws IOException;
+    BasicFileAttributes readAttributes(String filePath) throws IOException;
+    
+    /**
+     * 更新Markdown文件内容，使用配置的默认持久化级别
+     * 内容先写入临时文件再原子替换，读取方不会看到写了一半的文件
+     * 
+     * @return 写入内容的指纹，在写入的同时计算
+     */
+    ContentFingerprint updateMarkdownFile(String filePath, String content) throws IOException;
+    
+    /**
+     * 以指定的持久化级别更新Markdown文件内容
+     * 
+     * @return 写入内容的指纹，在写入的同时计算
+     */
+    ContentFingerprint updateMarkdownFile(String filePath, String content, WriteDurability durability) throws IOException;
+    
+    /**
+     * 以流的方式更新Markdown文件内容，使用配置的默认持久化级别
+     * source直接写入临时文件，内存占用与内容大小无关；写入的同时计算指纹，与current相同时保留原文件不替换
+     * 
+     * @param source 新内容
+     * @param current 当前内容的指纹，为null时总是替换
+     * @return 写入内容的指纹
+     */
+    ContentFingerprint updateMarkdownFile(String filePath, ContentSource source, ContentFingerprint current) throws IOException;
+    
+    /**
+     * 以流的方式把新内容写入目标存储中的临时文件，写入的同时计算指纹，不修改目标文件；
+     * 写入期间不持有任何锁，调用方负责关闭返回值以删除未提交的临时文件
+     */
+    StagedMarkdown stageMarkdownFile(String filePath, ContentSource source) throws IOException;
+    
+    /**
+     * 用暂存的内容替换Markdown文件，指纹与current相同时保留原文件不替换
+     * 
+     * @param current 当前内容的指纹，为null时总是替换
+     * @return 是否替换了文件
+     */
+    boolean commitMarkdownFile(StagedMarkdown staged, ContentFingerprint current) throws IOException;
     
     /**
      * 删除Markdown文件
@@ -57,7 +138,12 @@ public interface FileService {
     String generateUniqueFilename(String originalFilename);
     
     /**
-     * 获取文件的绝对路径
+     * 按当前分片布局计算文件相对于Markdown根目录的路径
+     */
+    String getLayoutPath(String filename);
+    
+    /**
+     * 获取文件的绝对路径；存储后端不为每篇文章保存独立文件时返回null
      */
     Path getAbsolutePath(String relativePath);
 }
\ No newline at end of file
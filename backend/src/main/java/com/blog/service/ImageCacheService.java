@@ -0,0 +1,40 @@
+package com.blog.service;
+
+import com.blog.entity.Image;
+
+import java.nio.file.Path;
+
+/**
+ * 热点图片缓存服务接口
+ * 把常被访问的图片内容保存在堆外内存中，命中时无需查询数据库也无需读取磁盘。
+ * 返回的内容由调用方持有一个引用，发送完成后必须调用close
+ */
+public interface ImageCacheService {
+    
+    /**
+     * 获取已缓存的图片内容
+     * 
+     * @param imageId 图片ID
+     * @return 缓存内容，未命中时返回null
+     */
+    CachedImageContent get(Long imageId);
+    
+    /**
+     * 访问频率达到准入阈值时读取图片文件并放入缓存
+     * 冷门图片不读入内存，由调用方以sendfile直接发送
+     * 
+     * @param image 图片实体
+     * @param file 图片文件
+     * @param etag 响应使用的ETag
+     * @param lastModified 响应使用的最后修改时间（毫秒）
+     * @return 读取到的内容；缓存未启用、图片尚未成为热点、文件超过单条上限或内存不足时返回null，调用方直接从磁盘发送
+     */
+    CachedImageContent load(Image image, Path file, String etag, long lastModified);
+    
+    /**
+     * 移除图片的缓存内容
+     * 
+     * @param imageId 图片ID
+     */
+    void invalidate(Long imageId);
+}
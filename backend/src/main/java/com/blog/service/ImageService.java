@@ -1,20 +1,24 @@
 package com.blog.service;
 
 import com.blog.entity.Image;
+import com.blog.repository.ImageSummary;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.List;
 import java.util.Optional;
 
 /**
  * 图片处理服务接口
- * 提供图片上传、Base64转换、存储和检索功能
+ * 提供图片上传、存储和检索功能，图片内容仅保存在磁盘上
  */
 public interface ImageService {
     
     /**
-     * 上传图片文件并转换为Base64格式存储
+     * 上传图片文件并保存到磁盘
      * 
      * @param file 上传的图片文件
      * @param description 图片描述（可选）
@@ -24,6 +28,27 @@ public interface ImageService {
      */
     Image uploadImage(MultipartFile file, String description);
     
+    /**
+     * 从输入流上传图片，内容只读取一次，格式根据文件头识别
+     * 
+     * @param content 图片内容输入流（由调用方关闭）
+     * @param originalName 原始文件名（可选）
+     * @param description 图片描述（可选）
+     * @return 保存的图片实体
+     * @throws IllegalArgumentException 当文件格式不支持、为空或大小超限时
+     * @throws RuntimeException 当文件处理失败时
+     */
+    Image uploadImage(InputStream content, String originalName, String description);
+    
+    /**
+     * 批量上传图片，并行校验并写入磁盘，新记录以一次批量插入保存
+     * 
+     * @param files 上传的图片文件列表
+     * @return 与请求顺序一致的逐个文件结果，单个文件失败不影响其他文件
+     * @throws IllegalArgumentException 当文件列表为空或数量超限时
+     */
+    List<ImageUploadOutcome> uploadImages(List<MultipartFile> files);
+    
     /**
      * 根据ID获取图片信息
      * 
@@ -32,6 +57,58 @@ public interface ImageService {
      */
     Optional<Image> getImageById(Long id);
     
+    /**
+     * 根据存储文件名获取图片信息
+     * 
+     * @param filename 存储文件名
+     * @return 图片实体，如果不存在则返回空
+     */
+    Optional<Image> getImageByFilename(String filename);
+    
+    /**
+     * 根据ID获取图片元数据，结果保存在有界缓存中
+     * 不读取图片内容，用于条件请求校验等只需要哈希、类型和时间的场景
+     * 
+     * @param id 图片ID
+     * @return 图片元数据，如果不存在则返回空
+     */
+    Optional<ImageSummary> getImageSummaryById(Long id);
+    
+    /**
+     * 根据存储文件名获取图片元数据，结果保存在有界缓存中
+     * 
+     * @param filename 存储文件名
+     * @return 图片元数据，如果不存在则返回空
+     */
+    Optional<ImageSummary> getImageSummaryByFilename(String filename);
+    
+    /**
+     * 解析图片在磁盘上的文件路径
+     * 
+     * @param image 图片实体
+     * @return 图片文件路径
+     */
+    Path resolveImagePath(Image image);
+    
+    /**
+     * 按当前分片布局计算图片应存放的位置
+     * 
+     * @param contentHash 内容哈希（历史图片可为空，此时按文件名分片）
+     * @param filename 存储文件名
+     * @return 图片在存储目录中的目标路径
+     */
+    Path getLayoutPath(String contentHash, String filename);
+    
+    /**
+     * 获取图片的Base64内容
+     * 优先使用数据库中尚未回填的base64_content，否则从磁盘文件读取并编码
+     * 
+     * @param image 图片实体
+     * @return Base64编码的字符串
+     * @throws RuntimeException 当读取失败时
+     */
+    String loadBase64Content(Image image);
+    
     /**
      * 删除图片
      * 
@@ -64,4 +141,12 @@ public interface ImageService {
      * @return 图片分页数据
      */
     Page<Image> getImages(Pageable pageable);
+
+    /**
+     * 获取图片元数据列表（分页），不加载Base64内容
+     *
+     * @param pageable 分页参数
+     * @return 图片元数据分页数据
+     */
+    Page<ImageSummary> getImageSummaries(Pageable pageable);
 }
\ No newline at end of file
@@ -0,0 +1,49 @@
+package com.blog.service;
+
+import com.blog.entity.Image;
+
+/**
+ * 批量上传中单个文件的处理结果
+ */
+public class ImageUploadOutcome {
+    
+    private final int index;
+    private final String originalName;
+    private final Image image;
+    private final String error;
+    
+    private ImageUploadOutcome(int index, String originalName, Image image, String error) {
+        this.index = index;
+        this.originalName = originalName;
+        this.image = image;
+        this.error = error;
+    }
+    
+    public static ImageUploadOutcome success(int index, String originalName, Image image) {
+        return new ImageUploadOutcome(index, originalName, image, null);
+    }
+    
+    public static ImageUploadOutcome failure(int index, String originalName, String error) {
+        return new ImageUploadOutcome(index, originalName, null, error);
+    }
+    
+    public int getIndex() {
+        return index;
+    }
+    
+    public String getOriginalName() {
+        return originalName;
+    }
+    
+    public Image getImage() {
+        return image;
+    }
+    
+    public String getError() {
+        return error;
+    }
+    
+    public boolean isSuccess() {
+        return image != null;
+    }
+}
@@ -0,0 +1,25 @@
+package com.blog.service;
+
+import com.blog.entity.Image;
+
+import java.nio.file.Path;
+
+/**
+ * 图片变体服务接口
+ * 按需生成缩放后的图片，并缓存在容量受限的磁盘目录中
+ */
+public interface ImageVariantService {
+    
+    /**
+     * 获取图片变体文件，不存在时生成并缓存
+     * 同一变体的并发请求只会解码一次源图片；不支持缩放的格式（如GIF、WebP）直接返回源文件
+     * 
+     * @param image 图片实体
+     * @param sourceFile 源图片文件
+     * @param spec 变体参数
+     * @return 变体文件路径
+     * @throws IllegalArgumentException 参数不合法或图片无法解析时
+     * @throws com.blog.exception.ServiceBusyException 处理队列已满或等待超时时
+     */
+    Path getVariant(Image image, Path sourceFile, ImageVariantSpec spec);
+}
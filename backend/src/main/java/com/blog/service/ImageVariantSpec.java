@@ -0,0 +1,90 @@
+package com.blog.service;
+
+import java.util.Locale;
+
+/**
+ * 图片变体参数
+ * 描述一次缩放请求的目标宽高、适配方式和输出质量
+ */
+public class ImageVariantSpec {
+    
+    /**
+     * 缩放适配方式
+     */
+    public enum Fit {
+        // 等比缩放，完整放入目标区域
+        CONTAIN,
+        // 等比缩放并居中裁剪，铺满目标区域
+        COVER,
+        // 拉伸到目标宽高
+        FILL
+    }
+    
+    public static final int DEFAULT_QUALITY = 85;
+    
+    private final Integer width;
+    private final Integer height;
+    private final Fit fit;
+    private final int quality;
+    
+    public ImageVariantSpec(Integer width, Integer height, Fit fit, int quality) {
+        this.width = width;
+        this.height = height;
+        this.fit = fit;
+        this.quality = quality;
+    }
+    
+    /**
+     * 根据请求参数创建变体参数，未指定宽高时返回null
+     *
+     * @throws IllegalArgumentException 参数不合法时
+     */
+    public static ImageVariantSpec fromRequest(Integer width, Integer height, String fit, Integer quality) {
+        if (width == null && height == null) {
+            return null;
+        }
+        if ((width != null && width <= 0) || (height != null && height <= 0)) {
+            throw new IllegalArgumentException("图片宽高必须为正整数");
+        }
+        int q = quality != null ? quality : DEFAULT_QUALITY;
+        if (q < 1 || q > 100) {
+            throw new IllegalArgumentException("图片质量必须在1到100之间");
+        }
+        Fit fitMode;
+        try {
+            fitMode = fit != null ? Fit.valueOf(fit.trim().toUpperCase(Locale.ROOT)) : Fit.CONTAIN;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("不支持的缩放方式: " + fit + "，支持: contain, cover, fill");
+        }
+        if (fitMode != Fit.CONTAIN && (width == null || height == null)) {
+            throw new IllegalArgumentException("cover和fill方式需要同时指定宽和高");
+        }
+        return new ImageVariantSpec(width, height, fitMode, q);
+    }
+    
+    public Integer getWidth() {
+        return width;
+    }
+    
+    public Integer getHeight() {
+        return height;
+    }
+    
+    public Fit getFit() {
+        return fit;
+    }
+    
+    public int getQuality() {
+        return quality;
+    }
+    
+    /**
+     * 变体的缓存键片段，如 w200_h0_contain_q85
+     */
+    public String toKey() {
+        return "w" + (width != null ? width : 0)
+                + "_h" + (height != null ? height : 0)
+                + "_" + fit.name().toLowerCase(Locale.ROOT)
+                + "_q" + quality;
+    }
+}
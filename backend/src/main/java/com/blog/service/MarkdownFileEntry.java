@@ -0,0 +1,12 @@
+package com.blog.service;
+
+/**
+ * 文件清单中的一个Markdown文件
+ *
+ * @param path 相对于Markdown根目录的路径
+ * @param size 文件大小（字节）
+ * @param lastModified 最后修改时间（毫秒）
+ * @param contentHash 内容的SHA-256，仅经本服务写入的文件已知，否则为null
+ */
+public record MarkdownFileEntry(String path, long size, long lastModified, String contentHash) {
+}
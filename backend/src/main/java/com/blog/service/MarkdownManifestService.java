@@ -0,0 +1,67 @@
+package com.blog.service;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Markdown文件清单服务接口
+ * 启动时并行扫描一次Markdown目录，之后由文件写入、删除和目录监听维护，列出文件不再遍历目录。
+ * 查询方法在清单未启用或初次扫描完成前抛出ServiceBusyException
+ */
+public interface MarkdownManifestService {
+    
+    /**
+     * 按路径顺序分页列出文件
+     * 
+     * @param after 上一页最后一个路径，为null时从头开始
+     * @param limit 每页数量
+     */
+    Page list(String after, int limit);
+    
+    /**
+     * 所有文件的路径，按路径排序
+     */
+    List<String> paths();
+    
+    /**
+     * 获取单个文件的清单条目
+     */
+    Optional<MarkdownFileEntry> get(String path);
+    
+    /**
+     * 列出直接位于某个目录下的文件（不含子目录）
+     * 
+     * @param directory 相对于Markdown根目录的目录路径，空字符串表示根目录
+     */
+    List<MarkdownFileEntry> listDirectory(String directory);
+    
+    /**
+     * 清单中的文件数
+     */
+    int size();
+    
+    /**
+     * 初次扫描是否已完成；完成前不能查询清单
+     */
+    boolean isReady();
+    
+    /**
+     * 重新读取单个文件的属性，文件不存在时从清单中移除
+     */
+    void refresh(String path);
+    
+    /**
+     * 重新扫描整个目录
+     */
+    void rebuild();
+    
+    /**
+     * 一页清单
+     * 
+     * @param items 本页条目
+     * @param nextCursor 下一页的after参数，没有下一页时为null
+     * @param total 清单中的文件总数
+     */
+    record Page(List<MarkdownFileEntry> items, String nextCursor, int total) {
+    }
+}
@@ -0,0 +1,62 @@
+package com.blog.service;
+
+import com.blog.util.ContentFingerprint;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 某一时刻的Markdown文件内容
+ * 指纹和修改时间与内容取自同一版本的文件，可直接用于ETag和条件请求
+ */
+public class MarkdownSnapshot {
+
+    private final byte[] content;
+    private final ContentFingerprint fingerprint;
+    private final long lastModified;
+
+    public MarkdownSnapshot(byte[] content, ContentFingerprint fingerprint, long lastModified) {
+        this.content = content;
+        this.fingerprint = fingerprint;
+        this.lastModified = lastModified;
+    }
+
+    public static MarkdownSnapshot of(byte[] content, long lastModified) {
+        return new MarkdownSnapshot(content, ContentFingerprint.of(content), lastModified);
+    }
+
+    /**
+     * UTF-8编码的内容，调用方不得修改
+     */
+    public byte[] getContent() {
+        return content;
+    }
+
+    /**
+     * 内容的只读视图
+     */
+    public ByteBuffer asByteBuffer() {
+        return ByteBuffer.wrap(content).asReadOnlyBuffer();
+    }
+
+    public ContentFingerprint getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * 内容的强ETag（含双引号），与暂存内容的ETag计算方式相同
+     */
+    public String getEtag() {
+        return fingerprint.etag();
+    }
+
+    /**
+     * 最后修改时间（毫秒）
+     */
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    public int getSize() {
+        return content.length;
+    }
+}
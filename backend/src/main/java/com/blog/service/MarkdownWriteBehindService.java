@@ -0,0 +1,67 @@
+package com.blog.service;
+
+import com.blog.util.ContentFingerprint;
+import com.blog.util.TextPatch;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Markdown合并写入服务接口
+ * 自动保存的内容按文章暂存在内存中并追加到顺序日志，防抖间隔后只把最新版本写入文件
+ */
+public interface MarkdownWriteBehindService {
+    
+    /**
+     * 暂存文章的最新内容，追加到日志后返回；未启用合并写入时直接写入文件
+     * 
+     * @param articleId 文章ID
+     * @param contentPath 文章的Markdown文件相对路径，文件必须已存在
+     * @param content 完整内容
+     */
+    void submit(Long articleId, String contentPath, String content) throws IOException;
+    
+    /**
+     * 在文章的当前内容（暂存内容或文件内容）上应用增量修改并暂存，检查版本和暂存是原子的
+     * 
+     * @param articleId 文章ID
+     * @param contentPath 文章的Markdown文件相对路径，文件必须已存在
+     * @param baseVersion 修改所基于的版本，即读取内容时的ETag
+     * @param edits 按偏移量升序排列的修改
+     * @return 修改后内容的ETag
+     * @throws com.blog.exception.VersionConflictException 当前版本与baseVersion不一致时
+     */
+    String patch(Long articleId, String contentPath, String baseVersion, List<TextPatch.Edit> edits) throws IOException;
+    
+    /**
+     * 绕过暂存，以流的方式直接写入文件，替换文章当前暂存的内容
+     * 内容与文章记录的指纹相同时不替换文件；接收内容期间不持有锁，慢速上传不阻塞其他保存和合并写入
+     * 
+     * @param articleId 文章ID
+     * @param contentPath 文章的Markdown文件相对路径，文件必须已存在
+     * @param source 新内容
+     * @return 写入内容的指纹
+     */
+    ContentFingerprint replace(Long articleId, String contentPath, FileService.ContentSource source) throws IOException;
+    
+    /**
+     * 获取文章尚未写入文件的最新内容
+     * 
+     * @param articleId 文章ID
+     * @return 暂存的内容，没有时返回空
+     */
+    Optional<PendingMarkdown> getPending(Long articleId);
+    
+    /**
+     * 立即把文章暂存的内容写入文件，没有暂存内容时不做任何操作
+     * 
+     * @param articleId 文章ID
+     */
+    void flush(Long articleId) throws IOException;
+    
+    /**
+     * 写入所有已到防抖或最长延迟时间的暂存内容
+     */
+    void flushDue();
+}
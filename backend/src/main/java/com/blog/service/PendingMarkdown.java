@@ -0,0 +1,88 @@
+package com.blog.service;
+
+import com.blog.util.ContentFingerprint;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 已暂存、尚未写入文件的Markdown内容
+ */
+public class PendingMarkdown {
+    
+    private final Long articleId;
+    private final String contentPath;
+    private final byte[] content;
+    private final long version;
+    private final long updatedAt;
+    private final long firstBufferedAt;
+    private volatile ContentFingerprint fingerprint;
+    
+    public PendingMarkdown(Long articleId, String contentPath, byte[] content, long version,
+                           long updatedAt, long firstBufferedAt) {
+        this.articleId = articleId;
+        this.contentPath = contentPath;
+        this.content = content;
+        this.version = version;
+        this.updatedAt = updatedAt;
+        this.firstBufferedAt = firstBufferedAt;
+    }
+    
+    public Long getArticleId() {
+        return articleId;
+    }
+    
+    public String getContentPath() {
+        return contentPath;
+    }
+    
+    /**
+     * UTF-8编码的内容，调用方不得修改
+     */
+    public byte[] getContent() {
+        return content;
+    }
+    
+    public String getContentAsString() {
+        return new String(content, StandardCharsets.UTF_8);
+    }
+    
+    /**
+     * 暂存序号，每次保存递增
+     */
+    public long getVersion() {
+        return version;
+    }
+    
+    /**
+     * 内容指纹，首次使用时计算
+     */
+    public ContentFingerprint getFingerprint() {
+        ContentFingerprint result = fingerprint;
+        if (result == null) {
+            result = ContentFingerprint.of(content);
+            fingerprint = result;
+        }
+        return result;
+    }
+    
+    /**
+     * 暂存内容的强ETag，同时作为增量修改的基准版本；与内容写入文件后的ETag相同
+     */
+    public String getEtag() {
+        return getFingerprint().etag();
+    }
+    
+    /**
+     * 最后一次保存的时间（毫秒）
+     */
+    public long getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    /**
+     * 本轮暂存中第一次保存的时间（毫秒）
+     */
+    public long getFirstBufferedAt() {
+        return firstBufferedAt;
+    }
+}
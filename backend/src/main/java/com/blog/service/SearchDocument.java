@@ -0,0 +1,22 @@
+package com.blog.service;
+
+import com.blog.entity.ArticleStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 全文索引中保存的文章字段，搜索结果直接由这些字段生成，不查询数据库
+ *
+ * @param signature 建立索引时文章的版本标识，启动时与数据库比对，不一致的文章重新索引
+ */
+public record SearchDocument(long id, String title, String slug, String summary, List<String> tags,
+                             ArticleStatus status, String contentPath, String signature) {
+
+    /**
+     * 由更新时间、内容指纹和内容路径生成版本标识，元数据或内容变化后都会改变
+     */
+    public static String signatureOf(LocalDateTime updatedAt, String contentHash, String contentPath) {
+        return updatedAt + "|" + contentHash + "|" + contentPath;
+    }
+}
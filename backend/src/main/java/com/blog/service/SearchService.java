@@ -0,0 +1,76 @@
+package com.blog.service;
+
+import com.blog.entity.ArticleStatus;
+
+import java.util.List;
+
+/**
+ * 全文搜索服务接口
+ * 在内存中维护标题、摘要、标签和Markdown正文的倒排索引，按BM25排序；
+ * 文章或Markdown文件变化后在后台增量更新，索引定期保存到本地磁盘。
+ * 搜索结果附带由索引中记录的词位置生成的正文片段
+ */
+public interface SearchService {
+
+    /**
+     * 一条搜索结果
+     *
+     * @param fragments 正文中包含搜索词的片段，按相关度排序
+     */
+    record Hit(SearchDocument document, float score, List<Fragment> fragments) {
+
+        public Hit withFragments(List<Fragment> fragments) {
+            return new Hit(document, score, fragments);
+        }
+    }
+
+    /**
+     * 正文片段
+     *
+     * @param highlights 片段中需要高亮的区间，按位置排序且互不重叠
+     */
+    record Fragment(String text, List<Highlight> highlights) {
+    }
+
+    /**
+     * 片段中的高亮区间
+     *
+     * @param start 起始位置
+     * @param end 结束位置（不含）
+     */
+    record Highlight(int start, int end) {
+    }
+
+    /**
+     * 一页搜索结果
+     *
+     * @param total 匹配的文章总数
+     */
+    record Result(List<Hit> hits, long total, int page, int size) {
+    }
+
+    /**
+     * 搜索文章
+     *
+     * @param query 搜索词，多个词之间为“或”关系，同时匹配多个词的文章排在前面
+     * @param status 只返回该状态的文章，为null时不限
+     * @throws IllegalArgumentException 搜索词为空或分页参数超出范围时
+     * @throws com.blog.exception.ServiceBusyException 全文搜索未启用时
+     */
+    Result search(String query, ArticleStatus status, int page, int size);
+
+    /**
+     * 立即按数据库和Markdown文件中的当前内容重新索引文章，文章不存在时从索引中删除
+     */
+    void reindex(Long articleId);
+
+    /**
+     * 启动时的快照加载和比对是否已完成，完成前搜索基于快照中的内容
+     */
+    boolean isReady();
+
+    /**
+     * 索引中的文章数
+     */
+    int size();
+}
@@ -0,0 +1,48 @@
+package com.blog.service;
+
+import com.blog.util.ContentFingerprint;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * 已写入临时文件、尚未替换目标的Markdown内容
+ * 临时文件位于目标所在的存储目录中；提交后临时文件被移走，关闭时删除尚未提交的临时文件
+ */
+public class StagedMarkdown implements Closeable {
+
+    private final String filePath;
+    private final Path file;
+    private final ContentFingerprint fingerprint;
+
+    public StagedMarkdown(String filePath, Path file, ContentFingerprint fingerprint) {
+        this.filePath = filePath;
+        this.file = file;
+        this.fingerprint = fingerprint;
+    }
+
+    /**
+     * 要替换的Markdown文件路径
+     */
+    public String getFilePath() {
+        return filePath;
+    }
+
+    /**
+     * 保存内容的临时文件
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    public ContentFingerprint getFingerprint() {
+        return fingerprint;
+    }
+
+    @Override
+    public void close() throws IOException {
+        Files.deleteIfExists(file);
+    }
+}
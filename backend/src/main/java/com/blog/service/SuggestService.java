@@ -0,0 +1,41 @@
+package com.blog.service;
+
+import java.util.List;
+
+/**
+ * 输入提示服务接口
+ * 在内存中维护文章标题和标签的前缀索引，标题按最近更新时间、标签按使用的文章数排序；
+ * 文章创建、更新和删除的事务提交后同步更新，查询不访问数据库
+ */
+public interface SuggestService {
+
+    /**
+     * 提示类型
+     */
+    enum Type {
+        TITLE,
+        TAG
+    }
+
+    /**
+     * 一条提示
+     *
+     * @param articleId 标题提示对应的文章ID，标签提示为null
+     * @param articleCount 使用该标签的文章数，标题提示为null
+     */
+    record Suggestion(String text, Long articleId, Integer articleCount) {
+    }
+
+    /**
+     * 以前缀开头（忽略大小写）的提示
+     *
+     * @throws IllegalArgumentException 前缀为空或数量超出范围时
+     * @throws com.blog.exception.ServiceBusyException 输入提示未启用时
+     */
+    List<Suggestion> suggest(String prefix, Type type, int limit);
+
+    /**
+     * 启动时的初次建立索引是否已完成，完成前提示可能不完整
+     */
+    boolean isReady();
+}
@@ -2,11 +2,14 @@ package com.blog.service.impl;
 
 import com.blog.entity.Article;
 import com.blog.entity.ArticleStatus;
+import com.blog.event.ArticleChangedEvent;
 import com.blog.model.*;
 import com.blog.repository.ArticleRepository;
 import com.blog.service.ApiArticleService;
+import com.blog.service.ArticleFilterService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -29,9 +32,14 @@ public class ApiArticleServiceImpl implements ApiArticleService {
     private static final Logger log = LoggerFactory.getLogger(ApiArticleServiceImpl.class);
 
     private final ArticleRepository articleRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ArticleFilterService filterService;
 
-    public ApiArticleServiceImpl(ArticleRepository articleRepository) {
+    public ApiArticleServiceImpl(ArticleRepository articleRepository, ApplicationEventPublisher eventPublisher,
+                                 ArticleFilterService filterService) {
         this.articleRepository = articleRepository;
+        this.eventPublisher = eventPublisher;
+        this.filterService = filterService;
     }
 
     @Override
@@ -52,7 +60,10 @@ public class ApiArticleServiceImpl implements ApiArticleService {
 
         // 根据条件查询
         if (title != null && !title.trim().isEmpty()) {
-            articlePage = articleRepository.findByTitleContainingIgnoreCase(title.trim(), pageable);
+            // 先由标题索引确定匹配的文章ID，索引不可用时回退到模糊查询
+            String keyword = title.trim();
+            articlePage = filterService.findByTitle(keyword, pageable)
+                    .orElseGet(() -> articleRepository.findByTitleContainingIgnoreCase(keyword, pageable));
         } else if (status != null) {
             articlePage = articleRepository.findByStatus(convertApiStatusToEntity(status), pageable);
         } else {
@@ -117,6 +128,7 @@ public class ApiArticleServiceImpl implements ApiArticleService {
 
         // 保存文章
         Article savedArticle = articleRepository.save(article);
+        eventPublisher.publishEvent(new ArticleChangedEvent(savedArticle.getId(), ArticleChangedEvent.Kind.SAVED));
 
         log.info("文章创建成功 - id: {}, title: {}", savedArticle.getId(), savedArticle.getTitle());
         return convertToArticleResponse(savedArticle);
@@ -150,6 +162,7 @@ public class ApiArticleServiceImpl implements ApiArticleService {
         article.setUpdatedAt(LocalDateTime.now());
 
         Article savedArticle = articleRepository.save(article);
+        eventPublisher.publishEvent(new ArticleChangedEvent(savedArticle.getId(), ArticleChangedEvent.Kind.SAVED));
 
         log.info("文章更新成功 - id: {}, title: {}", savedArticle.getId(), savedArticle.getTitle());
         return convertToArticleResponse(savedArticle);
@@ -164,6 +177,7 @@ public class ApiArticleServiceImpl implements ApiArticleService {
 
         // 删除文章记录（在实际项目中，内容文件的删除应该由专门的文件服务处理）
         articleRepository.delete(article);
+        eventPublisher.publishEvent(new ArticleChangedEvent(id, ArticleChangedEvent.Kind.DELETED));
 
         log.info("文章删除成功 - id: {}", id);
     }
@@ -186,6 +200,7 @@ public class ApiArticleServiceImpl implements ApiArticleService {
         article.setUpdatedAt(LocalDateTime.now());
 
         Article savedArticle = articleRepository.save(article);
+        eventPublisher.publishEvent(new ArticleChangedEvent(savedArticle.getId(), ArticleChangedEvent.Kind.SAVED));
 
         log.info("文章发布成功 - id: {}, title: {}", savedArticle.getId(), savedArticle.getTitle());
         return convertToArticleResponse(savedArticle);
@@ -204,6 +219,7 @@ public class ApiArticleServiceImpl implements ApiArticleService {
         // 注意：不清除发布时间，保留历史记录
 
         Article savedArticle = articleRepository.save(article);
+        eventPublisher.publishEvent(new ArticleChangedEvent(savedArticle.getId(), ArticleChangedEvent.Kind.SAVED));
 
         log.info("文章取消发布成功 - id: {}, title: {}", savedArticle.getId(), savedArticle.getTitle());
         return convertToArticleResponse(savedArticle);
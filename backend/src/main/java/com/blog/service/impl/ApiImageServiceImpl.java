@@ -3,6 +3,7 @@ package com.blog.service.impl;
 import com.blog.entity.Image;
 import com.blog.model.ImagePageResponse;
 import com.blog.model.ImageResponse;
+import com.blog.repository.ImageSummary;
 import com.blog.service.ApiImageService;
 import com.blog.service.ImageService;
 import org.slf4j.Logger;
@@ -26,22 +27,34 @@ public class ApiImageServiceImpl implements ApiImageService {
 
     private static final Logger logger = LoggerFactory.getLogger(ApiImageServiceImpl.class);
 
+    private static final String INCLUDE_CONTENT = "content";
+
     @Autowired
     private ImageService imageService;
 
     @Override
-    public ImagePageResponse getImages(Integer page, Integer size) {
-        logger.info("获取图片列表 - page: {}, size: {}", page, size);
+    public ImagePageResponse getImages(Integer page, Integer size, String include) {
+        logger.info("获取图片列表 - page: {}, size: {}, include: {}", page, size, include);
 
         // 创建分页参数
         Pageable pageable = PageRequest.of(page, size);
 
-        // 获取图片分页数据
-        Page<Image> imagePage = imageService.getImages(pageable);
+        // 默认只查询元数据投影，仅在显式要求时才加载图片内容
+        Page<?> imagePage;
+        List<ImageResponse> content;
+        if (includesContent(include)) {
+            Page<Image> fullPage = imageService.getImages(pageable);
+            content = convertToImageResponses(fullPage.getContent());
+            imagePage = fullPage;
+        } else {
+            Page<ImageSummary> summaryPage = imageService.getImageSummaries(pageable);
+            content = convertSummariesToImageResponses(summaryPage.getContent());
+            imagePage = summaryPage;
+        }
 
         // 转换为响应模型
         ImagePageResponse response = new ImagePageResponse();
-        response.setContent(convertToImageResponses(imagePage.getContent()));
+        response.setContent(content);
         response.setPage(imagePage.getNumber());
         response.setSize(imagePage.getSize());
         response.setTotalElements(imagePage.getTotalElements());
@@ -53,6 +66,21 @@ public class ApiImageServiceImpl implements ApiImageService {
         return response;
     }
 
+    /**
+     * 判断include参数中是否要求返回图片内容
+     */
+    private boolean includesContent(String include) {
+        if (include == null || include.isBlank()) {
+            return false;
+        }
+        for (String field : include.split(",")) {
+            if (INCLUDE_CONTENT.equalsIgnoreCase(field.trim())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * 将Image实体列表转换为ImageResponse列表
      */
@@ -64,6 +92,27 @@ public class ApiImageServiceImpl implements ApiImageService {
         return responses;
     }
 
+    /**
+     * 将图片元数据投影列表转换为ImageResponse列表（不含Base64内容）
+     */
+    private List<ImageResponse> convertSummariesToImageResponses(List<ImageSummary> summaries) {
+        List<ImageResponse> responses = new ArrayList<>();
+        for (ImageSummary summary : summaries) {
+            ImageResponse response = new ImageResponse();
+            response.setId(summary.getId());
+            response.setFilename(summary.getFilename());
+            response.setOriginalName(summary.getOriginalName());
+            response.setFilePath(summary.getFilePath());
+            response.setFileSize(summary.getFileSize());
+            response.setMimeType(summary.getMimeType());
+            if (summary.getCreatedAt() != null) {
+                response.setCreatedAt(summary.getCreatedAt().atOffset(ZoneOffset.UTC));
+            }
+            responses.add(response);
+        }
+        return responses;
+    }
+
     /**
      * 将Image实体转换为ImageResponse
      */
@@ -75,7 +124,7 @@ public class ApiImageServiceImpl implements ApiImageService {
         response.setFilePath(image.getFilePath());
         response.setFileSize(image.getFileSize());
         response.setMimeType(image.getMimeType());
-        response.setBase64Content(image.getBase64Content());
+        response.setBase64Content(imageService.loadBase64Content(image));
 
         // 转换LocalDateTime为OffsetDateTime
         if (image.getCreatedAt() != null) {
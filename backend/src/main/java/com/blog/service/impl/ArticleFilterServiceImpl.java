@@ -0,0 +1,225 @@
+package com.blog.service.impl;
+
+import com.blog.config.FilterProperties;
+import com.blog.entity.Article;
+import com.blog.event.ArticleChangedEvent;
+import com.blog.repository.ArticleFilterText;
+import com.blog.repository.ArticleRepository;
+import com.blog.service.ArticleFilterService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 文章标题筛选服务实现类
+ * 启动时在后台按ID游标分批读取标题和摘要建立索引，期间发生变化的文章在建立完成后重新读取；
+ * 之后按文章变化事件在事务提交后同步更新，筛选结果在提交后立即可见。
+ * 建立或更新失败时停用索引（回退到数据库查询），延迟一段时间后在后台重新建立
+ */
+@Service
+public class ArticleFilterServiceImpl implements ArticleFilterService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ArticleFilterServiceImpl.class);
+
+    private static final int BUILD_BATCH_SIZE = 1000;
+
+    private final ArticleRepository articleRepository;
+    private final FilterProperties properties;
+    private final TransactionTemplate transactionTemplate;
+
+    // 重新建立时整体替换
+    private volatile TrigramIndex index = new TrigramIndex();
+    private final Set<Long> changedDuringBuild = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock buildLock = new ReentrantLock();
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+    private volatile boolean building;
+    private volatile boolean ready;
+
+    public ArticleFilterServiceImpl(ArticleRepository articleRepository, FilterProperties properties,
+                                    PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.articleRepository = articleRepository;
+        this.properties = properties;
+        // 提交后回调中读取需要新的事务
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.transactionTemplate.setReadOnly(true);
+
+        Gauge.builder("blog.article.filter.entries", this, ArticleFilterServiceImpl::size)
+                .description("标题筛选索引中的文章数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 在后台线程中建立索引
+     */
+    @PostConstruct
+    void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        building = true;
+        startWorker(this::build);
+    }
+
+    @Override
+    public Optional<Page<Article>> findByTitle(String title, Pageable pageable) {
+        Optional<long[]> ids = find(title, TrigramIndex.Field.TITLE);
+        if (ids.isEmpty()) {
+            return Optional.empty();
+        }
+        long[] matches = ids.get();
+        if (matches.length == 0) {
+            return Optional.of(new PageImpl<>(List.of(), pageable, 0));
+        }
+        List<Article> content = articleRepository.findByIdIn(Arrays.stream(matches).boxed().toList(), pageable);
+        return Optional.of(new PageImpl<>(content, pageable, matches.length));
+    }
+
+    @Override
+    public Optional<List<Long>> findIds(String text, boolean includeSummary) {
+        return includeSummary
+                ? find(text, TrigramIndex.Field.TITLE, TrigramIndex.Field.SUMMARY).map(ArticleFilterServiceImpl::boxed)
+                : find(text, TrigramIndex.Field.TITLE).map(ArticleFilterServiceImpl::boxed);
+    }
+
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    @Override
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * 文章保存或删除的事务提交后更新索引
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onArticleChanged(ArticleChangedEvent event) {
+        if (!properties.isEnabled() || event.articleId() == null) {
+            return;
+        }
+        if (building) {
+            changedDuringBuild.add(event.articleId());
+        }
+        try {
+            if (event.kind() == ArticleChangedEvent.Kind.DELETED) {
+                index.remove(event.articleId());
+            } else {
+                refresh(event.articleId());
+            }
+        } catch (RuntimeException e) {
+            // 索引与数据库可能不一致，停用索引直到重新建立
+            ready = false;
+            logger.error("更新标题筛选索引失败，回退到数据库查询: articleId={}", event.articleId(), e);
+            scheduleRebuild();
+        }
+    }
+
+    private Optional<long[]> find(String text, TrigramIndex.Field... fields) {
+        if (!ready || !StringUtils.hasText(text)) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(index.find(text, properties.getMaxCandidates(), fields));
+    }
+
+    private void build() {
+        buildLock.lock();
+        try {
+            // 此前发生的变化已提交，下面的读取可以看到
+            changedDuringBuild.clear();
+            building = true;
+            long start = System.currentTimeMillis();
+            try {
+                TrigramIndex fresh = new TrigramIndex();
+                long afterId = 0;
+                List<ArticleFilterText> batch;
+                do {
+                    batch = articleRepository.findFilterTextsAfter(afterId, PageRequest.of(0, BUILD_BATCH_SIZE));
+                    for (ArticleFilterText text : batch) {
+                        afterId = text.getId();
+                        fresh.put(text.getId(), text.getTitle(), text.getSummary());
+                    }
+                } while (batch.size() == BUILD_BATCH_SIZE);
+
+                // 建立期间变化的文章可能被旧的批次结果覆盖，替换后重新读取一次
+                index = fresh;
+                building = false;
+                for (Long articleId : changedDuringBuild) {
+                    refresh(articleId);
+                }
+                changedDuringBuild.clear();
+                ready = true;
+                logger.info("标题筛选索引就绪: 文章数={}, 耗时={}ms", fresh.size(), System.currentTimeMillis() - start);
+            } catch (RuntimeException e) {
+                building = false;
+                logger.error("建立标题筛选索引失败，标题筛选将使用数据库查询", e);
+                scheduleRebuild();
+            }
+        } finally {
+            buildLock.unlock();
+        }
+    }
+
+    /**
+     * 延迟后在后台重新建立索引，已安排时不重复安排
+     */
+    private void scheduleRebuild() {
+        if (!rebuildScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        long delayMillis = properties.getRebuildDelay().toMillis();
+        logger.info("将在{}ms后重新建立标题筛选索引", delayMillis);
+        startWorker(() -> {
+            try {
+                Thread.sleep(delayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            rebuildScheduled.set(false);
+            build();
+        });
+    }
+
+    private static void startWorker(Runnable task) {
+        Thread worker = new Thread(task, "article-filter-index");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    private void refresh(Long articleId) {
+        Optional<ArticleFilterText> text = transactionTemplate.execute(
+                status -> articleRepository.findFilterTextById(articleId));
+        if (text != null && text.isPresent()) {
+            index.put(articleId, text.get().getTitle(), text.get().getSummary());
+        } else {
+            index.remove(articleId);
+        }
+    }
+
+    private static List<Long> boxed(long[] ids) {
+        return Arrays.stream(ids).boxed().toList();
+    }
+}
@@ -2,11 +2,17 @@ package com.blog.service.impl;
 
 import com.blog.entity.Article;
 import com.blog.entity.ArticleStatus;
+import com.blog.event.ArticleChangedEvent;
+import com.blog.event.MarkdownFileChangedEvent;
 import com.blog.exception.ArticleNotFoundException;
 import com.blog.exception.ValidationException;
 import com.blog.repository.ArticleRepository;
+import com.blog.service.ArticleFilterService;
 import com.blog.service.ArticleService;
+import com.blog.util.ContentFingerprint;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -22,10 +28,15 @@ import java.util.Optional;
 public class ArticleServiceImpl implements ArticleService {
     
     private final ArticleRepository articleRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ArticleFilterService filterService;
     
     @Autowired
-    public ArticleServiceImpl(ArticleRepository articleRepository) {
+    public ArticleServiceImpl(ArticleRepository articleRepository, ApplicationEventPublisher eventPublisher,
+                              ArticleFilterService filterService) {
         this.articleRepository = articleRepository;
+        this.eventPublisher = eventPublisher;
+        this.filterService = filterService;
     }
     
     @Override
@@ -42,7 +53,7 @@ public class ArticleServiceImpl implements ArticleService {
             article.setStatus(ArticleStatus.DRAFT);
         }
         
-        return articleRepository.save(article);
+        return publishSaved(articleRepository.save(article));
     }
     
     @Override
@@ -84,7 +95,8 @@ public class ArticleServiceImpl implements ArticleService {
         if (!StringUtils.hasText(title)) {
             throw new ValidationException("搜索标题不能为空");
         }
-        return articleRepository.findByTitleContainingIgnoreCase(title, pageable);
+        return filterService.findByTitle(title, pageable)
+                .orElseGet(() -> articleRepository.findByTitleContainingIgnoreCase(title, pageable));
     }
     
     @Override
@@ -128,7 +140,7 @@ public class ArticleServiceImpl implements ArticleService {
             existingArticle.setTags(updatedArticle.getTags());
         }
         
-        return articleRepository.save(existingArticle);
+        return publishSaved(articleRepository.save(existingArticle));
     }
     
     @Override
@@ -147,7 +159,7 @@ public class ArticleServiceImpl implements ArticleService {
             article.setPublishedAt(LocalDateTime.now());
         }
         
-        return articleRepository.save(article);
+        return publishSaved(articleRepository.save(article));
     }
     
     @Override
@@ -156,6 +168,7 @@ public class ArticleServiceImpl implements ArticleService {
             throw new ArticleNotFoundException("文章不存在，ID: " + id);
         }
         articleRepository.deleteById(id);
+        eventPublisher.publishEvent(new ArticleChangedEvent(id, ArticleChangedEvent.Kind.DELETED));
     }
     
     @Override
@@ -178,7 +191,7 @@ public class ArticleServiceImpl implements ArticleService {
         }
         
         article.addTag(tag.trim());
-        return articleRepository.save(article);
+        return publishSaved(articleRepository.save(article));
     }
     
     @Override
@@ -191,7 +204,21 @@ public class ArticleServiceImpl implements ArticleService {
         }
         
         article.removeTag(tag.trim());
-        return articleRepository.save(article);
+        return publishSaved(articleRepository.save(article));
+    }
+    
+    /**
+     * 文件被外部修改后同步文章的内容指纹；删除时清空，之后按文件属性生成版本
+     */
+    @EventListener
+    public void onMarkdownFileChanged(MarkdownFileChangedEvent event) {
+        if (!event.external()) {
+            return;
+        }
+        ContentFingerprint fingerprint = event.fingerprint();
+        articleRepository.updateContentFingerprintByPath(event.path(),
+                fingerprint != null ? fingerprint.hash() : null,
+                fingerprint != null ? fingerprint.length() : null);
     }
     
     @Override
@@ -203,6 +230,11 @@ public class ArticleServiceImpl implements ArticleService {
         return articleRepository.existsBySlug(slug);
     }
     
+    private Article publishSaved(Article article) {
+        eventPublisher.publishEvent(new ArticleChangedEvent(article.getId(), ArticleChangedEvent.Kind.SAVED));
+        return article;
+    }
+    
     private void validateArticle(Article article) {
         if (article == null) {
             throw new ValidationException("文章对象不能为空");
@@ -0,0 +1,374 @@
+package com.blog.service.impl;
+
+import com.blog.config.MarkdownCacheProperties;
+import com.blog.event.MarkdownFileChangedEvent;
+import com.blog.exception.FileOperationException;
+import com.blog.service.FileService;
+import com.blog.service.MarkdownFileEntry;
+import com.blog.service.MarkdownSnapshot;
+import com.blog.service.StagedMarkdown;
+import com.blog.util.ContentFingerprint;
+import com.blog.util.WriteDurability;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 带内容缓存的文件服务
+ * 包装FileServiceImpl（仅用于每篇一个文件的存储后端），按绝对路径缓存Markdown内容的快照（UTF-8字节和指纹），
+ * 读取文本、字节和快照（读取接口的ETag和内容）都经过缓存；总量按估算的堆内存占用限制并以LRU淘汰。
+ * 经本服务的写入和删除会同步移除缓存，目录监听发现的外部修改也会移除缓存；
+ * 复检间隔内的命中不访问文件系统，超过间隔后比对修改时间和大小，以发现未被监听到的外部修改
+ */
+@Service
+@Primary
+@ConditionalOnExpression("${blog.storage.cache.enabled:true} and '${blog.storage.backend:files}'.equalsIgnoreCase('files')")
+public class CachingFileService implements FileService {
+
+    // 条目除内容数组外的固定开销估算：缓存条目、快照、指纹及其64位十六进制字符串、LinkedHashMap节点和路径键
+    private static final long ENTRY_OVERHEAD_BYTES = 384;
+
+    private final FileServiceImpl delegate;
+    private final MarkdownCacheProperties properties;
+    private final long revalidateNanos;
+
+    // 按访问顺序排列的缓存条目，由自身加锁保护
+    private final LinkedHashMap<Path, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long residentBytes;
+
+    // 每次写入后递增；读取期间发生过写入时不缓存读到的内容，避免旧内容覆盖写入后的失效
+    private final AtomicLong writeGeneration = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public CachingFileService(FileServiceImpl delegate, MarkdownCacheProperties properties,
+                              MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.properties = properties;
+        this.revalidateNanos = properties.getRevalidateInterval().toNanos();
+
+        FunctionCounter.builder("blog.markdown.cache.requests", hits, LongAdder::sum)
+                .description("Markdown内容缓存的查询次数")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("blog.markdown.cache.requests", misses, LongAdder::sum)
+                .description("Markdown内容缓存的查询次数")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        FunctionCounter.builder("blog.markdown.cache.evictions", evictions, LongAdder::sum)
+                .description("Markdown内容缓存淘汰的条目数")
+                .register(meterRegistry);
+        Gauge.builder("blog.markdown.cache.hit.ratio", this, CachingFileService::hitRatio)
+                .description("Markdown内容缓存的命中率")
+                .register(meterRegistry);
+        Gauge.builder("blog.markdown.cache.resident.bytes", this, CachingFileService::residentBytes)
+                .description("Markdown内容缓存估算的堆内存占用字节数")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String readMarkdownFile(String filePath) throws IOException {
+        return new String(readExisting(filePath).getContent(), StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public ByteBuffer readMarkdownBytes(String filePath) throws IOException {
+        return readExisting(filePath).asByteBuffer();
+    }
+
+    @Override
+    public MarkdownSnapshot readMarkdownSnapshot(String filePath) throws IOException {
+        if (!StringUtils.hasText(filePath)) {
+            return delegate.readMarkdownSnapshot(filePath);
+        }
+        Path path = delegate.getAbsolutePath(filePath);
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(path);
+        }
+        if (entry != null && isFresh(path, entry)) {
+            hits.increment();
+            return entry.snapshot;
+        }
+        misses.increment();
+
+        long generation = writeGeneration.get();
+        // 快照的修改时间与内容属于同一版本，复检时按它比对
+        MarkdownSnapshot snapshot = delegate.readMarkdownSnapshot(filePath);
+        if (snapshot.getSize() <= properties.getMaxEntryBytes()) {
+            put(path, new Entry(snapshot, System.nanoTime()), generation);
+        }
+        return snapshot;
+    }
+
+    @Override
+    public Optional<MarkdownSnapshot> getCachedSnapshot(String filePath) {
+        if (!StringUtils.hasText(filePath)) {
+            return Optional.empty();
+        }
+        Path path = delegate.getAbsolutePath(filePath);
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(path);
+        }
+        if (entry != null && isFresh(path, entry)) {
+            hits.increment();
+            return Optional.of(entry.snapshot);
+        }
+        misses.increment();
+        return Optional.empty();
+    }
+
+    @Override
+    public MarkdownFileEntry readMarkdownEntry(String filePath) throws IOException {
+        return delegate.readMarkdownEntry(filePath);
+    }
+
+    @Override
+    public BasicFileAttributes readAttributes(String filePath) throws IOException {
+        return delegate.readAttributes(filePath);
+    }
+
+    @Override
+    public String saveMarkdownFile(String filename, String content) throws IOException {
+        // 新文件使用唯一文件名，不会与已缓存的路径重复
+        return delegate.saveMarkdownFile(filename, content);
+    }
+
+    @Override
+    public String saveMarkdownFile(String filename, String content, WriteDurability durability) throws IOException {
+        return delegate.saveMarkdownFile(filename, content, durability);
+    }
+
+    @Override
+    public ContentFingerprint updateMarkdownFile(String filePath, String content) throws IOException {
+        try {
+            return delegate.updateMarkdownFile(filePath, content);
+        } finally {
+            invalidate(filePath);
+        }
+    }
+
+    @Override
+    public ContentFingerprint updateMarkdownFile(String filePath, String content, WriteDurability durability) throws IOException {
+        try {
+            return delegate.updateMarkdownFile(filePath, content, durability);
+        } finally {
+            invalidate(filePath);
+        }
+    }
+
+    @Override
+    public ContentFingerprint updateMarkdownFile(String filePath, ContentSource source, ContentFingerprint current)
+            throws IOException {
+        try {
+            return delegate.updateMarkdownFile(filePath, source, current);
+        } finally {
+            invalidate(filePath);
+        }
+    }
+
+    @Override
+    public StagedMarkdown stageMarkdownFile(String filePath, ContentSource source) throws IOException {
+        return delegate.stageMarkdownFile(filePath, source);
+    }
+
+    @Override
+    public boolean commitMarkdownFile(StagedMarkdown staged, ContentFingerprint current) throws IOException {
+        try {
+            return delegate.commitMarkdownFile(staged, current);
+        } finally {
+            invalidate(staged.getFilePath());
+        }
+    }
+
+    @Override
+    public void deleteMarkdownFile(String filePath) throws IOException {
+        try {
+            delegate.deleteMarkdownFile(filePath);
+        } finally {
+            invalidate(filePath);
+        }
+    }
+
+    @Override
+    public boolean fileExists(String filePath) {
+        return delegate.fileExists(filePath);
+    }
+
+    @Override
+    public long getFileSize(String filePath) throws IOException {
+        return delegate.getFileSize(filePath);
+    }
+
+    @Override
+    public List<String> listMarkdownFiles() throws IOException {
+        return delegate.listMarkdownFiles();
+    }
+
+    @Override
+    public void createDirectoryIfNotExists(String directoryPath) throws IOException {
+        delegate.createDirectoryIfNotExists(directoryPath);
+    }
+
+    @Override
+    public boolean isValidFilePath(String filePath) {
+        return delegate.isValidFilePath(filePath);
+    }
+
+    @Override
+    public String generateUniqueFilename(String originalFilename) {
+        return delegate.generateUniqueFilename(originalFilename);
+    }
+
+    @Override
+    public String getLayoutPath(String filename) {
+        return delegate.getLayoutPath(filename);
+    }
+
+    @Override
+    public Path getAbsolutePath(String relativePath) {
+        return delegate.getAbsolutePath(relativePath);
+    }
+
+    /**
+     * 目录监听发现的外部修改
+     */
+    @EventListener
+    public void onMarkdownFileChanged(MarkdownFileChangedEvent event) {
+        if (event.external()) {
+            invalidate(event.path());
+        }
+    }
+
+    /**
+     * 当前缓存条目估算的堆内存占用字节数
+     */
+    public long residentBytes() {
+        synchronized (entries) {
+            return residentBytes;
+        }
+    }
+
+    /**
+     * 累计命中率，尚无请求时为0
+     */
+    public double hitRatio() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    /**
+     * 判断缓存条目是否仍然有效：复检间隔内直接认为有效，否则比对文件的修改时间和大小
+     */
+    private boolean isFresh(Path path, Entry entry) {
+        if (System.nanoTime() - entry.validatedAt < revalidateNanos) {
+            return true;
+        }
+        BasicFileAttributes attributes = readAttributes(path);
+        if (attributes == null
+                || attributes.size() != entry.snapshot.getSize()
+                || attributes.lastModifiedTime().toMillis() != entry.snapshot.getLastModified()) {
+            remove(path);
+            return false;
+        }
+        entry.validatedAt = System.nanoTime();
+        return true;
+    }
+
+    private void put(Path path, Entry entry, long generation) {
+        synchronized (entries) {
+            if (writeGeneration.get() != generation) {
+                return;
+            }
+            Entry previous = entries.put(path, entry);
+            if (previous != null) {
+                residentBytes -= previous.heapBytes;
+            }
+            residentBytes += entry.heapBytes;
+
+            Iterator<Map.Entry<Path, Entry>> iterator = entries.entrySet().iterator();
+            while (residentBytes > properties.getMaxBytes() && iterator.hasNext()) {
+                Map.Entry<Path, Entry> eldest = iterator.next();
+                residentBytes -= eldest.getValue().heapBytes;
+                iterator.remove();
+                evictions.increment();
+            }
+        }
+    }
+
+    private void invalidate(String filePath) {
+        writeGeneration.incrementAndGet();
+        if (!StringUtils.hasText(filePath)) {
+            return;
+        }
+        remove(delegate.getAbsolutePath(filePath));
+    }
+
+    private void remove(Path path) {
+        synchronized (entries) {
+            Entry removed = entries.remove(path);
+            if (removed != null) {
+                residentBytes -= removed.heapBytes;
+            }
+        }
+    }
+
+    private static BasicFileAttributes readAttributes(Path path) {
+        try {
+            return Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 读取时文件不存在与其他读取方法一样报告为FileOperationException
+     */
+    private MarkdownSnapshot readExisting(String filePath) throws IOException {
+        try {
+            return readMarkdownSnapshot(filePath);
+        } catch (NoSuchFileException e) {
+            throw new FileOperationException("文件不存在: " + filePath);
+        }
+    }
+
+    /**
+     * 缓存条目，heapBytes为估算的堆内存占用：内容数组（16字节对象头，按8字节对齐）加固定开销
+     */
+    private static final class Entry {
+        final MarkdownSnapshot snapshot;
+        final long heapBytes;
+        volatile long validatedAt;
+
+        Entry(MarkdownSnapshot snapshot, long validatedAt) {
+            this.snapshot = snapshot;
+            this.heapBytes = ENTRY_OVERHEAD_BYTES + ((16L + snapshot.getSize() + 7) & ~7L);
+            this.validatedAt = validatedAt;
+        }
+    }
+}
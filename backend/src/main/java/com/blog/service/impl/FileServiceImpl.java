@@ -1,32 +1,83 @@
 package com.blog.service.impl;
 
 import com.blog.config.StorageProperties;
+import com.blog.event.MarkdownFileChangedEvent;
 import com.blog.exception.FileOperationException;
 import com.blog.service.FileService;
+import com.blog.service.MarkdownFileEntry;
+import com.blog.service.MarkdownManifestService;
+import com.blog.service.MarkdownSnapshot;
+import com.blog.service.StagedMarkdown;
+import com.blog.util.AtomicFileWriter;
+import com.blog.util.ContentFingerprint;
+import com.blog.util.FingerprintingChannel;
+import com.blog.util.ShardedLayout;
+import com.blog.util.WriteDurability;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ApplicationEventPublisherAware;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 @Service
-public class FileServiceImpl implements FileService {
+@ConditionalOnProperty(prefix = "blog.storage", name = "backend", havingValue = "files", matchIfMissing = true)
+public class FileServiceImpl implements FileService, ApplicationEventPublisherAware {
+    
+    // 读取快照时文件持续变化的最多重试次数
+    private static final int SNAPSHOT_ATTEMPTS = 3;
+    // 缓存的内容哈希条数，每条约两百字节
+    private static final int HASH_CACHE_ENTRIES = 4096;
     
     private final StorageProperties storageProperties;
     private final Path markdownRoot;
+    private final ShardedLayout layout;
+    
+    // 按访问顺序排列的内容哈希，以文件标识、大小和修改时间校验，由自身加锁保护
+    private final LinkedHashMap<Path, CachedHash> hashes = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Path, CachedHash> eldest) {
+            return size() > HASH_CACHE_ENTRIES;
+        }
+    };
+    
+    private record CachedHash(Object fileKey, long size, FileTime lastModified, String hash) {
+        
+        boolean matches(BasicFileAttributes attributes) {
+            return Objects.equals(fileKey, attributes.fileKey())
+                    && size == attributes.size()
+                    && lastModified.equals(attributes.lastModifiedTime());
+        }
+    }
+    
+    // 写入和删除后发布文件变化事件（如维护文件清单），单独构造时为空
+    private ApplicationEventPublisher eventPublisher;
+    private MarkdownManifestService manifestService;
     
     @Autowired
     public FileServiceImpl(StorageProperties storageProperties) {
         this.storageProperties = storageProperties;
         this.markdownRoot = Paths.get(storageProperties.getMarkdownPath()).toAbsolutePath().normalize();
+        this.layout = new ShardedLayout(storageProperties.getShardDepth(), storageProperties.getShardWidth());
         
         // 初始化时创建目录
         try {
@@ -36,8 +87,23 @@ public class FileServiceImpl implements FileService {
         }
     }
     
+    @Override
+    public void setApplicationEventPublisher(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+    
+    @Autowired(required = false)
+    public void setManifestService(MarkdownManifestService manifestService) {
+        this.manifestService = manifestService;
+    }
+    
     @Override
     public String saveMarkdownFile(String filename, String content) throws IOException {
+        return saveMarkdownFile(filename, content, storageProperties.getWriteDurability());
+    }
+    
+    @Override
+    public String saveMarkdownFile(String filename, String content, WriteDurability durability) throws IOException {
         if (!StringUtils.hasText(filename)) {
             throw new FileOperationException("文件名不能为空");
         }
@@ -53,7 +119,7 @@ public class FileServiceImpl implements FileService {
         
         // 生成唯一文件名以避免冲突
         String uniqueFilename = generateUniqueFilename(filename);
-        Path filePath = markdownRoot.resolve(uniqueFilename);
+        Path filePath = markdownRoot.resolve(getLayoutPath(uniqueFilename));
         
         // 验证路径安全性
         if (!isValidFilePath(filePath.toString())) {
@@ -65,11 +131,12 @@ public class FileServiceImpl implements FileService {
             Files.createDirectories(filePath.getParent());
             
             // 写入文件
-            Files.write(filePath, content.getBytes(StandardCharsets.UTF_8), 
-                       StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            ContentFingerprint fingerprint = writeContent(filePath, content, durability);
             
             // 返回相对路径
-            return markdownRoot.relativize(filePath).toString();
+            String relativePath = markdownRoot.relativize(filePath).toString();
+            publish(relativePath, MarkdownFileChangedEvent.Kind.WRITTEN, fingerprint);
+            return relativePath;
             
         } catch (IOException e) {
             throw new FileOperationException("保存Markdown文件失败: " + uniqueFilename, e);
@@ -104,7 +171,120 @@ public class FileServiceImpl implements FileService {
     }
     
     @Override
-    public void updateMarkdownFile(String filePath, String content) throws IOException {
+    public ByteBuffer readMarkdownBytes(String filePath) throws IOException {
+        if (!StringUtils.hasText(filePath)) {
+            throw new FileOperationException("文件路径不能为空");
+        }
+        
+        Path absolutePath = getAbsolutePath(filePath);
+        
+        if (!isValidFilePath(absolutePath.toString())) {
+            throw new FileOperationException("文件路径不安全: " + filePath);
+        }
+        
+        try {
+            return ByteBuffer.wrap(Files.readAllBytes(absolutePath));
+        } catch (NoSuchFileException e) {
+            throw new FileOperationException("文件不存在: " + filePath);
+        } catch (IOException e) {
+            throw new FileOperationException("读取Markdown文件失败: " + filePath, e);
+        }
+    }
+    
+    @Override
+    public MarkdownSnapshot readMarkdownSnapshot(String filePath) throws IOException {
+        if (!StringUtils.hasText(filePath)) {
+            throw new FileOperationException("文件路径不能为空");
+        }
+        
+        Path absolutePath = getAbsolutePath(filePath);
+        
+        if (!isValidFilePath(absolutePath.toString())) {
+            throw new FileOperationException("文件路径不安全: " + filePath);
+        }
+        
+        // 读取前后的文件属性相同（同一个文件且未被修改）时，读到的内容即为该版本；
+        // 多次重试仍在变化时使用最后一次读到的内容，指纹总是由内容计算，只有修改时间可能不准确
+        for (int attempt = 1; ; attempt++) {
+            BasicFileAttributes before = Files.readAttributes(absolutePath, BasicFileAttributes.class);
+            byte[] content;
+            try (FileChannel channel = FileChannel.open(absolutePath, StandardOpenOption.READ)) {
+                content = readFully(channel, filePath);
+            }
+            BasicFileAttributes after = Files.readAttributes(absolutePath, BasicFileAttributes.class);
+            if ((sameVersion(before, after) && content.length == after.size()) || attempt >= SNAPSHOT_ATTEMPTS) {
+                return MarkdownSnapshot.of(content, after.lastModifiedTime().toMillis());
+            }
+        }
+    }
+    
+    @Override
+    public Optional<MarkdownSnapshot> getCachedSnapshot(String filePath) {
+        return Optional.empty();
+    }
+    
+    @Override
+    public MarkdownFileEntry readMarkdownEntry(String filePath) throws IOException {
+        if (!StringUtils.hasText(filePath)) {
+            throw new FileOperationException("文件路径不能为空");
+        }
+        
+        Path absolutePath = getAbsolutePath(filePath);
+        
+        if (!isValidFilePath(absolutePath.toString())) {
+            throw new FileOperationException("文件路径不安全: " + filePath);
+        }
+        
+        // 与读取快照相同，计算前后的文件属性相同时哈希属于该版本，才能缓存
+        for (int attempt = 1; ; attempt++) {
+            BasicFileAttributes before = Files.readAttributes(absolutePath, BasicFileAttributes.class);
+            CachedHash cached;
+            synchronized (hashes) {
+                cached = hashes.get(absolutePath);
+            }
+            if (cached != null && cached.matches(before)) {
+                return toEntry(absolutePath, before, cached.hash());
+            }
+            
+            ContentFingerprint fingerprint;
+            try (FileChannel channel = FileChannel.open(absolutePath, StandardOpenOption.READ)) {
+                fingerprint = ContentFingerprint.read(channel);
+            }
+            BasicFileAttributes after = Files.readAttributes(absolutePath, BasicFileAttributes.class);
+            if (sameVersion(before, after) && fingerprint.length() == after.size()) {
+                synchronized (hashes) {
+                    hashes.put(absolutePath, new CachedHash(after.fileKey(), after.size(),
+                            after.lastModifiedTime(), fingerprint.hash()));
+                }
+                return toEntry(absolutePath, after, fingerprint.hash());
+            }
+            if (attempt >= SNAPSHOT_ATTEMPTS) {
+                return new MarkdownFileEntry(markdownRoot.relativize(absolutePath).toString(), fingerprint.length(),
+                        after.lastModifiedTime().toMillis(), fingerprint.hash());
+            }
+        }
+    }
+    
+    private MarkdownFileEntry toEntry(Path absolutePath, BasicFileAttributes attributes, String hash) {
+        return new MarkdownFileEntry(markdownRoot.relativize(absolutePath).toString(), attributes.size(),
+                attributes.lastModifiedTime().toMillis(), hash);
+    }
+    
+    @Override
+    public BasicFileAttributes readAttributes(String filePath) throws IOException {
+        if (!StringUtils.hasText(filePath)) {
+            throw new FileOperationException("文件路径不能为空");
+        }
+        return Files.readAttributes(getAbsolutePath(filePath), BasicFileAttributes.class);
+    }
+    
+    @Override
+    public ContentFingerprint updateMarkdownFile(String filePath, String content) throws IOException {
+        return updateMarkdownFile(filePath, content, storageProperties.getWriteDurability());
+    }
+    
+    @Override
+    public ContentFingerprint updateMarkdownFile(String filePath, String content, WriteDurability durability) throws IOException {
         if (!StringUtils.hasText(filePath)) {
             throw new FileOperationException("文件路径不能为空");
         }
@@ -124,13 +304,115 @@ public class FileServiceImpl implements FileService {
         }
         
         try {
-            Files.write(absolutePath, content.getBytes(StandardCharsets.UTF_8), 
-                       StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            // 写入临时文件后原子替换，并发读取只会看到完整的旧内容或新内容
+            ContentFingerprint fingerprint = writeContent(absolutePath, content, durability);
+            publish(markdownRoot.relativize(absolutePath).toString(), MarkdownFileChangedEvent.Kind.WRITTEN, fingerprint);
+            return fingerprint;
+        } catch (IOException e) {
+            throw new FileOperationException("更新Markdown文件失败: " + filePath, e);
+        }
+    }
+    
+    @Override
+    public ContentFingerprint updateMarkdownFile(String filePath, ContentSource source, ContentFingerprint current) throws IOException {
+        try (StagedMarkdown staged = stageMarkdownFile(filePath, source)) {
+            commitMarkdownFile(staged, current);
+            return staged.getFingerprint();
+        }
+    }
+    
+    @Override
+    public StagedMarkdown stageMarkdownFile(String filePath, ContentSource source) throws IOException {
+        Path absolutePath = existingPath(filePath);
+        ContentFingerprint[] fingerprint = new ContentFingerprint[1];
+        try {
+            // 临时文件与目标同目录，提交时可以原子替换
+            Path tempFile = AtomicFileWriter.stage(absolutePath, storageProperties.getWriteDurability(), channel -> {
+                FingerprintingChannel fingerprinting = new FingerprintingChannel(channel);
+                source.writeTo(fingerprinting);
+                fingerprint[0] = fingerprinting.fingerprint();
+            });
+            return new StagedMarkdown(filePath, tempFile, fingerprint[0]);
         } catch (IOException e) {
             throw new FileOperationException("更新Markdown文件失败: " + filePath, e);
         }
     }
     
+    @Override
+    public boolean commitMarkdownFile(StagedMarkdown staged, ContentFingerprint current) throws IOException {
+        Path absolutePath = existingPath(staged.getFilePath());
+        if (staged.getFingerprint().equals(current)) {
+            return false;
+        }
+        try {
+            AtomicFileWriter.commit(staged.getFile(), absolutePath, storageProperties.getWriteDurability());
+        } catch (IOException e) {
+            throw new FileOperationException("更新Markdown文件失败: " + staged.getFilePath(), e);
+        }
+        publish(markdownRoot.relativize(absolutePath).toString(), MarkdownFileChangedEvent.Kind.WRITTEN,
+                staged.getFingerprint());
+        return true;
+    }
+    
+    /**
+     * 校验路径并确认文件存在
+     */
+    private Path existingPath(String filePath) {
+        if (!StringUtils.hasText(filePath)) {
+            throw new FileOperationException("文件路径不能为空");
+        }
+        
+        Path absolutePath = getAbsolutePath(filePath);
+        
+        if (!isValidFilePath(absolutePath.toString())) {
+            throw new FileOperationException("文件路径不安全: " + filePath);
+        }
+        
+        if (!Files.exists(absolutePath)) {
+            throw new FileOperationException("文件不存在: " + filePath);
+        }
+        return absolutePath;
+    }
+    
+    /**
+     * 从通道读取全部内容，大小取自打开的通道而非路径
+     */
+    private static byte[] readFully(FileChannel channel, String filePath) throws IOException {
+        long size = channel.size();
+        if (size > Integer.MAX_VALUE - 8) {
+            throw new FileOperationException("文件过大: " + filePath);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) size);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, buffer.position()) < 0) {
+                // 读取期间文件被截短
+                return Arrays.copyOf(buffer.array(), buffer.position());
+            }
+        }
+        return buffer.array();
+    }
+    
+    private static boolean sameVersion(BasicFileAttributes before, BasicFileAttributes after) {
+        return Objects.equals(before.fileKey(), after.fileKey())
+                && before.size() == after.size()
+                && before.lastModifiedTime().equals(after.lastModifiedTime());
+    }
+    
+    private void publish(String relativePath, MarkdownFileChangedEvent.Kind kind, ContentFingerprint fingerprint) {
+        if (eventPublisher != null) {
+            eventPublisher.publishEvent(new MarkdownFileChangedEvent(relativePath, kind, fingerprint));
+        }
+    }
+    
+    /**
+     * 按块编码写入，编码的同时计算内容指纹
+     */
+    private ContentFingerprint writeContent(Path target, String content, WriteDurability durability) throws IOException {
+        ContentFingerprint[] fingerprint = new ContentFingerprint[1];
+        AtomicFileWriter.write(target, durability, channel -> fingerprint[0] = ContentFingerprint.write(content, channel));
+        return fingerprint[0];
+    }
+    
     @Override
     public void deleteMarkdownFile(String filePath) throws IOException {
         if (!StringUtils.hasText(filePath)) {
@@ -149,6 +431,7 @@ public class FileServiceImpl implements FileService {
         
         try {
             Files.delete(absolutePath);
+            publish(markdownRoot.relativize(absolutePath).toString(), MarkdownFileChangedEvent.Kind.DELETED, null);
         } catch (IOException e) {
             throw new FileOperationException("删除Markdown文件失败: " + filePath, e);
         }
@@ -193,6 +476,9 @@ public class FileServiceImpl implements FileService {
     
     @Override
     public List<String> listMarkdownFiles() throws IOException {
+        if (manifestService != null && manifestService.isReady()) {
+            return manifestService.paths();
+        }
         try {
             if (!Files.exists(markdownRoot)) {
                 return List.of();
@@ -256,6 +542,13 @@ public class FileServiceImpl implements FileService {
     
     @Override
     public String generateUniqueFilename(String originalFilename) {
+        return uniqueFilename(originalFilename);
+    }
+    
+    /**
+     * 生成带时间戳和短UUID的唯一文件名，各存储后端共用
+     */
+    static String uniqueFilename(String originalFilename) {
         if (!StringUtils.hasText(originalFilename)) {
             originalFilename = "untitled.md";
         }
@@ -278,6 +571,11 @@ public class FileServiceImpl implements FileService {
         return String.format("%s_%s_%s.md", nameWithoutExt, timestamp, shortUuid);
     }
     
+    @Override
+    public String getLayoutPath(String filename) {
+        return layout.relativePath(null, filename);
+    }
+    
     @Override
     public Path getAbsolutePath(String relativePath) {
         if (!StringUtils.hasText(relativePath)) {
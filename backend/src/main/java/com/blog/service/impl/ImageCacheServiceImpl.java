@@ -0,0 +1,366 @@
+package com.blog.service.impl;
+
+import com.blog.config.ImageCacheProperties;
+import com.blog.entity.Image;
+import com.blog.service.CachedImageContent;
+import com.blog.service.ImageCacheService;
+import com.blog.util.BlockArena;
+import com.blog.util.FrequencySketch;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 热点图片缓存服务实现类
+ * 图片内容保存在启动时一次性分配的堆外内存块（BlockArena）中，不占用Java堆，运行期间不申请新的直接内存，
+ * 命中时直接从缓冲区写入响应。访问频率达到准入阈值之前图片不读入内存，由调用方以sendfile发送。
+ * 条目被淘汰后，其内存块在正在发送的请求全部释放引用后才归还复用。
+ * 淘汰策略为W-TinyLFU：新条目先进入占容量1%的窗口LRU，溢出后进入主区的试用段，
+ * 与试用段中最久未访问的条目按访问频率比较，频率更高者留下；试用段中再次被访问的条目晋升到保护段。
+ * 所有容量按条目占用的整块字节数计算
+ */
+@Service
+public class ImageCacheServiceImpl implements ImageCacheService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageCacheServiceImpl.class);
+
+    private static final int WINDOW = 0;
+    private static final int PROBATION = 1;
+    private static final int PROTECTED = 2;
+
+    private final ImageCacheProperties properties;
+    private final BlockArena arena;
+    private final long maxBytes;
+    private final long windowMaxBytes;
+    private final long protectedMaxBytes;
+
+    private final ConcurrentHashMap<Long, Node> data = new ConcurrentHashMap<>();
+
+    // 以下结构均由policyLock保护，按插入顺序排列，表头为最久未访问
+    private final ReentrantLock policyLock = new ReentrantLock();
+    private final FrequencySketch sketch;
+    private final LinkedHashMap<Long, Node> window = new LinkedHashMap<>();
+    private final LinkedHashMap<Long, Node> probation = new LinkedHashMap<>();
+    private final LinkedHashMap<Long, Node> protectedSegment = new LinkedHashMap<>();
+    private long windowBytes;
+    private long probationBytes;
+    private long protectedBytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public ImageCacheServiceImpl(ImageCacheProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.arena = properties.isEnabled() && properties.getMaxBytes() >= properties.getBlockBytes()
+                ? new BlockArena(properties.getMaxBytes(), properties.getBlockBytes())
+                : null;
+        this.maxBytes = arena != null ? arena.capacity() : 0;
+        this.windowMaxBytes = maxBytes / 100;
+        this.protectedMaxBytes = (maxBytes - windowMaxBytes) * 80 / 100;
+        // 按平均每张图片约8KB估计需要跟踪的键数量
+        this.sketch = new FrequencySketch((int) Math.min(Math.max(0, properties.getMaxBytes()) / 8192, 1 << 20));
+
+        FunctionCounter.builder("blog.image.cache.requests", hits, LongAdder::sum)
+                .description("热点图片缓存的查询次数")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("blog.image.cache.requests", misses, LongAdder::sum)
+                .description("热点图片缓存的查询次数")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        FunctionCounter.builder("blog.image.cache.evictions", evictions, LongAdder::sum)
+                .description("热点图片缓存淘汰的条目数")
+                .register(meterRegistry);
+        Gauge.builder("blog.image.cache.resident.bytes", this, ImageCacheServiceImpl::residentBytes)
+                .description("热点图片缓存占用的堆外内存")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("blog.image.cache.arena.used.bytes", this, ImageCacheServiceImpl::arenaUsedBytes)
+                .description("热点图片缓存已分配的堆外内存，含已淘汰但仍在发送中的条目")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("blog.image.cache.entries", data, Map::size)
+                .description("热点图片缓存的条目数")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public CachedImageContent get(Long imageId) {
+        if (!properties.isEnabled() || arena == null || imageId == null) {
+            return null;
+        }
+        Node node = data.get(imageId);
+        // 与淘汰并发时内容可能已被释放，按未命中处理
+        if (node == null || !node.content.retain()) {
+            misses.increment();
+            recordAccess(imageId, null);
+            return null;
+        }
+        hits.increment();
+        recordAccess(imageId, node);
+        return node.content;
+    }
+
+    @Override
+    public CachedImageContent load(Image image, Path file, String etag, long lastModified) {
+        Long key = image.getId();
+        if (!properties.isEnabled() || arena == null || key == null) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size == 0 || size > properties.getMaxEntryBytes() || size > maxBytes) {
+                return null;
+            }
+            int[] blocks = reserve(key, size);
+            if (blocks == null) {
+                return null;
+            }
+            ByteBuffer[] segments;
+            try {
+                segments = read(channel, blocks, size);
+            } catch (IOException | RuntimeException e) {
+                arena.free(blocks);
+                throw e;
+            }
+            CachedImageContent content = new CachedImageContent(segments, image.getMimeType(), etag, lastModified,
+                    () -> arena.free(blocks));
+            return admit(key, content, (long) blocks.length * arena.blockSize());
+        } catch (IOException e) {
+            logger.warn("读取图片到缓存失败: ID={}, {}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public void invalidate(Long imageId) {
+        if (imageId == null) {
+            return;
+        }
+        policyLock.lock();
+        try {
+            Node node = data.remove(imageId);
+            if (node != null) {
+                unlink(node);
+                node.content.close();
+            }
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    /**
+     * 当前缓存占用的字节数
+     */
+    public long residentBytes() {
+        policyLock.lock();
+        try {
+            return windowBytes + probationBytes + protectedBytes;
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    /**
+     * 已分配的堆外内存字节数
+     */
+    public long arenaUsedBytes() {
+        return arena != null ? arena.usedBytes() : 0;
+    }
+
+    /**
+     * 记录访问频率并调整条目位置；锁被占用时放弃本次记录，读路径不因维护淘汰顺序而阻塞
+     */
+    private void recordAccess(Long key, Node node) {
+        if (!policyLock.tryLock()) {
+            return;
+        }
+        try {
+            sketch.increment(key);
+            if (node != null && data.get(key) == node) {
+                onHit(node);
+            }
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    /**
+     * 图片已成为热点时为其分配内存块，必要时先按淘汰策略腾出空间
+     *
+     * @return 分配的块；图片不够热、已被其他请求缓存或内存块仍被发送中的请求占用时返回null
+     */
+    private int[] reserve(Long key, long size) {
+        policyLock.lock();
+        try {
+            if (data.containsKey(key) || sketch.frequency(key) < properties.getAdmissionFrequency()) {
+                return null;
+            }
+            evict((long) arena.blocksFor(size) * arena.blockSize());
+            return arena.allocate(size);
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    private ByteBuffer[] read(FileChannel channel, int[] blocks, long size) throws IOException {
+        ByteBuffer[] segments = new ByteBuffer[blocks.length];
+        long remaining = size;
+        for (int i = 0; i < blocks.length; i++) {
+            ByteBuffer segment = arena.block(blocks[i]);
+            segment.limit((int) Math.min(remaining, segment.capacity()));
+            while (segment.hasRemaining()) {
+                if (channel.read(segment) < 0) {
+                    throw new IOException("读取图片时文件被截断");
+                }
+            }
+            segment.flip();
+            segments[i] = segment;
+            remaining -= segment.remaining();
+        }
+        return segments;
+    }
+
+    /**
+     * 加入缓存，返回的内容已为调用方增加一个引用
+     */
+    private CachedImageContent admit(Long key, CachedImageContent content, long weight) {
+        policyLock.lock();
+        try {
+            if (data.containsKey(key)) {
+                // 读取期间已被其他请求缓存，本次读取的内容只供调用方使用
+                return content;
+            }
+            content.retain();
+            Node node = new Node(key, content, weight);
+            data.put(key, node);
+            node.segment = WINDOW;
+            window.put(key, node);
+            windowBytes += node.weight;
+            evict(0);
+            return content;
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    private void onHit(Node node) {
+        switch (node.segment) {
+            case WINDOW -> moveToTail(window, node);
+            case PROBATION -> {
+                probation.remove(node.key);
+                probationBytes -= node.weight;
+                node.segment = PROTECTED;
+                protectedSegment.put(node.key, node);
+                protectedBytes += node.weight;
+                // 保护段超出容量时，把最久未访问的条目降回试用段
+                while (protectedBytes > protectedMaxBytes) {
+                    Node demoted = pollFirst(protectedSegment);
+                    protectedBytes -= demoted.weight;
+                    demoted.segment = PROBATION;
+                    probation.put(demoted.key, demoted);
+                    probationBytes += demoted.weight;
+                }
+            }
+            default -> moveToTail(protectedSegment, node);
+        }
+    }
+
+    /**
+     * 窗口溢出的条目移入试用段，总量超出上限时由候选者（试用段最新条目）与受害者（试用段最旧条目）按频率决出淘汰者
+     *
+     * @param pending 即将加入的条目字节数，为其预留空间
+     */
+    private void evict(long pending) {
+        while (windowBytes > windowMaxBytes && !window.isEmpty()) {
+            Node candidate = pollFirst(window);
+            windowBytes -= candidate.weight;
+            candidate.segment = PROBATION;
+            probation.put(candidate.key, candidate);
+            probationBytes += candidate.weight;
+        }
+
+        while (windowBytes + probationBytes + protectedBytes + pending > maxBytes
+                && windowBytes + probationBytes + protectedBytes > 0) {
+            Node victim;
+            if (probation.isEmpty()) {
+                victim = !protectedSegment.isEmpty() ? first(protectedSegment) : first(window);
+            } else {
+                victim = first(probation);
+                Node candidate = last(probation);
+                if (candidate != victim && sketch.frequency(candidate.key) <= sketch.frequency(victim.key)) {
+                    victim = candidate;
+                }
+            }
+            data.remove(victim.key, victim);
+            unlink(victim);
+            victim.content.close();
+            evictions.increment();
+        }
+    }
+
+    private void unlink(Node node) {
+        switch (node.segment) {
+            case WINDOW -> {
+                window.remove(node.key);
+                windowBytes -= node.weight;
+            }
+            case PROBATION -> {
+                probation.remove(node.key);
+                probationBytes -= node.weight;
+            }
+            default -> {
+                protectedSegment.remove(node.key);
+                protectedBytes -= node.weight;
+            }
+        }
+    }
+
+    private static void moveToTail(LinkedHashMap<Long, Node> segment, Node node) {
+        segment.remove(node.key);
+        segment.put(node.key, node);
+    }
+
+    private static Node first(LinkedHashMap<Long, Node> segment) {
+        return segment.firstEntry().getValue();
+    }
+
+    private static Node last(LinkedHashMap<Long, Node> segment) {
+        return segment.lastEntry().getValue();
+    }
+
+    private static Node pollFirst(LinkedHashMap<Long, Node> segment) {
+        return segment.pollFirstEntry().getValue();
+    }
+
+    /**
+     * 缓存条目，segment由policyLock保护
+     */
+    private static final class Node {
+        final Long key;
+        final CachedImageContent content;
+        final int weight;
+        int segment;
+
+        Node(Long key, CachedImageContent content, long weight) {
+            this.key = key;
+            this.content = content;
+            this.weight = (int) weight;
+        }
+    }
+}
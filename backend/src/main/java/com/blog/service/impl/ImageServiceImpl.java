@@ -1,9 +1,17 @@
 package com.blog.service.impl;
 
+import com.blog.config.StorageProperties;
 import com.blog.entity.Image;
 import com.blog.exception.ImageNotFoundException;
 import com.blog.repository.ImageRepository;
+import com.blog.repository.ImageSummary;
+import com.blog.service.ImageCacheService;
 import com.blog.service.ImageService;
+import com.blog.service.ImageUploadOutcome;
+import com.blog.util.ImageFormat;
+import com.blog.util.ShardedLayout;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,19 +20,39 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * 图片处理服务实现类
@@ -36,51 +64,125 @@ public class ImageServiceImpl implements ImageService {
     private static final Logger logger = LoggerFactory.getLogger(ImageServiceImpl.class);
     
     // 支持的图片格式
-    private static final Set<String> SUPPORTED_MIME_TYPES = Set.of(
-        "image/jpeg", "image/jpg", "image/png", "image/gif", "image/webp"
-    );
+    private static final List<String> SUPPORTED_MIME_TYPES = Arrays.stream(ImageFormat.values())
+        .map(ImageFormat::getMimeType)
+        .toList();
     
     // 最大文件大小：5MB
     private static final long MAX_FILE_SIZE = 5 * 1024 * 1024;
     
+    // 批量上传单次最多文件数
+    private static final int MAX_BATCH_FILES = 50;
+    
+    // 上传内容的复制缓冲区大小
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+    
     @Autowired
     private ImageRepository imageRepository;
     
+    @Autowired
+    private StorageProperties storageProperties;
+    
+    @Autowired
+    private ImageCacheService imageCacheService;
+    
     @Value("${app.image.storage.path:data/images}")
     private String imageStoragePath;
     
+    // 按内容哈希分段的上传锁
+    private final ReentrantLock[] contentHashLocks = createLocks(64);
+    
+    // 批量上传的文件处理线程（虚拟线程），并发数由许可数限制
+    private final ExecutorService batchUploadExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private Semaphore batchUploadPermits;
+    
+    @Value("${app.image.batch.parallelism:4}")
+    private int batchParallelism;
+    
+    // 图片元数据缓存，供条件请求校验使用；图片内容上传后不再变化，只在删除时移除
+    @Value("${app.image.metadata-cache-size:4096}")
+    private int metadataCacheSize;
+    private Map<Long, ImageSummary> summariesById;
+    private Map<String, ImageSummary> summariesByFilename;
+    
+    @PostConstruct
+    void initBatchUpload() {
+        batchUploadPermits = new Semaphore(Math.max(1, batchParallelism));
+    }
+    
+    @PostConstruct
+    void initMetadataCache() {
+        summariesById = createLruMap(metadataCacheSize);
+        summariesByFilename = createLruMap(metadataCacheSize);
+    }
+    
+    @PreDestroy
+    void shutdownBatchUpload() {
+        batchUploadExecutor.shutdownNow();
+    }
+    
     @Override
     public Image uploadImage(MultipartFile file, String description) {
-        logger.info("开始上传图片: {}", file.getOriginalFilename());
+        logger.info("开始上传图片: {}", file != null ? file.getOriginalFilename() : null);
         
-        // 验证文件
-        validateImageFile(file);
+        // 只做不需要读取内容的检查，格式在写入时根据文件头校验
+        validateFileSize(file);
         
+        try (InputStream in = file.getInputStream()) {
+            return uploadImage(in, file.getOriginalFilename(), description);
+        } catch (IOException e) {
+            logger.error("图片上传失败: {}", e.getMessage(), e);
+            throw new RuntimeException("图片上传失败: " + e.getMessage(), e);
+        }
+    }
+    
+    @Override
+    public Image uploadImage(InputStream content, String originalName, String description) {
+        Path tempFile = null;
+        boolean locked = false;
+        String contentHash = null;
         try {
-            // 生成唯一文件名
-            String filename = generateUniqueFilename(file.getOriginalFilename());
-            
             // 创建存储目录
             Path storageDir = Paths.get(imageStoragePath);
-            if (!Files.exists(storageDir)) {
-                Files.createDirectories(storageDir);
-            }
+            Files.createDirectories(storageDir);
             
-            // 保存文件到磁盘
-            Path filePath = storageDir.resolve(filename);
-            Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
+            // 单次读取上传内容，同时写入临时文件、计算SHA-256并校验文件头
+            tempFile = Files.createTempFile(storageDir, ".upload-", ".tmp");
+            IngestedContent ingested = ingest(content, tempFile);
+            contentHash = ingested.contentHash();
             
-            // 转换为Base64
-            String base64Content = convertToBase64(file);
+            // 同一内容的上传串行化，直到事务结束，保证去重查询能看到已提交的记录
+            lockContentHash(contentHash);
+            locked = true;
             
-            // 创建图片实体
+            Optional<Image> existing = imageRepository.findByContentHash(contentHash);
+            if (existing.isPresent()) {
+                Image image = existing.get();
+                if (!Files.isRegularFile(resolveImagePath(image))) {
+                    // 记录存在但磁盘文件丢失，用本次上传的内容修复
+                    Path filePath = getLayoutPath(image.getContentHash(), image.getFilename());
+                    Files.createDirectories(filePath.getParent());
+                    Files.move(tempFile, filePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                    image.setFilePath(filePath.toString());
+                    imageRepository.save(image);
+                }
+                logger.info("图片内容已存在，复用已有图片: ID={}, 哈希={}", image.getId(), contentHash);
+                return image;
+            }
+            
+            // 以内容哈希作为文件名，扩展名取自实际格式，相同内容只保存一份
+            String filename = contentHash + ingested.format().getExtension();
+            Path filePath = getLayoutPath(contentHash, filename);
+            placeFile(tempFile, filePath);
+            
+            // 创建图片实体（内容仅保存在磁盘上，不再写入base64_content列）
             Image image = new Image();
             image.setFilename(filename);
-            image.setOriginalName(file.getOriginalFilename());
+            image.setOriginalName(originalName != null && !originalName.isBlank() ? originalName : filename);
             image.setFilePath(filePath.toString());
-            image.setFileSize(file.getSize());
-            image.setMimeType(file.getContentType());
-            image.setBase64Content(base64Content);
+            image.setFileSize(ingested.size());
+            image.setMimeType(ingested.format().getMimeType());
+            image.setContentHash(contentHash);
             
             // 保存到数据库
             Image savedImage = imageRepository.save(image);
@@ -91,9 +193,231 @@ public class ImageServiceImpl implements ImageService {
         } catch (IOException e) {
             logger.error("图片上传失败: {}", e.getMessage(), e);
             throw new RuntimeException("图片上传失败: " + e.getMessage(), e);
+        } finally {
+            deleteQuietly(tempFile);
+            if (locked && !TransactionSynchronizationManager.isSynchronizationActive()) {
+                contentHashLock(contentHash).unlock();
+            }
         }
     }
     
+    @Override
+    public List<ImageUploadOutcome> uploadImages(List<MultipartFile> files) {
+        if (files == null || files.isEmpty()) {
+            throw new IllegalArgumentException("文件不能为空");
+        }
+        if (files.size() > MAX_BATCH_FILES) {
+            throw new IllegalArgumentException("单次最多上传 " + MAX_BATCH_FILES + " 个文件");
+        }
+        logger.info("开始批量上传图片: {} 个文件", files.size());
+        
+        ImageUploadOutcome[] outcomes = new ImageUploadOutcome[files.size()];
+        List<PreparedUpload> prepared = new ArrayList<>();
+        try {
+            Path storageDir = Paths.get(imageStoragePath);
+            Files.createDirectories(storageDir);
+            
+            // 第一阶段：并行校验并写入临时文件，不访问数据库
+            List<Future<PreparedUpload>> futures = new ArrayList<>(files.size());
+            for (int i = 0; i < files.size(); i++) {
+                int index = i;
+                futures.add(batchUploadExecutor.submit(() -> prepareUpload(index, files.get(index), storageDir)));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                String originalName = files.get(i).getOriginalFilename();
+                try {
+                    prepared.add(futures.get(i).get());
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    String message = cause instanceof IllegalArgumentException
+                            ? cause.getMessage()
+                            : "图片上传失败: " + cause.getMessage();
+                    if (!(cause instanceof IllegalArgumentException)) {
+                        logger.error("批量上传处理文件失败: {}", originalName, cause);
+                    }
+                    outcomes[i] = ImageUploadOutcome.failure(i, originalName, message);
+                }
+            }
+            
+            // 第二阶段：按内容哈希去重，把新文件移入存储位置，新记录一次批量插入
+            if (!prepared.isEmpty()) {
+                storePreparedUploads(prepared, outcomes);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("批量上传被中断", e);
+        } catch (IOException e) {
+            logger.error("批量上传失败: {}", e.getMessage(), e);
+            throw new RuntimeException("批量上传失败: " + e.getMessage(), e);
+        } finally {
+            for (PreparedUpload upload : prepared) {
+                deleteQuietly(upload.tempFile());
+            }
+        }
+        
+        logger.info("批量上传完成: 成功={}, 失败={}",
+                Arrays.stream(outcomes).filter(ImageUploadOutcome::isSuccess).count(),
+                Arrays.stream(outcomes).filter(outcome -> !outcome.isSuccess()).count());
+        return Arrays.asList(outcomes);
+    }
+    
+    /**
+     * 校验单个文件并写入临时文件，占用一个并发许可
+     */
+    private PreparedUpload prepareUpload(int index, MultipartFile file, Path storageDir)
+            throws IOException, InterruptedException {
+        batchUploadPermits.acquire();
+        Path tempFile = null;
+        try {
+            validateImageFile(file);
+            tempFile = Files.createTempFile(storageDir, ".upload-", ".tmp");
+            IngestedContent ingested;
+            try (InputStream in = file.getInputStream()) {
+                ingested = ingest(in, tempFile);
+            }
+            PreparedUpload upload = new PreparedUpload(index, file.getOriginalFilename(), tempFile, ingested);
+            tempFile = null;
+            return upload;
+        } finally {
+            deleteQuietly(tempFile);
+            batchUploadPermits.release();
+        }
+    }
+    
+    /**
+     * 保存已写入临时文件的上传内容，相同内容复用已有记录
+     */
+    private void storePreparedUploads(List<PreparedUpload> prepared, ImageUploadOutcome[] outcomes) {
+        // 与单张上传共用哈希锁，按锁的顺序加锁避免批量请求之间死锁
+        List<Integer> stripes = prepared.stream()
+                .map(upload -> contentHashLockIndex(upload.ingested().contentHash()))
+                .distinct()
+                .sorted()
+                .toList();
+        stripes.forEach(this::lockStripe);
+        try {
+            storeLocked(prepared, outcomes);
+        } finally {
+            if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+                stripes.forEach(stripe -> contentHashLocks[stripe].unlock());
+            }
+        }
+    }
+    
+    private void storeLocked(List<PreparedUpload> prepared, ImageUploadOutcome[] outcomes) {
+        Set<String> hashes = new HashSet<>();
+        prepared.forEach(upload -> hashes.add(upload.ingested().contentHash()));
+        Map<String, Image> imagesByHash = new HashMap<>();
+        for (Image image : imageRepository.findByContentHashIn(hashes)) {
+            imagesByHash.put(image.getContentHash(), image);
+        }
+        
+        List<Image> newImages = new ArrayList<>();
+        Map<String, List<PreparedUpload>> uploadsByHash = new LinkedHashMap<>();
+        for (PreparedUpload upload : prepared) {
+            String contentHash = upload.ingested().contentHash();
+            uploadsByHash.computeIfAbsent(contentHash, hash -> new ArrayList<>()).add(upload);
+            if (imagesByHash.containsKey(contentHash)) {
+                continue;
+            }
+            String filename = contentHash + upload.ingested().format().getExtension();
+            Path filePath = getLayoutPath(contentHash, filename);
+            try {
+                placeFile(upload.tempFile(), filePath);
+            } catch (IOException e) {
+                logger.error("批量上传写入文件失败: {}", upload.originalName(), e);
+                continue;
+            }
+            Image image = new Image();
+            image.setFilename(filename);
+            image.setOriginalName(upload.originalName() != null ? upload.originalName() : filename);
+            image.setFilePath(filePath.toString());
+            image.setFileSize(upload.ingested().size());
+            image.setMimeType(upload.ingested().format().getMimeType());
+            image.setContentHash(contentHash);
+            imagesByHash.put(contentHash, image);
+            newImages.add(image);
+        }
+        
+        imageRepository.insertAll(newImages);
+        
+        for (Map.Entry<String, List<PreparedUpload>> entry : uploadsByHash.entrySet()) {
+            Image image = imagesByHash.get(entry.getKey());
+            for (PreparedUpload upload : entry.getValue()) {
+                outcomes[upload.index()] = image != null && image.getId() != null
+                        ? ImageUploadOutcome.success(upload.index(), upload.originalName(), image)
+                        : ImageUploadOutcome.failure(upload.index(), upload.originalName(), "图片上传失败: 写入文件失败");
+            }
+        }
+    }
+    
+    /**
+     * 把临时文件移动到目标位置，目标已存在（相同内容）时只刷新修改时间
+     */
+    private void placeFile(Path tempFile, Path filePath) throws IOException {
+        if (!Files.exists(filePath)) {
+            Files.createDirectories(filePath.getParent());
+            Files.move(tempFile, filePath, StandardCopyOption.ATOMIC_MOVE);
+        } else {
+            // 复用尚无记录引用的同内容文件，刷新修改时间以免被孤儿文件回收任务隔离
+            Files.setLastModifiedTime(filePath, FileTime.from(Instant.now()));
+        }
+    }
+    
+    /**
+     * 批量上传中已校验并写入临时文件的内容
+     */
+    private record PreparedUpload(int index, String originalName, Path tempFile, IngestedContent ingested) {
+    }
+    
+    /**
+     * 使用固定大小的缓冲区把输入流写入目标文件，同时计算摘要并识别文件头
+     * 内存占用与文件大小无关，超过大小限制或格式不支持时立即中止
+     */
+    private IngestedContent ingest(InputStream in, Path target) throws IOException {
+        MessageDigest digest = newSha256();
+        byte[] buffer = new byte[COPY_BUFFER_SIZE];
+        byte[] header = new byte[ImageFormat.HEADER_LENGTH];
+        int headerLength = 0;
+        ImageFormat format = null;
+        long size = 0;
+        
+        try (OutputStream out = Files.newOutputStream(target)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                size += read;
+                if (size > MAX_FILE_SIZE) {
+                    throw new IllegalArgumentException(fileTooLargeMessage());
+                }
+                if (format == null) {
+                    int copy = Math.min(read, header.length - headerLength);
+                    System.arraycopy(buffer, 0, header, headerLength, copy);
+                    headerLength += copy;
+                    if (headerLength == header.length) {
+                        format = requireSupportedFormat(header, headerLength);
+                    }
+                }
+                digest.update(buffer, 0, read);
+                out.write(buffer, 0, read);
+            }
+        }
+        
+        if (size == 0) {
+            throw new IllegalArgumentException("文件不能为空");
+        }
+        if (format == null) {
+            // 文件比文件头还短
+            format = requireSupportedFormat(header, headerLength);
+        }
+        return new IngestedContent(size, HexFormat.of().formatHex(digest.digest()), format);
+    }
+    
+    /**
+     * 上传内容的摘要信息
+     */
+    private record IngestedContent(long size, String contentHash, ImageFormat format) {
+    }
+    
     @Override
     @Transactional(readOnly = true)
     public Optional<Image> getImageById(Long id) {
@@ -101,6 +425,75 @@ public class ImageServiceImpl implements ImageService {
         return imageRepository.findById(id);
     }
     
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Image> getImageByFilename(String filename) {
+        logger.debug("根据文件名获取图片信息: {}", filename);
+        return imageRepository.findByFilename(filename);
+    }
+    
+    @Override
+    public Optional<ImageSummary> getImageSummaryById(Long id) {
+        ImageSummary summary = summariesById.get(id);
+        if (summary == null) {
+            summary = imageRepository.findSummaryById(id).orElse(null);
+            cacheSummary(summary);
+        }
+        return Optional.ofNullable(summary);
+    }
+    
+    @Override
+    public Optional<ImageSummary> getImageSummaryByFilename(String filename) {
+        ImageSummary summary = summariesByFilename.get(filename);
+        if (summary == null) {
+            summary = imageRepository.findSummaryByFilename(filename).orElse(null);
+            cacheSummary(summary);
+        }
+        return Optional.ofNullable(summary);
+    }
+    
+    private void cacheSummary(ImageSummary summary) {
+        if (summary != null) {
+            summariesById.put(summary.getId(), summary);
+            summariesByFilename.put(summary.getFilename(), summary);
+        }
+    }
+    
+    private static <K> Map<K, ImageSummary> createLruMap(int maxEntries) {
+        return Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, ImageSummary> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+    
+    @Override
+    public Path resolveImagePath(Image image) {
+        return Paths.get(image.getFilePath());
+    }
+    
+    @Override
+    public Path getLayoutPath(String contentHash, String filename) {
+        // 内容寻址的图片以内容哈希分片，历史图片以文件名的哈希分片
+        String name = Paths.get(filename).getFileName().toString();
+        return Paths.get(imageStoragePath).resolve(layout().relativePath(contentHash, name));
+    }
+    
+    @Override
+    public String loadBase64Content(Image image) {
+        if (image.getBase64Content() != null) {
+            return stripDataUriPrefix(image.getBase64Content());
+        }
+        try {
+            byte[] fileBytes = Files.readAllBytes(resolveImagePath(image));
+            return Base64.getEncoder().encodeToString(fileBytes);
+        } catch (IOException e) {
+            logger.error("读取图片文件失败: ID={}, {}", image.getId(), e.getMessage(), e);
+            throw new RuntimeException("读取图片文件失败: " + e.getMessage(), e);
+        }
+    }
+    
     @Override
     public boolean deleteImage(Long id) {
         logger.info("删除图片: ID={}", id);
@@ -112,6 +505,8 @@ public class ImageServiceImpl implements ImageService {
         }
         
         Image image = imageOpt.get();
+        summariesById.remove(id);
+        summariesByFilename.remove(image.getFilename());
         
         try {
             // 删除磁盘文件
@@ -123,6 +518,7 @@ public class ImageServiceImpl implements ImageService {
             
             // 删除数据库记录
             imageRepository.delete(image);
+            imageCacheService.invalidate(id);
             
             logger.info("图片删除成功: ID={}", id);
             return true;
@@ -131,6 +527,7 @@ public class ImageServiceImpl implements ImageService {
             logger.error("删除图片文件失败: {}", e.getMessage(), e);
             // 即使文件删除失败，也删除数据库记录
             imageRepository.delete(image);
+            imageCacheService.invalidate(id);
             return true;
         }
     }
@@ -148,43 +545,123 @@ public class ImageServiceImpl implements ImageService {
     
     @Override
     public void validateImageFile(MultipartFile file) {
+        validateFileSize(file);
+        
+        // 根据文件头验证实际格式
+        byte[] header = new byte[ImageFormat.HEADER_LENGTH];
+        int headerLength;
+        try (InputStream in = file.getInputStream()) {
+            headerLength = in.readNBytes(header, 0, header.length);
+        } catch (IOException e) {
+            throw new RuntimeException("读取文件失败: " + e.getMessage(), e);
+        }
+        ImageFormat format = requireSupportedFormat(header, headerLength);
+        
+        // 验证文件扩展名
+        String originalFilename = file.getOriginalFilename();
+        if (originalFilename == null || !hasValidImageExtension(originalFilename)) {
+            throw new IllegalArgumentException("文件扩展名不正确");
+        }
+        
+        logger.debug("文件验证通过: {}, 大小: {} bytes, 格式: {}", 
+                    originalFilename, file.getSize(), format.getMimeType());
+    }
+    
+    /**
+     * 验证文件非空且未超过大小限制
+     */
+    private void validateFileSize(MultipartFile file) {
         if (file == null || file.isEmpty()) {
             throw new IllegalArgumentException("文件不能为空");
         }
-        
-        // 验证文件大小
         if (file.getSize() > MAX_FILE_SIZE) {
-            throw new IllegalArgumentException(
-                String.format("文件大小超过限制，最大允许 %d MB", MAX_FILE_SIZE / (1024 * 1024))
-            );
+            throw new IllegalArgumentException(fileTooLargeMessage());
         }
-        
-        // 验证MIME类型
-        String mimeType = file.getContentType();
-        if (mimeType == null || !SUPPORTED_MIME_TYPES.contains(mimeType.toLowerCase())) {
+    }
+    
+    /**
+     * 根据文件头识别格式，不支持时抛出异常
+     */
+    private ImageFormat requireSupportedFormat(byte[] header, int headerLength) {
+        ImageFormat format = ImageFormat.detect(header, headerLength);
+        if (format == null) {
             throw new IllegalArgumentException(
                 "不支持的文件格式，支持的格式: " + String.join(", ", SUPPORTED_MIME_TYPES)
             );
         }
-        
-        // 验证文件扩展名
-        String originalFilename = file.getOriginalFilename();
-        if (originalFilename == null || !hasValidImageExtension(originalFilename)) {
-            throw new IllegalArgumentException("文件扩展名不正确");
+        return format;
+    }
+    
+    private String fileTooLargeMessage() {
+        return String.format("文件大小超过限制，最大允许 %d MB", MAX_FILE_SIZE / (1024 * 1024));
+    }
+    
+    private static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256算法不可用", e);
         }
-        
-        logger.debug("文件验证通过: {}, 大小: {} bytes, MIME: {}", 
-                    originalFilename, file.getSize(), mimeType);
+    }
+    
+    private ShardedLayout layout() {
+        return new ShardedLayout(storageProperties.getShardDepth(), storageProperties.getShardWidth());
+    }
+    
+    /**
+     * 获取内容哈希对应的锁
+     */
+    private ReentrantLock contentHashLock(String contentHash) {
+        return contentHashLocks[contentHashLockIndex(contentHash)];
+    }
+    
+    private int contentHashLockIndex(String contentHash) {
+        return Math.floorMod(contentHash.hashCode(), contentHashLocks.length);
     }
     
     /**
-     * 生成唯一的文件名
+     * 锁定内容哈希，存在事务时在事务结束后释放
      */
-    private String generateUniqueFilename(String originalFilename) {
-        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
-        String uuid = UUID.randomUUID().toString().substring(0, 8);
-        String extension = getFileExtension(originalFilename);
-        return String.format("%s_%s%s", timestamp, uuid, extension);
+    private void lockContentHash(String contentHash) {
+        lockStripe(contentHashLockIndex(contentHash));
+    }
+    
+    /**
+     * 锁定指定分段，存在事务时在事务结束后释放，否则由调用方释放
+     */
+    private void lockStripe(int stripe) {
+        ReentrantLock lock = contentHashLocks[stripe];
+        lock.lock();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    lock.unlock();
+                }
+            });
+        }
+    }
+    
+    /**
+     * 删除临时文件，失败时只记录日志
+     */
+    private void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("删除临时文件失败: {}", path, e);
+        }
+    }
+    
+    private static ReentrantLock[] createLocks(int count) {
+        ReentrantLock[] locks = new ReentrantLock[count];
+        for (int i = 0; i < count; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        return locks;
     }
     
     /**
@@ -198,6 +675,19 @@ public class ImageServiceImpl implements ImageService {
         return lastDotIndex > 0 ? filename.substring(lastDotIndex) : "";
     }
     
+    /**
+     * 去除历史数据中可能存在的data URI前缀（如 data:image/png;base64,）
+     */
+    private String stripDataUriPrefix(String base64Content) {
+        if (base64Content.startsWith("data:")) {
+            int commaIndex = base64Content.indexOf(',');
+            if (commaIndex > 0) {
+                return base64Content.substring(commaIndex + 1);
+            }
+        }
+        return base64Content;
+    }
+    
     /**
      * 验证图片文件扩展名
      */
@@ -212,4 +702,11 @@ public class ImageServiceImpl implements ImageService {
         logger.debug("获取图片列表 - page: {}, size: {}", pageable.getPageNumber(), pageable.getPageSize());
         return imageRepository.findAll(pageable);
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<ImageSummary> getImageSummaries(Pageable pageable) {
+        logger.debug("获取图片元数据列表 - page: {}, size: {}", pageable.getPageNumber(), pageable.getPageSize());
+        return imageRepository.findAllSummaries(pageable);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,380 @@
+package com.blog.service.impl;
+
+import com.blog.config.ImageVariantProperties;
+import com.blog.entity.Image;
+import com.blog.exception.FileOperationException;
+import com.blog.exception.ServiceBusyException;
+import com.blog.service.ImageVariantService;
+import com.blog.service.ImageVariantSpec;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.FileImageInputStream;
+import javax.imageio.stream.FileImageOutputStream;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * 图片变体服务实现类
+ * 使用javax.imageio在有界线程池中完成解码和编码，结果按LRU缓存在磁盘上
+ */
+@Service
+public class ImageVariantServiceImpl implements ImageVariantService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageVariantServiceImpl.class);
+
+    private final ImageVariantProperties properties;
+    private final Path cacheDir;
+    private final ThreadPoolExecutor executor;
+
+    // 正在生成的变体，同一变体的并发请求共享同一个任务
+    private final ConcurrentHashMap<String, CompletableFuture<Path>> inFlight = new ConcurrentHashMap<>();
+
+    // 按访问顺序排列的缓存条目：变体文件名 -> 文件大小
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long residentBytes;
+
+    public ImageVariantServiceImpl(ImageVariantProperties properties) {
+        this.properties = properties;
+        this.cacheDir = Paths.get(properties.getPath()).toAbsolutePath().normalize();
+
+        int workers = properties.getWorkers() > 0
+                ? properties.getWorkers()
+                : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-variant-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+
+        try {
+            Files.createDirectories(cacheDir);
+            loadExistingEntries();
+        } catch (IOException e) {
+            throw new FileOperationException("无法初始化图片变体缓存目录: " + cacheDir, e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public Path getVariant(Image image, Path sourceFile, ImageVariantSpec spec) {
+        validateSpec(spec);
+
+        String format = outputFormat(image.getMimeType());
+        if (format == null) {
+            // GIF、WebP等格式不做缩放（避免丢失动画或缺少编解码器），直接返回原图
+            return sourceFile;
+        }
+
+        String key = variantKey(image, spec, format);
+        Path cached = lookup(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        CompletableFuture<Path> future;
+        try {
+            future = inFlight.computeIfAbsent(key, k -> submit(k, sourceFile, spec, format));
+        } catch (RejectedExecutionException e) {
+            logger.warn("图片处理队列已满，拒绝请求: {}", key);
+            throw new ServiceBusyException("图片处理繁忙，请稍后重试", e);
+        }
+
+        try {
+            return future.get(properties.getTimeoutMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new ServiceBusyException("图片处理超时，请稍后重试", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceBusyException("图片处理被中断", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IllegalArgumentException illegalArgument) {
+                throw illegalArgument;
+            }
+            throw new FileOperationException("生成图片变体失败: " + cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * 提交变体生成任务，任务结束后从进行中列表移除
+     */
+    private CompletableFuture<Path> submit(String key, Path sourceFile, ImageVariantSpec spec, String format) {
+        CompletableFuture<Path> future = new CompletableFuture<>();
+        executor.execute(() -> {
+            try {
+                future.complete(render(key, sourceFile, spec, format));
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            } finally {
+                inFlight.remove(key, future);
+            }
+        });
+        return future;
+    }
+
+    private void validateSpec(ImageVariantSpec spec) {
+        int max = properties.getMaxDimension();
+        if ((spec.getWidth() != null && spec.getWidth() > max)
+                || (spec.getHeight() != null && spec.getHeight() > max)) {
+            throw new IllegalArgumentException("图片宽高不能超过 " + max);
+        }
+    }
+
+    /**
+     * 解码源图片、缩放并编码写入缓存目录
+     */
+    private Path render(String key, Path sourceFile, ImageVariantSpec spec, String format) throws IOException {
+        long startTime = System.nanoTime();
+        BufferedImage decoded;
+        int sourceWidth;
+        int sourceHeight;
+        int[] target;
+
+        try (ImageInputStream input = new FileImageInputStream(sourceFile.toFile())) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                throw new IllegalArgumentException("无法解析图片内容");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                sourceWidth = reader.getWidth(0);
+                sourceHeight = reader.getHeight(0);
+                target = computeTargetSize(sourceWidth, sourceHeight, spec);
+
+                // 目标远小于原图时按整数倍降采样解码，减少内存和CPU开销，并保留2倍余量保证缩放质量
+                int subsampling = Math.max(1, Math.min(
+                        sourceWidth / Math.max(1, target[2] * 2),
+                        sourceHeight / Math.max(1, target[3] * 2)));
+                ImageReadParam readParam = reader.getDefaultReadParam();
+                readParam.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                decoded = reader.read(0, readParam);
+            } finally {
+                reader.dispose();
+            }
+        }
+
+        boolean png = "png".equals(format);
+        BufferedImage canvas = new BufferedImage(target[0], target[1],
+                png ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = canvas.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            int offsetX = (target[0] - target[2]) / 2;
+            int offsetY = (target[1] - target[3]) / 2;
+            graphics.drawImage(decoded, offsetX, offsetY, target[2], target[3], null);
+        } finally {
+            graphics.dispose();
+        }
+
+        Path variantFile = cacheDir.resolve(key);
+        Path tempFile = Files.createTempFile(cacheDir, ".variant-", ".tmp");
+        try {
+            ImageWriter writer = ImageIO.getImageWritersByFormatName(format).next();
+            try (ImageOutputStream output = new FileImageOutputStream(tempFile.toFile())) {
+                writer.setOutput(output);
+                ImageWriteParam writeParam = writer.getDefaultWriteParam();
+                if (!png) {
+                    writeParam.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                    writeParam.setCompressionQuality(spec.getQuality() / 100f);
+                }
+                writer.write(null, new IIOImage(canvas, null, null), writeParam);
+            } finally {
+                writer.dispose();
+            }
+            Files.move(tempFile, variantFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+
+        register(key, Files.size(variantFile));
+        logger.debug("生成图片变体: {} ({}x{} -> {}x{}), 耗时 {} ms", key, sourceWidth, sourceHeight,
+                target[0], target[1], TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+        return variantFile;
+    }
+
+    /**
+     * 计算输出尺寸
+     *
+     * @return [画布宽, 画布高, 绘制宽, 绘制高]
+     */
+    static int[] computeTargetSize(int sourceWidth, int sourceHeight, ImageVariantSpec spec) {
+        Integer width = spec.getWidth();
+        Integer height = spec.getHeight();
+
+        switch (spec.getFit()) {
+            case FILL:
+                return new int[]{width, height, width, height};
+            case COVER: {
+                // 不放大：目标大于原图时按原图比例缩小目标区域
+                double scale = Math.min(1.0, Math.max((double) width / sourceWidth, (double) height / sourceHeight));
+                int drawWidth = Math.max(1, (int) Math.round(sourceWidth * scale));
+                int drawHeight = Math.max(1, (int) Math.round(sourceHeight * scale));
+                return new int[]{Math.min(width, drawWidth), Math.min(height, drawHeight), drawWidth, drawHeight};
+            }
+            case CONTAIN:
+            default: {
+                double scaleX = width != null ? (double) width / sourceWidth : Double.MAX_VALUE;
+                double scaleY = height != null ? (double) height / sourceHeight : Double.MAX_VALUE;
+                double scale = Math.min(1.0, Math.min(scaleX, scaleY));
+                int drawWidth = Math.max(1, (int) Math.round(sourceWidth * scale));
+                int drawHeight = Math.max(1, (int) Math.round(sourceHeight * scale));
+                return new int[]{drawWidth, drawHeight, drawWidth, drawHeight};
+            }
+        }
+    }
+
+    /**
+     * 根据MIME类型确定输出格式，不支持缩放时返回null
+     */
+    private String outputFormat(String mimeType) {
+        if (mimeType == null) {
+            return null;
+        }
+        switch (mimeType.toLowerCase()) {
+            case "image/jpeg":
+            case "image/jpg":
+                return "jpeg";
+            case "image/png":
+                return "png";
+            default:
+                return null;
+        }
+    }
+
+    private String variantKey(Image image, ImageVariantSpec spec, String format) {
+        // 内容寻址的图片以哈希为键，历史图片以ID为键（图片文件上传后不会再被修改）
+        String sourceKey = image.getContentHash() != null ? image.getContentHash() : "id" + image.getId();
+        return sourceKey + "_" + spec.toKey() + ("png".equals(format) ? ".png" : ".jpg");
+    }
+
+    /**
+     * 查找已缓存的变体并标记为最近使用
+     */
+    private Path lookup(String key) {
+        synchronized (entries) {
+            if (entries.get(key) == null) {
+                return null;
+            }
+        }
+        Path variantFile = cacheDir.resolve(key);
+        if (Files.isRegularFile(variantFile)) {
+            return variantFile;
+        }
+        // 文件被外部删除，移除缓存条目
+        synchronized (entries) {
+            Long size = entries.remove(key);
+            if (size != null) {
+                residentBytes -= size;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 登记新生成的变体，超出容量时按LRU淘汰
+     */
+    private void register(String key, long size) {
+        List<String> victims = new ArrayList<>();
+        synchronized (entries) {
+            Long previous = entries.put(key, size);
+            residentBytes += size - (previous != null ? previous : 0);
+
+            Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+            while (residentBytes > properties.getMaxBytes() && iterator.hasNext()) {
+                Map.Entry<String, Long> eldest = iterator.next();
+                if (eldest.getKey().equals(key)) {
+                    continue;
+                }
+                residentBytes -= eldest.getValue();
+                victims.add(eldest.getKey());
+                iterator.remove();
+            }
+        }
+
+        for (String victim : victims) {
+            try {
+                Files.deleteIfExists(cacheDir.resolve(victim));
+            } catch (IOException e) {
+                logger.warn("删除图片变体缓存失败: {}", victim, e);
+            }
+        }
+        if (!victims.isEmpty()) {
+            logger.debug("淘汰图片变体缓存 {} 个，当前占用 {} 字节", victims.size(), residentBytes);
+        }
+    }
+
+    /**
+     * 启动时加载已存在的变体文件，按修改时间由旧到新排列以近似LRU顺序
+     */
+    private void loadExistingEntries() throws IOException {
+        List<Path> files;
+        try (Stream<Path> stream = Files.list(cacheDir)) {
+            files = stream.filter(Files::isRegularFile)
+                    .filter(path -> !path.getFileName().toString().startsWith("."))
+                    .sorted(Comparator.comparingLong(ImageVariantServiceImpl::lastModifiedMillis))
+                    .toList();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        for (Path file : files) {
+            register(file.getFileName().toString(), Files.size(file));
+        }
+        if (!files.isEmpty()) {
+            logger.info("加载图片变体缓存 {} 个，占用 {} 字节", entries.size(), residentBytes);
+        }
+    }
+
+    private static long lastModifiedMillis(Path path) {
+        try {
+            return Files.getLastModifiedTime(path).toMillis();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
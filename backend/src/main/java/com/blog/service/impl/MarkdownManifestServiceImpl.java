@@ -0,0 +1,356 @@
+package com.blog.service.impl;
+
+import com.blog.config.ManifestProperties;
+import com.blog.config.StorageProperties;
+import com.blog.event.MarkdownFileChangedEvent;
+import com.blog.exception.ServiceBusyException;
+import com.blog.service.MarkdownFileEntry;
+import com.blog.service.MarkdownManifestService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BinaryOperator;
+
+/**
+ * Markdown文件清单服务实现类
+ * 清单按路径有序存放，分页列出只需从游标处向后读取；启动时在后台按顶层目录并行扫描，
+ * 扫描期间发生变化的文件在扫描结束后重新读取属性，不会被扫描结果覆盖
+ */
+@Service
+public class MarkdownManifestServiceImpl implements MarkdownManifestService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MarkdownManifestServiceImpl.class);
+
+    private final Path markdownRoot;
+    private final ManifestProperties properties;
+
+    private final ConcurrentSkipListMap<String, MarkdownFileEntry> entries = new ConcurrentSkipListMap<>();
+    // 清单中的文件数，随插入和删除更新；ConcurrentSkipListMap.size()需要遍历全部条目
+    private final LongAdder entryCount = new LongAdder();
+    private final Set<String> changedDuringBuild = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock buildLock = new ReentrantLock();
+    private volatile boolean building;
+    private volatile boolean ready;
+
+    public MarkdownManifestServiceImpl(StorageProperties storageProperties, ManifestProperties properties,
+                                       MeterRegistry meterRegistry) {
+        this.markdownRoot = Paths.get(storageProperties.getMarkdownPath()).toAbsolutePath().normalize();
+        this.properties = properties;
+
+        Gauge.builder("blog.markdown.manifest.entries", entryCount, LongAdder::sum)
+                .description("Markdown文件清单中的文件数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 在后台线程中完成初次扫描
+     */
+    @PostConstruct
+    void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        Thread worker = new Thread(this::rebuild, "markdown-manifest");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @Override
+    public Page list(String after, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("每页数量必须大于0");
+        }
+        NavigableMap<String, MarkdownFileEntry> view = view();
+        NavigableMap<String, MarkdownFileEntry> tail = after != null ? view.tailMap(after, false) : view;
+
+        List<MarkdownFileEntry> items = new ArrayList<>(Math.min(limit, 1024));
+        String nextCursor = null;
+        for (MarkdownFileEntry entry : tail.values()) {
+            if (items.size() == limit) {
+                nextCursor = items.get(items.size() - 1).path();
+                break;
+            }
+            items.add(entry);
+        }
+        return new Page(items, nextCursor, entryCount.intValue());
+    }
+
+    @Override
+    public List<String> paths() {
+        return new ArrayList<>(view().keySet());
+    }
+
+    @Override
+    public Optional<MarkdownFileEntry> get(String path) {
+        return Optional.ofNullable(view().get(path));
+    }
+
+    @Override
+    public List<MarkdownFileEntry> listDirectory(String directory) {
+        NavigableMap<String, MarkdownFileEntry> view = view();
+        String prefix = directory.isEmpty() ? "" : directory + File.separator;
+        NavigableMap<String, MarkdownFileEntry> children = prefix.isEmpty()
+                ? view : view.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+        List<MarkdownFileEntry> result = new ArrayList<>();
+        for (MarkdownFileEntry entry : children.values()) {
+            if (entry.path().indexOf(File.separatorChar, prefix.length()) < 0) {
+                result.add(entry);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public int size() {
+        view();
+        return entryCount.intValue();
+    }
+
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    @Override
+    public void refresh(String path) {
+        update(path, null);
+    }
+
+    /**
+     * 经本服务写入、删除的文件，以及目录监听发现的外部修改
+     */
+    @EventListener
+    public void onMarkdownFileChanged(MarkdownFileChangedEvent event) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        if (event.kind() == MarkdownFileChangedEvent.Kind.DELETED) {
+            update(event.path(), null);
+        } else {
+            update(event.path(), event.fingerprint() != null ? event.fingerprint().hash() : null);
+        }
+    }
+
+    @Override
+    public void rebuild() {
+        buildLock.lock();
+        try {
+            changedDuringBuild.clear();
+            building = true;
+            long startedAt = System.nanoTime();
+            try {
+                Map<String, MarkdownFileEntry> scanned = scan();
+                for (String path : entries.keySet()) {
+                    if (!scanned.containsKey(path) && !changedDuringBuild.contains(path)) {
+                        remove(path);
+                    }
+                }
+                scanned.forEach((path, entry) -> {
+                    if (!changedDuringBuild.contains(path)) {
+                        merge(path, entry, MarkdownManifestServiceImpl::keepKnownHash);
+                    }
+                });
+            } catch (IOException e) {
+                logger.error("扫描Markdown目录失败: {}", e.getMessage());
+                return;
+            } finally {
+                building = false;
+            }
+
+            // 扫描期间有变化的文件以重新读取的属性为准
+            for (String path : changedDuringBuild) {
+                refresh(path);
+            }
+            changedDuringBuild.clear();
+            ready = true;
+            logger.info("Markdown文件清单已建立: 文件数={}, 耗时={}ms", entryCount.sum(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+        } finally {
+            buildLock.unlock();
+        }
+    }
+
+    /**
+     * 清单未启用或初次扫描未完成时拒绝查询，不在请求中扫描目录
+     */
+    private NavigableMap<String, MarkdownFileEntry> view() {
+        if (!properties.isEnabled()) {
+            throw new ServiceBusyException("Markdown文件清单未启用");
+        }
+        if (!ready) {
+            throw new ServiceBusyException("Markdown文件清单正在建立，请稍后重试");
+        }
+        return entries;
+    }
+
+    private void update(String path, String contentHash) {
+        if (building) {
+            changedDuringBuild.add(path);
+        }
+        Path file = markdownRoot.resolve(path);
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+            if (!attributes.isRegularFile()) {
+                remove(path);
+                return;
+            }
+            MarkdownFileEntry entry = new MarkdownFileEntry(path, attributes.size(),
+                    attributes.lastModifiedTime().toMillis(), contentHash);
+            merge(path, entry, contentHash != null ? (previous, current) -> current
+                    : MarkdownManifestServiceImpl::keepKnownHash);
+        } catch (NoSuchFileException e) {
+            remove(path);
+        } catch (IOException e) {
+            logger.warn("读取文件属性失败: {}, {}", path, e.getMessage());
+        }
+    }
+
+    /**
+     * 插入或合并条目，新插入时增加计数
+     */
+    private void merge(String path, MarkdownFileEntry entry,
+                       BinaryOperator<MarkdownFileEntry> remapping) {
+        // compute在竞争时可能重试，以最后一次执行时的旧值为准
+        boolean[] inserted = new boolean[1];
+        entries.compute(path, (key, previous) -> {
+            inserted[0] = previous == null;
+            return previous == null ? entry : remapping.apply(previous, entry);
+        });
+        if (inserted[0]) {
+            entryCount.increment();
+        }
+    }
+
+    private void remove(String path) {
+        if (entries.remove(path) != null) {
+            entryCount.decrement();
+        }
+    }
+
+    /**
+     * 文件大小和修改时间未变时保留已知的内容哈希
+     */
+    private static MarkdownFileEntry keepKnownHash(MarkdownFileEntry previous, MarkdownFileEntry current) {
+        if (current.contentHash() == null && previous.contentHash() != null
+                && previous.size() == current.size() && previous.lastModified() == current.lastModified()) {
+            return new MarkdownFileEntry(current.path(), current.size(), current.lastModified(), previous.contentHash());
+        }
+        return current;
+    }
+
+    /**
+     * 扫描Markdown目录：根目录下的文件直接读取，各个子目录（分片目录）并行遍历
+     */
+    private Map<String, MarkdownFileEntry> scan() throws IOException {
+        Map<String, MarkdownFileEntry> result = new ConcurrentHashMap<>();
+        if (!Files.isDirectory(markdownRoot)) {
+            return result;
+        }
+        List<Path> directories = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(markdownRoot)) {
+            for (Path child : stream) {
+                BasicFileAttributes attributes;
+                try {
+                    attributes = Files.readAttributes(child, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                } catch (NoSuchFileException e) {
+                    continue;
+                }
+                if (attributes.isDirectory()) {
+                    if (!isHidden(child)) {
+                        directories.add(child);
+                    }
+                } else {
+                    addIfMarkdown(child, attributes, result);
+                }
+            }
+        }
+
+        int parallelism = properties.getParallelism() > 0
+                ? properties.getParallelism() : Runtime.getRuntime().availableProcessors();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.submit(() -> directories.parallelStream().forEach(directory -> walk(directory, result))).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("扫描Markdown目录被中断", e);
+        } catch (ExecutionException e) {
+            throw new IOException("扫描Markdown目录失败", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+        return result;
+    }
+
+    private void walk(Path directory, Map<String, MarkdownFileEntry> result) {
+        try {
+            Files.walkFileTree(directory, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attributes) {
+                    if (isHidden(dir)) {
+                        return FileVisitResult.SKIP_SUBTREE;
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                    addIfMarkdown(file, attributes, result);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException e) {
+                    // 扫描期间被删除的文件
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            logger.warn("遍历目录失败: {}, {}", directory, e.getMessage());
+        }
+    }
+
+    private void addIfMarkdown(Path file, BasicFileAttributes attributes, Map<String, MarkdownFileEntry> result) {
+        if (attributes.isRegularFile() && isMarkdown(file)) {
+            String path = markdownRoot.relativize(file).toString();
+            result.put(path, new MarkdownFileEntry(path, attributes.size(), attributes.lastModifiedTime().toMillis(), null));
+        }
+    }
+
+    private static boolean isMarkdown(Path file) {
+        String name = file.getFileName().toString();
+        return !name.startsWith(".") && name.toLowerCase().endsWith(".md");
+    }
+
+    private static boolean isHidden(Path directory) {
+        return directory.getFileName().toString().startsWith(".");
+    }
+}
@@ -0,0 +1,502 @@
+package com.blog.service.impl;
+
+import com.blog.config.StorageProperties;
+import com.blog.config.WriteBehindProperties;
+import com.blog.entity.Article;
+import com.blog.exception.VersionConflictException;
+import com.blog.repository.ArticleRepository;
+import com.blog.service.FileService;
+import com.blog.service.MarkdownSnapshot;
+import com.blog.service.MarkdownWriteBehindService;
+import com.blog.service.PendingMarkdown;
+import com.blog.service.StagedMarkdown;
+import com.blog.util.AtomicFileWriter;
+import com.blog.util.ContentFingerprint;
+import com.blog.util.TextPatch;
+import com.blog.util.WriteDurability;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * Markdown合并写入服务实现类
+ * 每次保存追加一条内容记录到暂存日志，写入文件后追加一条完成记录；
+ * 启动时重放日志，把尚未完成写入的最新版本写回文件。日志在没有暂存内容时清空，过大时压缩
+ */
+@Service
+public class MarkdownWriteBehindServiceImpl implements MarkdownWriteBehindService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MarkdownWriteBehindServiceImpl.class);
+
+    static final String JOURNAL_FILE = "autosave.journal";
+
+    private static final int RECORD_MAGIC = 0x4d444a31;
+    private static final byte TYPE_CONTENT = 1;
+    private static final byte TYPE_FLUSHED = 2;
+    // magic + type + articleId + version + pathLength + contentLength
+    private static final int HEADER_SIZE = 4 + 1 + 8 + 8 + 4 + 4;
+    private static final int MAX_RECORD_CONTENT = 64 * 1024 * 1024;
+    // 合并期间基准内容被修改时重新读取的次数
+    private static final int PATCH_ATTEMPTS = 3;
+
+    private final FileService fileService;
+    private final ArticleRepository articleRepository;
+    private final WriteBehindProperties properties;
+    private final WriteDurability durability;
+
+    private final ConcurrentHashMap<Long, PendingMarkdown> pending = new ConcurrentHashMap<>();
+
+    // 保护日志文件和版本号，暂存内容按日志顺序更新
+    private final ReentrantLock journalLock = new ReentrantLock();
+    // 同一时间只有一个线程写入文件，保证同一文章的版本按顺序落盘
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private Path journalFile;
+    private FileChannel journal;
+    // 以启动时间初始化，重启后的版本号不会与之前的重复（版本号用于ETag）
+    private long nextVersion = System.currentTimeMillis() * 1000;
+
+    public MarkdownWriteBehindServiceImpl(FileService fileService, ArticleRepository articleRepository,
+                                          WriteBehindProperties properties, StorageProperties storageProperties) {
+        this.fileService = fileService;
+        this.articleRepository = articleRepository;
+        this.properties = properties;
+        this.durability = storageProperties.getWriteDurability();
+    }
+
+    @PostConstruct
+    void openJournal() throws IOException {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        Path directory = Paths.get(properties.getJournalPath()).toAbsolutePath().normalize();
+        Files.createDirectories(directory);
+        journalFile = directory.resolve(JOURNAL_FILE);
+        recover();
+        journal = FileChannel.open(journalFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        journal.truncate(0);
+    }
+
+    @PreDestroy
+    void closeJournal() {
+        if (journal == null) {
+            return;
+        }
+        flushAll(true);
+        try {
+            journal.close();
+        } catch (IOException e) {
+            logger.warn("关闭暂存日志失败: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void submit(Long articleId, String contentPath, String content) throws IOException {
+        if (!properties.isEnabled()) {
+            writeFile(articleId, contentPath, content);
+            return;
+        }
+
+        journalLock.lock();
+        try {
+            buffer(articleId, contentPath, content);
+        } finally {
+            journalLock.unlock();
+        }
+    }
+
+    @Override
+    public String patch(Long articleId, String contentPath, String baseVersion, List<TextPatch.Edit> edits)
+            throws IOException {
+        for (int attempt = 1; ; attempt++) {
+            // 读取和合并不持有锁，加锁后确认基准内容没有变化再写入
+            PendingMarkdown current = pending.get(articleId);
+            BasicFileAttributes attributes = current == null ? fileService.readAttributes(contentPath) : null;
+            MarkdownSnapshot snapshot = current == null ? fileService.readMarkdownSnapshot(contentPath) : null;
+            String currentVersion = current != null ? current.getEtag() : snapshot.getEtag();
+            if (!currentVersion.equals(normalizeVersion(baseVersion))) {
+                throw new VersionConflictException("内容版本不一致: 当前版本 " + currentVersion + ", 基准版本 " + baseVersion);
+            }
+
+            String base = current != null ? current.getContentAsString()
+                    : new String(snapshot.getContent(), StandardCharsets.UTF_8);
+            String content = TextPatch.apply(base, edits);
+
+            // 未启用合并写入时由写入锁保证检查和写入之间没有其他写入
+            ReentrantLock lock = properties.isEnabled() ? journalLock : flushLock;
+            lock.lock();
+            try {
+                if (unchanged(articleId, contentPath, current, attributes)) {
+                    if (!properties.isEnabled()) {
+                        return writeFile(articleId, contentPath, content).etag();
+                    }
+                    return buffer(articleId, contentPath, content).getEtag();
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (attempt >= PATCH_ATTEMPTS) {
+                throw new VersionConflictException("内容在合并期间被修改: 基准版本 " + baseVersion);
+            }
+        }
+    }
+
+    /**
+     * 合并所基于的暂存内容仍是最新的；没有暂存内容时文件的大小、修改时间和文件标识都没有变化
+     */
+    private boolean unchanged(Long articleId, String contentPath, PendingMarkdown current,
+                              BasicFileAttributes attributes) throws IOException {
+        if (pending.get(articleId) != current) {
+            return false;
+        }
+        if (current != null) {
+            return true;
+        }
+        BasicFileAttributes now = fileService.readAttributes(contentPath);
+        return now.size() == attributes.size()
+                && now.lastModifiedTime().equals(attributes.lastModifiedTime())
+                && Objects.equals(now.fileKey(), attributes.fileKey());
+    }
+
+    @Override
+    public ContentFingerprint replace(Long articleId, String contentPath, FileService.ContentSource source)
+            throws IOException {
+        // 接收请求体可能很慢，先写入临时文件并计算指纹，不持有锁
+        try (StagedMarkdown staged = fileService.stageMarkdownFile(contentPath, source)) {
+            flushLock.lock();
+            try {
+                PendingMarkdown superseded = pending.get(articleId);
+                ContentFingerprint current = storedFingerprint(articleId, contentPath);
+                if (fileService.commitMarkdownFile(staged, current)) {
+                    recordFingerprint(articleId, staged.getFingerprint());
+                }
+
+                // 只丢弃替换前的暂存内容，替换之后新到的保存更新，保留
+                if (superseded != null) {
+                    journalLock.lock();
+                    try {
+                        appendRecord(TYPE_FLUSHED, articleId, superseded.getVersion(), "", new byte[0]);
+                        pending.remove(articleId, superseded);
+                    } finally {
+                        journalLock.unlock();
+                    }
+                }
+                return staged.getFingerprint();
+            } finally {
+                flushLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * 文章记录的内容指纹，文件大小与记录不一致（被外部修改）时返回null
+     */
+    private ContentFingerprint storedFingerprint(Long articleId, String contentPath) throws IOException {
+        Optional<Article> article = articleRepository.findById(articleId);
+        if (article.isEmpty() || article.get().getContentHash() == null || article.get().getContentLength() == null) {
+            return null;
+        }
+        long size = fileService.readAttributes(contentPath).size();
+        if (size != article.get().getContentLength()) {
+            return null;
+        }
+        return new ContentFingerprint(article.get().getContentHash(), article.get().getContentLength());
+    }
+
+    /**
+     * 追加日志并更新暂存内容，调用方持有journalLock
+     */
+    private PendingMarkdown buffer(Long articleId, String contentPath, String content) throws IOException {
+        byte[] bytes = (content != null ? content : "").getBytes(StandardCharsets.UTF_8);
+        long version = ++nextVersion;
+        appendRecord(TYPE_CONTENT, articleId, version, contentPath, bytes);
+        long now = System.currentTimeMillis();
+        PendingMarkdown previous = pending.get(articleId);
+        long firstBufferedAt = previous != null ? previous.getFirstBufferedAt() : now;
+        PendingMarkdown entry = new PendingMarkdown(articleId, contentPath, bytes, version, now, firstBufferedAt);
+        pending.put(articleId, entry);
+        if (journal.size() > properties.getJournalMaxBytes()) {
+            compactJournal();
+        }
+        return entry;
+    }
+
+    /**
+     * 写入文件并在文章上记录内容指纹
+     */
+    private ContentFingerprint writeFile(Long articleId, String contentPath, String content) throws IOException {
+        ContentFingerprint fingerprint = fileService.updateMarkdownFile(contentPath, content);
+        recordFingerprint(articleId, fingerprint);
+        return fingerprint;
+    }
+
+    private void recordFingerprint(Long articleId, ContentFingerprint fingerprint) {
+        try {
+            articleRepository.updateContentFingerprint(articleId, fingerprint.hash(), fingerprint.length());
+        } catch (RuntimeException e) {
+            // 指纹只用于跳过未修改的保存和生成ETag，记录失败时退回按文件属性生成ETag
+            logger.warn("记录内容指纹失败: articleId={}, {}", articleId, e.getMessage());
+        }
+    }
+
+    /**
+     * 基准版本可以带或不带双引号，弱ETag前缀忽略
+     */
+    private static String normalizeVersion(String version) {
+        String normalized = version != null ? version.trim() : "";
+        if (normalized.startsWith("W/")) {
+            normalized = normalized.substring(2);
+        }
+        return normalized.startsWith("\"") ? normalized : "\"" + normalized + "\"";
+    }
+
+    @Override
+    public Optional<PendingMarkdown> getPending(Long articleId) {
+        return Optional.ofNullable(pending.get(articleId));
+    }
+
+    @Override
+    public void flush(Long articleId) throws IOException {
+        flushLock.lock();
+        try {
+            PendingMarkdown entry = pending.get(articleId);
+            if (entry != null) {
+                write(entry);
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${blog.storage.write-behind.flush-interval:500}")
+    public void flushDue() {
+        if (journal != null) {
+            flushAll(false);
+        }
+    }
+
+    private void flushAll(boolean force) {
+        long now = System.currentTimeMillis();
+        long debounce = properties.getDebounce().toMillis();
+        long maxDelay = properties.getMaxDelay().toMillis();
+
+        flushLock.lock();
+        try {
+            for (PendingMarkdown entry : List.copyOf(pending.values())) {
+                if (force || now - entry.getUpdatedAt() >= debounce || now - entry.getFirstBufferedAt() >= maxDelay) {
+                    try {
+                        write(entry);
+                    } catch (IOException | RuntimeException e) {
+                        logger.error("写入暂存的Markdown内容失败，稍后重试: articleId={}, {}",
+                                entry.getArticleId(), e.getMessage());
+                    }
+                }
+            }
+        } finally {
+            flushLock.unlock();
+        }
+        truncateJournalIfIdle();
+    }
+
+    /**
+     * 把暂存内容写入文件，成功后记录完成；期间有新的保存时保留新版本
+     */
+    private void write(PendingMarkdown entry) throws IOException {
+        String contentPath = resolveContentPath(entry);
+        if (contentPath != null) {
+            writeFile(entry.getArticleId(), contentPath, entry.getContentAsString());
+        } else {
+            // 文章或文件已被删除，内容无处可写，丢弃
+            logger.warn("Markdown文件已不存在，丢弃暂存内容: articleId={}, 路径={}",
+                    entry.getArticleId(), entry.getContentPath());
+        }
+
+        journalLock.lock();
+        try {
+            appendRecord(TYPE_FLUSHED, entry.getArticleId(), entry.getVersion(), "", new byte[0]);
+            pending.remove(entry.getArticleId(), entry);
+        } finally {
+            journalLock.unlock();
+        }
+        logger.debug("已写入暂存的Markdown内容: articleId={}, version={}", entry.getArticleId(), entry.getVersion());
+    }
+
+    /**
+     * 暂存后文件可能已被迁移到新路径，原路径不存在时按文章当前路径写入
+     */
+    private String resolveContentPath(PendingMarkdown entry) {
+        if (fileService.fileExists(entry.getContentPath())) {
+            return entry.getContentPath();
+        }
+        return articleRepository.findById(entry.getArticleId())
+                .map(Article::getContentPath)
+                .filter(fileService::fileExists)
+                .orElse(null);
+    }
+
+    private void truncateJournalIfIdle() {
+        journalLock.lock();
+        try {
+            if (pending.isEmpty() && journal.size() > 0) {
+                journal.truncate(0);
+            }
+        } catch (IOException e) {
+            logger.warn("清空暂存日志失败: {}", e.getMessage());
+        } finally {
+            journalLock.unlock();
+        }
+    }
+
+    /**
+     * 用只包含当前暂存内容的新日志替换旧日志，调用方持有journalLock
+     */
+    private void compactJournal() throws IOException {
+        List<PendingMarkdown> entries = new ArrayList<>(pending.values());
+        AtomicFileWriter.write(journalFile, durability, channel -> {
+            for (PendingMarkdown entry : entries) {
+                writeRecord(channel, TYPE_CONTENT, entry.getArticleId(), entry.getVersion(),
+                        entry.getContentPath(), entry.getContent());
+            }
+        });
+        journal.close();
+        journal = FileChannel.open(journalFile, StandardOpenOption.WRITE);
+        journal.position(journal.size());
+        logger.info("暂存日志已压缩: 条目数={}, 大小={}", entries.size(), journal.size());
+    }
+
+    private void appendRecord(byte type, Long articleId, long version, String contentPath, byte[] content)
+            throws IOException {
+        writeRecord(journal, type, articleId, version, contentPath, content);
+        if (durability != WriteDurability.NONE) {
+            journal.force(false);
+        }
+    }
+
+    private static void writeRecord(FileChannel channel, byte type, Long articleId, long version,
+                                    String contentPath, byte[] content) throws IOException {
+        byte[] path = contentPath.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+                .putInt(RECORD_MAGIC)
+                .put(type)
+                .putLong(articleId)
+                .putLong(version)
+                .putInt(path.length)
+                .putInt(content.length)
+                .flip();
+        CRC32 crc = new CRC32();
+        crc.update(header.duplicate());
+        crc.update(path);
+        crc.update(content);
+        ByteBuffer trailer = ByteBuffer.allocate(4).putInt((int) crc.getValue()).flip();
+
+        ByteBuffer[] buffers = {header, ByteBuffer.wrap(path), ByteBuffer.wrap(content), trailer};
+        while (trailer.hasRemaining()) {
+            channel.write(buffers);
+        }
+    }
+
+    /**
+     * 重放日志：找出每篇文章最后一个未完成写入的版本写回文件；遇到不完整或损坏的记录即停止（崩溃时的残尾）
+     */
+    private void recover() {
+        if (!Files.exists(journalFile)) {
+            return;
+        }
+        Map<Long, PendingMarkdown> latest = new HashMap<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(journalFile)))) {
+            while (true) {
+                PendingMarkdown record = readRecord(in);
+                if (record == null) {
+                    break;
+                }
+                nextVersion = Math.max(nextVersion, record.getVersion());
+                if (record.getContent() == null) {
+                    latest.computeIfPresent(record.getArticleId(),
+                            (id, entry) -> entry.getVersion() <= record.getVersion() ? null : entry);
+                } else {
+                    latest.put(record.getArticleId(), record);
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("读取暂存日志失败: {}", e.getMessage());
+        }
+
+        for (PendingMarkdown entry : latest.values()) {
+            try {
+                String contentPath = resolveContentPath(entry);
+                if (contentPath == null) {
+                    logger.warn("Markdown文件已不存在，跳过恢复: articleId={}", entry.getArticleId());
+                    continue;
+                }
+                writeFile(entry.getArticleId(), contentPath, entry.getContentAsString());
+                logger.info("已从暂存日志恢复Markdown内容: articleId={}", entry.getArticleId());
+            } catch (IOException | RuntimeException e) {
+                logger.error("从暂存日志恢复Markdown内容失败: articleId={}, {}", entry.getArticleId(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 读取一条记录，完成记录的内容为null；到达末尾或记录损坏时返回null
+     */
+    private static PendingMarkdown readRecord(DataInputStream in) throws IOException {
+        byte[] header = new byte[HEADER_SIZE];
+        try {
+            in.readFully(header);
+            ByteBuffer buffer = ByteBuffer.wrap(header);
+            if (buffer.getInt() != RECORD_MAGIC) {
+                return null;
+            }
+            byte type = buffer.get();
+            long articleId = buffer.getLong();
+            long version = buffer.getLong();
+            int pathLength = buffer.getInt();
+            int contentLength = buffer.getInt();
+            if (pathLength < 0 || pathLength > 4096 || contentLength < 0 || contentLength > MAX_RECORD_CONTENT) {
+                return null;
+            }
+            byte[] path = new byte[pathLength];
+            byte[] content = new byte[contentLength];
+            in.readFully(path);
+            in.readFully(content);
+            int checksum = in.readInt();
+
+            CRC32 crc = new CRC32();
+            crc.update(header);
+            crc.update(path);
+            crc.update(content);
+            if ((int) crc.getValue() != checksum) {
+                return null;
+            }
+            return new PendingMarkdown(articleId, new String(path, StandardCharsets.UTF_8),
+                    type == TYPE_CONTENT ? content : null, version, 0, 0);
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+}
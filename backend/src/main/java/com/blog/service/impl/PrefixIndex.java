@@ -0,0 +1,220 @@
+package com.blog.service.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 带权重的前缀索引
+ * 条目按（小写文本，ID）排序存放在并列的数组中，前缀查询用两次二分查找确定范围，
+ * 再在范围内取权重最高的若干条；每BLOCK_SIZE个条目记录一个最大权重，最大权重不足以进入结果的块整块跳过。
+ * 增删条目时原地移动数组并更新其后各块的最大权重，不重建整个索引。
+ * 读写由读写锁保护
+ */
+public class PrefixIndex {
+
+    /**
+     * 一个条目
+     *
+     * @param id 条目所属对象的ID，同一文本可对应多个ID
+     */
+    public record Entry(String text, long id, long weight) {
+    }
+
+    private static final int BLOCK_SHIFT = 6;
+    private static final int BLOCK_SIZE = 1 << BLOCK_SHIFT;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private String[] keys = new String[64];
+    private String[] texts = new String[64];
+    private long[] ids = new long[64];
+    private long[] weights = new long[64];
+    private long[] blockMax = new long[1];
+    private int size;
+
+    /**
+     * 加入条目，文本和ID相同的条目已存在时更新其显示文本和权重
+     */
+    public void put(String text, long id, long weight) {
+        String key = key(text);
+        lock.writeLock().lock();
+        try {
+            int position = find(key, id);
+            if (position >= 0) {
+                texts[position] = text;
+                weights[position] = weight;
+                updateBlocks(position, position + 1);
+                return;
+            }
+            position = -position - 1;
+            if (size == keys.length) {
+                int capacity = size * 2;
+                keys = Arrays.copyOf(keys, capacity);
+                texts = Arrays.copyOf(texts, capacity);
+                ids = Arrays.copyOf(ids, capacity);
+                weights = Arrays.copyOf(weights, capacity);
+                blockMax = Arrays.copyOf(blockMax, capacity >> BLOCK_SHIFT);
+            }
+            int moved = size - position;
+            System.arraycopy(keys, position, keys, position + 1, moved);
+            System.arraycopy(texts, position, texts, position + 1, moved);
+            System.arraycopy(ids, position, ids, position + 1, moved);
+            System.arraycopy(weights, position, weights, position + 1, moved);
+            keys[position] = key;
+            texts[position] = text;
+            ids[position] = id;
+            weights[position] = weight;
+            size++;
+            updateBlocks(position, size);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 删除条目
+     *
+     * @return 条目是否存在
+     */
+    public boolean remove(String text, long id) {
+        String key = key(text);
+        lock.writeLock().lock();
+        try {
+            int position = find(key, id);
+            if (position < 0) {
+                return false;
+            }
+            int moved = size - position - 1;
+            System.arraycopy(keys, position + 1, keys, position, moved);
+            System.arraycopy(texts, position + 1, texts, position, moved);
+            System.arraycopy(ids, position + 1, ids, position, moved);
+            System.arraycopy(weights, position + 1, weights, position, moved);
+            size--;
+            keys[size] = null;
+            texts[size] = null;
+            updateBlocks(position, size + 1);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 以前缀开头（忽略大小写）的条目中权重最高的若干条，权重相同时按文本排序
+     */
+    public List<Entry> top(String prefix, int limit) {
+        String keyPrefix = key(prefix);
+        lock.readLock().lock();
+        try {
+            int from = lowerBound(keyPrefix);
+            int to = prefixEnd(keyPrefix, from);
+            int count = Math.min(limit, to - from);
+            if (count <= 0) {
+                return List.of();
+            }
+            // 堆顶为当前保留的条目中排名最低的一条
+            PriorityQueue<Integer> top = new PriorityQueue<>(count, (a, b) -> weights[a] != weights[b]
+                    ? Long.compare(weights[a], weights[b]) : Integer.compare(b, a));
+            for (int i = from; i < to; ) {
+                // 块内所有条目都排在堆中条目之后，整块跳过
+                if ((i & (BLOCK_SIZE - 1)) == 0 && i + BLOCK_SIZE <= to && top.size() == count
+                        && blockMax[i >> BLOCK_SHIFT] <= weights[top.peek()]) {
+                    i += BLOCK_SIZE;
+                    continue;
+                }
+                if (top.size() < count) {
+                    top.offer(i);
+                } else if (weights[i] > weights[top.peek()]) {
+                    top.poll();
+                    top.offer(i);
+                }
+                i++;
+            }
+            Entry[] result = new Entry[top.size()];
+            for (int i = result.length - 1; i >= 0; i--) {
+                int position = top.poll();
+                result[i] = new Entry(texts[position], ids[position], weights[position]);
+            }
+            return new ArrayList<>(Arrays.asList(result));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // 重新计算覆盖[from, to)的各块的最大权重
+    private void updateBlocks(int from, int to) {
+        for (int block = from >> BLOCK_SHIFT, end = (to + BLOCK_SIZE - 1) >> BLOCK_SHIFT; block < end; block++) {
+            long max = Long.MIN_VALUE;
+            for (int i = block << BLOCK_SHIFT, last = Math.min(size, (block + 1) << BLOCK_SHIFT); i < last; i++) {
+                max = Math.max(max, weights[i]);
+            }
+            blockMax[block] = max;
+        }
+    }
+
+    private int find(String key, long id) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = keys[mid].compareTo(key);
+            if (cmp == 0) {
+                cmp = Long.compare(ids[mid], id);
+            }
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private int lowerBound(String key) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // 以前缀开头的条目连续排列在lowerBound之后
+    private int prefixEnd(String prefix, int from) {
+        int low = from;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].startsWith(prefix)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static String key(String text) {
+        return text.toLowerCase(Locale.ROOT);
+    }
+}
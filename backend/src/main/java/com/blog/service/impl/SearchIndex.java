@@ -0,0 +1,798 @@
+package com.blog.service.impl;
+
+import com.blog.entity.ArticleStatus;
+import com.blog.service.SearchDocument;
+import com.blog.service.SearchService;
+import com.blog.util.SearchTokenizer;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * 文章全文倒排索引
+ * 每个词的倒排表按文档序号递增存放词频；更新文章时旧序号标记为删除并追加新序号，
+ * 删除的序号超过一定比例后整体重排。标题、标签、摘要和正文按不同权重计入词频和文档长度，按BM25打分。
+ * 每篇文章还按词记录正文中前几次出现的位置，用于生成搜索摘要时定位高亮，不必重新分词。
+ * 读写由读写锁保护，分词在加锁前完成
+ */
+public class SearchIndex {
+
+    private static final int TITLE_WEIGHT = 4;
+    private static final int TAG_WEIGHT = 3;
+    private static final int SUMMARY_WEIGHT = 2;
+    private static final int CONTENT_WEIGHT = 1;
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+
+    // 每个词在一篇文章正文中最多记录的出现位置数
+    private static final int MAX_POSITIONS_PER_TERM = 16;
+
+    // 删除的序号超过总数的此比例（且不少于MIN_PURGE个）时重排
+    private static final double PURGE_RATIO = 0.25;
+    private static final int MIN_PURGE = 64;
+
+    private static final int SNAPSHOT_MAGIC = 0x53495831;
+    // 版本2：中日韩文字由单字改为二元切分；版本3：正文改为纯文本并记录词的位置；
+    // 版本4：中日韩文字同时索引单字。旧快照需要重建
+    private static final int SNAPSHOT_VERSION = 4;
+    private static final int MAX_SNAPSHOT_COUNT = 1 << 26;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, Integer> termIds = new HashMap<>();
+    private final List<String> terms = new ArrayList<>();
+    private Postings[] postings = new Postings[256];
+
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    private final Map<String, Long> articlesByPath = new HashMap<>();
+    private Doc[] docs = new Doc[64];
+    private int maxOrdinal;
+    private int deleted;
+    private long totalLength;
+    private long generation;
+
+    /**
+     * 匹配的一页文章
+     *
+     * @param total 通过过滤的匹配文章总数
+     */
+    public record TopHits(List<SearchService.Hit> hits, int total) {
+    }
+
+    /**
+     * 查询词在文章正文纯文本中的出现位置，按起始位置排序
+     *
+     * @param starts 起始位置
+     * @param ends 结束位置（不含）
+     * @param terms 对应的查询词在去重后查询词中的序号
+     * @param textLength 建立索引时正文纯文本的长度，用于确认读到的正文与索引一致
+     */
+    public record Highlights(int[] starts, int[] ends, int[] terms, int textLength) {
+    }
+
+    /**
+     * 一篇文章各词在正文中的位置：第i个词的位置为offsets中[index[i], index[i+1])之间的起止位置对
+     */
+    private record Positions(int[] index, int[] offsets, int textLength) {
+    }
+
+    // 词按词ID升序排列，freqs和positions与之对应
+    private record Doc(SearchDocument document, int length, int[] termIds, int[] freqs, Positions positions) {
+    }
+
+    /**
+     * 一个词的倒排表，df为未删除的文档数
+     */
+    private static final class Postings {
+        int[] docs = new int[4];
+        int[] freqs = new int[4];
+        int size;
+        int df;
+
+        void add(int ordinal, int freq) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                freqs = Arrays.copyOf(freqs, size * 2);
+            }
+            docs[size] = ordinal;
+            freqs[size] = freq;
+            size++;
+            df++;
+        }
+    }
+
+    /**
+     * 分词统计后的一篇文章，可在加锁前准备好
+     */
+    public static final class Analyzed {
+        private final SearchDocument document;
+        private final String[] terms;
+        private final int[] freqs;
+        private final int length;
+        private final Positions positions;
+
+        private Analyzed(SearchDocument document, String[] terms, int[] freqs, int length, Positions positions) {
+            this.document = document;
+            this.terms = terms;
+            this.freqs = freqs;
+            this.length = length;
+            this.positions = positions;
+        }
+    }
+
+    /**
+     * 对文章的各字段和正文分词，统计加权词频并记录正文中的词位置
+     *
+     * @param content 正文纯文本，见MarkdownText
+     */
+    public static Analyzed analyze(SearchDocument document, CharSequence content) {
+        SearchTokenizer tokenizer = new SearchTokenizer(true);
+        TermCounter counter = new TermCounter();
+        counter.count(tokenizer, document.title(), TITLE_WEIGHT);
+        if (document.tags() != null) {
+            for (String tag : document.tags()) {
+                counter.count(tokenizer, tag, TAG_WEIGHT);
+            }
+        }
+        counter.count(tokenizer, document.summary(), SUMMARY_WEIGHT);
+        counter.recordPositions = true;
+        counter.count(tokenizer, content, CONTENT_WEIGHT);
+        return new Analyzed(document, counter.terms(), Arrays.copyOf(counter.freqs, counter.size), counter.length,
+                counter.positions(content != null ? content.length() : 0));
+    }
+
+    /**
+     * 按字符内容统计词频的开放寻址哈希表，词的字符依次存放在同一个数组中，
+     * 每个不同的词只在最后创建一次String；正文中的出现位置按出现顺序追加，最后按词分组
+     */
+    static final class TermCounter implements SearchTokenizer.TokenConsumer {
+        private SearchTokenizer tokenizer;
+        private boolean recordPositions;
+        private int[] positionCounts = new int[64];
+        private int[] occurrences = new int[192];
+        private int occurrenceCount;
+
+        private char[] chars = new char[1024];
+        private int charCount;
+        private int[] starts = new int[64];
+        private int[] lengths = new int[64];
+        private int[] freqs = new int[64];
+        private int size;
+        // 槽位中存放词序号+1，0表示空槽
+        private int[] slots = new int[128];
+        private int weight;
+        private int length;
+
+        void count(SearchTokenizer tokenizer, CharSequence text, int weight) {
+            this.tokenizer = tokenizer;
+            this.weight = weight;
+            tokenizer.tokenize(text, this);
+        }
+
+        @Override
+        public void accept(char[] buffer, int tokenLength) {
+            length += weight;
+            int hash = 0;
+            for (int i = 0; i < tokenLength; i++) {
+                hash = 31 * hash + buffer[i];
+            }
+            int mask = slots.length - 1;
+            int slot = mix(hash) & mask;
+            while (slots[slot] != 0) {
+                int term = slots[slot] - 1;
+                if (lengths[term] == tokenLength
+                        && Arrays.equals(chars, starts[term], starts[term] + tokenLength, buffer, 0, tokenLength)) {
+                    freqs[term] += weight;
+                    recordPosition(term);
+                    return;
+                }
+                slot = (slot + 1) & mask;
+            }
+            recordPosition(add(slot, buffer, tokenLength));
+        }
+
+        // 每三个int为一次出现：词序号、起始位置、结束位置
+        private void recordPosition(int term) {
+            if (!recordPositions || positionCounts[term] == MAX_POSITIONS_PER_TERM) {
+                return;
+            }
+            positionCounts[term]++;
+            if (occurrenceCount + 3 > occurrences.length) {
+                occurrences = Arrays.copyOf(occurrences, occurrences.length * 2);
+            }
+            occurrences[occurrenceCount++] = term;
+            occurrences[occurrenceCount++] = tokenizer.start();
+            occurrences[occurrenceCount++] = tokenizer.end();
+        }
+
+        Positions positions(int textLength) {
+            int[] index = new int[size + 1];
+            for (int term = 0; term < size; term++) {
+                index[term + 1] = index[term] + positionCounts[term] * 2;
+            }
+            int[] offsets = new int[index[size]];
+            int[] next = Arrays.copyOf(index, size);
+            for (int i = 0; i < occurrenceCount; i += 3) {
+                int term = occurrences[i];
+                offsets[next[term]++] = occurrences[i + 1];
+                offsets[next[term]++] = occurrences[i + 2];
+            }
+            return new Positions(index, offsets, textLength);
+        }
+
+        String[] terms() {
+            String[] terms = new String[size];
+            for (int i = 0; i < size; i++) {
+                terms[i] = new String(chars, starts[i], lengths[i]);
+            }
+            return terms;
+        }
+
+        private int add(int slot, char[] buffer, int tokenLength) {
+            if (charCount + tokenLength > chars.length) {
+                chars = Arrays.copyOf(chars, Math.max(chars.length * 2, charCount + tokenLength));
+            }
+            if (size == starts.length) {
+                starts = Arrays.copyOf(starts, size * 2);
+                lengths = Arrays.copyOf(lengths, size * 2);
+                freqs = Arrays.copyOf(freqs, size * 2);
+                positionCounts = Arrays.copyOf(positionCounts, size * 2);
+            }
+            System.arraycopy(buffer, 0, chars, charCount, tokenLength);
+            starts[size] = charCount;
+            lengths[size] = tokenLength;
+            freqs[size] = weight;
+            charCount += tokenLength;
+            slots[slot] = ++size;
+            // 负载超过一半时扩容
+            if (size * 2 > slots.length) {
+                rehash();
+            }
+            return size - 1;
+        }
+
+        private void rehash() {
+            int[] rehashed = new int[slots.length * 2];
+            int mask = rehashed.length - 1;
+            for (int term = 0; term < size; term++) {
+                int hash = 0;
+                for (int i = starts[term], end = starts[term] + lengths[term]; i < end; i++) {
+                    hash = 31 * hash + chars[i];
+                }
+                int slot = mix(hash) & mask;
+                while (rehashed[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                rehashed[slot] = term + 1;
+            }
+            slots = rehashed;
+        }
+
+        private static int mix(int hash) {
+            hash *= 0x9E3779B9;
+            return hash ^ (hash >>> 16);
+        }
+    }
+
+    /**
+     * 加入或替换文章
+     */
+    public void put(Analyzed analyzed) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(analyzed.document.id());
+            addLocked(analyzed.document, analyzed.length, analyzed.terms, analyzed.freqs, analyzed.positions);
+            purgeIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 删除文章
+     *
+     * @return 文章是否在索引中
+     */
+    public boolean remove(long articleId) {
+        lock.writeLock().lock();
+        try {
+            boolean removed = removeLocked(articleId);
+            purgeIfNeeded();
+            return removed;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Optional<SearchDocument> get(long articleId) {
+        lock.readLock().lock();
+        try {
+            Integer ordinal = ordinals.get(articleId);
+            return ordinal != null ? Optional.of(docs[ordinal].document()) : Optional.empty();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 按内容路径查找已索引的文章
+     */
+    public Optional<Long> findByContentPath(String contentPath) {
+        lock.readLock().lock();
+        try {
+            return Optional.ofNullable(articlesByPath.get(contentPath));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Long> ids() {
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(ordinals.keySet());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ordinals.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 修改计数，每次加入或删除文章后递增，用于判断是否需要保存快照
+     */
+    public long generation() {
+        lock.readLock().lock();
+        try {
+            return generation;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 搜索文章，多个词之间为“或”关系
+     *
+     * @param offset 跳过的结果数
+     * @param limit 返回的最大结果数
+     */
+    public TopHits search(List<String> queryTerms, ArticleStatus status, int offset, int limit) {
+        Predicate<SearchDocument> filter = status != null ? document -> document.status() == status : document -> true;
+        lock.readLock().lock();
+        try {
+            int liveDocs = ordinals.size();
+            if (liveDocs == 0 || queryTerms.isEmpty()) {
+                return new TopHits(List.of(), 0);
+            }
+            float averageLength = Math.max(1f, (float) totalLength / liveDocs);
+            float[] scores = new float[maxOrdinal];
+            int[] matched = new int[16];
+            int matchedCount = 0;
+
+            for (String term : new LinkedHashSet<>(queryTerms)) {
+                Integer termId = termIds.get(term);
+                if (termId == null || postings[termId].df == 0) {
+                    continue;
+                }
+                Postings list = postings[termId];
+                float idf = (float) Math.log(1 + (liveDocs - list.df + 0.5) / (list.df + 0.5));
+                for (int i = 0; i < list.size; i++) {
+                    int ordinal = list.docs[i];
+                    Doc doc = docs[ordinal];
+                    if (doc == null) {
+                        continue;
+                    }
+                    int tf = list.freqs[i];
+                    float norm = K1 * (1 - B + B * doc.length() / averageLength);
+                    if (scores[ordinal] == 0) {
+                        if (matchedCount == matched.length) {
+                            matched = Arrays.copyOf(matched, matchedCount * 2);
+                        }
+                        matched[matchedCount++] = ordinal;
+                    }
+                    scores[ordinal] += idf * tf * (K1 + 1) / (tf + norm);
+                }
+            }
+
+            // 取前offset+limit个，分数相同时较新加入的文章在前
+            int window = offset + limit;
+            PriorityQueue<Integer> top = new PriorityQueue<>(Math.max(1, Math.min(window, matchedCount)),
+                    (a, b) -> scores[a] != scores[b] ? Float.compare(scores[a], scores[b]) : Integer.compare(a, b));
+            int total = 0;
+            for (int i = 0; i < matchedCount; i++) {
+                int ordinal = matched[i];
+                if (!filter.test(docs[ordinal].document())) {
+                    continue;
+                }
+                total++;
+                if (window == 0) {
+                    continue;
+                }
+                if (top.size() < window) {
+                    top.offer(ordinal);
+                } else if (top.comparator().compare(ordinal, top.peek()) > 0) {
+                    top.poll();
+                    top.offer(ordinal);
+                }
+            }
+
+            int[] ranked = new int[top.size()];
+            for (int i = ranked.length - 1; i >= 0; i--) {
+                ranked[i] = top.poll();
+            }
+            List<SearchService.Hit> hits = new ArrayList<>(Math.max(0, ranked.length - offset));
+            for (int i = offset; i < ranked.length; i++) {
+                hits.add(new SearchService.Hit(docs[ranked[i]].document(), scores[ranked[i]], List.of()));
+            }
+            return new TopHits(hits, total);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 查询词在文章正文中的出现位置
+     *
+     * @return 文章不在索引中时为空
+     */
+    public Optional<Highlights> highlights(long articleId, List<String> queryTerms) {
+        lock.readLock().lock();
+        try {
+            Integer ordinal = ordinals.get(articleId);
+            if (ordinal == null) {
+                return Optional.empty();
+            }
+            Doc doc = docs[ordinal];
+            Positions positions = doc.positions();
+            List<String> distinct = new ArrayList<>(new LinkedHashSet<>(queryTerms));
+            int[] starts = new int[16];
+            int[] ends = new int[16];
+            int[] terms = new int[16];
+            int count = 0;
+            for (int k = 0; k < distinct.size(); k++) {
+                Integer termId = termIds.get(distinct.get(k));
+                int i = termId != null ? Arrays.binarySearch(doc.termIds(), termId) : -1;
+                if (i < 0) {
+                    continue;
+                }
+                for (int j = positions.index()[i]; j < positions.index()[i + 1]; j += 2) {
+                    if (count == starts.length) {
+                        starts = Arrays.copyOf(starts, count * 2);
+                        ends = Arrays.copyOf(ends, count * 2);
+                        terms = Arrays.copyOf(terms, count * 2);
+                    }
+                    starts[count] = positions.offsets()[j];
+                    ends[count] = positions.offsets()[j + 1];
+                    terms[count] = k;
+                    count++;
+                }
+            }
+            // 高位为起始位置，低位为收集时的下标
+            long[] order = new long[count];
+            for (int n = 0; n < count; n++) {
+                order[n] = ((long) starts[n] << 32) | n;
+            }
+            Arrays.sort(order);
+            int[] sortedStarts = new int[count];
+            int[] sortedEnds = new int[count];
+            int[] sortedTerms = new int[count];
+            for (int n = 0; n < count; n++) {
+                int from = (int) order[n];
+                sortedStarts[n] = starts[from];
+                sortedEnds[n] = ends[from];
+                sortedTerms[n] = terms[from];
+            }
+            return Optional.of(new Highlights(sortedStarts, sortedEnds, sortedTerms, positions.textLength()));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void addLocked(SearchDocument document, int length, String[] docTerms, int[] freqs, Positions positions) {
+        int ordinal = maxOrdinal++;
+        if (ordinal == docs.length) {
+            docs = Arrays.copyOf(docs, ordinal * 2);
+        }
+        // 按词ID排序，查找高亮位置时可二分查找
+        long[] sorted = new long[docTerms.length];
+        for (int i = 0; i < docTerms.length; i++) {
+            sorted[i] = ((long) termId(docTerms[i]) << 32) | i;
+        }
+        Arrays.sort(sorted);
+        int[] ids = new int[sorted.length];
+        int[] sortedFreqs = new int[sorted.length];
+        int[] index = new int[sorted.length + 1];
+        int[] offsets = new int[positions.offsets().length];
+        for (int n = 0; n < sorted.length; n++) {
+            int i = (int) sorted[n];
+            ids[n] = (int) (sorted[n] >>> 32);
+            sortedFreqs[n] = freqs[i];
+            int from = positions.index()[i];
+            int count = positions.index()[i + 1] - from;
+            System.arraycopy(positions.offsets(), from, offsets, index[n], count);
+            index[n + 1] = index[n] + count;
+            postings[ids[n]].add(ordinal, freqs[i]);
+        }
+        docs[ordinal] = new Doc(document, length, ids, sortedFreqs, new Positions(index, offsets, positions.textLength()));
+        ordinals.put(document.id(), ordinal);
+        if (document.contentPath() != null) {
+            articlesByPath.put(document.contentPath(), document.id());
+        }
+        totalLength += length;
+        generation++;
+    }
+
+    private boolean removeLocked(long articleId) {
+        Integer ordinal = ordinals.remove(articleId);
+        if (ordinal == null) {
+            return false;
+        }
+        Doc doc = docs[ordinal];
+        docs[ordinal] = null;
+        for (int termId : doc.termIds()) {
+            postings[termId].df--;
+        }
+        if (doc.document().contentPath() != null) {
+            articlesByPath.remove(doc.document().contentPath(), articleId);
+        }
+        totalLength -= doc.length();
+        deleted++;
+        generation++;
+        return true;
+    }
+
+    private int termId(String term) {
+        Integer existing = termIds.get(term);
+        if (existing != null) {
+            return existing;
+        }
+        int id = terms.size();
+        terms.add(term);
+        termIds.put(term, id);
+        if (id == postings.length) {
+            postings = Arrays.copyOf(postings, id * 2);
+        }
+        postings[id] = new Postings();
+        return id;
+    }
+
+    /**
+     * 按原顺序重新加入未删除的文章，回收已删除文章占用的倒排表空间和不再出现的词
+     */
+    private void purgeIfNeeded() {
+        if (deleted < MIN_PURGE || deleted < maxOrdinal * PURGE_RATIO) {
+            return;
+        }
+        Doc[] oldDocs = docs;
+        int oldMax = maxOrdinal;
+        List<String> oldTerms = new ArrayList<>(terms);
+
+        termIds.clear();
+        terms.clear();
+        postings = new Postings[Math.max(256, oldTerms.size())];
+        ordinals.clear();
+        articlesByPath.clear();
+        docs = new Doc[Math.max(64, oldMax - deleted)];
+        maxOrdinal = 0;
+        deleted = 0;
+        totalLength = 0;
+
+        for (int ordinal = 0; ordinal < oldMax; ordinal++) {
+            Doc doc = oldDocs[ordinal];
+            if (doc == null) {
+                continue;
+            }
+            String[] docTerms = new String[doc.termIds().length];
+            for (int i = 0; i < docTerms.length; i++) {
+                docTerms[i] = oldTerms.get(doc.termIds()[i]);
+            }
+            addLocked(doc.document(), doc.length(), docTerms, doc.freqs(), doc.positions());
+        }
+    }
+
+    /**
+     * 保存快照：词典、各文章的存储字段、加权词频和词位置，末尾为CRC32校验值。不关闭输出流
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        lock.readLock().lock();
+        try {
+            CRC32 crc = new CRC32();
+            DataOutputStream data = new DataOutputStream(new CheckedOutputStream(new BufferedOutputStream(out), crc));
+            data.writeInt(SNAPSHOT_MAGIC);
+            data.writeInt(SNAPSHOT_VERSION);
+
+            // 只写入仍被引用的词，按首次出现的顺序重新编号
+            int[] remap = new int[terms.size()];
+            Arrays.fill(remap, -1);
+            List<String> liveTerms = new ArrayList<>();
+            for (int ordinal = 0; ordinal < maxOrdinal; ordinal++) {
+                if (docs[ordinal] == null) {
+                    continue;
+                }
+                for (int termId : docs[ordinal].termIds()) {
+                    if (remap[termId] < 0) {
+                        remap[termId] = liveTerms.size();
+                        liveTerms.add(terms.get(termId));
+                    }
+                }
+            }
+            data.writeInt(liveTerms.size());
+            for (String term : liveTerms) {
+                data.writeUTF(term);
+            }
+
+            data.writeInt(ordinals.size());
+            for (int ordinal = 0; ordinal < maxOrdinal; ordinal++) {
+                Doc doc = docs[ordinal];
+                if (doc == null) {
+                    continue;
+                }
+                writeDocument(data, doc.document());
+                data.writeInt(doc.length());
+                Positions positions = doc.positions();
+                data.writeInt(positions.textLength());
+                data.writeInt(doc.termIds().length);
+                for (int i = 0; i < doc.termIds().length; i++) {
+                    data.writeInt(remap[doc.termIds()[i]]);
+                    data.writeInt(doc.freqs()[i]);
+                    data.writeInt(positions.index()[i + 1] - positions.index()[i]);
+                    for (int j = positions.index()[i]; j < positions.index()[i + 1]; j++) {
+                        data.writeInt(positions.offsets()[j]);
+                    }
+                }
+            }
+            data.flush();
+            new DataOutputStream(out).writeLong(crc.getValue());
+            out.flush();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 从快照加载索引
+     *
+     * @throws IOException 快照格式不正确或校验失败时
+     */
+    public static SearchIndex readFrom(InputStream in) throws IOException {
+        CRC32 crc = new CRC32();
+        BufferedInputStream buffered = new BufferedInputStream(in);
+        DataInputStream data = new DataInputStream(new CheckedInputStream(buffered, crc));
+        if (data.readInt() != SNAPSHOT_MAGIC || data.readInt() != SNAPSHOT_VERSION) {
+            throw new IOException("索引快照格式不正确");
+        }
+        String[] snapshotTerms = new String[readCount(data)];
+        for (int i = 0; i < snapshotTerms.length; i++) {
+            snapshotTerms[i] = data.readUTF();
+        }
+
+        SearchIndex index = new SearchIndex();
+        int documentCount = readCount(data);
+        for (int n = 0; n < documentCount; n++) {
+            SearchDocument document = readDocument(data);
+            int length = data.readInt();
+            int textLength = readCount(data);
+            int termCount = readCount(data);
+            String[] docTerms = new String[termCount];
+            int[] freqs = new int[termCount];
+            int[] positionIndex = new int[termCount + 1];
+            int[] offsets = new int[0];
+            for (int i = 0; i < termCount; i++) {
+                int termId = data.readInt();
+                if (termId < 0 || termId >= snapshotTerms.length) {
+                    throw new IOException("索引快照格式不正确");
+                }
+                docTerms[i] = snapshotTerms[termId];
+                freqs[i] = data.readInt();
+                int offsetCount = data.readInt();
+                if (offsetCount < 0 || offsetCount > MAX_POSITIONS_PER_TERM * 2 || offsetCount % 2 != 0) {
+                    throw new IOException("索引快照格式不正确");
+                }
+                positionIndex[i + 1] = positionIndex[i] + offsetCount;
+                if (positionIndex[i + 1] > offsets.length) {
+                    offsets = Arrays.copyOf(offsets, Math.max(positionIndex[i + 1], offsets.length * 2));
+                }
+                for (int j = positionIndex[i]; j < positionIndex[i + 1]; j++) {
+                    offsets[j] = data.readInt();
+                }
+            }
+            index.addLocked(document, length, docTerms, freqs,
+                    new Positions(positionIndex, Arrays.copyOf(offsets, positionIndex[termCount]), textLength));
+        }
+        long expected = crc.getValue();
+        if (new DataInputStream(buffered).readLong() != expected) {
+            throw new IOException("索引快照校验失败");
+        }
+        index.generation = 0;
+        return index;
+    }
+
+    private static void writeDocument(DataOutputStream data, SearchDocument document) throws IOException {
+        data.writeLong(document.id());
+        writeString(data, document.title());
+        writeString(data, document.slug());
+        writeString(data, document.summary());
+        List<String> tags = document.tags() != null ? document.tags() : List.of();
+        data.writeInt(tags.size());
+        for (String tag : tags) {
+            writeString(data, tag);
+        }
+        writeString(data, document.status() != null ? document.status().name() : null);
+        writeString(data, document.contentPath());
+        writeString(data, document.signature());
+    }
+
+    private static SearchDocument readDocument(DataInputStream data) throws IOException {
+        long id = data.readLong();
+        String title = readString(data);
+        String slug = readString(data);
+        String summary = readString(data);
+        int tagCount = readCount(data);
+        List<String> tags = new ArrayList<>(tagCount);
+        for (int i = 0; i < tagCount; i++) {
+            tags.add(readString(data));
+        }
+        String status = readString(data);
+        String contentPath = readString(data);
+        String signature = readString(data);
+        try {
+            return new SearchDocument(id, title, slug, summary, List.copyOf(tags),
+                    status != null ? ArticleStatus.valueOf(status) : null, contentPath, signature);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("索引快照格式不正确", e);
+        }
+    }
+
+    private static int readCount(DataInputStream data) throws IOException {
+        int count = data.readInt();
+        if (count < 0 || count > MAX_SNAPSHOT_COUNT) {
+            throw new IOException("索引快照格式不正确");
+        }
+        return count;
+    }
+
+    // 摘要可能超过writeUTF的64KB限制，按长度前缀的UTF-8写入，null写为-1
+    private static void writeString(DataOutputStream data, String value) throws IOException {
+        if (value == null) {
+            data.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        data.writeInt(bytes.length);
+        data.write(bytes);
+    }
+
+    private static String readString(DataInputStream data) throws IOException {
+        int length = data.readInt();
+        if (length < 0) {
+            return null;
+        }
+        return new String(data.readNBytes(length), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,449 @@
+package com.blog.service.impl;
+
+import com.blog.config.SearchProperties;
+import com.blog.entity.Article;
+import com.blog.entity.ArticleStatus;
+import com.blog.event.ArticleChangedEvent;
+import com.blog.event.MarkdownFileChangedEvent;
+import com.blog.exception.ServiceBusyException;
+import com.blog.repository.ArticleIndexState;
+import com.blog.repository.ArticleRepository;
+import com.blog.service.FileService;
+import com.blog.service.SearchDocument;
+import com.blog.service.SearchService;
+import com.blog.util.AtomicFileWriter;
+import com.blog.util.MarkdownText;
+import com.blog.util.SearchTokenizer;
+import com.blog.util.WriteDurability;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 全文搜索服务实现类
+ * 索引变更都在单独的后台线程中执行：启动时加载快照并与数据库比对，只重新索引有变化的文章；
+ * 之后按文章变化事件和Markdown文件变化事件增量更新，同一篇文章的多次变化在执行前合并。
+ * 有修改时定期把索引快照原子写入磁盘。
+ * 搜索结果的正文片段按索引时记录的词位置生成，正文纯文本按文章缓存，未命中缓存的结果只读取一次文件
+ */
+@Service
+public class SearchServiceImpl implements SearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchServiceImpl.class);
+
+    private static final String SNAPSHOT_FILE = "index.bin";
+    private static final int MAX_PAGE_SIZE = 100;
+    // 最多可翻到的结果数
+    private static final int MAX_RESULT_WINDOW = 10_000;
+    private static final int RECONCILE_BATCH_SIZE = 500;
+    private static final int FRAGMENT_LENGTH = 120;
+    private static final int MAX_FRAGMENTS = 2;
+
+    private final ArticleRepository articleRepository;
+    private final FileService fileService;
+    private final SearchProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final Path snapshotFile;
+    private final Timer searchTimer;
+
+    private final ExecutorService indexer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "search-indexer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Set<Long> pendingArticles = ConcurrentHashMap.newKeySet();
+    private final Set<String> pendingPaths = ConcurrentHashMap.newKeySet();
+
+    private volatile SearchIndex index = new SearchIndex();
+    private volatile boolean ready;
+    private volatile long snapshotGeneration;
+
+    // 按访问顺序排列的正文纯文本缓存，由自身加锁保护
+    private final LinkedHashMap<Long, PlainText> plainTexts = new LinkedHashMap<>(256, 0.75f, true);
+    private long residentChars;
+    private final LongAdder plainTextHits = new LongAdder();
+    private final LongAdder plainTextMisses = new LongAdder();
+
+    private record PlainText(String signature, String text) {
+    }
+
+    public SearchServiceImpl(ArticleRepository articleRepository, FileService fileService,
+                             SearchProperties properties, PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry) {
+        this.articleRepository = articleRepository;
+        this.fileService = fileService;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.snapshotFile = Paths.get(properties.getPath()).toAbsolutePath().normalize().resolve(SNAPSHOT_FILE);
+
+        this.searchTimer = Timer.builder("blog.search.latency")
+                .description("全文搜索耗时")
+                .publishPercentiles(0.5, 0.99)
+                .serviceLevelObjectives(properties.getLatencyTarget())
+                .register(meterRegistry);
+        Gauge.builder("blog.search.documents", this, SearchServiceImpl::size)
+                .description("全文索引中的文章数")
+                .register(meterRegistry);
+        FunctionCounter.builder("blog.search.snippet.cache.requests", plainTextHits, LongAdder::sum)
+                .description("搜索摘要正文缓存的查询次数")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("blog.search.snippet.cache.requests", plainTextMisses, LongAdder::sum)
+                .description("搜索摘要正文缓存的查询次数")
+                .tag("result", "miss")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 加载快照后在后台线程中与数据库比对
+     */
+    @PostConstruct
+    void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        loadSnapshot();
+        indexer.execute(this::reconcile);
+    }
+
+    @Override
+    public Result search(String query, ArticleStatus status, int page, int size) {
+        if (!StringUtils.hasText(query)) {
+            throw new IllegalArgumentException("搜索关键词不能为空");
+        }
+        if (page < 0) {
+            throw new IllegalArgumentException("页码不能小于0");
+        }
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("每页数量必须在1到" + MAX_PAGE_SIZE + "之间");
+        }
+        if ((long) page * size + size > MAX_RESULT_WINDOW) {
+            throw new IllegalArgumentException("最多只能查看前" + MAX_RESULT_WINDOW + "条结果");
+        }
+        if (!properties.isEnabled()) {
+            throw new ServiceBusyException("全文搜索未启用");
+        }
+
+        long start = System.nanoTime();
+        List<String> terms = SearchTokenizer.tokenize(query);
+        SearchIndex current = index;
+        SearchIndex.TopHits top = current.search(terms, status, page * size, size);
+        List<Hit> hits = new ArrayList<>(top.hits().size());
+        for (Hit hit : top.hits()) {
+            hits.add(hit.withFragments(fragments(current, hit.document(), terms)));
+        }
+        long elapsed = System.nanoTime() - start;
+        searchTimer.record(elapsed, TimeUnit.NANOSECONDS);
+        if (elapsed > properties.getLatencyTarget().toNanos()) {
+            logger.warn("全文搜索耗时超过目标: query={}, 耗时={}ms, 匹配={}", query,
+                    TimeUnit.NANOSECONDS.toMillis(elapsed), top.total());
+        }
+        return new Result(hits, top.total(), page, size);
+    }
+
+    @Override
+    public void reindex(Long articleId) {
+        SearchIndex current = index;
+        // 在事务内读取文章和标签
+        SearchDocument document = transactionTemplate.execute(status -> articleRepository.findById(articleId)
+                .map(SearchServiceImpl::toDocument)
+                .orElse(null));
+        if (document == null) {
+            if (current.remove(articleId)) {
+                logger.debug("从全文索引中删除文章: {}", articleId);
+            }
+            evictPlainText(articleId);
+            return;
+        }
+        // 索引和摘要使用同一份纯文本，记录的位置可直接用于高亮
+        String text = MarkdownText.toPlainText(readContent(document.contentPath()));
+        current.put(SearchIndex.analyze(document, text));
+        refreshPlainText(document, text);
+        logger.debug("更新全文索引: {}", articleId);
+    }
+
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    @Override
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * 文章保存或删除的事务提交后重新索引
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onArticleChanged(ArticleChangedEvent event) {
+        if (!properties.isEnabled() || event.articleId() == null) {
+            return;
+        }
+        Long articleId = event.articleId();
+        if (pendingArticles.add(articleId)) {
+            submit(() -> {
+                pendingArticles.remove(articleId);
+                reindexQuietly(articleId);
+            });
+        }
+    }
+
+    /**
+     * Markdown文件写入或删除后重新索引引用该文件的文章
+     */
+    @EventListener
+    public void onMarkdownFileChanged(MarkdownFileChangedEvent event) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        String path = event.path();
+        if (pendingPaths.add(path)) {
+            submit(() -> {
+                pendingPaths.remove(path);
+                reindexPath(path);
+            });
+        }
+    }
+
+    /**
+     * 索引有修改时保存快照
+     */
+    @Scheduled(initialDelayString = "${blog.search.snapshot-interval:60000}",
+            fixedDelayString = "${blog.search.snapshot-interval:60000}")
+    public void snapshot() {
+        if (!properties.isEnabled() || !ready) {
+            return;
+        }
+        SearchIndex current = index;
+        long generation = current.generation();
+        if (generation == snapshotGeneration) {
+            return;
+        }
+        try {
+            Files.createDirectories(snapshotFile.getParent());
+            AtomicFileWriter.write(snapshotFile, WriteDurability.DATA,
+                    channel -> current.writeTo(Channels.newOutputStream(channel)));
+            snapshotGeneration = generation;
+            logger.debug("已保存全文索引快照: 文章数={}", current.size());
+        } catch (IOException e) {
+            logger.warn("保存全文索引快照失败: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        indexer.shutdownNow();
+        if (indexer.awaitTermination(5, TimeUnit.SECONDS)) {
+            snapshot();
+        }
+    }
+
+    private void loadSnapshot() {
+        try (InputStream in = Files.newInputStream(snapshotFile)) {
+            index = SearchIndex.readFrom(in);
+            logger.info("已加载全文索引快照: 文章数={}", index.size());
+        } catch (NoSuchFileException e) {
+            logger.info("未找到全文索引快照，将重新建立索引");
+        } catch (IOException | RuntimeException e) {
+            logger.warn("全文索引快照无法读取，将重新建立索引: {}", e.getMessage());
+        }
+        // 从快照加载的内容即为已保存的版本
+        snapshotGeneration = index.generation();
+    }
+
+    private void reconcile() {
+        long start = System.currentTimeMillis();
+        int reindexed = 0;
+        int removed = 0;
+        try {
+            Set<Long> existing = new HashSet<>();
+            long afterId = 0;
+            List<ArticleIndexState> batch;
+            do {
+                batch = articleRepository.findIndexStatesAfter(afterId, PageRequest.of(0, RECONCILE_BATCH_SIZE));
+                for (ArticleIndexState state : batch) {
+                    afterId = state.getId();
+                    existing.add(state.getId());
+                    String signature = SearchDocument.signatureOf(state.getUpdatedAt(), state.getContentHash(),
+                            state.getContentPath());
+                    boolean current = index.get(state.getId())
+                            .map(document -> signature.equals(document.signature()))
+                            .orElse(false);
+                    if (!current) {
+                        reindexQuietly(state.getId());
+                        reindexed++;
+                    }
+                    if (Thread.currentThread().isInterrupted()) {
+                        return;
+                    }
+                }
+            } while (batch.size() == RECONCILE_BATCH_SIZE);
+
+            // 比对期间新建的文章可能不在已读取的批次中，删除前再按ID确认一次
+            for (Long articleId : index.ids()) {
+                if (!existing.contains(articleId)) {
+                    reindexQuietly(articleId);
+                    if (index.get(articleId).isEmpty()) {
+                        removed++;
+                    }
+                }
+            }
+            ready = true;
+            logger.info("全文索引就绪: 文章数={}, 重新索引={}, 删除={}, 耗时={}ms",
+                    index.size(), reindexed, removed, System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            logger.error("全文索引比对失败", e);
+        }
+    }
+
+    private void reindexPath(String path) {
+        List<Long> articleIds = index.findByContentPath(path)
+                .map(List::of)
+                .orElseGet(() -> articleRepository.findIdsByContentPath(path));
+        for (Long articleId : articleIds) {
+            reindexQuietly(articleId);
+        }
+    }
+
+    private void reindexQuietly(Long articleId) {
+        try {
+            reindex(articleId);
+        } catch (RuntimeException e) {
+            logger.warn("更新全文索引失败: articleId={}, {}", articleId, e.getMessage());
+        }
+    }
+
+    private static SearchDocument toDocument(Article article) {
+        return new SearchDocument(article.getId(), article.getTitle(), article.getSlug(), article.getSummary(),
+                List.copyOf(article.getTags()), article.getStatus(), article.getContentPath(),
+                SearchDocument.signatureOf(article.getUpdatedAt(), article.getContentHash(), article.getContentPath()));
+    }
+
+    private String readContent(String contentPath) {
+        if (!StringUtils.hasText(contentPath)) {
+            return "";
+        }
+        try {
+            return fileService.readMarkdownFile(contentPath);
+        } catch (IOException | RuntimeException e) {
+            // 文件尚未创建或已被删除时只索引元数据
+            logger.debug("读取Markdown文件失败，只索引文章元数据: {}, {}", contentPath, e.getMessage());
+            return "";
+        }
+    }
+
+    private List<Fragment> fragments(SearchIndex current, SearchDocument document, List<String> terms) {
+        SearchIndex.Highlights highlights = current.highlights(document.id(), terms).orElse(null);
+        String text = cachedPlainText(document);
+        if (text == null) {
+            text = MarkdownText.toPlainText(readContent(document.contentPath()));
+            if (highlights != null && highlights.textLength() == text.length()) {
+                cachePlainText(document, text);
+            }
+        }
+        // 文件在索引后被修改、尚未重新索引时位置已失效，只返回开头的片段
+        if (highlights != null && highlights.textLength() != text.length()) {
+            highlights = null;
+        }
+        return SnippetBuilder.build(text, highlights, FRAGMENT_LENGTH, MAX_FRAGMENTS);
+    }
+
+    private String cachedPlainText(SearchDocument document) {
+        PlainText cached;
+        synchronized (plainTexts) {
+            cached = plainTexts.get(document.id());
+        }
+        if (cached != null && cached.signature().equals(document.signature())) {
+            plainTextHits.increment();
+            return cached.text();
+        }
+        plainTextMisses.increment();
+        return null;
+    }
+
+    private void cachePlainText(SearchDocument document, String text) {
+        // 单篇超过总量八分之一时不缓存，避免一篇长文挤出其余条目
+        long maxChars = properties.getSnippetCacheChars();
+        if (text.length() > maxChars / 8) {
+            return;
+        }
+        synchronized (plainTexts) {
+            PlainText previous = plainTexts.put(document.id(), new PlainText(document.signature(), text));
+            if (previous != null) {
+                residentChars -= previous.text().length();
+            }
+            residentChars += text.length();
+
+            Iterator<Map.Entry<Long, PlainText>> iterator = plainTexts.entrySet().iterator();
+            while (residentChars > maxChars && iterator.hasNext()) {
+                residentChars -= iterator.next().getValue().text().length();
+                iterator.remove();
+            }
+        }
+    }
+
+    // 重新索引时只更新已缓存的条目，全量比对不会把冷门文章挤入缓存
+    private void refreshPlainText(SearchDocument document, String text) {
+        boolean cached;
+        synchronized (plainTexts) {
+            cached = plainTexts.containsKey(document.id());
+        }
+        if (cached) {
+            evictPlainText(document.id());
+            cachePlainText(document, text);
+        }
+    }
+
+    private void evictPlainText(Long articleId) {
+        synchronized (plainTexts) {
+            PlainText previous = plainTexts.remove(articleId);
+            if (previous != null) {
+                residentChars -= previous.text().length();
+            }
+        }
+    }
+
+    private void submit(Runnable task) {
+        try {
+            indexer.execute(task);
+        } catch (RejectedExecutionException e) {
+            logger.debug("全文索引已停止，忽略变更");
+        }
+    }
+}
@@ -0,0 +1,484 @@
+package com.blog.service.impl;
+
+import com.blog.config.SegmentStoreProperties;
+import com.blog.config.StorageProperties;
+import com.blog.event.MarkdownFileChangedEvent;
+import com.blog.exception.FileOperationException;
+import com.blog.service.FileService;
+import com.blog.service.MarkdownFileEntry;
+import com.blog.service.MarkdownSnapshot;
+import com.blog.service.StagedMarkdown;
+import com.blog.util.ContentFingerprint;
+import com.blog.util.FingerprintingChannel;
+import com.blog.util.SegmentStore;
+import com.blog.util.WriteDurability;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ApplicationEventPublisherAware;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 分段存储的文件服务
+ * Markdown内容追加写入少量大的段文件（见SegmentStore），文章的内容路径作为键，数据库中的路径无需改动。
+ * 段中尚不存在的键回退读取Markdown目录下的原有文件，切换后台后可在运行中通过迁移任务逐步导入
+ */
+@Service
+@ConditionalOnProperty(prefix = "blog.storage", name = "backend", havingValue = "segment")
+public class SegmentFileService implements FileService, ApplicationEventPublisherAware {
+
+    private static final Logger logger = LoggerFactory.getLogger(SegmentFileService.class);
+
+    private final StorageProperties storageProperties;
+    private final SegmentStoreProperties properties;
+    private final Path segmentRoot;
+    private final Path legacyRoot;
+    private final SegmentStore store;
+
+    private ApplicationEventPublisher eventPublisher;
+
+    public SegmentFileService(StorageProperties storageProperties, SegmentStoreProperties properties,
+                              MeterRegistry meterRegistry) {
+        this.storageProperties = storageProperties;
+        this.properties = properties;
+        this.segmentRoot = Paths.get(properties.getPath()).toAbsolutePath().normalize();
+        this.legacyRoot = Paths.get(storageProperties.getMarkdownPath()).toAbsolutePath().normalize();
+        try {
+            this.store = SegmentStore.open(segmentRoot, properties.getMaxSegmentBytes());
+        } catch (IOException e) {
+            throw new FileOperationException("无法打开分段存储: " + properties.getPath(), e);
+        }
+
+        Gauge.builder("blog.markdown.segment.bytes", store, SegmentStore::totalBytes)
+                .description("段文件的总字节数")
+                .tag("state", "total")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("blog.markdown.segment.bytes", store, SegmentStore::liveBytes)
+                .description("段文件中各文档最新版本的字节数")
+                .tag("state", "live")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void setApplicationEventPublisher(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        store.close();
+    }
+
+    @Override
+    public String saveMarkdownFile(String filename, String content) throws IOException {
+        return saveMarkdownFile(filename, content, storageProperties.getWriteDurability());
+    }
+
+    @Override
+    public String saveMarkdownFile(String filename, String content, WriteDurability durability) throws IOException {
+        if (!StringUtils.hasText(filename)) {
+            throw new FileOperationException("文件名不能为空");
+        }
+        if (!filename.toLowerCase().endsWith(".md")) {
+            filename += ".md";
+        }
+        // 段中不存在目录，键不需要分片
+        String key = generateUniqueFilename(filename);
+        try {
+            ContentFingerprint fingerprint = put(key, content, durability);
+            publish(key, MarkdownFileChangedEvent.Kind.WRITTEN, fingerprint);
+            return key;
+        } catch (IOException e) {
+            throw new FileOperationException("保存Markdown文件失败: " + key, e);
+        }
+    }
+
+    @Override
+    public String readMarkdownFile(String filePath) throws IOException {
+        return StandardCharsets.UTF_8.decode(readMarkdownBytes(filePath)).toString();
+    }
+
+    @Override
+    public ByteBuffer readMarkdownBytes(String filePath) throws IOException {
+        String key = validKey(filePath);
+        try {
+            byte[] content = store.read(key);
+            if (content != null) {
+                return ByteBuffer.wrap(content);
+            }
+            Path legacy = legacyFile(key);
+            if (legacy != null && Files.isRegularFile(legacy)) {
+                return ByteBuffer.wrap(Files.readAllBytes(legacy));
+            }
+        } catch (NoSuchFileException e) {
+            // 原有文件在检查后被删除
+        } catch (IOException e) {
+            throw new FileOperationException("读取Markdown文件失败: " + filePath, e);
+        }
+        throw new FileOperationException("文件不存在: " + filePath);
+    }
+
+    @Override
+    public MarkdownSnapshot readMarkdownSnapshot(String filePath) throws IOException {
+        String key = validKey(filePath);
+        try {
+            // 读取前后键的位置相同时，读到的内容即为该位置的版本，写入时间与内容一致
+            for (int attempt = 1; ; attempt++) {
+                SegmentStore.Location location = store.locate(key);
+                if (location == null) {
+                    break;
+                }
+                byte[] content = store.read(key);
+                SegmentStore.Location after = store.locate(key);
+                if (content != null && (location.equals(after) || attempt >= 3)) {
+                    return MarkdownSnapshot.of(content, (after != null ? after : location).timestamp());
+                }
+            }
+            Path legacy = legacyFile(key);
+            if (legacy == null) {
+                throw new NoSuchFileException(filePath);
+            }
+            // 原有文件只读，新版本总是写入段中，只可能被删除
+            long lastModified = Files.getLastModifiedTime(legacy).toMillis();
+            return MarkdownSnapshot.of(Files.readAllBytes(legacy), lastModified);
+        } catch (NoSuchFileException e) {
+            throw e;
+        } catch (IOException e) {
+            throw new FileOperationException("读取Markdown文件失败: " + filePath, e);
+        }
+    }
+
+    @Override
+    public Optional<MarkdownSnapshot> getCachedSnapshot(String filePath) {
+        return Optional.empty();
+    }
+
+    /**
+     * 段中的记录不单独保存哈希，由一次读取的快照计算
+     */
+    @Override
+    public MarkdownFileEntry readMarkdownEntry(String filePath) throws IOException {
+        MarkdownSnapshot snapshot = readMarkdownSnapshot(filePath);
+        return new MarkdownFileEntry(validKey(filePath), snapshot.getSize(), snapshot.getLastModified(),
+                snapshot.getFingerprint().hash());
+    }
+
+    @Override
+    public BasicFileAttributes readAttributes(String filePath) throws IOException {
+        String key = validKey(filePath);
+        SegmentStore.Location location = store.locate(key);
+        if (location != null) {
+            return new SegmentAttributes(location.length(), location.timestamp());
+        }
+        Path legacy = legacyFile(key);
+        if (legacy == null) {
+            throw new NoSuchFileException(filePath);
+        }
+        return Files.readAttributes(legacy, BasicFileAttributes.class);
+    }
+
+    @Override
+    public ContentFingerprint updateMarkdownFile(String filePath, String content) throws IOException {
+        return updateMarkdownFile(filePath, content, storageProperties.getWriteDurability());
+    }
+
+    @Override
+    public ContentFingerprint updateMarkdownFile(String filePath, String content, WriteDurability durability) throws IOException {
+        String key = existingKey(filePath);
+        try {
+            ContentFingerprint fingerprint = put(key, content, durability);
+            publish(key, MarkdownFileChangedEvent.Kind.WRITTEN, fingerprint);
+            return fingerprint;
+        } catch (IOException e) {
+            throw new FileOperationException("更新Markdown文件失败: " + filePath, e);
+        }
+    }
+
+    @Override
+    public ContentFingerprint updateMarkdownFile(String filePath, ContentSource source, ContentFingerprint current)
+            throws IOException {
+        try (StagedMarkdown staged = stageMarkdownFile(filePath, source)) {
+            commitMarkdownFile(staged, current);
+            return staged.getFingerprint();
+        }
+    }
+
+    /**
+     * 内容先流式写入段目录下的临时文件，提交时再整体追加到段中，慢速上传不会阻塞其他写入
+     */
+    @Override
+    public StagedMarkdown stageMarkdownFile(String filePath, ContentSource source) throws IOException {
+        existingKey(filePath);
+        Path temp = segmentRoot.resolve(".upload-" + Long.toHexString(ThreadLocalRandom.current().nextLong()) + ".tmp");
+        boolean staged = false;
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            FingerprintingChannel fingerprinting = new FingerprintingChannel(channel);
+            source.writeTo(fingerprinting);
+            staged = true;
+            return new StagedMarkdown(filePath, temp, fingerprinting.fingerprint());
+        } catch (IOException e) {
+            throw new FileOperationException("更新Markdown文件失败: " + filePath, e);
+        } finally {
+            if (!staged) {
+                Files.deleteIfExists(temp);
+            }
+        }
+    }
+
+    @Override
+    public boolean commitMarkdownFile(StagedMarkdown staged, ContentFingerprint current) throws IOException {
+        String key = existingKey(staged.getFilePath());
+        if (staged.getFingerprint().equals(current)) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(staged.getFile(), StandardOpenOption.READ)) {
+            store.put(key, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()),
+                    storageProperties.getWriteDurability());
+        } catch (IOException e) {
+            throw new FileOperationException("更新Markdown文件失败: " + staged.getFilePath(), e);
+        }
+        publish(key, MarkdownFileChangedEvent.Kind.WRITTEN, staged.getFingerprint());
+        return true;
+    }
+
+    @Override
+    public void deleteMarkdownFile(String filePath) throws IOException {
+        String key = existingKey(filePath);
+        try {
+            store.delete(key, storageProperties.getWriteDurability());
+            Path legacy = legacyFile(key);
+            if (legacy != null) {
+                Files.deleteIfExists(legacy);
+            }
+            publish(key, MarkdownFileChangedEvent.Kind.DELETED, null);
+        } catch (IOException e) {
+            throw new FileOperationException("删除Markdown文件失败: " + filePath, e);
+        }
+    }
+
+    @Override
+    public boolean fileExists(String filePath) {
+        if (!isValidFilePath(filePath)) {
+            return false;
+        }
+        String key = normalizeKey(filePath);
+        if (store.contains(key)) {
+            return true;
+        }
+        Path legacy = legacyFile(key);
+        return legacy != null && Files.isRegularFile(legacy);
+    }
+
+    @Override
+    public long getFileSize(String filePath) throws IOException {
+        try {
+            return readAttributes(filePath).size();
+        } catch (NoSuchFileException e) {
+            throw new FileOperationException("文件不存在: " + filePath);
+        } catch (IOException e) {
+            throw new FileOperationException("获取文件大小失败: " + filePath, e);
+        }
+    }
+
+    /**
+     * 段中的所有键；尚未导入的原有文件不在其中
+     */
+    @Override
+    public List<String> listMarkdownFiles() throws IOException {
+        return store.keys();
+    }
+
+    @Override
+    public void createDirectoryIfNotExists(String directoryPath) throws IOException {
+        if (!StringUtils.hasText(directoryPath)) {
+            throw new FileOperationException("目录路径不能为空");
+        }
+        try {
+            Files.createDirectories(Paths.get(directoryPath).toAbsolutePath().normalize());
+        } catch (IOException e) {
+            throw new FileOperationException("创建目录失败: " + directoryPath, e);
+        }
+    }
+
+    /**
+     * 段中的键是相对路径：不能为绝对路径，不能包含".."和"~"，以.md结尾
+     */
+    @Override
+    public boolean isValidFilePath(String filePath) {
+        if (!StringUtils.hasText(filePath)) {
+            return false;
+        }
+        String key = normalizeKey(filePath);
+        return !key.startsWith("/") && !key.contains("..") && !key.contains("~")
+                && key.toLowerCase().endsWith(".md");
+    }
+
+    @Override
+    public String generateUniqueFilename(String originalFilename) {
+        return FileServiceImpl.uniqueFilename(originalFilename);
+    }
+
+    @Override
+    public String getLayoutPath(String filename) {
+        return filename;
+    }
+
+    /**
+     * 段中的文档没有独立的文件
+     */
+    @Override
+    public Path getAbsolutePath(String relativePath) {
+        return null;
+    }
+
+    /**
+     * 导入原有的Markdown文件，键已存在（导入期间被写入）时跳过
+     *
+     * @return 是否已导入
+     */
+    public boolean importFile(String key, Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long lastModified = Files.getLastModifiedTime(file).toMillis();
+            return store.putIfAbsent(normalizeKey(key), channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()),
+                    lastModified);
+        }
+    }
+
+    /**
+     * 导入完成后统一刷盘
+     */
+    public void sync() throws IOException {
+        store.sync();
+    }
+
+    /**
+     * 定期压缩旧版本占比过高的段文件
+     */
+    @Scheduled(initialDelayString = "${blog.storage.segment.compaction-interval:600000}",
+            fixedDelayString = "${blog.storage.segment.compaction-interval:600000}")
+    public void compact() {
+        try {
+            int compacted = store.compact(properties.getCompactionThreshold());
+            if (compacted > 0) {
+                logger.info("段文件压缩完成: 压缩段数={}, 总大小={}字节", compacted, store.totalBytes());
+            }
+        } catch (IOException e) {
+            logger.error("段文件压缩失败: {}", e.getMessage());
+        }
+    }
+
+    private ContentFingerprint put(String key, String content, WriteDurability durability) throws IOException {
+        byte[] bytes = (content != null ? content : "").getBytes(StandardCharsets.UTF_8);
+        store.put(key, ByteBuffer.wrap(bytes), durability);
+        return ContentFingerprint.of(bytes);
+    }
+
+    private void publish(String key, MarkdownFileChangedEvent.Kind kind, ContentFingerprint fingerprint) {
+        if (eventPublisher != null) {
+            eventPublisher.publishEvent(new MarkdownFileChangedEvent(key, kind, fingerprint));
+        }
+    }
+
+    private String validKey(String filePath) {
+        if (!StringUtils.hasText(filePath)) {
+            throw new FileOperationException("文件路径不能为空");
+        }
+        if (!isValidFilePath(filePath)) {
+            throw new FileOperationException("文件路径不安全: " + filePath);
+        }
+        return normalizeKey(filePath);
+    }
+
+    private String existingKey(String filePath) {
+        String key = validKey(filePath);
+        if (!fileExists(key)) {
+            throw new FileOperationException("文件不存在: " + filePath);
+        }
+        return key;
+    }
+
+    private static String normalizeKey(String filePath) {
+        String key = filePath.replace('\\', '/');
+        while (key.startsWith("./")) {
+            key = key.substring(2);
+        }
+        return key;
+    }
+
+    /**
+     * 键对应的原有文件，位于Markdown目录之外时返回null
+     */
+    private Path legacyFile(String key) {
+        Path file = legacyRoot.resolve(key).normalize();
+        return file.startsWith(legacyRoot) ? file : null;
+    }
+
+    /**
+     * 段中文档的属性，修改时间为写入时间
+     */
+    private record SegmentAttributes(long size, long lastModified) implements BasicFileAttributes {
+
+        @Override
+        public FileTime lastModifiedTime() {
+            return FileTime.fromMillis(lastModified);
+        }
+
+        @Override
+        public FileTime lastAccessTime() {
+            return lastModifiedTime();
+        }
+
+        @Override
+        public FileTime creationTime() {
+            return lastModifiedTime();
+        }
+
+        @Override
+        public boolean isRegularFile() {
+            return true;
+        }
+
+        @Override
+        public boolean isDirectory() {
+            return false;
+        }
+
+        @Override
+        public boolean isSymbolicLink() {
+            return false;
+        }
+
+        @Override
+        public boolean isOther() {
+            return false;
+        }
+
+        @Override
+        public Object fileKey() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.blog.service.impl;
+
+import com.blog.service.SearchService;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 搜索摘要生成
+ * 以每次出现为起点取固定长度的窗口，依次按窗口内尚未在已选片段中出现的查询词个数、不同查询词的个数和出现次数打分，
+ * 依次选出互不重叠的最佳窗口，窗口向两侧扩展使命中的内容居中。重叠的高亮区间（如相邻的二元词）合并为一个
+ */
+public final class SnippetBuilder {
+
+    private static final String ELLIPSIS = "…";
+
+    private SnippetBuilder() {
+    }
+
+    /**
+     * 生成正文片段
+     *
+     * @param text 正文纯文本
+     * @param highlights 查询词在正文中的位置，为null时只返回开头的片段
+     * @param fragmentLength 每个片段的字符数
+     * @param maxFragments 最多返回的片段数
+     */
+    public static List<SearchService.Fragment> build(String text, SearchIndex.Highlights highlights,
+                                                     int fragmentLength, int maxFragments) {
+        if (text == null || text.isEmpty()) {
+            return List.of();
+        }
+        int count = highlights != null ? highlights.starts().length : 0;
+        if (count == 0) {
+            return List.of(fragment(text, 0, Math.min(text.length(), fragmentLength), highlights, 0));
+        }
+
+        int[] starts = highlights.starts();
+        int[] ends = highlights.ends();
+        int[] terms = highlights.terms();
+        List<SearchService.Fragment> fragments = new ArrayList<>(maxFragments);
+        // 已选片段在正文中的区间
+        List<int[]> chosen = new ArrayList<>();
+        long shown = 0;
+        while (fragments.size() < maxFragments) {
+            int best = -1;
+            int bestLast = -1;
+            long bestScore = 0;
+            long bestDistinct = 0;
+            for (int first = 0; first < count; first++) {
+                if (overlaps(chosen, starts[first], ends[first])) {
+                    continue;
+                }
+                long distinct = 0;
+                int occurrences = 0;
+                int last = first;
+                for (int j = first; j < count && ends[j] - starts[first] <= fragmentLength
+                        && !overlaps(chosen, starts[j], ends[j]); j++) {
+                    distinct |= 1L << Math.min(terms[j], 63);
+                    occurrences++;
+                    last = j;
+                }
+                long score = (long) Long.bitCount(distinct & ~shown) << 40
+                        | (long) Long.bitCount(distinct) << 32 | occurrences;
+                if (score > bestScore) {
+                    best = first;
+                    bestLast = last;
+                    bestScore = score;
+                    bestDistinct = distinct;
+                }
+            }
+            if (best < 0) {
+                break;
+            }
+            shown |= bestDistinct;
+            // 命中内容居中
+            int span = ends[bestLast] - starts[best];
+            int from = Math.max(0, starts[best] - (fragmentLength - span) / 2);
+            int to = Math.min(text.length(), from + fragmentLength);
+            from = Math.max(0, to - fragmentLength);
+            if (from > 0 && Character.isLowSurrogate(text.charAt(from))) {
+                from--;
+            }
+            if (to < text.length() && Character.isLowSurrogate(text.charAt(to))) {
+                to++;
+            }
+            chosen.add(new int[]{from, to});
+            fragments.add(fragment(text, from, to, highlights, count));
+        }
+        return fragments;
+    }
+
+    private static boolean overlaps(List<int[]> chosen, int start, int end) {
+        for (int[] range : chosen) {
+            if (start < range[1] && end > range[0]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static SearchService.Fragment fragment(String text, int from, int to, SearchIndex.Highlights highlights,
+                                                   int count) {
+        StringBuilder builder = new StringBuilder(to - from + 2);
+        int shift = -from;
+        if (from > 0) {
+            builder.append(ELLIPSIS);
+            shift += ELLIPSIS.length();
+        }
+        builder.append(text, from, to);
+        if (to < text.length()) {
+            builder.append(ELLIPSIS);
+        }
+
+        List<SearchService.Highlight> ranges = new ArrayList<>();
+        int rangeStart = -1;
+        int rangeEnd = -1;
+        for (int j = 0; j < count; j++) {
+            int start = highlights.starts()[j];
+            int end = highlights.ends()[j];
+            if (start < from || end > to) {
+                continue;
+            }
+            if (rangeStart >= 0 && start <= rangeEnd) {
+                rangeEnd = Math.max(rangeEnd, end);
+                continue;
+            }
+            if (rangeStart >= 0) {
+                ranges.add(new SearchService.Highlight(rangeStart + shift, rangeEnd + shift));
+            }
+            rangeStart = start;
+            rangeEnd = end;
+        }
+        if (rangeStart >= 0) {
+            ranges.add(new SearchService.Highlight(rangeStart + shift, rangeEnd + shift));
+        }
+        return new SearchService.Fragment(builder.toString(), ranges);
+    }
+}
@@ -0,0 +1,284 @@
+package com.blog.service.impl;
+
+import com.blog.config.SuggestProperties;
+import com.blog.event.ArticleChangedEvent;
+import com.blog.exception.ServiceBusyException;
+import com.blog.repository.ArticleRepository;
+import com.blog.repository.ArticleSuggestSource;
+import com.blog.service.SuggestService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 输入提示服务实现类
+ * 标题和标签各用一个前缀索引：标题条目以文章ID区分、以更新时间为权重；标签按小写合并，以文章数为权重。
+ * 每篇文章上次索引时的标题和标签保存在内存中，文章变化时只增删有差异的条目
+ */
+@Service
+public class SuggestServiceImpl implements SuggestService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SuggestServiceImpl.class);
+
+    private static final int MAX_LIMIT = 50;
+    private static final int BUILD_BATCH_SIZE = 1000;
+    // 标签条目不属于某篇文章
+    private static final long TAG_ENTRY_ID = 0;
+
+    private final ArticleRepository articleRepository;
+    private final SuggestProperties properties;
+    private final TransactionTemplate transactionTemplate;
+
+    private final PrefixIndex titles = new PrefixIndex();
+    private final PrefixIndex tags = new PrefixIndex();
+    // 以下状态只在持有updateLock时访问
+    private final ReentrantLock updateLock = new ReentrantLock();
+    private final Map<Long, Indexed> articles = new HashMap<>();
+    private final Map<String, TagCount> tagCounts = new HashMap<>();
+
+    private final Set<Long> changedDuringBuild = ConcurrentHashMap.newKeySet();
+    private volatile boolean building;
+    private volatile boolean ready;
+
+    // tags为小写的标签，每个只出现一次
+    private record Indexed(String title, Set<String> tags) {
+    }
+
+    private static final class TagCount {
+        String text;
+        int count;
+
+        TagCount(String text) {
+            this.text = text;
+        }
+    }
+
+    public SuggestServiceImpl(ArticleRepository articleRepository, SuggestProperties properties,
+                              PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.articleRepository = articleRepository;
+        this.properties = properties;
+        // 提交后回调中读取需要新的事务
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.transactionTemplate.setReadOnly(true);
+
+        Gauge.builder("blog.suggest.titles", titles, PrefixIndex::size)
+                .description("输入提示索引中的标题数")
+                .register(meterRegistry);
+        Gauge.builder("blog.suggest.tags", tags, PrefixIndex::size)
+                .description("输入提示索引中的标签数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 在后台线程中建立索引
+     */
+    @PostConstruct
+    void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        building = true;
+        Thread worker = new Thread(this::build, "suggest-index");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @Override
+    public List<Suggestion> suggest(String prefix, Type type, int limit) {
+        if (!StringUtils.hasText(prefix)) {
+            throw new IllegalArgumentException("前缀不能为空");
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("提示数量必须在1到" + MAX_LIMIT + "之间");
+        }
+        if (!properties.isEnabled()) {
+            throw new ServiceBusyException("输入提示未启用");
+        }
+
+        String trimmed = prefix.trim();
+        List<Suggestion> suggestions = new ArrayList<>(limit);
+        if (type == Type.TAG) {
+            for (PrefixIndex.Entry entry : tags.top(trimmed, limit)) {
+                suggestions.add(new Suggestion(entry.text(), null, (int) entry.weight()));
+            }
+        } else {
+            for (PrefixIndex.Entry entry : titles.top(trimmed, limit)) {
+                suggestions.add(new Suggestion(entry.text(), entry.id(), null));
+            }
+        }
+        return suggestions;
+    }
+
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * 文章保存或删除的事务提交后更新索引
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onArticleChanged(ArticleChangedEvent event) {
+        if (!properties.isEnabled() || event.articleId() == null) {
+            return;
+        }
+        if (building) {
+            changedDuringBuild.add(event.articleId());
+        }
+        try {
+            if (event.kind() == ArticleChangedEvent.Kind.DELETED) {
+                remove(event.articleId());
+            } else {
+                refresh(event.articleId());
+            }
+        } catch (RuntimeException e) {
+            logger.warn("更新输入提示索引失败: articleId={}, {}", event.articleId(), e.getMessage());
+        }
+    }
+
+    private void build() {
+        long start = System.currentTimeMillis();
+        try {
+            long afterId = 0;
+            List<ArticleSuggestSource> batch;
+            do {
+                batch = articleRepository.findSuggestSourcesAfter(afterId, PageRequest.of(0, BUILD_BATCH_SIZE));
+                if (batch.isEmpty()) {
+                    break;
+                }
+                Map<Long, List<String>> batchTags = new LinkedHashMap<>();
+                for (ArticleSuggestSource source : batch) {
+                    batchTags.put(source.getId(), new ArrayList<>());
+                }
+                for (Object[] row : articleRepository.findTagsByArticleIds(batchTags.keySet())) {
+                    batchTags.get((Long) row[0]).add((String) row[1]);
+                }
+                for (ArticleSuggestSource source : batch) {
+                    afterId = source.getId();
+                    update(source.getId(), source.getTitle(), source.getUpdatedAt(), batchTags.get(source.getId()));
+                }
+            } while (batch.size() == BUILD_BATCH_SIZE);
+
+            // 建立期间变化的文章可能被旧的批次结果覆盖，重新读取一次
+            building = false;
+            for (Long articleId : changedDuringBuild) {
+                refresh(articleId);
+            }
+            changedDuringBuild.clear();
+            ready = true;
+            logger.info("输入提示索引就绪: 标题数={}, 标签数={}, 耗时={}ms",
+                    titles.size(), tags.size(), System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            building = false;
+            logger.error("建立输入提示索引失败", e);
+        }
+    }
+
+    private void refresh(Long articleId) {
+        transactionTemplate.executeWithoutResult(status -> articleRepository.findById(articleId).ifPresentOrElse(
+                article -> update(articleId, article.getTitle(), article.getUpdatedAt(), article.getTags()),
+                () -> remove(articleId)));
+    }
+
+    private void update(long articleId, String title, LocalDateTime updatedAt, List<String> articleTags) {
+        Map<String, String> newTags = normalizeTags(articleTags);
+        long weight = updatedAt != null ? updatedAt.toInstant(ZoneOffset.UTC).toEpochMilli() : 0;
+        updateLock.lock();
+        try {
+            Indexed previous = articles.put(articleId, new Indexed(title, Set.copyOf(newTags.keySet())));
+            if (previous != null && previous.title() != null && !previous.title().equals(title)) {
+                titles.remove(previous.title(), articleId);
+            }
+            if (StringUtils.hasText(title)) {
+                titles.put(title, articleId, weight);
+            }
+            Set<String> oldTags = previous != null ? previous.tags() : Set.of();
+            for (String key : oldTags) {
+                if (!newTags.containsKey(key)) {
+                    decrementTag(key);
+                }
+            }
+            for (Map.Entry<String, String> tag : newTags.entrySet()) {
+                if (!oldTags.contains(tag.getKey())) {
+                    incrementTag(tag.getKey(), tag.getValue());
+                }
+            }
+        } finally {
+            updateLock.unlock();
+        }
+    }
+
+    private void remove(long articleId) {
+        updateLock.lock();
+        try {
+            Indexed previous = articles.remove(articleId);
+            if (previous == null) {
+                return;
+            }
+            if (previous.title() != null) {
+                titles.remove(previous.title(), articleId);
+            }
+            for (String key : previous.tags()) {
+                decrementTag(key);
+            }
+        } finally {
+            updateLock.unlock();
+        }
+    }
+
+    /**
+     * 按小写去重，保留每个标签第一次出现时的写法；忽略空白标签
+     */
+    private static Map<String, String> normalizeTags(List<String> articleTags) {
+        Map<String, String> normalized = new LinkedHashMap<>();
+        if (articleTags != null) {
+            for (String tag : articleTags) {
+                if (StringUtils.hasText(tag)) {
+                    normalized.putIfAbsent(tag.toLowerCase(Locale.ROOT), tag);
+                }
+            }
+        }
+        return normalized;
+    }
+
+    private void incrementTag(String key, String tag) {
+        TagCount count = tagCounts.computeIfAbsent(key, k -> new TagCount(tag));
+        count.count++;
+        tags.put(count.text, TAG_ENTRY_ID, count.count);
+    }
+
+    private void decrementTag(String key) {
+        TagCount count = tagCounts.get(key);
+        if (count == null) {
+            return;
+        }
+        if (--count.count == 0) {
+            tagCounts.remove(key);
+            tags.remove(count.text, TAG_ENTRY_ID);
+        } else {
+            tags.put(count.text, TAG_ENTRY_ID, count.count);
+        }
+    }
+}
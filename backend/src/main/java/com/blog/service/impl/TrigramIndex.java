@@ -0,0 +1,286 @@
+package com.blog.service.impl;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 标题和摘要的三元组倒排索引
+ * 文本转为小写后按每三个相邻字符建立倒排表，倒排表为按文章序号递增的int数组。
+ * 子串查询先对查询文本各三元组的倒排表求交集得到候选，再用保存的小写文本逐个确认，
+ * 结果与 LOWER(字段) LIKE '%文本%' 一致；不足三个字符的查询直接扫描保存的文本。
+ * 读写由读写锁保护
+ */
+public class TrigramIndex {
+
+    /**
+     * 被索引的字段
+     */
+    public enum Field {
+        TITLE,
+        SUMMARY
+    }
+
+    private static final long[] NO_KEYS = new long[0];
+    private static final int[] NO_ORDINALS = new int[0];
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Long, Postings> postings = new HashMap<>();
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    private long[] articleIds = new long[64];
+    // 按字段保存的小写文本和三元组，下标为文章序号
+    private final String[][] texts = new String[Field.values().length][64];
+    private final long[][][] keys = new long[Field.values().length][64][];
+    private int[] freeOrdinals = new int[16];
+    private int freeCount;
+    private int maxOrdinal;
+
+    /**
+     * 一个三元组的倒排表，序号递增
+     */
+    private static final class Postings {
+        int[] ordinals = new int[4];
+        int size;
+
+        void add(int ordinal) {
+            int position = Arrays.binarySearch(ordinals, 0, size, ordinal);
+            if (position >= 0) {
+                return;
+            }
+            position = -position - 1;
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+            }
+            System.arraycopy(ordinals, position, ordinals, position + 1, size - position);
+            ordinals[position] = ordinal;
+            size++;
+        }
+
+        void remove(int ordinal) {
+            int position = Arrays.binarySearch(ordinals, 0, size, ordinal);
+            if (position < 0) {
+                return;
+            }
+            System.arraycopy(ordinals, position + 1, ordinals, position, size - position - 1);
+            size--;
+        }
+    }
+
+    /**
+     * 加入或更新文章，只调整有变化的三元组的倒排表
+     */
+    public void put(long articleId, String title, String summary) {
+        String[] lowered = {lower(title), lower(summary)};
+        long[][] newKeys = {trigrams(Field.TITLE, lowered[0]), trigrams(Field.SUMMARY, lowered[1])};
+        lock.writeLock().lock();
+        try {
+            Integer existing = ordinals.get(articleId);
+            int ordinal = existing != null ? existing : allocate(articleId);
+            for (Field field : Field.values()) {
+                int f = field.ordinal();
+                long[] oldKeys = keys[f][ordinal] != null ? keys[f][ordinal] : NO_KEYS;
+                for (long key : oldKeys) {
+                    if (Arrays.binarySearch(newKeys[f], key) < 0) {
+                        removePosting(key, ordinal);
+                    }
+                }
+                for (long key : newKeys[f]) {
+                    if (Arrays.binarySearch(oldKeys, key) < 0) {
+                        postings.computeIfAbsent(key, k -> new Postings()).add(ordinal);
+                    }
+                }
+                keys[f][ordinal] = newKeys[f];
+                texts[f][ordinal] = lowered[f];
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 删除文章
+     *
+     * @return 文章是否在索引中
+     */
+    public boolean remove(long articleId) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.remove(articleId);
+            if (ordinal == null) {
+                return false;
+            }
+            for (Field field : Field.values()) {
+                int f = field.ordinal();
+                for (long key : keys[f][ordinal]) {
+                    removePosting(key, ordinal);
+                }
+                keys[f][ordinal] = null;
+                texts[f][ordinal] = null;
+            }
+            if (freeCount == freeOrdinals.length) {
+                freeOrdinals = Arrays.copyOf(freeOrdinals, freeCount * 2);
+            }
+            freeOrdinals[freeCount++] = ordinal;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ordinals.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 查找任一给定字段包含文本（忽略大小写）的文章
+     *
+     * @param limit 匹配数超过此值时停止并返回null
+     * @return 按文章ID升序的匹配文章ID
+     */
+    public long[] find(String text, int limit, Field... fields) {
+        String needle = lower(text);
+        lock.readLock().lock();
+        try {
+            boolean[] matched = new boolean[maxOrdinal];
+            int count = 0;
+            for (Field field : fields) {
+                int f = field.ordinal();
+                int[] candidates = candidates(field, needle);
+                int candidateCount = candidates != null ? candidates.length : maxOrdinal;
+                for (int i = 0; i < candidateCount; i++) {
+                    int ordinal = candidates != null ? candidates[i] : i;
+                    String value = texts[f][ordinal];
+                    if (matched[ordinal] || value == null || !value.contains(needle)) {
+                        continue;
+                    }
+                    matched[ordinal] = true;
+                    if (++count > limit) {
+                        return null;
+                    }
+                }
+            }
+            long[] result = new long[count];
+            int n = 0;
+            for (int ordinal = 0; ordinal < maxOrdinal && n < count; ordinal++) {
+                if (matched[ordinal]) {
+                    result[n++] = articleIds[ordinal];
+                }
+            }
+            Arrays.sort(result);
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 各三元组倒排表的交集，查询不足三个字符时返回null表示需要扫描全部文章
+     */
+    private int[] candidates(Field field, String needle) {
+        long[] needleKeys = trigrams(field, needle);
+        if (needleKeys.length == 0) {
+            return null;
+        }
+        Postings[] lists = new Postings[needleKeys.length];
+        for (int i = 0; i < needleKeys.length; i++) {
+            lists[i] = postings.get(needleKeys[i]);
+            if (lists[i] == null) {
+                return NO_ORDINALS;
+            }
+        }
+        // 从最短的倒排表开始求交集
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+        int[] result = Arrays.copyOf(lists[0].ordinals, lists[0].size);
+        int size = result.length;
+        for (int i = 1; i < lists.length && size > 0; i++) {
+            size = intersect(result, size, lists[i]);
+        }
+        return size == result.length ? result : Arrays.copyOf(result, size);
+    }
+
+    // 把a的前size个与b的交集原地写回a，返回交集大小
+    private static int intersect(int[] a, int size, Postings b) {
+        int n = 0;
+        int j = 0;
+        for (int i = 0; i < size && j < b.size; ) {
+            int left = a[i];
+            int right = b.ordinals[j];
+            if (left == right) {
+                a[n++] = left;
+                i++;
+                j++;
+            } else if (left < right) {
+                i++;
+            } else {
+                j = Arrays.binarySearch(b.ordinals, j, b.size, left);
+                if (j < 0) {
+                    j = -j - 1;
+                }
+            }
+        }
+        return n;
+    }
+
+    private int allocate(long articleId) {
+        int ordinal;
+        if (freeCount > 0) {
+            ordinal = freeOrdinals[--freeCount];
+        } else {
+            ordinal = maxOrdinal++;
+            if (ordinal == articleIds.length) {
+                articleIds = Arrays.copyOf(articleIds, ordinal * 2);
+                for (int f = 0; f < texts.length; f++) {
+                    texts[f] = Arrays.copyOf(texts[f], ordinal * 2);
+                    keys[f] = Arrays.copyOf(keys[f], ordinal * 2);
+                }
+            }
+        }
+        articleIds[ordinal] = articleId;
+        ordinals.put(articleId, ordinal);
+        return ordinal;
+    }
+
+    private void removePosting(long key, int ordinal) {
+        Postings list = postings.get(key);
+        if (list != null) {
+            list.remove(ordinal);
+            if (list.size == 0) {
+                postings.remove(key);
+            }
+        }
+    }
+
+    /**
+     * 文本中去重后的三元组，按值升序；字段序号放在高位，三个UTF-16字符各占16位
+     */
+    private static long[] trigrams(Field field, String text) {
+        if (text == null || text.length() < 3) {
+            return NO_KEYS;
+        }
+        long[] result = new long[text.length() - 2];
+        long fieldBits = (long) field.ordinal() << 48;
+        for (int i = 0; i < result.length; i++) {
+            result[i] = fieldBits | ((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2);
+        }
+        Arrays.sort(result);
+        int n = 0;
+        for (int i = 0; i < result.length; i++) {
+            if (n == 0 || result[i] != result[n - 1]) {
+                result[n++] = result[i];
+            }
+        }
+        return n == result.length ? result : Arrays.copyOf(result, n);
+    }
+
+    private static String lower(String text) {
+        return text != null ? text.toLowerCase(Locale.ROOT) : null;
+    }
+}
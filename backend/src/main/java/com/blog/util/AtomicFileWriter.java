@@ -0,0 +1,139 @@
+package com.blog.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BooleanSupplier;
+
+/**
+ * 原子文件写入工具类
+ * 内容先写入同目录下的临时文件，按持久化级别刷盘后再原子重命名覆盖目标文件，
+ * 读取方只会看到完整的旧版本或新版本，不会被写入阻塞
+ */
+public final class AtomicFileWriter {
+
+    private AtomicFileWriter() {
+    }
+
+    /**
+     * 向打开的临时文件写入内容
+     */
+    @FunctionalInterface
+    public interface ContentWriter {
+        void write(FileChannel channel) throws IOException;
+    }
+
+    /**
+     * 原子写入字节内容
+     */
+    public static void write(Path target, byte[] content, WriteDurability durability) throws IOException {
+        write(target, durability, channel -> {
+            ByteBuffer buffer = ByteBuffer.wrap(content);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        });
+    }
+
+    /**
+     * 原子写入由writer生成的内容，writer抛出异常时目标文件保持不变
+     */
+    public static void write(Path target, WriteDurability durability, ContentWriter writer) throws IOException {
+        write(target, durability, writer, () -> true);
+    }
+
+    /**
+     * 原子写入由writer生成的内容，写完后由replace决定是否替换目标文件（如内容与原文件相同时放弃）
+     *
+     * @return 是否替换了目标文件
+     */
+    public static boolean write(Path target, WriteDurability durability, ContentWriter writer,
+                                BooleanSupplier replace) throws IOException {
+        Path directory = target.toAbsolutePath().getParent();
+        Path tempFile = tempFileFor(target);
+        try {
+            try (FileChannel channel = FileChannel.open(tempFile,
+                    StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                writer.write(channel);
+                if (!replace.getAsBoolean()) {
+                    return false;
+                }
+                if (durability == WriteDurability.DATA) {
+                    channel.force(false);
+                } else if (durability == WriteDurability.FULL) {
+                    channel.force(true);
+                }
+            }
+            Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            if (durability == WriteDurability.FULL) {
+                forceDirectory(directory);
+            }
+            return true;
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    /**
+     * 把writer生成的内容写入目标同目录下的临时文件并按持久化级别刷盘，不替换目标文件；writer抛出异常时删除临时文件
+     *
+     * @return 临时文件，由commit替换目标文件或由调用方删除
+     */
+    public static Path stage(Path target, WriteDurability durability, ContentWriter writer) throws IOException {
+        Path tempFile = tempFileFor(target);
+        boolean staged = false;
+        try {
+            try (FileChannel channel = FileChannel.open(tempFile,
+                    StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                writer.write(channel);
+                if (durability == WriteDurability.DATA) {
+                    channel.force(false);
+                } else if (durability == WriteDurability.FULL) {
+                    channel.force(true);
+                }
+            }
+            staged = true;
+            return tempFile;
+        } finally {
+            if (!staged) {
+                Files.deleteIfExists(tempFile);
+            }
+        }
+    }
+
+    /**
+     * 用stage写入的临时文件原子替换目标文件
+     */
+    public static void commit(Path tempFile, Path target, WriteDurability durability) throws IOException {
+        Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        if (durability == WriteDurability.FULL) {
+            forceDirectory(target.toAbsolutePath().getParent());
+        }
+    }
+
+    /**
+     * 临时文件与目标文件位于同一目录（保证重命名是原子的），以点开头、.tmp结尾，
+     * 进程崩溃后残留的临时文件由孤儿文件回收任务清理
+     */
+    static Path tempFileFor(Path target) {
+        String suffix = Long.toHexString(ThreadLocalRandom.current().nextLong());
+        return target.resolveSibling("." + target.getFileName() + "." + suffix + ".tmp");
+    }
+
+    /**
+     * 刷写目录项，使重命名持久化；不支持以只读方式打开目录的平台（如Windows）上忽略
+     */
+    private static void forceDirectory(Path directory) throws IOException {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (UnsupportedOperationException | AccessDeniedException e) {
+            // 平台不支持目录刷写
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.blog.util;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 堆外内存块分配器
+ * 创建时一次性申请全部直接内存并切分为等长的块，条目按需占用若干块（不要求连续），释放后归还空闲栈重复使用。
+ * 运行期间不再申请或释放直接内存，占用量恒为容量，不依赖GC回收缓冲区。线程安全
+ */
+public final class BlockArena {
+
+    // 单个直接缓冲区的上限，容量更大时分为多段
+    private static final int MAX_SLAB_BYTES = 1 << 30;
+
+    private final int blockSize;
+    private final int blocksPerSlab;
+    private final ByteBuffer[] slabs;
+    // 空闲块下标栈，由自身加锁保护
+    private final int[] free;
+    private int freeCount;
+
+    /**
+     * @param capacity 总字节数，按块大小向下取整
+     * @param blockSize 每块的字节数
+     */
+    public BlockArena(long capacity, int blockSize) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("块大小必须大于0");
+        }
+        long blocks = capacity / blockSize;
+        if (blocks > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("块数量过多: " + blocks);
+        }
+        this.blockSize = blockSize;
+        this.blocksPerSlab = Math.max(1, MAX_SLAB_BYTES / blockSize);
+        int blockCount = (int) blocks;
+        this.slabs = new ByteBuffer[(blockCount + blocksPerSlab - 1) / blocksPerSlab];
+        for (int i = 0; i < slabs.length; i++) {
+            int slabBlocks = Math.min(blocksPerSlab, blockCount - i * blocksPerSlab);
+            slabs[i] = ByteBuffer.allocateDirect(slabBlocks * blockSize);
+        }
+        this.free = new int[blockCount];
+        // 低位的块先分配
+        for (int i = 0; i < blockCount; i++) {
+            free[i] = blockCount - 1 - i;
+        }
+        this.freeCount = blockCount;
+    }
+
+    public int blockSize() {
+        return blockSize;
+    }
+
+    public long capacity() {
+        return (long) free.length * blockSize;
+    }
+
+    /**
+     * 容纳指定字节数所需的块数
+     */
+    public int blocksFor(long bytes) {
+        return (int) ((bytes + blockSize - 1) / blockSize);
+    }
+
+    /**
+     * 分配能容纳指定字节数的块
+     *
+     * @return 块下标，空闲块不足时返回null
+     */
+    public synchronized int[] allocate(long bytes) {
+        int count = blocksFor(bytes);
+        if (count > freeCount) {
+            return null;
+        }
+        int[] blocks = new int[count];
+        for (int i = 0; i < count; i++) {
+            blocks[i] = free[--freeCount];
+        }
+        return blocks;
+    }
+
+    /**
+     * 归还块，每个块只能归还一次
+     */
+    public synchronized void free(int[] blocks) {
+        for (int block : blocks) {
+            free[freeCount++] = block;
+        }
+    }
+
+    /**
+     * 已分配的字节数，含已从缓存移除但仍在发送中的条目
+     */
+    public synchronized long usedBytes() {
+        return (long) (free.length - freeCount) * blockSize;
+    }
+
+    /**
+     * 块对应的缓冲区视图，position为0，limit为块大小
+     */
+    public ByteBuffer block(int index) {
+        ByteBuffer slab = slabs[index / blocksPerSlab];
+        return slab.slice((index % blocksPerSlab) * blockSize, blockSize);
+    }
+}
@@ -0,0 +1,121 @@
+package com.blog.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * 文本内容指纹：UTF-8编码后的SHA-256（十六进制）和字节长度
+ * 写入时按块编码，每块先更新摘要再写入通道，计算指纹不需要额外遍历内容
+ *
+ * @param hash SHA-256十六进制字符串
+ * @param length UTF-8字节长度
+ */
+public record ContentFingerprint(String hash, long length) {
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    /**
+     * 以指纹作为强ETag（含双引号）
+     */
+    public String etag() {
+        return "\"" + hash + "\"";
+    }
+
+    public boolean matches(String otherHash, Long otherLength) {
+        return hash.equals(otherHash) && otherLength != null && length == otherLength;
+    }
+
+    public static ContentFingerprint of(byte[] content) {
+        MessageDigest digest = newSha256();
+        digest.update(content);
+        return new ContentFingerprint(HexFormat.of().formatHex(digest.digest()), content.length);
+    }
+
+    public static ContentFingerprint of(CharSequence content) {
+        try {
+            return write(content, null);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("内容无法编码为UTF-8", e);
+        }
+    }
+
+    /**
+     * 把文本以UTF-8编码写入通道，同时计算指纹
+     *
+     * @param channel 目标通道，为null时只计算指纹
+     */
+    public static ContentFingerprint write(CharSequence content, WritableByteChannel channel) throws IOException {
+        MessageDigest digest = newSha256();
+        CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        CharBuffer in = CharBuffer.wrap(content);
+        ByteBuffer out = ByteBuffer.allocate(CHUNK_SIZE);
+        long length = 0;
+
+        boolean endOfInput = false;
+        while (true) {
+            CoderResult result = endOfInput ? encoder.flush(out) : encoder.encode(in, out, true);
+            if (result.isError()) {
+                result.throwException();
+            }
+            if (result.isOverflow() || out.position() > 0) {
+                length += drain(out, digest, channel);
+            }
+            if (result.isUnderflow()) {
+                if (endOfInput) {
+                    break;
+                }
+                endOfInput = true;
+            }
+        }
+        return new ContentFingerprint(HexFormat.of().formatHex(digest.digest()), length);
+    }
+
+    /**
+     * 读取通道中的全部内容并计算指纹，按块读取，内存占用与内容大小无关
+     */
+    public static ContentFingerprint read(ReadableByteChannel channel) throws IOException {
+        MessageDigest digest = newSha256();
+        ByteBuffer buffer = ByteBuffer.allocate(CHUNK_SIZE);
+        long length = 0;
+        while (channel.read(buffer) >= 0) {
+            if (!buffer.hasRemaining()) {
+                length += drain(buffer, digest, null);
+            }
+        }
+        length += drain(buffer, digest, null);
+        return new ContentFingerprint(HexFormat.of().formatHex(digest.digest()), length);
+    }
+
+    private static int drain(ByteBuffer buffer, MessageDigest digest, WritableByteChannel channel) throws IOException {
+        buffer.flip();
+        int count = buffer.remaining();
+        digest.update(buffer.duplicate());
+        if (channel != null) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+        buffer.clear();
+        return count;
+    }
+
+    private static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256算法不可用", e);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.blog.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * 计算内容指纹的写入通道
+ * 包装目标通道，每次写入的字节同时更新SHA-256摘要和长度，流式写入时不需要再读一遍内容
+ */
+public class FingerprintingChannel implements WritableByteChannel {
+
+    private final WritableByteChannel delegate;
+    private final MessageDigest digest;
+    private long length;
+
+    public FingerprintingChannel(WritableByteChannel delegate) {
+        this.delegate = delegate;
+        try {
+            this.digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256算法不可用", e);
+        }
+    }
+
+    @Override
+    public int write(ByteBuffer src) throws IOException {
+        ByteBuffer written = src.duplicate();
+        int count = delegate.write(src);
+        written.limit(written.position() + count);
+        digest.update(written);
+        length += count;
+        return count;
+    }
+
+    /**
+     * 已写入内容的指纹，调用后不应继续写入
+     */
+    public ContentFingerprint fingerprint() {
+        return new ContentFingerprint(HexFormat.of().formatHex(digest.digest()), length);
+    }
+
+    @Override
+    public boolean isOpen() {
+        return delegate.isOpen();
+    }
+
+    /**
+     * 不关闭目标通道，由目标通道的所有者关闭
+     */
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,225 @@
+package com.blog.util;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * 文件直传工具类
+ * 将磁盘文件或内存缓冲区直接写入HTTP响应，支持单段Range请求；
+ * 文件在Tomcat支持sendfile时交由容器零拷贝发送，否则使用FileChannel.transferTo
+ */
+public final class HttpFileSender {
+
+    private static final String SENDFILE_SUPPORTED_ATTR = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START_ATTR = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END_ATTR = "org.apache.tomcat.sendfile.end";
+
+    private HttpFileSender() {
+    }
+
+    /**
+     * 发送文件内容
+     *
+     * @param file 文件路径
+     * @param contentType 响应的Content-Type
+     * @param etag 强ETag（含双引号），可为空
+     */
+    public static void send(HttpServletRequest request, HttpServletResponse response,
+                            Path file, String contentType, String etag) throws IOException {
+        send(request, response, file, contentType, etag, Files.getLastModifiedTime(file).toMillis());
+    }
+
+    /**
+     * 发送文件内容，使用指定的最后修改时间（如记录的创建时间）而非文件的修改时间
+     *
+     * @param file 文件路径
+     * @param contentType 响应的Content-Type
+     * @param etag 强ETag（含双引号），可为空
+     * @param lastModified 最后修改时间（毫秒）
+     */
+    public static void send(HttpServletRequest request, HttpServletResponse response, Path file,
+                            String contentType, String etag, long lastModified) throws IOException {
+        long length = Files.size(file);
+
+        long[] range = prepareResponse(request, response, length, lastModified, contentType, etag);
+        if (range == null) {
+            return;
+        }
+        long start = range[0];
+        long count = range[1];
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED_ATTR))) {
+            // 由Tomcat在请求处理结束后通过sendfile直接发送
+            request.setAttribute(SENDFILE_FILENAME_ATTR, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START_ATTR, start);
+            request.setAttribute(SENDFILE_END_ATTR, start + count);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = count;
+            while (remaining > 0) {
+                long transferred = channel.transferTo(position, remaining, target);
+                if (transferred <= 0) {
+                    break;
+                }
+                position += transferred;
+                remaining -= transferred;
+            }
+        }
+    }
+
+    /**
+     * 发送内存中的内容（如堆外缓存），Range和条件请求的处理与文件相同
+     *
+     * @param content 内容，从position到limit的部分为完整内容，不会修改其位置
+     * @param lastModified 最后修改时间（毫秒）
+     * @param contentType 响应的Content-Type
+     * @param etag 强ETag（含双引号），可为空
+     */
+    public static void send(HttpServletRequest request, HttpServletResponse response, ByteBuffer content,
+                            long lastModified, String contentType, String etag) throws IOException {
+        send(request, response, new ByteBuffer[]{content}, lastModified, contentType, etag);
+    }
+
+    /**
+     * 发送依次拼接的多段内存内容（如分块保存的堆外缓存）
+     *
+     * @param segments 各段从position到limit的部分依次组成完整内容，不会修改其位置
+     * @param lastModified 最后修改时间（毫秒）
+     * @param contentType 响应的Content-Type
+     * @param etag 强ETag（含双引号），可为空
+     */
+    public static void send(HttpServletRequest request, HttpServletResponse response, ByteBuffer[] segments,
+                            long lastModified, String contentType, String etag) throws IOException {
+        long length = 0;
+        for (ByteBuffer segment : segments) {
+            length += segment.remaining();
+        }
+        long[] range = prepareResponse(request, response, length, lastModified, contentType, etag);
+        if (range == null) {
+            return;
+        }
+
+        long skip = range[0];
+        long remaining = range[1];
+        WritableByteChannel target = Channels.newChannel(response.getOutputStream());
+        for (int i = 0; i < segments.length && remaining > 0; i++) {
+            ByteBuffer segment = segments[i];
+            if (skip >= segment.remaining()) {
+                skip -= segment.remaining();
+                continue;
+            }
+            ByteBuffer slice = segment.duplicate();
+            slice.position(segment.position() + (int) skip);
+            slice.limit(slice.position() + (int) Math.min(remaining, slice.remaining()));
+            skip = 0;
+            remaining -= slice.remaining();
+            while (slice.hasRemaining()) {
+                target.write(slice);
+            }
+        }
+    }
+
+    /**
+     * 按If-None-Match和If-Modified-Since检查客户端缓存是否仍然有效，有效时设置304状态
+     * 应在读取任何内容之前调用，返回true时不再发送内容
+     *
+     * @param etag 强ETag（含双引号）
+     * @param lastModified 最后修改时间（毫秒），未知时传-1
+     */
+    public static boolean checkNotModified(HttpServletRequest request, HttpServletResponse response,
+                                           String etag, long lastModified) {
+        return new ServletWebRequest(request, response).checkNotModified(etag, lastModified);
+    }
+
+    /**
+     * 设置公共响应头并解析Range
+     *
+     * @return [起始位置, 字节数]；无需发送内容（HEAD、空内容或416）时返回null
+     */
+    private static long[] prepareResponse(HttpServletRequest request, HttpServletResponse response, long length,
+                                          long lastModified, String contentType, String etag) {
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setContentType(contentType);
+        if (etag != null) {
+            response.setHeader(HttpHeaders.ETAG, etag);
+        }
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, lastModified);
+
+        long start = 0;
+        long end = length - 1;
+
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader != null && length > 0 && isIfRangeSatisfied(request, etag, lastModified)) {
+            List<HttpRange> ranges = parseRanges(rangeHeader);
+            // 多段Range按RFC 7233允许忽略，直接返回完整内容
+            if (ranges.size() == 1) {
+                HttpRange range = ranges.get(0);
+                start = range.getRangeStart(length);
+                end = range.getRangeEnd(length);
+                if (start >= length || start > end) {
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                    response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                    return null;
+                }
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+        }
+
+        long count = length == 0 ? 0 : end - start + 1;
+        response.setContentLengthLong(count);
+
+        if ("HEAD".equals(request.getMethod()) || count == 0) {
+            return null;
+        }
+        return new long[]{start, count};
+    }
+
+    /**
+     * 解析Range请求头，格式非法时按无Range处理
+     */
+    private static List<HttpRange> parseRanges(String rangeHeader) {
+        try {
+            return HttpRange.parseRanges(rangeHeader);
+        } catch (IllegalArgumentException e) {
+            return List.of();
+        }
+    }
+
+    /**
+     * 判断If-Range条件是否满足，不满足时应返回完整内容
+     */
+    private static boolean isIfRangeSatisfied(HttpServletRequest request, String etag, long lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return etag != null && etag.equals(ifRange);
+        }
+        try {
+            long ifRangeTime = request.getDateHeader(HttpHeaders.IF_RANGE);
+            return ifRangeTime != -1 && lastModified / 1000 <= ifRangeTime / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
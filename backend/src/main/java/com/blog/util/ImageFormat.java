@@ -0,0 +1,77 @@
+package com.blog.util;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 支持的图片格式
+ * 根据文件头的魔数识别实际格式，不依赖客户端声明的Content-Type和扩展名
+ */
+public enum ImageFormat {
+
+    JPEG("image/jpeg", ".jpg"),
+    PNG("image/png", ".png"),
+    GIF("image/gif", ".gif"),
+    WEBP("image/webp", ".webp");
+
+    /**
+     * 识别格式所需的文件头长度
+     */
+    public static final int HEADER_LENGTH = 12;
+
+    private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+    private static final byte[] GIF87_SIGNATURE = "GIF87a".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] GIF89_SIGNATURE = "GIF89a".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] RIFF_SIGNATURE = "RIFF".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] WEBP_SIGNATURE = "WEBP".getBytes(StandardCharsets.US_ASCII);
+
+    private final String mimeType;
+    private final String extension;
+
+    ImageFormat(String mimeType, String extension) {
+        this.mimeType = mimeType;
+        this.extension = extension;
+    }
+
+    public String getMimeType() {
+        return mimeType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * 根据文件头识别图片格式
+     *
+     * @param header 文件开头的字节
+     * @param length header中的有效字节数
+     * @return 识别出的格式，无法识别时返回null
+     */
+    public static ImageFormat detect(byte[] header, int length) {
+        if (length >= 3 && (header[0] & 0xFF) == 0xFF && (header[1] & 0xFF) == 0xD8 && (header[2] & 0xFF) == 0xFF) {
+            return JPEG;
+        }
+        if (startsWith(header, length, 0, PNG_SIGNATURE)) {
+            return PNG;
+        }
+        if (startsWith(header, length, 0, GIF87_SIGNATURE) || startsWith(header, length, 0, GIF89_SIGNATURE)) {
+            return GIF;
+        }
+        if (startsWith(header, length, 0, RIFF_SIGNATURE) && startsWith(header, length, 8, WEBP_SIGNATURE)) {
+            return WEBP;
+        }
+        return null;
+    }
+
+    private static boolean startsWith(byte[] header, int length, int offset, byte[] signature) {
+        if (length < offset + signature.length) {
+            return false;
+        }
+        for (int i = 0; i < signature.length; i++) {
+            if (header[offset + i] != signature[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
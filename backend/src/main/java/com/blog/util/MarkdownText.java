@@ -0,0 +1,116 @@
+package com.blog.util;
+
+/**
+ * Markdown纯文本提取工具类
+ * 去掉标题、引用和列表标记、强调和代码标记、代码块围栏以及HTML标签，链接和图片只保留文字部分，
+ * 连续空白合并为一个空格。全文索引和搜索摘要使用同一份提取结果，对相同的输入总是得到相同的输出
+ */
+public final class MarkdownText {
+
+    private MarkdownText() {
+    }
+
+    public static String toPlainText(CharSequence markdown) {
+        if (markdown == null) {
+            return "";
+        }
+        int length = markdown.length();
+        StringBuilder out = new StringBuilder(length);
+        boolean lineStart = true;
+        for (int i = 0; i < length; ) {
+            if (lineStart) {
+                i = skipLinePrefix(markdown, i);
+                lineStart = false;
+                if (i >= length) {
+                    break;
+                }
+            }
+            char c = markdown.charAt(i);
+            if (c == '\n' || c == '\r') {
+                appendSpace(out);
+                lineStart = true;
+                i++;
+            } else if (Character.isWhitespace(c) || c == '|') {
+                appendSpace(out);
+                i++;
+            } else if (c == '*' || c == '`' || c == '~' || c == '[') {
+                i++;
+            } else if (c == '!' && i + 1 < length && markdown.charAt(i + 1) == '[') {
+                i += 2;
+            } else if (c == ']') {
+                // 链接和图片的地址不属于正文
+                i = i + 1 < length && markdown.charAt(i + 1) == '(' ? skipPast(markdown, i + 2, ')') : i + 1;
+            } else if (c == '<' && i + 1 < length && isTagStart(markdown.charAt(i + 1))) {
+                i = skipPast(markdown, i + 1, '>');
+            } else {
+                out.append(c);
+                i++;
+            }
+        }
+        int end = out.length();
+        if (end > 0 && out.charAt(end - 1) == ' ') {
+            out.setLength(end - 1);
+        }
+        return out.toString();
+    }
+
+    // 跳过行首的缩进、标题、引用、列表标记和代码块围栏
+    private static int skipLinePrefix(CharSequence markdown, int i) {
+        int length = markdown.length();
+        while (i < length && (markdown.charAt(i) == ' ' || markdown.charAt(i) == '\t' || markdown.charAt(i) == '>')) {
+            i++;
+        }
+        if (i >= length) {
+            return i;
+        }
+        char c = markdown.charAt(i);
+        if (c == '#') {
+            while (i < length && markdown.charAt(i) == '#') {
+                i++;
+            }
+        } else if ((c == '`' || c == '~') && i + 2 < length
+                && markdown.charAt(i + 1) == c && markdown.charAt(i + 2) == c) {
+            // 围栏行上的语言标记也一并跳过
+            while (i < length && markdown.charAt(i) != '\n') {
+                i++;
+            }
+        } else if ((c == '-' || c == '*' || c == '+') && i + 1 < length && markdown.charAt(i + 1) == ' ') {
+            i += 2;
+        } else if (c >= '0' && c <= '9') {
+            int j = i;
+            while (j < length && markdown.charAt(j) >= '0' && markdown.charAt(j) <= '9') {
+                j++;
+            }
+            if (j + 1 < length && markdown.charAt(j) == '.' && markdown.charAt(j + 1) == ' ') {
+                i = j + 2;
+            }
+        }
+        return i;
+    }
+
+    private static int skipPast(CharSequence markdown, int i, char terminator) {
+        int length = markdown.length();
+        while (i < length) {
+            char c = markdown.charAt(i++);
+            if (c == terminator) {
+                break;
+            }
+            if (c == '\n') {
+                // 未闭合时不跨行吞掉正文
+                return i - 1;
+            }
+        }
+        return i;
+    }
+
+    private static boolean isTagStart(char c) {
+        return c == '/' || c == '!' || (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static void appendSpace(StringBuilder out) {
+        int length = out.length();
+        if (length > 0 && out.charAt(length - 1) != ' ') {
+            out.append(' ');
+        }
+    }
+}
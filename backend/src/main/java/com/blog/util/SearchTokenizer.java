@@ -0,0 +1,197 @@
+package com.blog.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 搜索分词器
+ * 连续的字母和数字切分为一个词并转为小写，全角字母数字按半角处理；连续的中日韩文字按相邻两字切分为二元词，
+ * 只有一个字时输出单字；其他字符均视为分隔符。
+ * 索引时还为每个中日韩文字输出单字，使单字查询也能命中多字的词；查询只按上述规则切分，多字查询仍按二元词匹配。
+ * 词写入分词器持有的缓冲区后回调，不为每个词创建String，回调期间可由start()和end()取得词在原文中的位置；
+ * 实例不是线程安全的，可在同一线程中重复使用
+ */
+public final class SearchTokenizer {
+
+    // 超过此长度的词（如内嵌的Base64数据）不参与索引
+    public static final int MAX_TOKEN_LENGTH = 64;
+
+    /**
+     * 词的回调，buffer中的内容只在回调期间有效
+     */
+    @FunctionalInterface
+    public interface TokenConsumer {
+        void accept(char[] buffer, int length);
+    }
+
+    private final boolean cjkUnigrams;
+    private final char[] word = new char[MAX_TOKEN_LENGTH];
+    // 两个字均可能是增补平面字符
+    private final char[] pair = new char[4];
+    private int wordLength;
+    private boolean wordTooLong;
+    private int wordStart;
+    private int wordEnd;
+    private int previousCjk;
+    private int previousCjkStart;
+    private boolean pairEmitted;
+    private int tokenStart;
+    private int tokenEnd;
+
+    /**
+     * 查询使用的分词器
+     */
+    public SearchTokenizer() {
+        this(false);
+    }
+
+    /**
+     * @param cjkUnigrams 是否为连续的中日韩文字额外输出每个单字，建立索引时使用
+     */
+    public SearchTokenizer(boolean cjkUnigrams) {
+        this.cjkUnigrams = cjkUnigrams;
+    }
+
+    /**
+     * 切分文本，逐个回调
+     */
+    public void tokenize(CharSequence text, TokenConsumer consumer) {
+        if (text == null) {
+            return;
+        }
+        resetWord();
+        previousCjk = -1;
+        pairEmitted = false;
+
+        int length = text.length();
+        for (int i = 0; i < length; ) {
+            int start = i;
+            char c = text.charAt(i);
+            int codePoint;
+            if (c < 0x80) {
+                // ASCII快速路径
+                i++;
+                if ((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')) {
+                    endCjkRun(consumer);
+                    appendWord(c, start, i);
+                } else if (c >= 'A' && c <= 'Z') {
+                    endCjkRun(consumer);
+                    appendWord((char) (c + ('a' - 'A')), start, i);
+                } else {
+                    endCjkRun(consumer);
+                    endWord(consumer);
+                }
+                continue;
+            }
+            codePoint = Character.codePointAt(text, i);
+            i += Character.charCount(codePoint);
+            if (codePoint >= 0xFF01 && codePoint <= 0xFF5E) {
+                // 全角ASCII
+                codePoint -= 0xFEE0;
+            }
+            if (isCjk(codePoint)) {
+                endWord(consumer);
+                if (previousCjk >= 0) {
+                    int n = Character.toChars(previousCjk, pair, 0);
+                    n += Character.toChars(codePoint, pair, n);
+                    tokenStart = previousCjkStart;
+                    tokenEnd = i;
+                    consumer.accept(pair, n);
+                    pairEmitted = true;
+                }
+                if (cjkUnigrams) {
+                    tokenStart = start;
+                    tokenEnd = i;
+                    consumer.accept(pair, Character.toChars(codePoint, pair, 0));
+                }
+                previousCjk = codePoint;
+                previousCjkStart = start;
+            } else if (Character.isLetterOrDigit(codePoint)) {
+                endCjkRun(consumer);
+                int lower = Character.toLowerCase(codePoint);
+                if (Character.isBmpCodePoint(lower)) {
+                    appendWord((char) lower, start, i);
+                } else {
+                    appendWord(Character.highSurrogate(lower), start, i);
+                    appendWord(Character.lowSurrogate(lower), start, i);
+                }
+            } else {
+                endCjkRun(consumer);
+                endWord(consumer);
+            }
+        }
+        endCjkRun(consumer);
+        endWord(consumer);
+    }
+
+    /**
+     * 切分文本并返回词列表，用于查询等短文本
+     */
+    public static List<String> tokenize(CharSequence text) {
+        List<String> tokens = new ArrayList<>();
+        new SearchTokenizer().tokenize(text, (buffer, length) -> tokens.add(new String(buffer, 0, length)));
+        return tokens;
+    }
+
+    /**
+     * 当前词在原文中的起始位置，只在回调期间有效
+     */
+    public int start() {
+        return tokenStart;
+    }
+
+    /**
+     * 当前词在原文中的结束位置（不含），只在回调期间有效
+     */
+    public int end() {
+        return tokenEnd;
+    }
+
+    private void appendWord(char c, int start, int end) {
+        if (wordLength == 0 && !wordTooLong) {
+            wordStart = start;
+        }
+        wordEnd = end;
+        if (wordLength < MAX_TOKEN_LENGTH) {
+            word[wordLength++] = c;
+        } else {
+            wordTooLong = true;
+        }
+    }
+
+    private void endWord(TokenConsumer consumer) {
+        if (wordLength > 0 && !wordTooLong) {
+            tokenStart = wordStart;
+            tokenEnd = wordEnd;
+            consumer.accept(word, wordLength);
+        }
+        resetWord();
+    }
+
+    private void resetWord() {
+        wordLength = 0;
+        wordTooLong = false;
+    }
+
+    // 只有一个字的连续中日韩文字输出单字（输出全部单字时已输出）
+    private void endCjkRun(TokenConsumer consumer) {
+        if (previousCjk >= 0 && !pairEmitted && !cjkUnigrams) {
+            tokenStart = previousCjkStart;
+            tokenEnd = previousCjkStart + Character.charCount(previousCjk);
+            consumer.accept(pair, Character.toChars(previousCjk, pair, 0));
+        }
+        previousCjk = -1;
+        pairEmitted = false;
+    }
+
+    private static boolean isCjk(int codePoint) {
+        if (codePoint < 0x1100) {
+            return false;
+        }
+        Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA
+                || script == Character.UnicodeScript.HANGUL;
+    }
+}
@@ -0,0 +1,677 @@
+package com.blog.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * 分段日志存储
+ * 每次写入把文档的新版本追加到当前段文件末尾，内存中的偏移索引指向每个键的最新版本，读取按位置直接读取段文件。
+ * 段文件超过大小上限后写入尾部索引（footer）并封存，启动时封存段只读取尾部索引即可重建偏移索引，
+ * 未封存的最后一段逐条校验记录，截掉崩溃时写了一半的末尾。
+ * 封存段中的旧版本超过一定比例后由压缩把仍有效的记录复制到当前段，再删除旧段文件
+ *
+ * <pre>
+ * 记录：magic(4) 类型(1) 键长度(4) 值长度(4) 写入时间(8) CRC32(4) 键 值
+ * 尾部索引：多个 [类型(1) 键长度(4) 键 值偏移(8) 值长度(4) 写入时间(8)]，
+ *          之后为 索引起始偏移(8) 条目数(4) CRC32(4) magic(4)
+ * </pre>
+ */
+public final class SegmentStore implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(SegmentStore.class);
+
+    private static final int RECORD_MAGIC = 0x4d445331;
+    private static final int FOOTER_MAGIC = 0x4d445346;
+    private static final byte TYPE_PUT = 1;
+    private static final byte TYPE_DELETE = 2;
+    private static final int HEADER_BYTES = 25;
+    private static final int TRAILER_BYTES = 20;
+    // 尾部索引中每个条目除键以外的字节数
+    private static final int FOOTER_ENTRY_BYTES = 25;
+    private static final Pattern SEGMENT_NAME = Pattern.compile("segment-(\\d{8})\\.seg");
+
+    private final Path directory;
+    private final long maxSegmentBytes;
+
+    private final ConcurrentHashMap<String, Location> index = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+
+    // 追加写入、封存和压缩时复制记录都持有此锁；读取不加锁
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private Segment active;
+
+    /**
+     * 键最新版本的位置
+     *
+     * @param segmentId 所在段
+     * @param offset 值在段文件中的偏移
+     * @param length 值的字节数
+     * @param timestamp 写入时间（毫秒）
+     */
+    public record Location(long segmentId, long offset, int length, long timestamp) {
+    }
+
+    private SegmentStore(Path directory, long maxSegmentBytes) {
+        this.directory = directory;
+        this.maxSegmentBytes = maxSegmentBytes;
+    }
+
+    /**
+     * 打开存储目录并重建偏移索引
+     */
+    public static SegmentStore open(Path directory, long maxSegmentBytes) throws IOException {
+        Files.createDirectories(directory);
+        SegmentStore store = new SegmentStore(directory, maxSegmentBytes);
+        store.load();
+        return store;
+    }
+
+    /**
+     * 读取键的最新版本，不存在时返回null
+     */
+    public byte[] read(String key) throws IOException {
+        // 所在段可能刚被压缩删除，此时索引已指向新位置，重新查找一次即可
+        for (int attempt = 0; ; attempt++) {
+            Location location = index.get(key);
+            if (location == null) {
+                return null;
+            }
+            Segment segment = segments.get(location.segmentId());
+            try {
+                if (segment == null) {
+                    throw new ClosedChannelException();
+                }
+                ByteBuffer buffer = ByteBuffer.allocate(location.length());
+                readFully(segment, buffer, location.offset());
+                return buffer.array();
+            } catch (ClosedChannelException e) {
+                if (attempt >= 2 || Thread.currentThread().isInterrupted()) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    public Location locate(String key) {
+        return index.get(key);
+    }
+
+    public boolean contains(String key) {
+        return index.containsKey(key);
+    }
+
+    /**
+     * 按键排序的所有键
+     */
+    public List<String> keys() {
+        List<String> keys = new ArrayList<>(index.keySet());
+        keys.sort(null);
+        return keys;
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * 所有段文件的总字节数
+     */
+    public long totalBytes() {
+        long total = 0;
+        for (Segment segment : segments.values()) {
+            total += segment.size;
+        }
+        return total;
+    }
+
+    /**
+     * 各键最新版本的值的总字节数
+     */
+    public long liveBytes() {
+        long live = 0;
+        for (Segment segment : segments.values()) {
+            live += segment.liveBytes.get();
+        }
+        return live;
+    }
+
+    /**
+     * 追加键的新版本
+     */
+    public Location put(String key, ByteBuffer value, WriteDurability durability) throws IOException {
+        appendLock.lock();
+        try {
+            Location location = append(TYPE_PUT, key, value, System.currentTimeMillis());
+            force(durability);
+            return location;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * 键不存在时追加，用于导入已有文件，不覆盖导入期间写入的新版本
+     *
+     * @return 是否已追加
+     */
+    public boolean putIfAbsent(String key, ByteBuffer value, long timestamp) throws IOException {
+        appendLock.lock();
+        try {
+            if (index.containsKey(key)) {
+                return false;
+            }
+            append(TYPE_PUT, key, value, timestamp);
+            return true;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * 追加删除标记
+     *
+     * @return 键是否存在
+     */
+    public boolean delete(String key, WriteDurability durability) throws IOException {
+        appendLock.lock();
+        try {
+            if (!index.containsKey(key)) {
+                return false;
+            }
+            append(TYPE_DELETE, key, ByteBuffer.allocate(0), System.currentTimeMillis());
+            force(durability);
+            return true;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * 压缩旧版本占比达到阈值的封存段：仍有效的记录复制到当前段，之后删除旧段文件
+     *
+     * @param garbageRatio 旧版本字节数占段文件大小的比例阈值
+     * @return 删除的段数
+     */
+    public int compact(double garbageRatio) throws IOException {
+        int compacted = 0;
+        for (Segment segment : new ArrayList<>(segments.values())) {
+            // 按记录的完整占用（头部、键、值及尾部索引条目）比较，全部有效的段不会因固定开销被反复压缩
+            if (!segment.sealed || segment.liveRecordBytes.get() > (segment.size - TRAILER_BYTES) * (1 - garbageRatio)) {
+                continue;
+            }
+            compactSegment(segment);
+            compacted++;
+            logger.info("已压缩段文件: {}, 大小={}字节", segment.path.getFileName(), segment.size);
+        }
+        return compacted;
+    }
+
+    /**
+     * 把当前段已追加的记录刷写到磁盘
+     */
+    public void sync() throws IOException {
+        appendLock.lock();
+        try {
+            active.channel().force(true);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * 强制写入当前段并关闭所有段文件
+     */
+    @Override
+    public void close() throws IOException {
+        appendLock.lock();
+        try {
+            // 重复关闭时段已停用
+            if (active != null && !active.isRetired()) {
+                active.channel().force(true);
+            }
+            for (Segment segment : segments.values()) {
+                segment.retire();
+            }
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private void compactSegment(Segment segment) throws IOException {
+        boolean oldest = segments.firstKey() == segment.id;
+        List<FooterEntry> entries = readFooter(segment.channel(), segment.size);
+        if (entries == null) {
+            // 尾部索引损坏时逐条扫描记录
+            entries = new ArrayList<>();
+            scanRecords(segment.channel(), segment.size, entries);
+        }
+        for (FooterEntry entry : entries) {
+            if (entry.type == TYPE_PUT) {
+                Location location = index.get(entry.key);
+                if (location == null || location.segmentId() != segment.id || location.offset() != entry.valueOffset) {
+                    continue;
+                }
+                ByteBuffer value = ByteBuffer.allocate(entry.length);
+                readFully(segment, value, entry.valueOffset);
+                value.flip();
+                appendLock.lock();
+                try {
+                    // 复制期间被覆盖或删除的键以新版本为准
+                    if (location.equals(index.get(entry.key))) {
+                        append(TYPE_PUT, entry.key, value, entry.timestamp);
+                    }
+                } finally {
+                    appendLock.unlock();
+                }
+            } else if (!oldest) {
+                // 更早的段中可能还有该键的旧版本，保留删除标记，避免重启后旧版本复活
+                appendLock.lock();
+                try {
+                    if (!index.containsKey(entry.key)) {
+                        append(TYPE_DELETE, entry.key, ByteBuffer.allocate(0), entry.timestamp);
+                    }
+                } finally {
+                    appendLock.unlock();
+                }
+            }
+        }
+
+        appendLock.lock();
+        try {
+            // 复制的记录落盘后才能删除旧段
+            active.channel().force(true);
+            segments.remove(segment.id);
+        } finally {
+            appendLock.unlock();
+        }
+        segment.retire();
+        Files.deleteIfExists(segment.path);
+    }
+
+    /**
+     * 追加一条记录并更新索引，调用方持有appendLock
+     */
+    private Location append(byte type, String key, ByteBuffer value, long timestamp) throws IOException {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        int length = value.remaining();
+        CRC32 crc = new CRC32();
+        crc.update(keyBytes);
+        crc.update(value.duplicate());
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES + keyBytes.length);
+        header.putInt(RECORD_MAGIC).put(type).putInt(keyBytes.length).putInt(length).putLong(timestamp)
+                .putInt((int) crc.getValue()).put(keyBytes).flip();
+
+        Segment segment = active;
+        long position = segment.size;
+        writeFully(segment, header, position);
+        long valueOffset = position + HEADER_BYTES + keyBytes.length;
+        writeFully(segment, value, valueOffset);
+        segment.size = valueOffset + length;
+        segment.entries.add(new FooterEntry(type, key, valueOffset, length, timestamp));
+
+        Location location = type == TYPE_PUT ? new Location(segment.id, valueOffset, length, timestamp) : null;
+        apply(key, location);
+        if (segment.size >= maxSegmentBytes) {
+            roll();
+        }
+        return location;
+    }
+
+    private void apply(String key, Location location) {
+        Location previous = location != null ? index.put(key, location) : index.remove(key);
+        if (previous == null && location == null) {
+            return;
+        }
+        int keyLength = key.getBytes(StandardCharsets.UTF_8).length;
+        if (previous != null) {
+            Segment segment = segments.get(previous.segmentId());
+            if (segment != null) {
+                segment.liveBytes.addAndGet(-previous.length());
+                segment.liveRecordBytes.addAndGet(-recordBytes(keyLength, previous.length()));
+            }
+        }
+        if (location != null) {
+            Segment segment = segments.get(location.segmentId());
+            segment.liveBytes.addAndGet(location.length());
+            segment.liveRecordBytes.addAndGet(recordBytes(keyLength, location.length()));
+        }
+    }
+
+    /**
+     * 一条记录在段文件中的完整占用：记录头、键、值，以及封存后尾部索引中的条目
+     */
+    private static long recordBytes(int keyLength, int valueLength) {
+        return HEADER_BYTES + keyLength + valueLength + FOOTER_ENTRY_BYTES + keyLength;
+    }
+
+    /**
+     * 写入尾部索引封存当前段，并创建新段，调用方持有appendLock
+     */
+    private void roll() throws IOException {
+        Segment segment = active;
+        long footerStart = segment.size;
+        ByteBuffer footer = encodeFooter(segment.entries, footerStart);
+        writeFully(segment, footer, footerStart);
+        segment.size = footerStart + footer.limit();
+        segment.channel().force(true);
+        segment.sealed = true;
+        segment.entries = null;
+        active = createSegment(segment.id + 1);
+    }
+
+    private Segment createSegment(long id) throws IOException {
+        Path path = directory.resolve(String.format("segment-%08d.seg", id));
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        Segment segment = new Segment(id, path, channel, 0, false);
+        segment.entries = new ArrayList<>();
+        segments.put(id, segment);
+        forceDirectory();
+        return segment;
+    }
+
+    private void force(WriteDurability durability) throws IOException {
+        if (durability == WriteDurability.DATA) {
+            active.channel().force(false);
+        } else if (durability == WriteDurability.FULL) {
+            active.channel().force(true);
+        }
+    }
+
+    /**
+     * 按段编号顺序重建索引：封存段读取尾部索引，最后一个未封存的段逐条扫描
+     */
+    private void load() throws IOException {
+        TreeMap<Long, Path> files = new TreeMap<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "segment-*.seg")) {
+            for (Path file : stream) {
+                Matcher matcher = SEGMENT_NAME.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    files.put(Long.parseLong(matcher.group(1)), file);
+                }
+            }
+        }
+
+        long startedAt = System.nanoTime();
+        for (Map.Entry<Long, Path> file : files.entrySet()) {
+            FileChannel channel = FileChannel.open(file.getValue(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long size = channel.size();
+            List<FooterEntry> entries = readFooter(channel, size);
+            Segment segment;
+            if (entries != null) {
+                segment = new Segment(file.getKey(), file.getValue(), channel, size, true);
+            } else {
+                entries = new ArrayList<>();
+                long validEnd = scanRecords(channel, size, entries);
+                if (validEnd < size) {
+                    logger.warn("段文件末尾有不完整的记录，已截断: {}, {} -> {}", file.getValue().getFileName(), size, validEnd);
+                    channel.truncate(validEnd);
+                }
+                segment = new Segment(file.getKey(), file.getValue(), channel, validEnd, false);
+                segment.entries = entries;
+            }
+            segments.put(segment.id, segment);
+            for (FooterEntry entry : entries) {
+                apply(entry.key, entry.type == TYPE_PUT
+                        ? new Location(segment.id, entry.valueOffset, entry.length, entry.timestamp) : null);
+            }
+        }
+
+        Segment last = segments.isEmpty() ? null : segments.lastEntry().getValue();
+        for (Segment segment : segments.values()) {
+            if (!segment.sealed && segment != last) {
+                // 只有最后一段可能未封存；更早的未封存段（如封存时崩溃）在此补写尾部索引
+                long footerStart = segment.size;
+                ByteBuffer footer = encodeFooter(segment.entries, footerStart);
+                writeFully(segment, footer, footerStart);
+                segment.size = footerStart + footer.limit();
+                segment.channel().force(true);
+                segment.sealed = true;
+                segment.entries = null;
+            }
+        }
+        active = last != null && !last.sealed ? last : createSegment(last != null ? last.id + 1 : 1);
+        logger.info("分段存储已加载: 段数={}, 键数={}, 耗时={}ms", segments.size(), index.size(),
+                (System.nanoTime() - startedAt) / 1_000_000);
+    }
+
+    /**
+     * 逐条读取并校验记录
+     *
+     * @return 最后一条完整记录的结束位置
+     */
+    private static long scanRecords(FileChannel channel, long size, List<FooterEntry> entries) throws IOException {
+        long position = 0;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        while (position + HEADER_BYTES <= size) {
+            header.clear();
+            readFully(channel, header, position);
+            header.flip();
+            if (header.getInt() != RECORD_MAGIC) {
+                break;
+            }
+            byte type = header.get();
+            int keyLength = header.getInt();
+            int length = header.getInt();
+            long timestamp = header.getLong();
+            int checksum = header.getInt();
+            if (keyLength < 0 || length < 0 || position + HEADER_BYTES + keyLength + length > size) {
+                break;
+            }
+            ByteBuffer body = ByteBuffer.allocate(keyLength + length);
+            readFully(channel, body, position + HEADER_BYTES);
+            CRC32 crc = new CRC32();
+            crc.update(body.array());
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+            String key = new String(body.array(), 0, keyLength, StandardCharsets.UTF_8);
+            entries.add(new FooterEntry(type, key, position + HEADER_BYTES + keyLength, length, timestamp));
+            position += HEADER_BYTES + keyLength + length;
+        }
+        return position;
+    }
+
+    private static ByteBuffer encodeFooter(List<FooterEntry> entries, long footerStart) {
+        int bytes = TRAILER_BYTES;
+        List<byte[]> keys = new ArrayList<>(entries.size());
+        for (FooterEntry entry : entries) {
+            byte[] key = entry.key.getBytes(StandardCharsets.UTF_8);
+            keys.add(key);
+            bytes += FOOTER_ENTRY_BYTES + key.length;
+        }
+        ByteBuffer footer = ByteBuffer.allocate(bytes);
+        for (int i = 0; i < entries.size(); i++) {
+            FooterEntry entry = entries.get(i);
+            byte[] key = keys.get(i);
+            footer.put(entry.type).putInt(key.length).put(key).putLong(entry.valueOffset).putInt(entry.length)
+                    .putLong(entry.timestamp);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(footer.array(), 0, footer.position());
+        footer.putLong(footerStart).putInt(entries.size()).putInt((int) crc.getValue()).putInt(FOOTER_MAGIC);
+        return footer.flip();
+    }
+
+    /**
+     * 读取封存段的尾部索引，段未封存或尾部索引损坏时返回null
+     */
+    private static List<FooterEntry> readFooter(FileChannel channel, long size) throws IOException {
+        if (size < TRAILER_BYTES) {
+            return null;
+        }
+        ByteBuffer trailer = ByteBuffer.allocate(TRAILER_BYTES);
+        readFully(channel, trailer, size - TRAILER_BYTES);
+        trailer.flip();
+        long footerStart = trailer.getLong();
+        int count = trailer.getInt();
+        int checksum = trailer.getInt();
+        if (trailer.getInt() != FOOTER_MAGIC || footerStart < 0 || footerStart > size - TRAILER_BYTES || count < 0) {
+            return null;
+        }
+        ByteBuffer footer = ByteBuffer.allocate((int) (size - TRAILER_BYTES - footerStart));
+        readFully(channel, footer, footerStart);
+        CRC32 crc = new CRC32();
+        crc.update(footer.array());
+        if ((int) crc.getValue() != checksum) {
+            return null;
+        }
+        footer.flip();
+        List<FooterEntry> entries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            byte type = footer.get();
+            byte[] key = new byte[footer.getInt()];
+            footer.get(key);
+            entries.add(new FooterEntry(type, new String(key, StandardCharsets.UTF_8), footer.getLong(),
+                    footer.getInt(), footer.getLong()));
+        }
+        return entries;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new EOFException("段文件提前结束");
+            }
+            position += read;
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    /**
+     * 读取段文件。共享的通道被其他线程的中断关闭时重新打开后继续读取；
+     * 本线程被中断或段已被压缩删除、存储已关闭时不重试，抛出ClosedChannelException，由调用方重新查找位置
+     */
+    private static void readFully(Segment segment, ByteBuffer buffer, long position) throws IOException {
+        // 缓冲区position为0时对应的文件位置，重试时从已读到的位置继续
+        long base = position - buffer.position();
+        while (true) {
+            try {
+                readFully(segment.channel(), buffer, base + buffer.position());
+                return;
+            } catch (ClosedChannelException e) {
+                if (segment.isRetired() || Thread.currentThread().isInterrupted()) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * 写入段文件，通道被中断关闭时的处理与读取相同
+     */
+    private static void writeFully(Segment segment, ByteBuffer buffer, long position) throws IOException {
+        long base = position - buffer.position();
+        while (true) {
+            try {
+                writeFully(segment.channel(), buffer, base + buffer.position());
+                return;
+            } catch (ClosedChannelException e) {
+                if (segment.isRetired() || Thread.currentThread().isInterrupted()) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * 刷写目录项，使新建的段文件持久化；不支持以只读方式打开目录的平台（如Windows）上忽略
+     */
+    private void forceDirectory() throws IOException {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (UnsupportedOperationException | AccessDeniedException e) {
+            // 平台不支持目录刷写
+        }
+    }
+
+    private static final class Segment {
+        final long id;
+        final Path path;
+        // 线程在读写时被中断会关闭通道（ClosedByInterruptException），由下一次使用重新打开
+        private volatile FileChannel channel;
+        private volatile boolean retired;
+        final AtomicLong liveBytes = new AtomicLong();
+        // 有效记录的完整占用，用于判断是否需要压缩
+        final AtomicLong liveRecordBytes = new AtomicLong();
+        volatile long size;
+        volatile boolean sealed;
+        // 未封存段的记录，封存时写入尾部索引
+        List<FooterEntry> entries;
+
+        Segment(long id, Path path, FileChannel channel, long size, boolean sealed) {
+            this.id = id;
+            this.path = path;
+            this.channel = channel;
+            this.size = size;
+            this.sealed = sealed;
+        }
+
+        /**
+         * 当前可用的通道，已被中断关闭时重新打开
+         *
+         * @throws ClosedChannelException 段已被压缩删除或存储已关闭
+         */
+        FileChannel channel() throws IOException {
+            FileChannel current = channel;
+            return current.isOpen() ? current : reopen(current);
+        }
+
+        private synchronized FileChannel reopen(FileChannel closed) throws IOException {
+            if (retired) {
+                throw new ClosedChannelException();
+            }
+            if (channel == closed) {
+                channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                logger.warn("段文件通道被中断关闭，已重新打开: {}", path.getFileName());
+            }
+            return channel;
+        }
+
+        boolean isRetired() {
+            return retired;
+        }
+
+        /**
+         * 关闭通道，之后不再重新打开
+         */
+        synchronized void retire() throws IOException {
+            retired = true;
+            channel.close();
+        }
+    }
+
+    private record FooterEntry(byte type, String key, long valueOffset, int length, long timestamp) {
+    }
+}
@@ -0,0 +1,78 @@
+package com.blog.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * 分片目录布局
+ * 根据十六进制分片键把文件分散到多级子目录，例如 depth=2、width=2 时为 ab/cd/<文件名>，
+ * 避免单个目录中文件过多导致查找和遍历变慢
+ */
+public final class ShardedLayout {
+
+    private static final int MAX_DEPTH = 4;
+    private static final int MAX_WIDTH = 4;
+
+    private final int depth;
+    private final int width;
+
+    public ShardedLayout(int depth, int width) {
+        if (depth < 0 || depth > MAX_DEPTH) {
+            throw new IllegalArgumentException("分片层数必须在0到" + MAX_DEPTH + "之间: " + depth);
+        }
+        if (width < 1 || width > MAX_WIDTH) {
+            throw new IllegalArgumentException("分片目录名长度必须在1到" + MAX_WIDTH + "之间: " + width);
+        }
+        this.depth = depth;
+        this.width = width;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * 计算文件相对于存储根目录的路径
+     *
+     * @param shardKey 十六进制分片键（如内容哈希），长度不足时改用文件名的哈希
+     * @param filename 文件名
+     * @return 以"/"分隔的相对路径
+     */
+    public String relativePath(String shardKey, String filename) {
+        if (depth == 0) {
+            return filename;
+        }
+        String key = isUsableKey(shardKey) ? shardKey.toLowerCase() : hashOf(filename);
+        StringBuilder path = new StringBuilder(depth * (width + 1) + filename.length());
+        for (int level = 0; level < depth; level++) {
+            path.append(key, level * width, (level + 1) * width).append('/');
+        }
+        return path.append(filename).toString();
+    }
+
+    /**
+     * 计算名称的SHA-256十六进制摘要，用作没有内容哈希的文件的分片键
+     */
+    public static String hashOf(String name) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(name.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256算法不可用", e);
+        }
+    }
+
+    private boolean isUsableKey(String shardKey) {
+        if (shardKey == null || shardKey.length() < depth * width) {
+            return false;
+        }
+        for (int i = 0; i < depth * width; i++) {
+            if (Character.digit(shardKey.charAt(i), 16) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
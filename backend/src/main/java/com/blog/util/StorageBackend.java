@@ -0,0 +1,17 @@
+package com.blog.util;
+
+/**
+ * Markdown内容的存储后端
+ */
+public enum StorageBackend {
+
+    /**
+     * 每篇文章一个文件，按分片布局存放在Markdown目录下
+     */
+    FILES,
+
+    /**
+     * 所有版本追加到少量大的段文件中，由内存中的偏移索引定位
+     */
+    SEGMENT
+}
@@ -0,0 +1,60 @@
+package com.blog.util;
+
+import java.util.List;
+
+/**
+ * 文本增量修改工具类
+ * 每个修改以基准文本中的偏移量（UTF-16代码单元，与浏览器字符串下标一致）描述：删除若干字符后插入新文本。
+ * 修改按偏移量升序排列且互不重叠，一次顺序拷贝即可生成新文本
+ */
+public final class TextPatch {
+
+    private TextPatch() {
+    }
+
+    /**
+     * 单个修改
+     *
+     * @param offset 基准文本中的起始位置
+     * @param delete 删除的字符数
+     * @param insert 插入的文本，可为空
+     */
+    public record Edit(int offset, int delete, String insert) {
+    }
+
+    /**
+     * 在基准文本上应用修改
+     *
+     * @throws IllegalArgumentException 修改越界、重叠或未按偏移量排序时
+     */
+    public static String apply(String base, List<Edit> edits) {
+        if (edits == null || edits.isEmpty()) {
+            return base;
+        }
+
+        long resultLength = base.length();
+        int previousEnd = 0;
+        for (Edit edit : edits) {
+            if (edit.offset() < previousEnd || edit.delete() < 0 || (long) edit.offset() + edit.delete() > base.length()) {
+                throw new IllegalArgumentException("修改位置无效: offset=" + edit.offset() + ", delete=" + edit.delete());
+            }
+            previousEnd = edit.offset() + edit.delete();
+            resultLength += (edit.insert() != null ? edit.insert().length() : 0) - edit.delete();
+        }
+        if (resultLength > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("修改后的内容过大");
+        }
+
+        StringBuilder result = new StringBuilder((int) resultLength);
+        int position = 0;
+        for (Edit edit : edits) {
+            result.append(base, position, edit.offset());
+            if (edit.insert() != null) {
+                result.append(edit.insert());
+            }
+            position = edit.offset() + edit.delete();
+        }
+        result.append(base, position, base.length());
+        return result.toString();
+    }
+}
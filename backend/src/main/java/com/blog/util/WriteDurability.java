@@ -0,0 +1,22 @@
+package com.blog.util;
+
+/**
+ * 文件写入的持久化级别
+ */
+public enum WriteDurability {
+
+    /**
+     * 不主动刷盘，由操作系统决定写回时机；崩溃后可能丢失最近的写入，但不会出现写了一半的文件
+     */
+    NONE,
+
+    /**
+     * 重命名前刷写文件内容（fdatasync），崩溃后文件内容完整，但重命名本身可能尚未落盘
+     */
+    DATA,
+
+    /**
+     * 刷写文件内容和元数据（fsync），重命名后再刷写所在目录，写入返回即已持久化
+     */
+    FULL
+}
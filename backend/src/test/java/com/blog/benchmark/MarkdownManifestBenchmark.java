@@ -0,0 +1,117 @@
+package com.blog.benchmark;
+
+import com.blog.config.ManifestProperties;
+import com.blog.config.StorageProperties;
+import com.blog.service.impl.MarkdownManifestServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Markdown文件清单构建基准测试
+ * 比较原有的Files.walk全量遍历与清单的串行、并行启动扫描。
+ * 运行方式：执行main方法，或在mvn test-compile后运行
+ * java -cp target/test-classes:target/classes:&lt;测试依赖&gt; org.openjdk.jmh.Main MarkdownManifestBenchmark
+ * 测试目录可通过 -Dbenchmark.dir 指定，应位于实际部署使用的文件系统上
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class MarkdownManifestBenchmark {
+
+    @Param({"100000"})
+    private int fileCount;
+
+    private Path directory;
+    private MarkdownManifestServiceImpl sequential;
+    private MarkdownManifestServiceImpl parallel;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        String baseDir = System.getProperty("benchmark.dir");
+        directory = baseDir != null
+                ? Files.createTempDirectory(Path.of(baseDir), "markdown-manifest-")
+                : Files.createTempDirectory("markdown-manifest-");
+        // 与存储布局一致的两级分片目录
+        for (int i = 0; i < fileCount; i++) {
+            Path file = directory.resolve(String.format("%02x/%02x/article-%d.md", i & 0xff, (i >> 8) & 0xff, i));
+            Files.createDirectories(file.getParent());
+            Files.writeString(file, "# 文章 " + i);
+        }
+        sequential = manifest(1);
+        parallel = manifest(0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    /**
+     * 原有方式：每次列表请求都遍历整个目录树
+     */
+    @Benchmark
+    public List<String> filesWalk() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            return paths.filter(Files::isRegularFile)
+                    .filter(path -> path.toString().endsWith(".md"))
+                    .map(path -> directory.relativize(path).toString())
+                    .toList();
+        }
+    }
+
+    @Benchmark
+    public int manifestSequential() {
+        sequential.rebuild();
+        return sequential.size();
+    }
+
+    @Benchmark
+    public int manifestParallel() {
+        parallel.rebuild();
+        return parallel.size();
+    }
+
+    private MarkdownManifestServiceImpl manifest(int parallelism) {
+        StorageProperties storageProperties = new StorageProperties();
+        storageProperties.setMarkdownPath(directory.toString());
+        ManifestProperties properties = new ManifestProperties();
+        properties.setParallelism(parallelism);
+        return new MarkdownManifestServiceImpl(storageProperties, properties, new SimpleMeterRegistry());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(MarkdownManifestBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,106 @@
+package com.blog.benchmark;
+
+import com.blog.util.AtomicFileWriter;
+import com.blog.util.WriteDurability;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Markdown写入延迟基准测试
+ * 比较原地覆盖写入与各持久化级别下原子写入的单次延迟。
+ * 运行方式：执行main方法，或在mvn test-compile后运行
+ * java -cp target/test-classes:target/classes:&lt;测试依赖&gt; org.openjdk.jmh.Main MarkdownWriteBenchmark
+ * 测试目录可通过 -Dbenchmark.dir 指定，应位于实际部署使用的文件系统上
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MarkdownWriteBenchmark {
+
+    @Param({"4096", "262144"})
+    private int documentSize;
+
+    private Path directory;
+    private Path target;
+    private byte[] content;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        String baseDir = System.getProperty("benchmark.dir");
+        directory = baseDir != null
+                ? Files.createTempDirectory(Path.of(baseDir), "markdown-write-")
+                : Files.createTempDirectory("markdown-write-");
+        target = directory.resolve("article.md");
+        String line = "Markdown基准测试内容，包含中英文 mixed content。\n";
+        StringBuilder builder = new StringBuilder(documentSize);
+        while (builder.length() < documentSize / 2) {
+            builder.append(line);
+        }
+        content = builder.toString().getBytes(StandardCharsets.UTF_8);
+        Files.write(target, content);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    /**
+     * 原有方式：截断后原地写入
+     */
+    @Benchmark
+    public void inPlaceTruncate() throws IOException {
+        Files.write(target, content, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    @Benchmark
+    public void atomicNone() throws IOException {
+        AtomicFileWriter.write(target, content, WriteDurability.NONE);
+    }
+
+    @Benchmark
+    public void atomicData() throws IOException {
+        AtomicFileWriter.write(target, content, WriteDurability.DATA);
+    }
+
+    @Benchmark
+    public void atomicFull() throws IOException {
+        AtomicFileWriter.write(target, content, WriteDurability.FULL);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(MarkdownWriteBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
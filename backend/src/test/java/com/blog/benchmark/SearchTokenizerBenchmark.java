@@ -0,0 +1,132 @@
+package com.blog.benchmark;
+
+import com.blog.entity.ArticleStatus;
+import com.blog.service.SearchDocument;
+import com.blog.service.impl.SearchIndex;
+import com.blog.util.SearchTokenizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 搜索分词基准测试
+ * 语料为按固定种子拼接的中英文混排Markdown（中文段落、英文术语、代码块、链接和数字），
+ * 比较复用缓冲区的回调分词、为每个词创建String的分词以及完整的建索引分析。
+ * 运行方式：执行main方法，或在mvn test-compile后运行
+ * java -cp target/test-classes:target/classes:&lt;测试依赖&gt; org.openjdk.jmh.Main SearchTokenizerBenchmark -prof gc
+ * 加上 -prof gc 可查看每次操作的分配量
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchTokenizerBenchmark {
+
+    private static final String[] CHINESE = {
+            "在实际项目中，缓存穿透和缓存雪崩是最常见的两类问题。",
+            "本文记录了把博客后端从单体部署迁移到容器的全过程，包括镜像构建和健康检查。",
+            "全文检索需要对中文做分词处理，否则只能依赖数据库的模糊匹配。",
+            "线程池的核心参数决定了任务排队和拒绝的行为，配置不当会导致请求堆积。",
+            "下面的示例展示了如何在不重启服务的情况下刷新配置。",
+            "这篇随笔总结了最近阅读的几本书，以及对写作习惯的一些思考。",
+    };
+
+    private static final String[] ENGLISH = {
+            "Spring Boot", "JVM", "G1GC", "Redis", "Kafka", "PostgreSQL", "HTTP/2", "ETag",
+            "ThreadPoolExecutor", "CompletableFuture", "Docker", "Kubernetes", "p99", "OpenAPI",
+    };
+
+    private static final String CODE_BLOCK = """
+            ```java
+            @Bean
+            public Executor searchExecutor() {
+                return Executors.newFixedThreadPool(4);
+            }
+            ```
+            """;
+
+    @Param({"4096", "32768", "262144"})
+    private int documentSize;
+
+    private String content;
+    private SearchDocument document;
+    private SearchTokenizer tokenizer;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        StringBuilder builder = new StringBuilder(documentSize + 256);
+        builder.append("# 性能优化实践：").append(ENGLISH[random.nextInt(ENGLISH.length)]).append("\n\n");
+        while (builder.length() < documentSize) {
+            int kind = random.nextInt(10);
+            if (kind < 6) {
+                builder.append(CHINESE[random.nextInt(CHINESE.length)]);
+                builder.append("使用").append(ENGLISH[random.nextInt(ENGLISH.length)]).append("时，");
+                builder.append("耗时从").append(random.nextInt(500)).append("ms降到")
+                        .append(random.nextInt(50)).append("ms。\n\n");
+            } else if (kind < 8) {
+                builder.append("- ").append(ENGLISH[random.nextInt(ENGLISH.length)]).append("：")
+                        .append(CHINESE[random.nextInt(CHINESE.length)]).append("\n");
+            } else if (kind < 9) {
+                builder.append(CODE_BLOCK).append("\n");
+            } else {
+                builder.append("参考[官方文档](https://docs.example.com/guide/")
+                        .append(random.nextInt(1000)).append(")。\n\n");
+            }
+        }
+        content = builder.toString();
+        document = new SearchDocument(1L, "性能优化实践", "performance", "缓存与线程池调优记录",
+                List.of("性能", "Java"), ArticleStatus.PUBLISHED, "ab/cd/performance.md", "v1");
+        tokenizer = new SearchTokenizer(true);
+    }
+
+    /**
+     * 复用缓冲区，不创建String
+     */
+    @Benchmark
+    public void tokenizeIntoBuffer(Blackhole blackhole) {
+        tokenizer.tokenize(content, (buffer, length) -> blackhole.consume(buffer[length - 1]));
+    }
+
+    /**
+     * 对照：为每个词创建String
+     */
+    @Benchmark
+    public void tokenizeToStrings(Blackhole blackhole) {
+        tokenizer.tokenize(content, (buffer, length) -> blackhole.consume(new String(buffer, 0, length)));
+    }
+
+    /**
+     * 建索引时的完整分析：分词并统计加权词频
+     */
+    @Benchmark
+    public SearchIndex.Analyzed analyze() {
+        return SearchIndex.analyze(document, content);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(SearchTokenizerBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build()).run();
+    }
+}
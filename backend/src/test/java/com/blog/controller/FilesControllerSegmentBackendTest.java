@@ -0,0 +1,80 @@
+package com.blog.controller;
+
+import com.blog.BaseIntegrationTest;
+import com.blog.entity.Article;
+import com.blog.entity.ArticleStatus;
+import com.blog.repository.ArticleRepository;
+import com.blog.service.FileService;
+import com.blog.service.MarkdownWriteBehindService;
+import com.blog.service.impl.SegmentFileService;
+import com.blog.util.ContentFingerprint;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * 分段存储后端下的Markdown文件读写端点测试
+ */
+@AutoConfigureMockMvc
+@TestPropertySource(properties = {
+        "blog.storage.backend=segment",
+        "blog.storage.segment.path=./test-data/segments"
+})
+class FilesControllerSegmentBackendTest extends BaseIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private FileService fileService;
+
+    @Autowired
+    private ArticleRepository articleRepository;
+
+    @Autowired
+    private MarkdownWriteBehindService writeBehindService;
+
+    private Article article;
+
+    @BeforeEach
+    void setUpArticle() throws IOException {
+        String contentPath = fileService.saveMarkdownFile("segment-backend-test", "# 分段存储");
+        article = new Article("分段存储测试", "segment-backend-test-" + System.nanoTime(), contentPath);
+        article.setStatus(ArticleStatus.DRAFT);
+        article = articleRepository.save(article);
+    }
+
+    @AfterEach
+    void cleanUpFile() throws IOException {
+        writeBehindService.flush(article.getId());
+        fileService.deleteMarkdownFile(article.getContentPath());
+    }
+
+    @Test
+    void putThenGet_ServesContentFromSegments() throws Exception {
+        assertInstanceOf(SegmentFileService.class, fileService);
+
+        mockMvc.perform(put("/files/markdown/{id}", article.getId())
+                        .param("flush", "true")
+                        .contentType("text/plain")
+                        .content("# 写入段文件"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/files/markdown/{id}", article.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", ContentFingerprint.of("# 写入段文件").etag()))
+                .andExpect(content().string("# 写入段文件"));
+        assertNull(fileService.getAbsolutePath(article.getContentPath()));
+    }
+}
@@ -0,0 +1,366 @@
+package com.blog.controller;
+
+import com.blog.BaseIntegrationTest;
+import com.blog.config.ManifestProperties;
+import com.blog.config.StorageProperties;
+import com.blog.entity.Article;
+import com.blog.entity.ArticleStatus;
+import com.blog.exception.PayloadTooLargeException;
+import com.blog.repository.ArticleRepository;
+import com.blog.service.FileService;
+import com.blog.service.MarkdownManifestService;
+import com.blog.service.MarkdownWriteBehindService;
+import com.blog.util.ContentFingerprint;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.function.BooleanSupplier;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Markdown文件读写端点集成测试
+ */
+@AutoConfigureMockMvc
+class FilesControllerTest extends BaseIntegrationTest {
+
+    private static final String CONTENT = "# 标题\n\n正文内容";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private FileService fileService;
+
+    @Autowired
+    private ArticleRepository articleRepository;
+
+    @Autowired
+    private MarkdownWriteBehindService writeBehindService;
+
+    @Autowired
+    private StorageProperties storageProperties;
+
+    @Autowired
+    private FilesController filesController;
+
+    @Autowired
+    private MarkdownManifestService manifestService;
+
+    @Autowired
+    private ManifestProperties manifestProperties;
+
+    private Article article;
+
+    @BeforeEach
+    void setUpArticle() throws IOException {
+        String contentPath = fileService.saveMarkdownFile("files-controller-test", CONTENT);
+        article = new Article("文件接口测试", "files-controller-test-" + System.nanoTime(), contentPath);
+        article.setStatus(ArticleStatus.DRAFT);
+        article = articleRepository.save(article);
+    }
+
+    @AfterEach
+    void cleanUpFile() throws IOException {
+        writeBehindService.flush(article.getId());
+        Files.deleteIfExists(fileService.getAbsolutePath(article.getContentPath()));
+    }
+
+    @Test
+    void getMarkdown_ReturnsContentWithValidators() throws Exception {
+        MvcResult result = mockMvc.perform(get("/files/markdown/{id}", article.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andExpect(header().exists("Last-Modified"))
+                .andExpect(header().string("Accept-Ranges", "bytes"))
+                .andReturn();
+
+        assertEquals(CONTENT, result.getResponse().getContentAsString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void getMarkdown_IfNoneMatchReturnsNotModified() throws Exception {
+        String etag = mockMvc.perform(get("/files/markdown/{id}", article.getId()))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/files/markdown/{id}", article.getId()).header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void getMarkdown_EtagFollowsFileContentWhenRecordIsStale() throws Exception {
+        // 文件被外部修改，长度与记录的指纹相同但内容不同
+        ContentFingerprint recorded = ContentFingerprint.of(CONTENT);
+        article.setContentHash(recorded.hash());
+        article.setContentLength(recorded.length());
+        articleRepository.save(article);
+        String modified = CONTENT.replace("容", "文");
+        Files.writeString(fileService.getAbsolutePath(article.getContentPath()), modified);
+
+        MvcResult result = mockMvc.perform(get("/files/markdown/{id}", article.getId())
+                        .header("If-None-Match", recorded.etag()))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", ContentFingerprint.of(modified).etag()))
+                .andReturn();
+
+        assertEquals(modified, result.getResponse().getContentAsString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void getMarkdown_EtagChangesAfterUpdate() throws Exception {
+        String etag = mockMvc.perform(get("/files/markdown/{id}", article.getId()))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(put("/files/markdown/{id}", article.getId())
+                        .contentType("text/plain")
+                        .content("# 修改后的内容，长度不同"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/files/markdown/{id}", article.getId()).header("If-None-Match", etag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void putMarkdown_BuffersUntilFlushedAndReadsSeeLatest() throws Exception {
+        mockMvc.perform(put("/files/markdown/{id}", article.getId())
+                        .contentType("text/plain")
+                        .content("# 自动保存"))
+                .andExpect(status().isOk());
+
+        assertEquals(CONTENT, fileService.readMarkdownFile(article.getContentPath()));
+        mockMvc.perform(get("/files/markdown/{id}", article.getId()))
+                .andExpect(status().isOk())
+                .andExpect(content().string("# 自动保存"));
+
+        mockMvc.perform(put("/files/markdown/{id}", article.getId())
+                        .param("flush", "true")
+                        .contentType("text/plain")
+                        .content("# 手动保存"))
+                .andExpect(status().isOk());
+
+        assertEquals("# 手动保存", fileService.readMarkdownFile(article.getContentPath()));
+        assertTrue(writeBehindService.getPending(article.getId()).isEmpty());
+    }
+
+    @Test
+    void patchMarkdown_AppliesEditsAgainstCurrentVersion() throws Exception {
+        String etag = mockMvc.perform(get("/files/markdown/{id}", article.getId()))
+                .andReturn().getResponse().getHeader("ETag");
+
+        String newEtag = mockMvc.perform(patch("/files/markdown/{id}", article.getId())
+                        .contentType("application/json")
+                        .content("{\"baseVersion\":\"" + etag.replace("\"", "")
+                                + "\",\"edits\":[{\"offset\":2,\"delete\":2,\"insert\":\"新标题\"}]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/files/markdown/{id}", article.getId()))
+                .andExpect(header().string("ETag", newEtag))
+                .andExpect(content().string("# 新标题\n\n正文内容"));
+
+        // 基于旧版本的修改被拒绝
+        mockMvc.perform(patch("/files/markdown/{id}", article.getId())
+                        .contentType("application/json")
+                        .content("{\"baseVersion\":\"stale\",\"edits\":[{\"offset\":0,\"insert\":\"x\"}]}"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void putMarkdown_UnchangedContentSkipsWrite() throws Exception {
+        mockMvc.perform(put("/files/markdown/{id}", article.getId())
+                        .param("flush", "true")
+                        .contentType("text/plain")
+                        .content("# 已保存的内容"))
+                .andExpect(status().isOk());
+        Path file = fileService.getAbsolutePath(article.getContentPath());
+        FileTime writtenAt = Files.getLastModifiedTime(file);
+        String etag = mockMvc.perform(get("/files/markdown/{id}", article.getId()))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(put("/files/markdown/{id}", article.getId())
+                        .contentType("text/plain")
+                        .content("# 已保存的内容"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version").value(etag));
+
+        assertTrue(writeBehindService.getPending(article.getId()).isEmpty());
+        assertEquals(writtenAt, Files.getLastModifiedTime(file));
+        assertEquals(ContentFingerprint.of("# 已保存的内容").etag(), etag);
+    }
+
+    @Test
+    void putMarkdown_StreamsRawBodyAndReplacesBufferedContent() throws Exception {
+        mockMvc.perform(put("/files/markdown/{id}", article.getId())
+                        .contentType("text/plain")
+                        .content("# 暂存的自动保存"))
+                .andExpect(status().isOk());
+
+        String content = "# 流式保存\n\n" + "长文档内容。".repeat(20000);
+        mockMvc.perform(put("/files/markdown/{id}", article.getId())
+                        .contentType("text/markdown")
+                        .content(content.getBytes(StandardCharsets.UTF_8)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version").value(ContentFingerprint.of(content).etag()));
+
+        assertEquals(content, fileService.readMarkdownFile(article.getContentPath()));
+        assertTrue(writeBehindService.getPending(article.getId()).isEmpty());
+    }
+
+    @Test
+    void putMarkdown_StreamsContentFieldOfJsonBody() throws Exception {
+        mockMvc.perform(put("/files/markdown/{id}", article.getId())
+                        .contentType("application/json")
+                        .content("{\"meta\":{\"content\":\"嵌套字段\",\"list\":[1,2]},\"content\":\"# JSON保存\\n\\u4e2d\\u6587\",\"title\":\"x\"}"))
+                .andExpect(status().isOk());
+
+        assertEquals("# JSON保存\n中文", fileService.readMarkdownFile(article.getContentPath()));
+    }
+
+    @Test
+    void putMarkdown_JsonContentFieldTakesPrecedenceOverBody() throws Exception {
+        mockMvc.perform(put("/files/markdown/{id}", article.getId())
+                        .contentType("application/json")
+                        .content("{\"body\":\"# body字段\",\"content\":\"# content字段 \\ud83d\\ude00\\\"引号\\\"\"}"))
+                .andExpect(status().isOk());
+
+        assertEquals("# content字段 \ud83d\ude00\"引号\"", fileService.readMarkdownFile(article.getContentPath()));
+    }
+
+    @Test
+    void putMarkdown_JsonBodyFieldUsedWithoutContent() throws Exception {
+        mockMvc.perform(put("/files/markdown/{id}", article.getId())
+                        .contentType("application/json")
+                        .content("{\"title\":\"x\",\"body\":\"# body字段\"}"))
+                .andExpect(status().isOk());
+
+        assertEquals("# body字段", fileService.readMarkdownFile(article.getContentPath()));
+    }
+
+    @Test
+    void putMarkdown_RejectsBodyOverLimit() throws Exception {
+        long maxBytes = storageProperties.getMaxMarkdownBytes();
+        storageProperties.setMaxMarkdownBytes(16);
+        try {
+            mockMvc.perform(put("/files/markdown/{id}", article.getId())
+                            .contentType("text/markdown")
+                            .content("# 超过上限的流式内容"))
+                    .andExpect(status().isPayloadTooLarge());
+            mockMvc.perform(put("/files/markdown/{id}", article.getId())
+                            .contentType("application/json")
+                            .content("{\"content\":\"# 超过上限的JSON内容\"}"))
+                    .andExpect(status().isPayloadTooLarge());
+        } finally {
+            storageProperties.setMaxMarkdownBytes(maxBytes);
+        }
+
+        assertEquals(CONTENT, fileService.readMarkdownFile(article.getContentPath()));
+    }
+
+    @Test
+    void putMarkdown_StopsReadingChunkedBodyOverLimit() {
+        long maxBytes = storageProperties.getMaxMarkdownBytes();
+        storageProperties.setMaxMarkdownBytes(16);
+        try {
+            // 分块传输的请求没有声明长度，复制时计数
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            InputStream in = new ByteArrayInputStream(new byte[17]);
+            assertThrows(PayloadTooLargeException.class, () -> ReflectionTestUtils.invokeMethod(filesController,
+                    "copyLimited", in, Channels.newChannel(out)));
+            assertTrue(out.size() <= 16);
+        } finally {
+            storageProperties.setMaxMarkdownBytes(maxBytes);
+        }
+    }
+
+    @Test
+    void putMarkdown_JsonWithoutContentFieldStoredAsIs() throws Exception {
+        String body = "{\"title\":\"x\",\"tags\":[\"a\"]}";
+        mockMvc.perform(put("/files/markdown/{id}", article.getId())
+                        .contentType("application/json")
+                        .content(body))
+                .andExpect(status().isOk());
+
+        assertEquals(body, fileService.readMarkdownFile(article.getContentPath()));
+    }
+
+    @Test
+    void listMarkdown_IncludesSavedFile() throws Exception {
+        awaitTrue(manifestService::isReady);
+        mockMvc.perform(get("/files/markdown").param("limit", "1000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[*].path", hasItem(article.getContentPath())));
+
+        mockMvc.perform(get("/files/markdown").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void listMarkdown_UnavailableWhenManifestDisabled() throws Exception {
+        manifestProperties.setEnabled(false);
+        try {
+            mockMvc.perform(get("/files/markdown"))
+                    .andExpect(status().isServiceUnavailable());
+        } finally {
+            manifestProperties.setEnabled(true);
+        }
+    }
+
+    @Test
+    void getMarkdown_Range() throws Exception {
+        mockMvc.perform(get("/files/markdown/{id}", article.getId()).header("Range", "bytes=0-1"))
+                .andExpect(status().isPartialContent())
+                .andExpect(content().string("# "));
+    }
+
+    @Test
+    void getMarkdown_RangeOfUncachedFileUsesFileVersion() throws Exception {
+        String content = "# 大文档\n\n" + "长文档内容。".repeat(100000);
+        Files.writeString(fileService.getAbsolutePath(article.getContentPath()), content);
+        String etag = ContentFingerprint.of(content).etag();
+
+        mockMvc.perform(get("/files/markdown/{id}", article.getId()).header("Range", "bytes=0-10"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string("ETag", etag))
+                .andExpect(header().string("Content-Range", "bytes 0-10/" + content.getBytes(StandardCharsets.UTF_8).length))
+                .andExpect(content().bytes("# 大文档".getBytes(StandardCharsets.UTF_8)));
+        mockMvc.perform(get("/files/markdown/{id}", article.getId()).header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void getMarkdown_ArticleNotFound() throws Exception {
+        mockMvc.perform(get("/files/markdown/{id}", 999999L))
+                .andExpect(status().isNotFound());
+    }
+
+    private void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("等待超时");
+            }
+            Thread.sleep(20);
+        }
+    }
+}
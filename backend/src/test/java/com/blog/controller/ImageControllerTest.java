@@ -2,6 +2,7 @@ package com.blog.controller;
 
 import com.blog.BaseIntegrationTest;
 import com.blog.entity.Image;
+import com.blog.repository.ArticleRepository;
 import com.blog.repository.ImageRepository;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -30,14 +31,27 @@ class ImageControllerTest extends BaseIntegrationTest {
     @Autowired
     private ImageRepository imageRepository;
 
+    @Autowired
+    private ArticleRepository articleRepository;
+
     @Autowired
     private ObjectMapper objectMapper;
 
+    // JPEG和PNG文件头 + 测试数据
+    private static final byte[] JPEG_CONTENT = concat(
+            new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0, 0, 0x10, 'J', 'F', 'I', 'F', 0, 1},
+            "test image content".getBytes());
+    private static final byte[] PNG_CONTENT = concat(
+            new byte[]{(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n', 0, 0, 0, 0x0D},
+            "test content".getBytes());
+
     private Image testImage;
 
     @BeforeEach
     void setUpTestData() {
-        // 清理数据
+        // 清理数据，先解除示例文章与图片的关联
+        articleRepository.findAll().forEach(article -> article.getImages().clear());
+        articleRepository.flush();
         imageRepository.deleteAll();
 
         // 创建测试图片
@@ -58,20 +72,22 @@ class ImageControllerTest extends BaseIntegrationTest {
                 "file",
                 "upload-test.jpg",
                 "image/jpeg",
-                "test image content".getBytes()
+                JPEG_CONTENT
         );
 
-        // 执行上传请求
+        // 执行上传请求，上传响应不回传Base64内容
         mockMvc.perform(multipart("/images")
                         .file(file)
                         .param("description", "Test upload"))
                 .andExpect(status().isCreated())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.id", notNullValue()))
+                .andExpect(jsonPath("$.filename", endsWith(".jpg")))
                 .andExpect(jsonPath("$.originalName", is("upload-test.jpg")))
+                .andExpect(jsonPath("$.filePath", notNullValue()))
                 .andExpect(jsonPath("$.mimeType", is("image/jpeg")))
-                .andExpect(jsonPath("$.fileSize", is(18)))
-                .andExpect(jsonPath("$.base64Content", notNullValue()))
+                .andExpect(jsonPath("$.fileSize", is(JPEG_CONTENT.length)))
+                .andExpect(jsonPath("$.base64Content").doesNotExist())
                 .andExpect(jsonPath("$.createdAt", notNullValue()));
 
         // 验证数据库中有新记录
@@ -100,6 +116,28 @@ class ImageControllerTest extends BaseIntegrationTest {
         assertEquals(1, imageRepository.count());
     }
 
+    @Test
+    void testUploadImage_RejectsNonImageContent() throws Exception {
+        // 声明为图片但内容不是图片
+        MockMultipartFile file = new MockMultipartFile(
+                "file",
+                "fake.jpg",
+                "image/jpeg",
+                "test image content".getBytes()
+        );
+
+        // 执行上传请求，按文件头而不是声明的类型判断格式
+        mockMvc.perform(multipart("/images")
+                        .file(file))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.error.code", is("VALIDATION_ERROR")))
+                .andExpect(jsonPath("$.error.message", containsString("不支持的文件格式")));
+
+        // 验证数据库中没有新记录
+        assertEquals(1, imageRepository.count());
+    }
+
     @Test
     void testUploadImage_FileTooLarge() throws Exception {
         // 准备超大文件
@@ -180,7 +218,7 @@ class ImageControllerTest extends BaseIntegrationTest {
                 "file",
                 "no-desc.png",
                 "image/png",
-                "test content".getBytes()
+                PNG_CONTENT
         );
 
         // 执行上传请求
@@ -189,7 +227,9 @@ class ImageControllerTest extends BaseIntegrationTest {
                 .andExpect(status().isCreated())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.originalName", is("no-desc.png")))
-                .andExpect(jsonPath("$.mimeType", is("image/png")));
+                .andExpect(jsonPath("$.mimeType", is("image/png")))
+                .andExpect(jsonPath("$.fileSize", is(PNG_CONTENT.length)))
+                .andExpect(jsonPath("$.base64Content").doesNotExist());
 
         // 验证数据库中有新记录
         assertEquals(2, imageRepository.count());
@@ -216,4 +256,11 @@ class ImageControllerTest extends BaseIntegrationTest {
         // 验证数据库中没有新记录
         assertEquals(1, imageRepository.count());
     }
-}
\ No newline at end of file
+
+    private static byte[] concat(byte[] header, byte[] body) {
+        byte[] content = new byte[header.length + body.length];
+        System.arraycopy(header, 0, content, 0, header.length);
+        System.arraycopy(body, 0, content, header.length, body.length);
+        return content;
+    }
+}
@@ -0,0 +1,164 @@
+package com.blog.controller;
+
+import com.blog.BaseIntegrationTest;
+import com.blog.entity.Image;
+import com.blog.service.ImageService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.nio.file.Path;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * 图片原始内容端点集成测试
+ * 测试二进制直传、Range请求和按文件名访问
+ */
+@AutoConfigureMockMvc
+class ImageRawEndpointTest extends BaseIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ImageService imageService;
+
+    @TempDir
+    Path tempDir;
+
+    private Image savedImage;
+
+    // PNG文件头 + 测试数据
+    private final byte[] imageContent = concat(
+            new byte[]{(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'},
+            "raw-image-content-for-testing".getBytes());
+
+    @BeforeEach
+    void setUpImage() {
+        ReflectionTestUtils.setField(imageService, "imageStoragePath", tempDir.toString());
+        MockMultipartFile file = new MockMultipartFile("file", "raw.png", "image/png", imageContent);
+        savedImage = imageService.uploadImage(file, "raw test");
+    }
+
+    @Test
+    void testGetRaw_FullContent() throws Exception {
+        MvcResult result = mockMvc.perform(get("/images/{id}/raw", savedImage.getId()))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("image/png"))
+                .andExpect(header().string("Accept-Ranges", "bytes"))
+                .andExpect(header().string("ETag", startsWith("\"")))
+                .andExpect(header().longValue("Content-Length", imageContent.length))
+                .andReturn();
+
+        assertArrayEquals(imageContent, result.getResponse().getContentAsByteArray());
+    }
+
+    @Test
+    void testGetRaw_ByFilename() throws Exception {
+        MvcResult result = mockMvc.perform(get("/images/raw/{filename}", savedImage.getFilename()))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        assertArrayEquals(imageContent, result.getResponse().getContentAsByteArray());
+    }
+
+    @Test
+    void testGetRaw_ByFilenameIsImmutable() throws Exception {
+        mockMvc.perform(get("/images/raw/{filename}", savedImage.getFilename()))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "public, max-age=31536000, immutable"))
+                .andExpect(header().string("ETag", "\"" + savedImage.getContentHash() + "\""));
+    }
+
+    @Test
+    void testGetRaw_IfNoneMatchReturnsNotModified() throws Exception {
+        String etag = mockMvc.perform(get("/images/{id}/raw", savedImage.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "public, no-cache"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        MvcResult result = mockMvc.perform(get("/images/{id}/raw", savedImage.getId())
+                        .header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag))
+                .andReturn();
+
+        assertEquals(0, result.getResponse().getContentAsByteArray().length);
+    }
+
+    @Test
+    void testGetRaw_IfModifiedSinceReturnsNotModified() throws Exception {
+        mockMvc.perform(get("/images/raw/{filename}", savedImage.getFilename())
+                        .header("If-Modified-Since", "Fri, 01 Jan 2100 00:00:00 GMT"))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void testGetRaw_Range() throws Exception {
+        MvcResult result = mockMvc.perform(get("/images/{id}/raw", savedImage.getId())
+                        .header("Range", "bytes=12-16"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string("Content-Range", "bytes 12-16/" + imageContent.length))
+                .andExpect(header().longValue("Content-Length", 5))
+                .andReturn();
+
+        assertEquals("image", result.getResponse().getContentAsString());
+    }
+
+    @Test
+    void testGetRaw_RangeNotSatisfiable() throws Exception {
+        mockMvc.perform(get("/images/{id}/raw", savedImage.getId())
+                        .header("Range", "bytes=1000-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string("Content-Range", "bytes */" + imageContent.length));
+    }
+
+    @Test
+    void testPostRaw_StreamsBodyToDisk() throws Exception {
+        byte[] content = concat(new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0},
+                "raw-upload-content".getBytes());
+
+        mockMvc.perform(post("/images/raw")
+                        .contentType("image/jpeg")
+                        .header("X-Filename", "%E5%9B%BE%E7%89%87.jpg")
+                        .content(content))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.originalName", is("图片.jpg")))
+                .andExpect(jsonPath("$.mimeType", is("image/jpeg")))
+                .andExpect(jsonPath("$.fileSize", is(content.length)))
+                .andExpect(jsonPath("$.base64Content").doesNotExist());
+    }
+
+    @Test
+    void testPostRaw_RejectsNonImageContent() throws Exception {
+        mockMvc.perform(post("/images/raw")
+                        .contentType("image/png")
+                        .content("<html>not an image</html>".getBytes()))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testGetRaw_NotFound() throws Exception {
+        mockMvc.perform(get("/images/{id}/raw", 999999L))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.error.code", is("IMAGE_NOT_FOUND")));
+    }
+
+    private static byte[] concat(byte[] header, byte[] body) {
+        byte[] content = new byte[header.length + body.length];
+        System.arraycopy(header, 0, content, 0, header.length);
+        System.arraycopy(body, 0, content, header.length, body.length);
+        return content;
+    }
+}
@@ -0,0 +1,110 @@
+package com.blog.controller;
+
+import com.blog.BaseIntegrationTest;
+import com.blog.entity.Article;
+import com.blog.entity.ArticleStatus;
+import com.blog.service.ArticleService;
+import com.blog.service.FileService;
+import com.blog.service.SearchService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * 全文搜索端点集成测试
+ * 文章需要提交后才会被后台索引，因此不在测试事务中执行
+ */
+@AutoConfigureMockMvc
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SearchControllerTest extends BaseIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private FileService fileService;
+
+    @Autowired
+    private ArticleService articleService;
+
+    @Autowired
+    private SearchService searchService;
+
+    private Article article;
+
+    @BeforeEach
+    void setUpArticle() throws Exception {
+        String contentPath = fileService.saveMarkdownFile("search-controller-test",
+                "# 检索测试\n\n正文提到 zeppelin 飞艇");
+        article = new Article("全文检索接口测试", "search-controller-test-" + System.nanoTime(), contentPath);
+        article.setSummary("摘要");
+        article.setStatus(ArticleStatus.PUBLISHED);
+        article.setTags(List.of("检索"));
+        article = articleService.createArticle(article);
+        awaitTrue(() -> searchService.search("zeppelin", null, 0, 10).total() > 0);
+    }
+
+    @AfterEach
+    void cleanUp() throws Exception {
+        articleService.deleteArticle(article.getId());
+        fileService.deleteMarkdownFile(article.getContentPath());
+        awaitTrue(() -> searchService.search("zeppelin", null, 0, 10).total() == 0);
+    }
+
+    @Test
+    void search_MatchesMarkdownContent() throws Exception {
+        mockMvc.perform(get("/search").param("q", "Zeppelin").param("status", "PUBLISHED"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalHits").value(1))
+                .andExpect(jsonPath("$.totalPages").value(1))
+                .andExpect(jsonPath("$.hits[0].id").value(article.getId()))
+                .andExpect(jsonPath("$.hits[0].title").value("全文检索接口测试"))
+                .andExpect(jsonPath("$.hits[0].tags[0]").value("检索"))
+                .andExpect(jsonPath("$.hits[0].fragments[0].text").value("检索测试 正文提到 zeppelin 飞艇"))
+                .andExpect(jsonPath("$.hits[0].fragments[0].highlights[0].start").value(10))
+                .andExpect(jsonPath("$.hits[0].fragments[0].highlights[0].end").value(18));
+
+        mockMvc.perform(get("/search").param("q", "zeppelin").param("status", "DRAFT"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalHits").value(0));
+    }
+
+    @Test
+    void search_ReflectsMetadataChanges() throws Exception {
+        articleService.addTagToArticle(article.getId(), "dirigible");
+
+        awaitTrue(() -> searchService.search("dirigible", null, 0, 10).total() == 1);
+        mockMvc.perform(get("/search").param("q", "dirigible"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hits[0].id").value(article.getId()));
+    }
+
+    @Test
+    void search_RejectsBlankQuery() throws Exception {
+        mockMvc.perform(get("/search").param("q", "   "))
+                .andExpect(status().isBadRequest());
+    }
+
+    private void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("等待超时");
+            }
+            Thread.sleep(20);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.blog.controller;
+
+import com.blog.BaseIntegrationTest;
+import com.blog.entity.Article;
+import com.blog.service.ArticleService;
+import com.blog.service.SuggestService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * 输入提示端点集成测试
+ * 索引在事务提交后更新，因此不在测试事务中执行
+ */
+@AutoConfigureMockMvc
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SuggestControllerTest extends BaseIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ArticleService articleService;
+
+    @Autowired
+    private SuggestService suggestService;
+
+    private final List<Long> articleIds = new ArrayList<>();
+
+    @BeforeEach
+    void awaitReady() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!suggestService.isReady()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("等待超时");
+            }
+            Thread.sleep(20);
+        }
+    }
+
+    @AfterEach
+    void cleanUp() {
+        articleIds.forEach(articleService::deleteArticle);
+    }
+
+    @Test
+    void suggest_ReturnsTitlesByRecency() throws Exception {
+        create("Zeppelin飞艇设计", List.of());
+        Long newer = create("Zeppelin飞艇历史", List.of());
+
+        mockMvc.perform(get("/suggest").param("prefix", "zeppelin"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.suggestions.length()").value(2))
+                .andExpect(jsonPath("$.suggestions[0].articleId").value(newer))
+                .andExpect(jsonPath("$.suggestions[0].text").value("Zeppelin飞艇历史"));
+
+        mockMvc.perform(get("/suggest").param("prefix", "zeppelin").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.suggestions.length()").value(1));
+    }
+
+    @Test
+    void suggest_ReturnsTagsByPopularityAndTracksChanges() throws Exception {
+        Long first = create("提示测试一", List.of("zk-common", "zk-rare"));
+        create("提示测试二", List.of("zk-common"));
+
+        mockMvc.perform(get("/suggest").param("prefix", "ZK-").param("type", "tag"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.suggestions.length()").value(2))
+                .andExpect(jsonPath("$.suggestions[0].text").value("zk-common"))
+                .andExpect(jsonPath("$.suggestions[0].articleCount").value(2))
+                .andExpect(jsonPath("$.suggestions[1].text").value("zk-rare"));
+
+        articleService.removeTagFromArticle(first, "zk-rare");
+        mockMvc.perform(get("/suggest").param("prefix", "zk-r").param("type", "tag"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.suggestions.length()").value(0));
+    }
+
+    @Test
+    void suggest_RejectsUnknownType() throws Exception {
+        mockMvc.perform(get("/suggest").param("prefix", "a").param("type", "author"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private Long create(String title, List<String> tags) {
+        Article article = new Article(title, "suggest-test-" + System.nanoTime(), "suggest-test.md");
+        article.setTags(new ArrayList<>(tags));
+        Long id = articleService.createArticle(article).getId();
+        articleIds.add(id);
+        return id;
+    }
+}
@@ -0,0 +1,152 @@
+package com.blog.job;
+
+import com.blog.config.ManifestProperties;
+import com.blog.config.StorageProperties;
+import com.blog.config.WatcherProperties;
+import com.blog.event.MarkdownFileChangedEvent;
+import com.blog.service.impl.MarkdownManifestServiceImpl;
+import com.blog.util.ContentFingerprint;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Markdown目录监听测试
+ */
+class MarkdownFileWatcherTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final List<MarkdownFileChangedEvent> events = new CopyOnWriteArrayList<>();
+    private WatcherProperties properties;
+    private MarkdownManifestServiceImpl manifest;
+    private MarkdownFileWatcher watcher;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        writeFile("ab/cd/existing.md", "# 已有文件");
+        StorageProperties storageProperties = new StorageProperties();
+        storageProperties.setMarkdownPath(tempDir.toString());
+        ManifestProperties manifestProperties = new ManifestProperties();
+        manifest = new MarkdownManifestServiceImpl(storageProperties, manifestProperties, new SimpleMeterRegistry());
+        manifest.rebuild();
+
+        properties = new WatcherProperties();
+        properties.setQuietPeriod(Duration.ofMillis(200));
+        properties.setBatchPause(Duration.ZERO);
+        watcher = new MarkdownFileWatcher(storageProperties, properties, manifestProperties, manifest, event -> {
+            MarkdownFileChangedEvent changed = (MarkdownFileChangedEvent) event;
+            events.add(changed);
+            manifest.onMarkdownFileChanged(changed);
+        }, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.invokeMethod(watcher, "stop");
+    }
+
+    @Test
+    void watch_CoalescesBurstIntoSingleEvent() throws Exception {
+        start();
+
+        for (int i = 0; i < 5; i++) {
+            writeFile("ab/cd/existing.md", "# 外部修改 " + i);
+        }
+
+        awaitTrue(() -> !events.isEmpty());
+        Thread.sleep(500);
+        assertEquals(1, events.size());
+        MarkdownFileChangedEvent event = events.get(0);
+        assertEquals(Path.of("ab/cd/existing.md").toString(), event.path());
+        assertEquals(MarkdownFileChangedEvent.Kind.WRITTEN, event.kind());
+        assertTrue(event.external());
+        assertEquals(ContentFingerprint.of("# 外部修改 4"), event.fingerprint());
+    }
+
+    @Test
+    void watch_IgnoresFilesAlreadyKnownToManifest() throws Exception {
+        start();
+
+        // 模拟经本服务写入：写入后清单已记录内容指纹
+        Path file = writeFile("ab/cd/existing.md", "# 服务写入");
+        manifest.onMarkdownFileChanged(new MarkdownFileChangedEvent(tempDir.relativize(file).toString(),
+                MarkdownFileChangedEvent.Kind.WRITTEN, ContentFingerprint.of("# 服务写入")));
+        writeFile("ab/cd/other.md", "# 外部写入");
+
+        awaitTrue(() -> !events.isEmpty());
+        Thread.sleep(500);
+        assertEquals(List.of(Path.of("ab/cd/other.md").toString()),
+                events.stream().map(MarkdownFileChangedEvent::path).toList());
+    }
+
+    @Test
+    void watch_RescansDirectoriesWhenTooManyPending() throws Exception {
+        properties.setMaxPending(2);
+        start();
+
+        for (int i = 0; i < 6; i++) {
+            writeFile("ab/cd/bulk-" + i + ".md", "# 批量同步 " + i);
+        }
+
+        awaitTrue(() -> manifest.size() == 7);
+        assertTrue(events.size() >= 6);
+        assertTrue(events.stream().allMatch(event -> event.kind() == MarkdownFileChangedEvent.Kind.WRITTEN));
+    }
+
+    @Test
+    void watch_FindsFilesInNewDirectories() throws Exception {
+        start();
+
+        writeFile("ef/01/created.md", "# 新目录中的文件");
+
+        awaitTrue(() -> manifest.get(Path.of("ef/01/created.md").toString()).isPresent());
+    }
+
+    @Test
+    void watch_PublishesDeletesForRemovedDirectory() throws Exception {
+        start();
+
+        Files.move(tempDir.resolve("ab"), tempDir.resolve(".moved"));
+
+        awaitTrue(() -> manifest.size() == 0);
+        assertEquals(MarkdownFileChangedEvent.Kind.DELETED, events.get(0).kind());
+        assertEquals(Path.of("ab/cd/existing.md").toString(), events.get(0).path());
+    }
+
+    private void start() throws InterruptedException {
+        ReflectionTestUtils.invokeMethod(watcher, "start");
+        // 等待监听线程注册完目录
+        Thread.sleep(200);
+    }
+
+    private void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("等待超时");
+            }
+            Thread.sleep(20);
+        }
+    }
+
+    private Path writeFile(String relativePath, String content) throws IOException {
+        Path file = tempDir.resolve(relativePath);
+        Files.createDirectories(file.getParent());
+        return Files.writeString(file, content);
+    }
+}
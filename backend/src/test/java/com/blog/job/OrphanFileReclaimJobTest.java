@@ -0,0 +1,127 @@
+package com.blog.job;
+
+import com.blog.BaseIntegrationTest;
+import com.blog.entity.Image;
+import com.blog.repository.ImageRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 孤儿文件回收任务测试
+ */
+@TestPropertySource(properties = {
+        "app.reclaim.enabled=true",
+        "app.reclaim.initial-delay=3600000",
+        "app.reclaim.page-pause=0"
+})
+class OrphanFileReclaimJobTest extends BaseIntegrationTest {
+
+    @Autowired
+    private OrphanFileReclaimJob reclaimJob;
+
+    @Autowired
+    private ImageRepository imageRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @TempDir
+    Path tempDir;
+
+    private Path imagesRoot;
+    private Path markdownRoot;
+
+    @BeforeEach
+    void setUpReclaim() throws IOException {
+        imagesRoot = Files.createDirectories(tempDir.resolve("images"));
+        markdownRoot = Files.createDirectories(tempDir.resolve("markdown"));
+        ReflectionTestUtils.setField(reclaimJob, "imageStoragePath", imagesRoot.toString());
+        ReflectionTestUtils.setField(reclaimJob, "markdownPath", markdownRoot.toString());
+        ReflectionTestUtils.setField(reclaimJob, "minAge", Duration.ZERO);
+        ReflectionTestUtils.setField(reclaimJob, "quarantineRetention", Duration.ofDays(7));
+    }
+
+    @Test
+    void reclaim_QuarantinesOrphansAndKeepsReferencedFiles() throws IOException {
+        Path referenced = writeFile(imagesRoot.resolve("ab/cd/referenced.png"), "referenced");
+        Image image = new Image();
+        image.setFilename("referenced.png");
+        image.setOriginalName("referenced.png");
+        image.setFilePath(referenced.toString());
+        image.setFileSize(Files.size(referenced));
+        image.setMimeType("image/png");
+        image = imageRepository.save(image);
+
+        Path orphanImage = writeFile(imagesRoot.resolve("ef/01/orphan.png"), "orphan");
+        Path orphanMarkdown = writeFile(markdownRoot.resolve("deleted-article.md"), "# deleted");
+        Path otherFile = writeFile(markdownRoot.resolve("index.json"), "{}");
+
+        reclaimJob.reclaim();
+
+        // 图片记录未关联任何文章也不回收
+        assertTrue(imageRepository.existsById(image.getId()));
+        assertTrue(Files.exists(referenced));
+        assertFalse(Files.exists(orphanImage));
+        assertTrue(Files.exists(imagesRoot.resolve(OrphanFileReclaimJob.QUARANTINE_DIR).resolve("ef/01/orphan.png")));
+        assertFalse(Files.exists(orphanMarkdown));
+        assertTrue(Files.exists(markdownRoot.resolve(OrphanFileReclaimJob.QUARANTINE_DIR).resolve("deleted-article.md")));
+        assertTrue(Files.exists(otherFile));
+    }
+
+    @Test
+    void reclaim_DeletesExpiredQuarantineAndRecordsBytes() throws IOException {
+        writeFile(imagesRoot.resolve("12/34/expired.png"), "expired-bytes");
+        reclaimJob.reclaim();
+        Path quarantined = imagesRoot.resolve(OrphanFileReclaimJob.QUARANTINE_DIR).resolve("12/34/expired.png");
+        assertTrue(Files.exists(quarantined));
+
+        double bytesBefore = reclaimedBytes();
+        ReflectionTestUtils.setField(reclaimJob, "quarantineRetention", Duration.ZERO);
+        reclaimJob.reclaim();
+
+        assertFalse(Files.exists(quarantined));
+        assertEquals("expired-bytes".length(), reclaimedBytes() - bytesBefore);
+    }
+
+    @Test
+    void reclaim_RestoresQuarantinedFileReferencedAgain() throws IOException {
+        Path file = writeFile(imagesRoot.resolve("56/78/revived.png"), "revived");
+        reclaimJob.reclaim();
+        assertFalse(Files.exists(file));
+
+        Image image = new Image();
+        image.setFilename("revived.png");
+        image.setOriginalName("revived.png");
+        image.setFilePath(file.toString());
+        image.setFileSize(7L);
+        image.setMimeType("image/png");
+        imageRepository.save(image);
+        ReflectionTestUtils.setField(reclaimJob, "quarantineRetention", Duration.ZERO);
+        reclaimJob.reclaim();
+
+        assertEquals("revived", Files.readString(file));
+    }
+
+    private double reclaimedBytes() {
+        Counter counter = meterRegistry.find("blog.storage.reclaim.bytes").tag("store", "images").counter();
+        return counter != null ? counter.count() : 0;
+    }
+
+    private Path writeFile(Path path, String content) throws IOException {
+        Files.createDirectories(path.getParent());
+        return Files.writeString(path, content);
+    }
+}
@@ -0,0 +1,130 @@
+package com.blog.job;
+
+import com.blog.BaseIntegrationTest;
+import com.blog.entity.Article;
+import com.blog.entity.ArticleStatus;
+import com.blog.entity.Image;
+import com.blog.repository.ArticleRepository;
+import com.blog.repository.ImageRepository;
+import com.blog.service.FileService;
+import com.blog.service.ImageService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 存储目录布局迁移任务测试
+ */
+class StorageLayoutMigrationJobTest extends BaseIntegrationTest {
+
+    @Autowired
+    private StorageLayoutMigrationJob migrationJob;
+
+    @Autowired
+    private ImageService imageService;
+
+    @Autowired
+    private FileService fileService;
+
+    @Autowired
+    private ImageRepository imageRepository;
+
+    @Autowired
+    private ArticleRepository articleRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @TempDir
+    Path tempDir;
+
+    private Path markdownFile;
+
+    @BeforeEach
+    void setUpMigration() {
+        ReflectionTestUtils.setField(imageService, "imageStoragePath", tempDir.toString());
+        ReflectionTestUtils.setField(migrationJob, "batchPauseMillis", 0L);
+    }
+
+    @AfterEach
+    void cleanUpMarkdown() throws IOException {
+        if (markdownFile != null) {
+            Files.deleteIfExists(markdownFile);
+            Files.deleteIfExists(fileService.getAbsolutePath(fileService.getLayoutPath(markdownFile.getFileName().toString())));
+        }
+    }
+
+    @Test
+    void migrate_MovesFlatImageIntoShardedLayout() throws IOException {
+        Path flatFile = tempDir.resolve("legacy-image.png");
+        Files.writeString(flatFile, "legacy image content");
+        Image image = new Image();
+        image.setFilename("legacy-image.png");
+        image.setOriginalName("legacy-image.png");
+        image.setFilePath(flatFile.toString());
+        image.setFileSize(Files.size(flatFile));
+        image.setMimeType("image/png");
+        image = imageRepository.save(image);
+
+        StorageLayoutMigrationJob.Status status = migrationJob.migrate();
+        entityManager.clear();
+
+        Path expected = imageService.getLayoutPath(null, "legacy-image.png");
+        Image migrated = imageRepository.findById(image.getId()).orElseThrow();
+        assertEquals(expected.toString(), migrated.getFilePath());
+        assertNotEquals(tempDir, expected.getParent());
+        assertEquals("legacy image content", Files.readString(expected));
+        assertFalse(Files.exists(flatFile));
+        assertTrue(status.imagesMoved() >= 1);
+        assertFalse(status.running());
+    }
+
+    @Test
+    void migrate_MovesFlatMarkdownIntoShardedLayout() throws IOException {
+        String filename = "migration-test-" + System.nanoTime() + ".md";
+        markdownFile = fileService.getAbsolutePath(filename);
+        Files.writeString(markdownFile, "# 迁移测试");
+        Article article = new Article("迁移测试", "migration-test-" + System.nanoTime(), filename);
+        article.setStatus(ArticleStatus.DRAFT);
+        article = articleRepository.save(article);
+
+        migrationJob.migrate();
+        entityManager.clear();
+
+        String expected = fileService.getLayoutPath(filename);
+        Article migrated = articleRepository.findById(article.getId()).orElseThrow();
+        assertEquals(expected, migrated.getContentPath());
+        assertEquals("# 迁移测试", fileService.readMarkdownFile(expected));
+        assertFalse(Files.exists(markdownFile));
+    }
+
+    @Test
+    void migrate_SkipsFilesAlreadyInLayout() throws IOException {
+        Path target = imageService.getLayoutPath(null, "in-place.png");
+        Files.createDirectories(target.getParent());
+        Files.writeString(target, "already sharded");
+        Image image = new Image();
+        image.setFilename("in-place.png");
+        image.setOriginalName("in-place.png");
+        image.setFilePath(target.toString());
+        image.setFileSize(Files.size(target));
+        image.setMimeType("image/png");
+        imageRepository.save(image);
+
+        migrationJob.migrate();
+
+        assertTrue(Files.exists(target));
+        assertEquals(Paths.get(target.toString()), Paths.get(imageRepository.findById(image.getId()).orElseThrow().getFilePath()));
+    }
+}
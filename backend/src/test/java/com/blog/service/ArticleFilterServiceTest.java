@@ -0,0 +1,178 @@
+package com.blog.service;
+
+import com.blog.config.FilterProperties;
+import com.blog.entity.Article;
+import com.blog.event.ArticleChangedEvent;
+import com.blog.repository.ArticleFilterText;
+import com.blog.repository.ArticleRepository;
+import com.blog.service.impl.ArticleFilterServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 标题筛选服务测试
+ */
+@ExtendWith(MockitoExtension.class)
+class ArticleFilterServiceTest {
+
+    @Mock
+    private ArticleRepository articleRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private FilterProperties properties;
+    private ArticleFilterServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        properties = new FilterProperties();
+        service = new ArticleFilterServiceImpl(articleRepository, properties, transactionManager,
+                new SimpleMeterRegistry());
+    }
+
+    @Test
+    void findByTitle_PagesMatchesThroughRepository() {
+        build(text(1, "深入理解JVM"), text(2, "Spring Boot 缓存实践"), text(3, "spring cloud 入门"));
+        Pageable pageable = PageRequest.of(0, 1);
+        Article article = new Article("Spring Boot 缓存实践", "spring-boot", "spring-boot.md");
+        when(articleRepository.findByIdIn(List.of(2L, 3L), pageable)).thenReturn(List.of(article));
+
+        Page<Article> page = service.findByTitle("SPRING", pageable).orElseThrow();
+
+        assertEquals(List.of(article), page.getContent());
+        assertEquals(2, page.getTotalElements());
+        assertEquals(2, page.getTotalPages());
+    }
+
+    @Test
+    void findByTitle_ReturnsEmptyPageWithoutQueryingWhenNothingMatches() {
+        build(text(1, "深入理解JVM"));
+
+        Page<Article> page = service.findByTitle("redis", PageRequest.of(0, 10)).orElseThrow();
+
+        assertTrue(page.isEmpty());
+        assertEquals(0, page.getTotalElements());
+    }
+
+    @Test
+    void findByTitle_FallsBackWhenNotReadyOrTooManyCandidates() {
+        assertTrue(service.findByTitle("spring", PageRequest.of(0, 10)).isEmpty());
+
+        properties.setMaxCandidates(1);
+        build(text(1, "Spring Boot 缓存实践"), text(2, "spring cloud 入门"));
+
+        assertTrue(service.findByTitle("spring", PageRequest.of(0, 10)).isEmpty());
+        assertEquals(Optional.of(List.of(2L)), service.findIds("cloud", false));
+    }
+
+    @Test
+    void build_RereadsArticlesChangedWhileBuilding() {
+        when(articleRepository.findFilterTextById(1L)).thenReturn(Optional.of(text(1, "修改后的标题")));
+        when(articleRepository.findFilterTextById(2L)).thenReturn(Optional.empty());
+        when(articleRepository.findFilterTextsAfter(eq(0L), any())).thenAnswer(invocation -> {
+            // 批次结果读出后文章1被修改、文章2被删除
+            service.onArticleChanged(new ArticleChangedEvent(1L, ArticleChangedEvent.Kind.SAVED));
+            service.onArticleChanged(new ArticleChangedEvent(2L, ArticleChangedEvent.Kind.DELETED));
+            return List.of(text(1, "修改前的标题"), text(2, "已删除的标题"));
+        });
+
+        ReflectionTestUtils.invokeMethod(service, "build");
+
+        assertTrue(service.isReady());
+        assertEquals(Optional.of(List.of(1L)), service.findIds("修改后", false));
+        assertEquals(Optional.of(List.of()), service.findIds("修改前", false));
+        assertEquals(Optional.of(List.of()), service.findIds("已删除", false));
+        assertEquals(1, service.size());
+    }
+
+    @Test
+    void onArticleChanged_UpdatesAndRemovesEntries() {
+        build(text(1, "深入理解JVM"));
+        when(articleRepository.findFilterTextById(2L)).thenReturn(Optional.of(text(2, "JVM调优实战")));
+        when(articleRepository.findFilterTextById(1L)).thenReturn(Optional.of(text(1, "垃圾回收算法")));
+
+        service.onArticleChanged(new ArticleChangedEvent(2L, ArticleChangedEvent.Kind.SAVED));
+        service.onArticleChanged(new ArticleChangedEvent(1L, ArticleChangedEvent.Kind.SAVED));
+
+        assertEquals(Optional.of(List.of(2L)), service.findIds("jvm", false));
+        assertEquals(Optional.of(List.of(1L)), service.findIds("垃圾回收", false));
+
+        service.onArticleChanged(new ArticleChangedEvent(2L, ArticleChangedEvent.Kind.DELETED));
+
+        assertEquals(Optional.of(List.of()), service.findIds("jvm", false));
+        assertEquals(1, service.size());
+    }
+
+    @Test
+    void onArticleChanged_RebuildsAfterFailedUpdate() throws InterruptedException {
+        properties.setRebuildDelay(Duration.ZERO);
+        build(text(1, "深入理解JVM"));
+        when(articleRepository.findFilterTextById(2L)).thenThrow(new IllegalStateException("数据库不可用"));
+        when(articleRepository.findFilterTextsAfter(eq(0L), any()))
+                .thenReturn(List.of(text(1, "深入理解JVM"), text(2, "JVM调优实战")));
+
+        service.onArticleChanged(new ArticleChangedEvent(2L, ArticleChangedEvent.Kind.SAVED));
+
+        awaitTrue(service::isReady);
+        assertEquals(Optional.of(List.of(1L, 2L)), service.findIds("jvm", false));
+        verify(articleRepository, atLeast(2)).findFilterTextsAfter(anyLong(), any());
+    }
+
+    private void build(ArticleFilterText... texts) {
+        when(articleRepository.findFilterTextsAfter(eq(0L), any())).thenReturn(List.of(texts));
+        ReflectionTestUtils.invokeMethod(service, "build");
+        assertTrue(service.isReady());
+    }
+
+    private static ArticleFilterText text(long id, String title) {
+        return new ArticleFilterText() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getTitle() {
+                return title;
+            }
+
+            @Override
+            public String getSummary() {
+                return null;
+            }
+        };
+    }
+
+    private void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("等待超时");
+            }
+            Thread.sleep(20);
+        }
+    }
+}
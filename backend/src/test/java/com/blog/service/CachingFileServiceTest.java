@@ -0,0 +1,138 @@
+package com.blog.service;
+
+import com.blog.config.MarkdownCacheProperties;
+import com.blog.config.StorageProperties;
+import com.blog.exception.FileOperationException;
+import com.blog.service.impl.CachingFileService;
+import com.blog.service.impl.FileServiceImpl;
+import com.blog.util.ContentFingerprint;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachingFileServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private MarkdownCacheProperties cacheProperties;
+    private MeterRegistry meterRegistry;
+    private CachingFileService fileService;
+
+    @BeforeEach
+    void setUp() {
+        cacheProperties = new MarkdownCacheProperties();
+        cacheProperties.setRevalidateInterval(Duration.ofHours(1));
+        meterRegistry = new SimpleMeterRegistry();
+        fileService = new CachingFileService(new FileServiceImpl(storagePropertiesFor(tempDir)), cacheProperties,
+                meterRegistry);
+    }
+
+    @Test
+    void readMarkdownFile_ServesHitsWithoutTouchingFile() throws IOException {
+        String path = fileService.saveMarkdownFile("cached", "# 原始内容");
+        assertEquals("# 原始内容", fileService.readMarkdownFile(path));
+
+        // 复检间隔内不检查文件，绕过服务的修改不可见
+        Files.writeString(fileService.getAbsolutePath(path), "# 外部修改");
+
+        assertEquals("# 原始内容", fileService.readMarkdownFile(path));
+        assertEquals(1.0, meterRegistry.get("blog.markdown.cache.requests").tag("result", "hit").functionCounter().count());
+        assertEquals(0.5, fileService.hitRatio());
+    }
+
+    @Test
+    void updateMarkdownFile_InvalidatesEntry() throws IOException {
+        String path = fileService.saveMarkdownFile("updated", "# 旧内容");
+        fileService.readMarkdownFile(path);
+
+        fileService.updateMarkdownFile(path, "# 新内容");
+
+        assertEquals("# 新内容", fileService.readMarkdownFile(path));
+    }
+
+    @Test
+    void readMarkdownFile_RevalidatesByModifiedTimeAndSize() throws IOException {
+        cacheProperties.setRevalidateInterval(Duration.ZERO);
+        fileService = new CachingFileService(new FileServiceImpl(storagePropertiesFor(tempDir)), cacheProperties,
+                new SimpleMeterRegistry());
+        String path = fileService.saveMarkdownFile("external", "# 旧内容");
+        fileService.readMarkdownFile(path);
+
+        Files.writeString(fileService.getAbsolutePath(path), "# 外部修改后的内容");
+
+        assertEquals("# 外部修改后的内容", fileService.readMarkdownFile(path));
+    }
+
+    @Test
+    void readMarkdownFile_EvictsLeastRecentlyUsedOverBudget() throws IOException {
+        String first = fileService.saveMarkdownFile("first", "0123456789");
+        String second = fileService.saveMarkdownFile("second", "0123456789");
+        String third = fileService.saveMarkdownFile("third", "0123456789");
+
+        fileService.readMarkdownFile(first);
+        // 按堆内存占用计算，包括数组对象头和条目开销，大于文件的字节数
+        long entryBytes = fileService.residentBytes();
+        assertTrue(entryBytes > 10);
+        cacheProperties.setMaxBytes(entryBytes * 2 + entryBytes / 2);
+
+        fileService.readMarkdownFile(second);
+        fileService.readMarkdownFile(first);
+        fileService.readMarkdownFile(third);
+
+        assertEquals(entryBytes * 2, fileService.residentBytes());
+        assertEquals(1.0, meterRegistry.get("blog.markdown.cache.evictions").functionCounter().count());
+        Files.writeString(fileService.getAbsolutePath(second), "changed!!!");
+        assertEquals("changed!!!", fileService.readMarkdownFile(second));
+    }
+
+    @Test
+    void readMarkdownSnapshot_SharesEntryWithTextReads() throws IOException {
+        String path = fileService.saveMarkdownFile("snapshot", "# 快照内容");
+        assertEquals("# 快照内容", fileService.readMarkdownFile(path));
+
+        MarkdownSnapshot snapshot = fileService.readMarkdownSnapshot(path);
+
+        assertEquals(ContentFingerprint.of("# 快照内容").etag(), snapshot.getEtag());
+        assertSame(snapshot, fileService.readMarkdownSnapshot(path));
+        assertEquals(2.0, meterRegistry.get("blog.markdown.cache.requests").tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    void getCachedSnapshot_DoesNotReadUncachedFile() throws IOException {
+        String path = fileService.saveMarkdownFile("cached", "# 缓存内容");
+
+        assertTrue(fileService.getCachedSnapshot(path).isEmpty());
+        fileService.readMarkdownFile(path);
+
+        assertEquals(ContentFingerprint.of("# 缓存内容").etag(), fileService.getCachedSnapshot(path).orElseThrow().getEtag());
+        fileService.updateMarkdownFile(path, "# 修改");
+        assertTrue(fileService.getCachedSnapshot(path).isEmpty());
+    }
+
+    @Test
+    void deleteMarkdownFile_InvalidatesEntry() throws IOException {
+        String path = fileService.saveMarkdownFile("deleted", "# 内容");
+        fileService.readMarkdownFile(path);
+
+        fileService.deleteMarkdownFile(path);
+
+        assertThrows(FileOperationException.class, () -> fileService.readMarkdownFile(path));
+        assertEquals(0, fileService.residentBytes());
+    }
+
+    private static StorageProperties storagePropertiesFor(Path root) {
+        StorageProperties storageProperties = new StorageProperties();
+        storageProperties.setMarkdownPath(root.toString());
+        return storageProperties;
+    }
+}
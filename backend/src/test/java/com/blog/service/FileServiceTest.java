@@ -3,6 +3,8 @@ package com.blog.service;
 import com.blog.config.StorageProperties;
 import com.blog.exception.FileOperationException;
 import com.blog.service.impl.FileServiceImpl;
+import com.blog.util.ContentFingerprint;
+import com.blog.util.WriteDurability;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -11,9 +13,15 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -98,6 +106,51 @@ class FileServiceTest {
         assertTrue(exception.getMessage().contains("文件不存在"));
     }
     
+    @Test
+    void readMarkdownSnapshot_FingerprintMatchesContent() throws IOException {
+        // Given
+        String content = "# 快照测试\n\n内容与指纹一致。";
+        String savedPath = fileService.saveMarkdownFile("test-snapshot", content);
+        Path file = fileService.getAbsolutePath(savedPath);
+        
+        // When
+        MarkdownSnapshot snapshot = fileService.readMarkdownSnapshot(savedPath);
+        
+        // Then
+        assertArrayEquals(content.getBytes(StandardCharsets.UTF_8), snapshot.getContent());
+        assertEquals(ContentFingerprint.of(content), snapshot.getFingerprint());
+        assertEquals(Files.getLastModifiedTime(file).toMillis(), snapshot.getLastModified());
+    }
+    
+    @Test
+    void readMarkdownSnapshot_FileNotExists_ThrowsNoSuchFile() {
+        // When & Then
+        assertThrows(NoSuchFileException.class, () -> fileService.readMarkdownSnapshot("non-existent.md"));
+    }
+    
+    @Test
+    void readMarkdownEntry_CachesHashByFileAttributes() throws IOException {
+        // Given
+        String content = "# 属性测试";
+        String savedPath = fileService.saveMarkdownFile("test-entry", content);
+        Path file = fileService.getAbsolutePath(savedPath);
+        MarkdownFileEntry entry = fileService.readMarkdownEntry(savedPath);
+        FileTime modified = Files.getLastModifiedTime(file);
+        
+        // When: 原地改写为等长内容并恢复修改时间，文件属性不变
+        Files.writeString(file, "# 属性改动", StandardOpenOption.TRUNCATE_EXISTING);
+        Files.setLastModifiedTime(file, modified);
+        MarkdownFileEntry unchanged = fileService.readMarkdownEntry(savedPath);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(modified.toMillis() + 1000));
+        MarkdownFileEntry changed = fileService.readMarkdownEntry(savedPath);
+        
+        // Then
+        assertEquals(ContentFingerprint.of(content).hash(), entry.contentHash());
+        assertEquals(entry.contentHash(), unchanged.contentHash());
+        assertEquals(ContentFingerprint.of("# 属性改动").hash(), changed.contentHash());
+        assertEquals(modified.toMillis() + 1000, changed.lastModified());
+    }
+    
     @Test
     void readMarkdownFile_EmptyPath_ThrowsException() {
         // When & Then
@@ -122,6 +175,41 @@ class FileServiceTest {
         assertEquals(updatedContent, readContent);
     }
     
+    @Test
+    void updateMarkdownFile_ReplacesFileAtomically() throws IOException {
+        // Given
+        String savedPath = fileService.saveMarkdownFile("test-atomic", "# 旧内容");
+        Path file = fileService.getAbsolutePath(savedPath);
+        
+        // When - 更新前已打开的读取方仍读到完整的旧文件
+        try (InputStream reader = Files.newInputStream(file)) {
+            fileService.updateMarkdownFile(savedPath, "# 新内容", WriteDurability.FULL);
+            assertEquals("# 旧内容", new String(reader.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        
+        // Then
+        assertEquals("# 新内容", fileService.readMarkdownFile(savedPath));
+        try (Stream<Path> siblings = Files.list(file.getParent())) {
+            assertEquals(List.of(file), siblings.toList());
+        }
+    }
+    
+    @Test
+    void updateMarkdownFile_ReturnsFingerprintOfWrittenBytes() throws IOException {
+        // Given - 超过一个编码块且包含多字节字符
+        String savedPath = fileService.saveMarkdownFile("test-fingerprint", "");
+        String content = "# 指纹\n" + "中文内容与ascii混合😀".repeat(5000);
+        
+        // When
+        ContentFingerprint fingerprint = fileService.updateMarkdownFile(savedPath, content);
+        
+        // Then
+        byte[] written = Files.readAllBytes(fileService.getAbsolutePath(savedPath));
+        assertEquals(ContentFingerprint.of(written), fingerprint);
+        assertEquals(ContentFingerprint.of(content), fingerprint);
+        assertEquals(written.length, fingerprint.length());
+    }
+    
     @Test
     void updateMarkdownFile_FileNotExists_ThrowsException() {
         // When & Then
@@ -286,4 +374,21 @@ class FileServiceTest {
         assertTrue(Files.exists(newDir));
         assertTrue(Files.isDirectory(newDir));
     }
-}
\ No newline at end of file
+    
+    @Test
+    void saveMarkdownFile_ShardedLayout() throws IOException {
+        // Given
+        storageProperties.setShardDepth(2);
+        storageProperties.setShardWidth(2);
+        FileService shardedFileService = new FileServiceImpl(storageProperties);
+        
+        // When
+        String savedPath = shardedFileService.saveMarkdownFile("sharded-article", "# 分片");
+        
+        // Then
+        assertTrue(savedPath.matches("[a-f0-9]{2}/[a-f0-9]{2}/sharded_article_.*\\.md"));
+        assertEquals(savedPath, shardedFileService.getLayoutPath(Path.of(savedPath).getFileName().toString()));
+        assertEquals("# 分片", shardedFileService.readMarkdownFile(savedPath));
+        assertTrue(shardedFileService.listMarkdownFiles().contains(savedPath));
+    }
+}
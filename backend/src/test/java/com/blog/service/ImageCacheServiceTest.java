@@ -0,0 +1,198 @@
+package com.blog.service;
+
+import com.blog.config.ImageCacheProperties;
+import com.blog.entity.Image;
+import com.blog.service.impl.ImageCacheServiceImpl;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImageCacheServiceTest {
+
+    private static final int ENTRY_SIZE = 1000;
+    private static final int BLOCK_SIZE = 250;
+
+    @TempDir
+    Path tempDir;
+
+    private ImageCacheProperties properties;
+    private MeterRegistry meterRegistry;
+    private ImageCacheServiceImpl imageCacheService;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ImageCacheProperties();
+        properties.setMaxBytes(10 * ENTRY_SIZE);
+        properties.setBlockBytes(BLOCK_SIZE);
+        properties.setMaxEntryBytes(2 * ENTRY_SIZE);
+        meterRegistry = new SimpleMeterRegistry();
+        imageCacheService = new ImageCacheServiceImpl(properties, meterRegistry);
+    }
+
+    @Test
+    void load_ThenGetServesCachedBytes() throws IOException {
+        Path file = tempDir.resolve("hot.png");
+        byte[] bytes = "cached image bytes".repeat(20).getBytes();
+        Files.write(file, bytes);
+
+        touch(1L);
+        touch(1L);
+        try (CachedImageContent loaded = imageCacheService.load(image(1L), file, "\"etag\"", 0);
+             CachedImageContent cached = imageCacheService.get(1L)) {
+            assertNotNull(loaded);
+            assertNotNull(cached);
+            assertTrue(cached.getContent()[0].isDirect());
+            assertEquals(2, cached.getContent().length);
+            assertArrayEquals(bytes, bytes(cached));
+            assertEquals("\"etag\"", cached.getEtag());
+            assertEquals("image/png", cached.getMimeType());
+        }
+        assertEquals(1.0, meterRegistry.get("blog.image.cache.requests").tag("result", "hit").functionCounter().count());
+        assertEquals(2.0, meterRegistry.get("blog.image.cache.requests").tag("result", "miss").functionCounter().count());
+        // 按整块计算占用
+        assertEquals(2 * BLOCK_SIZE, meterRegistry.get("blog.image.cache.resident.bytes").gauge().value());
+    }
+
+    @Test
+    void load_AdmitsOnlyWarmImages() throws IOException {
+        Path file = tempDir.resolve("cold.png");
+        Files.write(file, new byte[ENTRY_SIZE]);
+
+        // 第一次访问的图片由调用方直接从磁盘发送，不占用缓存内存
+        touch(1L);
+        assertNull(imageCacheService.load(image(1L), file, null, 0));
+        assertEquals(0, imageCacheService.arenaUsedBytes());
+
+        touch(1L);
+        try (CachedImageContent loaded = imageCacheService.load(image(1L), file, null, 0)) {
+            assertNotNull(loaded);
+        }
+        assertEquals(ENTRY_SIZE, imageCacheService.residentBytes());
+    }
+
+    @Test
+    void load_SkipsEntriesLargerThanLimit() throws IOException {
+        Path file = tempDir.resolve("large.png");
+        Files.write(file, new byte[3 * ENTRY_SIZE]);
+
+        touch(1L);
+        touch(1L);
+        assertNull(imageCacheService.load(image(1L), file, null, 0));
+        assertNull(imageCacheService.get(1L));
+    }
+
+    @Test
+    void load_KeepsFrequentEntriesDuringScan() throws IOException {
+        for (long id = 1; id <= 9; id++) {
+            loadEntry(id);
+            for (int i = 0; i < 3; i++) {
+                assertTrue(touch(id));
+            }
+        }
+
+        // 只访问过两次的图片不应挤掉常用图片
+        for (long id = 100; id < 150; id++) {
+            loadEntry(id);
+        }
+
+        for (long id = 1; id <= 9; id++) {
+            assertTrue(touch(id), "frequent entry evicted: " + id);
+        }
+        assertTrue(imageCacheService.residentBytes() <= properties.getMaxBytes());
+        assertTrue(imageCacheService.arenaUsedBytes() <= properties.getMaxBytes());
+        assertTrue(meterRegistry.get("blog.image.cache.evictions").functionCounter().count() > 0);
+    }
+
+    @Test
+    void evictedEntry_KeepsMemoryUntilReleased() throws IOException {
+        Path file = tempDir.resolve("pinned.png");
+        byte[] bytes = new byte[ENTRY_SIZE];
+        Arrays.fill(bytes, (byte) 7);
+        Files.write(file, bytes);
+        touch(1L);
+        touch(1L);
+        imageCacheService.load(image(1L), file, null, 0).close();
+
+        CachedImageContent held = imageCacheService.get(1L);
+        imageCacheService.invalidate(1L);
+        assertNull(imageCacheService.get(1L));
+        assertEquals(0, imageCacheService.residentBytes());
+        assertEquals(ENTRY_SIZE, imageCacheService.arenaUsedBytes());
+
+        // 发送中的内容所在的块不会分配给新条目
+        for (long id = 2; id <= 20; id++) {
+            loadEntry(id);
+        }
+        assertArrayEquals(bytes, bytes(held));
+        assertTrue(imageCacheService.arenaUsedBytes() <= properties.getMaxBytes());
+
+        held.close();
+        assertFalse(held.retain());
+        assertEquals(imageCacheService.residentBytes(), imageCacheService.arenaUsedBytes());
+    }
+
+    @Test
+    void invalidate_RemovesEntry() throws IOException {
+        loadEntry(1L);
+
+        imageCacheService.invalidate(1L);
+
+        assertNull(imageCacheService.get(1L));
+        assertEquals(0, imageCacheService.residentBytes());
+        assertEquals(0, imageCacheService.arenaUsedBytes());
+    }
+
+    @Test
+    void disabled_NeverCaches() throws IOException {
+        properties.setEnabled(false);
+
+        loadEntry(1L);
+        assertNull(imageCacheService.get(1L));
+    }
+
+    // 记录一次访问，命中时释放取得的引用
+    private boolean touch(long id) {
+        CachedImageContent cached = imageCacheService.get(id);
+        if (cached == null) {
+            return false;
+        }
+        cached.close();
+        return true;
+    }
+
+    private void loadEntry(long id) throws IOException {
+        Path file = tempDir.resolve(id + ".png");
+        Files.write(file, new byte[ENTRY_SIZE]);
+        touch(id);
+        touch(id);
+        CachedImageContent loaded = imageCacheService.load(image(id), file, "\"" + id + "\"", 0);
+        if (loaded != null) {
+            loaded.close();
+        }
+    }
+
+    private static byte[] bytes(CachedImageContent content) {
+        ByteBuffer result = ByteBuffer.allocate(content.getSize());
+        for (ByteBuffer segment : content.getContent()) {
+            result.put(segment);
+        }
+        return result.array();
+    }
+
+    private Image image(long id) {
+        Image image = new Image();
+        image.setId(id);
+        image.setMimeType("image/png");
+        return image;
+    }
+}
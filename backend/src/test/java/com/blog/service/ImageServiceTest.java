@@ -3,17 +3,22 @@ package com.blog.service;
 import com.blog.BaseIntegrationTest;
 import com.blog.entity.Image;
 import com.blog.repository.ImageRepository;
+import com.blog.repository.ImageSummary;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -59,7 +64,7 @@ class ImageServiceTest extends BaseIntegrationTest {
         assertEquals("test-image.jpg", savedImage.getOriginalName());
         assertEquals("image/jpeg", savedImage.getMimeType());
         assertEquals(imageContent.length, savedImage.getFileSize());
-        assertNotNull(savedImage.getBase64Content());
+        assertNull(savedImage.getBase64Content());
         assertNotNull(savedImage.getFilename());
         assertNotNull(savedImage.getFilePath());
         assertNotNull(savedImage.getCreatedAt());
@@ -75,6 +80,25 @@ class ImageServiceTest extends BaseIntegrationTest {
         assertEquals(savedImage.getFilename(), dbImage.get().getFilename());
     }
 
+    @Test
+    void testUploadImage_DuplicateContentIsDeduplicated() throws IOException {
+        byte[] imageContent = createTestImageContent();
+        MockMultipartFile first = new MockMultipartFile("file", "first.jpg", "image/jpeg", imageContent);
+        MockMultipartFile second = new MockMultipartFile("file", "second.jpg", "image/jpeg", imageContent);
+
+        Image firstImage = imageService.uploadImage(first, "first");
+        Image secondImage = imageService.uploadImage(second, "second");
+
+        // 相同内容复用同一条记录和同一个文件
+        assertEquals(firstImage.getId(), secondImage.getId());
+        assertNotNull(firstImage.getContentHash());
+        assertEquals(64, firstImage.getContentHash().length());
+        assertTrue(firstImage.getFilename().startsWith(firstImage.getContentHash()));
+        try (var files = Files.list(tempDir)) {
+            assertEquals(1, files.count());
+        }
+    }
+
     @Test
     void testUploadImage_InvalidFileFormat() {
         // 准备无效格式的文件
@@ -133,6 +157,43 @@ class ImageServiceTest extends BaseIntegrationTest {
         assertTrue(exception.getMessage().contains("文件不能为空"));
     }
 
+    @Test
+    void testUploadImages_ReportsPerFileResults() {
+        byte[] jpegContent = createTestImageContent();
+        List<MultipartFile> files = List.of(
+                new MockMultipartFile("files", "first.jpg", "image/jpeg", jpegContent),
+                new MockMultipartFile("files", "notes.txt", "text/plain", "not an image".getBytes()),
+                new MockMultipartFile("files", "second.png", "image/png", createTestPngContent()),
+                new MockMultipartFile("files", "first-copy.jpg", "image/jpeg", jpegContent)
+        );
+
+        List<ImageUploadOutcome> outcomes = imageService.uploadImages(files);
+
+        assertEquals(4, outcomes.size());
+        assertTrue(outcomes.get(0).isSuccess());
+        assertNotNull(outcomes.get(0).getImage().getId());
+        assertFalse(outcomes.get(1).isSuccess());
+        assertTrue(outcomes.get(1).getError().contains("不支持的文件格式"));
+        assertTrue(outcomes.get(2).isSuccess());
+        assertEquals("image/png", outcomes.get(2).getImage().getMimeType());
+        // 同一批次中的相同内容只保存一次
+        assertEquals(outcomes.get(0).getImage().getId(), outcomes.get(3).getImage().getId());
+        assertTrue(imageRepository.findById(outcomes.get(2).getImage().getId()).isPresent());
+        assertTrue(Files.exists(Path.of(outcomes.get(2).getImage().getFilePath())));
+    }
+
+    @Test
+    void testUploadImages_ReusesExistingImage() {
+        byte[] imageContent = createTestImageContent();
+        Image existing = imageService.uploadImage(
+                new MockMultipartFile("file", "existing.jpg", "image/jpeg", imageContent), null);
+
+        List<ImageUploadOutcome> outcomes = imageService.uploadImages(List.of(
+                new MockMultipartFile("files", "again.jpg", "image/jpeg", imageContent)));
+
+        assertEquals(existing.getId(), outcomes.get(0).getImage().getId());
+    }
+
     @Test
     void testGetImageById_Success() {
         // 先上传一个图片
@@ -224,6 +285,53 @@ class ImageServiceTest extends BaseIntegrationTest {
         assertArrayEquals(imageContent, decodedContent);
     }
 
+    @Test
+    void testLoadBase64Content_FromDisk() {
+        byte[] imageContent = createTestImageContent();
+        MockMultipartFile file = new MockMultipartFile(
+                "file",
+                "test-load.jpg",
+                "image/jpeg",
+                imageContent
+        );
+        Image savedImage = imageService.uploadImage(file, "Test load image");
+
+        String base64Content = imageService.loadBase64Content(savedImage);
+
+        assertArrayEquals(imageContent, java.util.Base64.getDecoder().decode(base64Content));
+    }
+
+    @Test
+    void testLoadBase64Content_LegacyDataUri() {
+        Image legacyImage = new Image();
+        legacyImage.setBase64Content("data:image/png;base64,dGVzdA==");
+
+        assertEquals("dGVzdA==", imageService.loadBase64Content(legacyImage));
+    }
+
+    @Test
+    void testGetImageSummaries_Success() {
+        byte[] imageContent = createTestImageContent();
+        MockMultipartFile file = new MockMultipartFile(
+                "file",
+                "test-summary.jpg",
+                "image/jpeg",
+                imageContent
+        );
+        Image savedImage = imageService.uploadImage(file, "Test summary image");
+
+        Page<ImageSummary> summaries = imageService.getImageSummaries(PageRequest.of(0, 100));
+
+        ImageSummary summary = summaries.getContent().stream()
+                .filter(s -> s.getId().equals(savedImage.getId()))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(savedImage.getFilename(), summary.getFilename());
+        assertEquals("image/jpeg", summary.getMimeType());
+        assertEquals(imageContent.length, summary.getFileSize());
+        assertEquals(imageRepository.count(), summaries.getTotalElements());
+    }
+
     @Test
     void testValidateImageFile_ValidJpeg() {
         MockMultipartFile file = new MockMultipartFile(
@@ -243,7 +351,7 @@ class ImageServiceTest extends BaseIntegrationTest {
                 "file",
                 "test.png",
                 "image/png",
-                createTestImageContent()
+                createTestPngContent()
         );
 
         // 应该不抛出异常
@@ -277,11 +385,90 @@ class ImageServiceTest extends BaseIntegrationTest {
         assertTrue(exception.getMessage().contains("文件不能为空"));
     }
 
+    @Test
+    void testValidateImageFile_ContentNotMatchingImage() {
+        // 扩展名和Content-Type都声明为图片，但内容不是图片
+        MockMultipartFile file = new MockMultipartFile(
+                "file",
+                "fake.jpg",
+                "image/jpeg",
+                "fake-image-content-for-testing".getBytes()
+        );
+
+        IllegalArgumentException exception = assertThrows(
+                IllegalArgumentException.class,
+                () -> imageService.validateImageFile(file)
+        );
+
+        assertTrue(exception.getMessage().contains("不支持的文件格式"));
+    }
+
+    @Test
+    void testUploadImage_MimeTypeDetectedFromContent() {
+        // 客户端声明为JPEG，实际内容为PNG
+        byte[] imageContent = createTestPngContent();
+        MockMultipartFile file = new MockMultipartFile(
+                "file",
+                "mislabeled.jpg",
+                "image/jpeg",
+                imageContent
+        );
+
+        Image savedImage = imageService.uploadImage(file, "Mislabeled image");
+
+        assertEquals("image/png", savedImage.getMimeType());
+        assertTrue(savedImage.getFilename().endsWith(".png"));
+    }
+
+    @Test
+    void testUploadImage_FromStream() throws IOException {
+        byte[] imageContent = createTestPngContent();
+
+        Image savedImage = imageService.uploadImage(
+                new ByteArrayInputStream(imageContent), "stream.png", "Stream upload");
+
+        assertEquals("stream.png", savedImage.getOriginalName());
+        assertEquals("image/png", savedImage.getMimeType());
+        assertEquals(imageContent.length, savedImage.getFileSize());
+        assertArrayEquals(imageContent, Files.readAllBytes(Path.of(savedImage.getFilePath())));
+    }
+
+    @Test
+    void testUploadImage_StreamTooLargeLeavesNoFile() throws IOException {
+        byte[] largeContent = new byte[6 * 1024 * 1024];
+        System.arraycopy(createTestPngContent(), 0, largeContent, 0, 8);
+
+        IllegalArgumentException exception = assertThrows(
+                IllegalArgumentException.class,
+                () -> imageService.uploadImage(new ByteArrayInputStream(largeContent), "large.png", null)
+        );
+
+        assertTrue(exception.getMessage().contains("文件大小超过限制"));
+        try (var files = Files.list(tempDir)) {
+            assertEquals(0, files.count());
+        }
+    }
+
     /**
-     * 创建测试用的图片内容
+     * 创建测试用的图片内容（JPEG文件头加任意数据）
      */
     private byte[] createTestImageContent() {
-        // 创建一个简单的测试图片内容（实际项目中可以使用真实的图片字节）
-        return "fake-image-content-for-testing".getBytes();
+        return withHeader(new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0},
+                "fake-image-content-for-testing".getBytes());
+    }
+
+    /**
+     * 创建测试用的PNG内容（PNG文件头加任意数据）
+     */
+    private byte[] createTestPngContent() {
+        return withHeader(new byte[]{(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'},
+                "fake-png-content-for-testing".getBytes());
+    }
+
+    private byte[] withHeader(byte[] header, byte[] body) {
+        byte[] content = new byte[header.length + body.length];
+        System.arraycopy(header, 0, content, 0, header.length);
+        System.arraycopy(body, 0, content, header.length, body.length);
+        return content;
     }
 }
\ No newline at end of file
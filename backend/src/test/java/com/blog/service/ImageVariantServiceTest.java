@@ -0,0 +1,117 @@
+package com.blog.service;
+
+import com.blog.config.ImageVariantProperties;
+import com.blog.entity.Image;
+import com.blog.service.impl.ImageVariantServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImageVariantServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ImageVariantProperties properties;
+    private ImageVariantServiceImpl imageVariantService;
+    private Path sourceFile;
+    private Image image;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        properties = new ImageVariantProperties();
+        properties.setPath(tempDir.resolve("variants").toString());
+        properties.setWorkers(2);
+        imageVariantService = new ImageVariantServiceImpl(properties);
+
+        sourceFile = tempDir.resolve("source.png");
+        ImageIO.write(new BufferedImage(400, 200, BufferedImage.TYPE_INT_RGB), "png", sourceFile.toFile());
+
+        image = new Image();
+        image.setId(1L);
+        image.setMimeType("image/png");
+        image.setContentHash("abc123");
+    }
+
+    @AfterEach
+    void tearDown() {
+        imageVariantService.shutdown();
+    }
+
+    @Test
+    void getVariant_ContainKeepsAspectRatio() throws IOException {
+        Path variant = imageVariantService.getVariant(image, sourceFile,
+                ImageVariantSpec.fromRequest(100, null, null, null));
+
+        BufferedImage result = ImageIO.read(variant.toFile());
+        assertEquals(100, result.getWidth());
+        assertEquals(50, result.getHeight());
+    }
+
+    @Test
+    void getVariant_CoverCropsToTarget() throws IOException {
+        Path variant = imageVariantService.getVariant(image, sourceFile,
+                ImageVariantSpec.fromRequest(100, 100, "cover", null));
+
+        BufferedImage result = ImageIO.read(variant.toFile());
+        assertEquals(100, result.getWidth());
+        assertEquals(100, result.getHeight());
+    }
+
+    @Test
+    void getVariant_NeverUpscales() throws IOException {
+        Path variant = imageVariantService.getVariant(image, sourceFile,
+                ImageVariantSpec.fromRequest(1000, null, null, null));
+
+        BufferedImage result = ImageIO.read(variant.toFile());
+        assertEquals(400, result.getWidth());
+        assertEquals(200, result.getHeight());
+    }
+
+    @Test
+    void getVariant_ReusesCachedFile() throws IOException {
+        ImageVariantSpec spec = ImageVariantSpec.fromRequest(50, null, null, null);
+        Path first = imageVariantService.getVariant(image, sourceFile, spec);
+        long firstModified = Files.getLastModifiedTime(first).toMillis();
+
+        Path second = imageVariantService.getVariant(image, sourceFile, spec);
+
+        assertEquals(first, second);
+        assertEquals(firstModified, Files.getLastModifiedTime(second).toMillis());
+    }
+
+    @Test
+    void getVariant_EvictsLeastRecentlyUsed() throws IOException {
+        properties.setMaxBytes(1);
+
+        Path first = imageVariantService.getVariant(image, sourceFile, ImageVariantSpec.fromRequest(50, null, null, null));
+        Path second = imageVariantService.getVariant(image, sourceFile, ImageVariantSpec.fromRequest(60, null, null, null));
+
+        assertFalse(Files.exists(first));
+        assertTrue(Files.exists(second));
+    }
+
+    @Test
+    void getVariant_UnsupportedFormatReturnsSource() {
+        image.setMimeType("image/gif");
+
+        Path variant = imageVariantService.getVariant(image, sourceFile, ImageVariantSpec.fromRequest(50, null, null, null));
+
+        assertEquals(sourceFile, variant);
+    }
+
+    @Test
+    void getVariant_RejectsOversizedDimension() {
+        assertThrows(IllegalArgumentException.class, () -> imageVariantService.getVariant(image, sourceFile,
+                ImageVariantSpec.fromRequest(10000, null, null, null)));
+    }
+}
@@ -0,0 +1,160 @@
+package com.blog.service;
+
+import com.blog.config.ManifestProperties;
+import com.blog.config.StorageProperties;
+import com.blog.event.MarkdownFileChangedEvent;
+import com.blog.exception.ServiceBusyException;
+import com.blog.service.impl.MarkdownManifestServiceImpl;
+import com.blog.util.ContentFingerprint;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MarkdownManifestServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ManifestProperties properties;
+    private MarkdownManifestServiceImpl manifest;
+
+    @BeforeEach
+    void setUp() {
+        StorageProperties storageProperties = new StorageProperties();
+        storageProperties.setMarkdownPath(tempDir.toString());
+        properties = new ManifestProperties();
+        properties.setParallelism(4);
+        manifest = new MarkdownManifestServiceImpl(storageProperties, properties, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void rebuild_ScansNestedDirectoriesAndSkipsHiddenFiles() throws IOException {
+        writeFile("root.md", "# 根目录");
+        writeFile("ab/cd/sharded.md", "# 分片");
+        writeFile("ab/cd/.sharded.md.1a2b.tmp", "临时文件");
+        writeFile("ab/notes.txt", "非Markdown");
+        writeFile(".quarantine/ef/01/orphan.md", "# 隔离区");
+
+        manifest.rebuild();
+
+        assertTrue(manifest.isReady());
+        assertEquals(List.of(Path.of("ab/cd/sharded.md").toString(), "root.md"), manifest.paths());
+        MarkdownFileEntry entry = manifest.get("root.md").orElseThrow();
+        assertEquals("# 根目录".getBytes().length, entry.size());
+        assertNull(entry.contentHash());
+    }
+
+    @Test
+    void list_PagesInPathOrder() throws IOException {
+        for (int i = 0; i < 5; i++) {
+            writeFile("page-" + i + ".md", "# " + i);
+        }
+        manifest.rebuild();
+
+        MarkdownManifestService.Page first = manifest.list(null, 2);
+        MarkdownManifestService.Page second = manifest.list(first.nextCursor(), 2);
+        MarkdownManifestService.Page last = manifest.list(second.nextCursor(), 2);
+
+        assertEquals(List.of("page-0.md", "page-1.md"), first.items().stream().map(MarkdownFileEntry::path).toList());
+        assertEquals(List.of("page-2.md", "page-3.md"), second.items().stream().map(MarkdownFileEntry::path).toList());
+        assertEquals(List.of("page-4.md"), last.items().stream().map(MarkdownFileEntry::path).toList());
+        assertNull(last.nextCursor());
+        assertEquals(5, first.total());
+    }
+
+    @Test
+    void onMarkdownFileChanged_MaintainsEntries() throws IOException {
+        manifest.rebuild();
+
+        writeFile("written.md", "# 写入");
+        ContentFingerprint fingerprint = ContentFingerprint.of("# 写入");
+        manifest.onMarkdownFileChanged(new MarkdownFileChangedEvent("written.md", MarkdownFileChangedEvent.Kind.WRITTEN, fingerprint));
+        assertEquals(fingerprint.hash(), manifest.get("written.md").orElseThrow().contentHash());
+
+        // 重新扫描不丢失已知的哈希
+        manifest.rebuild();
+        assertEquals(fingerprint.hash(), manifest.get("written.md").orElseThrow().contentHash());
+
+        Files.delete(tempDir.resolve("written.md"));
+        manifest.onMarkdownFileChanged(new MarkdownFileChangedEvent("written.md", MarkdownFileChangedEvent.Kind.DELETED, null));
+        assertTrue(manifest.get("written.md").isEmpty());
+    }
+
+    @Test
+    void size_TracksInsertsAndRemovals() throws IOException {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        StorageProperties storageProperties = new StorageProperties();
+        storageProperties.setMarkdownPath(tempDir.toString());
+        manifest = new MarkdownManifestServiceImpl(storageProperties, properties, meterRegistry);
+        writeFile("kept.md", "# 保留");
+        writeFile("removed.md", "# 删除");
+        manifest.rebuild();
+        assertEquals(2, manifest.size());
+
+        // 已有条目的更新不改变计数
+        writeFile("kept.md", "# 保留，已修改");
+        manifest.refresh("kept.md");
+        writeFile("added.md", "# 新增");
+        manifest.refresh("added.md");
+        Files.delete(tempDir.resolve("removed.md"));
+        manifest.refresh("removed.md");
+        manifest.refresh("removed.md");
+
+        assertEquals(2, manifest.size());
+        assertEquals(2, manifest.list(null, 10).total());
+        assertEquals(2.0, meterRegistry.get("blog.markdown.manifest.entries").gauge().value());
+
+        // 重新扫描时删除清单中已不存在的文件
+        Files.delete(tempDir.resolve("added.md"));
+        manifest.rebuild();
+        assertEquals(1, manifest.size());
+    }
+
+    @Test
+    void list_RejectsBeforeFirstBuild() throws IOException {
+        writeFile("early.md", "# 初次扫描前");
+
+        assertFalse(manifest.isReady());
+        assertThrows(ServiceBusyException.class, () -> manifest.list(null, 10));
+        assertThrows(ServiceBusyException.class, () -> manifest.paths());
+
+        manifest.rebuild();
+        assertEquals(List.of("early.md"), manifest.paths());
+    }
+
+    @Test
+    void list_RejectsWhenDisabled() throws IOException {
+        properties.setEnabled(false);
+        writeFile("disabled.md", "# 清单未启用");
+        manifest.rebuild();
+
+        assertThrows(ServiceBusyException.class, () -> manifest.list(null, 10));
+        assertThrows(ServiceBusyException.class, () -> manifest.size());
+    }
+
+    @Test
+    void listDirectory_ReturnsOnlyDirectChildren() throws IOException {
+        writeFile("ab/first.md", "# 1");
+        writeFile("ab/cd/nested.md", "# 2");
+        writeFile("abc.md", "# 3");
+        manifest.rebuild();
+
+        assertEquals(List.of(Path.of("ab/first.md").toString()),
+                manifest.listDirectory("ab").stream().map(MarkdownFileEntry::path).toList());
+        assertEquals(List.of("abc.md"), manifest.listDirectory("").stream().map(MarkdownFileEntry::path).toList());
+    }
+
+    private void writeFile(String relativePath, String content) throws IOException {
+        Path file = tempDir.resolve(relativePath);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content);
+    }
+}
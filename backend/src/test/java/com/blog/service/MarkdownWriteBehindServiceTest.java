@@ -0,0 +1,317 @@
+package com.blog.service;
+
+import com.blog.config.StorageProperties;
+import com.blog.config.WriteBehindProperties;
+import com.blog.entity.Article;
+import com.blog.exception.VersionConflictException;
+import com.blog.repository.ArticleRepository;
+import com.blog.service.impl.FileServiceImpl;
+import com.blog.service.impl.MarkdownWriteBehindServiceImpl;
+import com.blog.util.ContentFingerprint;
+import com.blog.util.TextPatch;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class MarkdownWriteBehindServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Mock
+    private ArticleRepository articleRepository;
+
+    private StorageProperties storageProperties;
+    private WriteBehindProperties properties;
+    private FileService fileService;
+    private String contentPath;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        storageProperties = new StorageProperties();
+        storageProperties.setMarkdownPath(tempDir.resolve("markdown").toString());
+        properties = new WriteBehindProperties();
+        properties.setJournalPath(tempDir.resolve("journal").toString());
+        properties.setDebounce(Duration.ofHours(1));
+        properties.setMaxDelay(Duration.ofHours(1));
+        fileService = new FileServiceImpl(storageProperties);
+        contentPath = fileService.saveMarkdownFile("autosave", "# 原始内容");
+    }
+
+    @Test
+    void submit_BuffersLatestVersionWithoutWritingFile() throws IOException {
+        MarkdownWriteBehindServiceImpl service = open();
+
+        service.submit(1L, contentPath, "# 第一版");
+        service.submit(1L, contentPath, "# 第二版");
+        service.flushDue();
+
+        assertEquals("# 第二版", service.getPending(1L).orElseThrow().getContentAsString());
+        assertEquals("# 原始内容", fileService.readMarkdownFile(contentPath));
+    }
+
+    @Test
+    void flushDue_WritesOnlyLatestVersionAfterDebounce() throws IOException {
+        MarkdownWriteBehindServiceImpl service = open();
+        service.submit(1L, contentPath, "# 第一版");
+        service.submit(1L, contentPath, "# 第二版");
+
+        properties.setDebounce(Duration.ZERO);
+        service.flushDue();
+
+        assertEquals("# 第二版", fileService.readMarkdownFile(contentPath));
+        assertTrue(service.getPending(1L).isEmpty());
+        assertEquals(0, Files.size(journalFile()));
+    }
+
+    @Test
+    void flushDue_WritesContinuousEditsAfterMaxDelay() throws IOException {
+        MarkdownWriteBehindServiceImpl service = open();
+        service.submit(1L, contentPath, "# 持续编辑");
+
+        properties.setMaxDelay(Duration.ZERO);
+        service.flushDue();
+
+        assertEquals("# 持续编辑", fileService.readMarkdownFile(contentPath));
+    }
+
+    @Test
+    void flush_WritesImmediately() throws IOException {
+        MarkdownWriteBehindServiceImpl service = open();
+        service.submit(1L, contentPath, "# 手动保存");
+
+        service.flush(1L);
+
+        assertEquals("# 手动保存", fileService.readMarkdownFile(contentPath));
+        assertTrue(service.getPending(1L).isEmpty());
+    }
+
+    @Test
+    void open_RecoversUnflushedContentFromJournal() throws IOException {
+        MarkdownWriteBehindServiceImpl crashed = open();
+        crashed.submit(1L, contentPath, "# 崩溃前的内容");
+        // 模拟崩溃：不关闭服务，日志末尾留下半条记录
+        Files.write(journalFile(), new byte[]{0x4d, 0x44, 0x4a}, StandardOpenOption.APPEND);
+
+        MarkdownWriteBehindServiceImpl restarted = open();
+
+        assertEquals("# 崩溃前的内容", fileService.readMarkdownFile(contentPath));
+        assertTrue(restarted.getPending(1L).isEmpty());
+        assertEquals(0, Files.size(journalFile()));
+    }
+
+    @Test
+    void open_SkipsVersionsAlreadyFlushed() throws IOException {
+        MarkdownWriteBehindServiceImpl crashed = open();
+        crashed.submit(1L, contentPath, "# 已写入的内容");
+        crashed.flush(1L);
+        // 写入后由其他途径修改的文件不应被日志中的旧版本覆盖
+        fileService.updateMarkdownFile(contentPath, "# 之后的修改");
+
+        open();
+
+        assertEquals("# 之后的修改", fileService.readMarkdownFile(contentPath));
+    }
+
+    @Test
+    void submit_CompactsOversizedJournal() throws IOException {
+        properties.setJournalMaxBytes(256);
+        MarkdownWriteBehindServiceImpl service = open();
+
+        for (int i = 0; i < 20; i++) {
+            service.submit(1L, contentPath, "# 版本 " + i + " " + "x".repeat(64));
+        }
+
+        assertTrue(Files.size(journalFile()) < 256);
+        open();
+        assertEquals("# 版本 19 " + "x".repeat(64), fileService.readMarkdownFile(contentPath));
+    }
+
+    @Test
+    void patch_AppliesEditsToFileContent() throws IOException {
+        MarkdownWriteBehindServiceImpl service = open();
+
+        String version = service.patch(1L, contentPath, fileVersion(), List.of(
+                new TextPatch.Edit(2, 2, "新的"),
+                new TextPatch.Edit(6, 0, "！")));
+
+        PendingMarkdown buffered = service.getPending(1L).orElseThrow();
+        assertEquals("# 新的内容！", buffered.getContentAsString());
+        assertEquals(buffered.getEtag(), version);
+    }
+
+    @Test
+    void patch_ChainsOnBufferedVersionAcrossFlush() throws IOException {
+        Article article = new Article("合并写入", "write-behind", contentPath);
+        when(articleRepository.updateContentFingerprint(eq(1L), anyString(), anyLong())).thenAnswer(invocation -> {
+            article.setContentHash(invocation.getArgument(1));
+            article.setContentLength(invocation.getArgument(2));
+            return 1;
+        });
+        MarkdownWriteBehindServiceImpl service = open();
+        String version = service.patch(1L, contentPath, fileVersion(), List.of(new TextPatch.Edit(0, 0, ">")));
+        service.flush(1L);
+
+        service.patch(1L, contentPath, version, List.of(new TextPatch.Edit(1, 0, ">")));
+
+        assertEquals(">># 原始内容", service.getPending(1L).orElseThrow().getContentAsString());
+    }
+
+    @Test
+    void patch_RejectsStaleVersion() throws IOException {
+        MarkdownWriteBehindServiceImpl service = open();
+        String staleVersion = fileVersion();
+        service.submit(1L, contentPath, "# 其他客户端的保存");
+
+        assertThrows(VersionConflictException.class,
+                () -> service.patch(1L, contentPath, staleVersion, List.of(new TextPatch.Edit(0, 1, ""))));
+        assertEquals("# 其他客户端的保存", service.getPending(1L).orElseThrow().getContentAsString());
+    }
+
+    @Test
+    void patch_RejectsOverlappingEdits() throws IOException {
+        MarkdownWriteBehindServiceImpl service = open();
+
+        assertThrows(IllegalArgumentException.class, () -> service.patch(1L, contentPath, fileVersion(),
+                List.of(new TextPatch.Edit(2, 3, "a"), new TextPatch.Edit(3, 0, "b"))));
+        assertTrue(service.getPending(1L).isEmpty());
+    }
+
+    @Test
+    void patch_DoesNotBlockSavesWhileReadingFile() throws Exception {
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        fileService = new FileServiceImpl(storageProperties) {
+            @Override
+            public MarkdownSnapshot readMarkdownSnapshot(String filePath) throws IOException {
+                reading.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.readMarkdownSnapshot(filePath);
+            }
+        };
+        MarkdownWriteBehindServiceImpl service = open();
+        String version = fileVersion();
+        ExecutorService editor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> patched = editor.submit(() -> service.patch(1L, contentPath, version,
+                    List.of(new TextPatch.Edit(0, 0, ">"))));
+            assertTrue(reading.await(5, TimeUnit.SECONDS));
+
+            // 读取文件期间其他文章的保存不等待
+            assertTimeoutPreemptively(Duration.ofSeconds(5), () -> service.submit(2L, "other.md", "# 其他文章"));
+
+            release.countDown();
+            String patchedVersion = patched.get(5, TimeUnit.SECONDS);
+            assertEquals(service.getPending(1L).orElseThrow().getEtag(), patchedVersion);
+            assertEquals("># 原始内容", service.getPending(1L).orElseThrow().getContentAsString());
+        } finally {
+            release.countDown();
+            editor.shutdownNow();
+        }
+    }
+
+    @Test
+    void patch_RejectsWhenFileChangesWhileMerging() throws IOException {
+        String version = fileVersion();
+        fileService = new FileServiceImpl(storageProperties) {
+            private boolean changed;
+
+            @Override
+            public MarkdownSnapshot readMarkdownSnapshot(String filePath) throws IOException {
+                MarkdownSnapshot snapshot = super.readMarkdownSnapshot(filePath);
+                if (!changed) {
+                    // 读取完成后文件被另一个请求替换
+                    changed = true;
+                    updateMarkdownFile(filePath, "# 另一个请求的保存");
+                }
+                return snapshot;
+            }
+        };
+        MarkdownWriteBehindServiceImpl service = open();
+
+        assertThrows(VersionConflictException.class,
+                () -> service.patch(1L, contentPath, version, List.of(new TextPatch.Edit(0, 0, ">"))));
+        assertTrue(service.getPending(1L).isEmpty());
+        assertEquals("# 另一个请求的保存", fileService.readMarkdownFile(contentPath));
+    }
+
+    @Test
+    void replace_DoesNotBlockFlushWhileReceivingContent() throws Exception {
+        MarkdownWriteBehindServiceImpl service = open();
+        String otherPath = fileService.saveMarkdownFile("other", "# 其他文章");
+        service.submit(2L, otherPath, "# 其他文章的自动保存");
+        CountDownLatch receiving = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService uploader = Executors.newSingleThreadExecutor();
+        try {
+            Future<ContentFingerprint> upload = uploader.submit(() -> service.replace(1L, contentPath, channel -> {
+                channel.write(ByteBuffer.wrap("# 慢速".getBytes(StandardCharsets.UTF_8)));
+                receiving.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                channel.write(ByteBuffer.wrap("上传".getBytes(StandardCharsets.UTF_8)));
+            }));
+            assertTrue(receiving.await(5, TimeUnit.SECONDS));
+
+            // 上传未完成时其他文章可以立即写入
+            assertTimeoutPreemptively(Duration.ofSeconds(5), () -> service.flush(2L));
+            assertEquals("# 其他文章的自动保存", fileService.readMarkdownFile(otherPath));
+            assertEquals("# 原始内容", fileService.readMarkdownFile(contentPath));
+
+            release.countDown();
+            assertEquals(ContentFingerprint.of("# 慢速上传"), upload.get(5, TimeUnit.SECONDS));
+            assertEquals("# 慢速上传", fileService.readMarkdownFile(contentPath));
+        } finally {
+            release.countDown();
+            uploader.shutdownNow();
+        }
+    }
+
+    private String fileVersion() throws IOException {
+        return ContentFingerprint.of(Files.readAllBytes(fileService.getAbsolutePath(contentPath))).etag();
+    }
+
+    private MarkdownWriteBehindServiceImpl open() {
+        MarkdownWriteBehindServiceImpl service = new MarkdownWriteBehindServiceImpl(fileService, articleRepository,
+                properties, storageProperties);
+        ReflectionTestUtils.invokeMethod(service, "openJournal");
+        return service;
+    }
+
+    private Path journalFile() {
+        return tempDir.resolve("journal").resolve("autosave.journal");
+    }
+}
@@ -0,0 +1,62 @@
+package com.blog.service;
+
+import com.blog.service.impl.PrefixIndex;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 输入提示前缀索引测试
+ */
+class PrefixIndexTest {
+
+    private final PrefixIndex index = new PrefixIndex();
+
+    @Test
+    void top_ReturnsHighestWeightsWithinPrefix() {
+        index.put("Spring Boot实践", 1, 100);
+        index.put("spring cloud入门", 2, 300);
+        index.put("Spring事务", 3, 200);
+        index.put("Sprint计划", 4, 900);
+        index.put("深入理解JVM", 5, 500);
+
+        assertEquals(List.of(2L, 3L, 1L), ids(index.top("SPRING", 10)));
+        assertEquals(List.of(2L, 3L), ids(index.top("spring", 2)));
+        assertEquals(List.of(4L, 2L, 3L, 1L), ids(index.top("spr", 10)));
+        assertEquals(List.of(5L), ids(index.top("深入", 10)));
+        assertEquals("Spring事务", index.top("spring事", 1).get(0).text());
+        assertTrue(index.top("python", 10).isEmpty());
+    }
+
+    @Test
+    void top_BreaksTiesByText() {
+        index.put("redis", 0, 2);
+        index.put("react", 0, 2);
+        index.put("rust", 0, 2);
+        index.put("ruby", 0, 1);
+
+        assertEquals(List.of("react", "redis", "rust"),
+                index.top("r", 3).stream().map(PrefixIndex.Entry::text).toList());
+    }
+
+    @Test
+    void putAndRemove_UpdateEntriesInPlace() {
+        index.put("Kafka", 1, 10);
+        index.put("Kafka", 2, 20);
+        index.put("kafka", 1, 30);
+
+        assertEquals(2, index.size());
+        assertEquals(List.of(1L, 2L), ids(index.top("ka", 10)));
+        assertEquals("kafka", index.top("ka", 1).get(0).text());
+
+        assertTrue(index.remove("KAFKA", 1));
+        assertFalse(index.remove("kafka", 1));
+        assertEquals(List.of(2L), ids(index.top("k", 10)));
+    }
+
+    private static List<Long> ids(List<PrefixIndex.Entry> entries) {
+        return entries.stream().map(PrefixIndex.Entry::id).toList();
+    }
+}
@@ -0,0 +1,211 @@
+package com.blog.service;
+
+import com.blog.entity.ArticleStatus;
+import com.blog.service.impl.SearchIndex;
+import com.blog.service.impl.SnippetBuilder;
+import com.blog.util.MarkdownText;
+import com.blog.util.SearchTokenizer;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 全文索引测试
+ */
+class SearchServiceTest {
+
+    private final SearchIndex index = new SearchIndex();
+
+    @Test
+    void tokenize_SplitsWordsAndCjkBigrams() {
+        assertEquals(List.of("spring", "boot3", "缓存", "api"), SearchTokenizer.tokenize("Spring-Boot3 缓存，API"));
+        assertEquals(List.of("全文", "文检", "检索", "v2", "字"), SearchTokenizer.tokenize("全文检索v2 字"));
+        assertEquals(List.of("jdk21", "升级"), SearchTokenizer.tokenize("ＪＤＫ２１升级"));
+        assertEquals(List.of("data"), SearchTokenizer.tokenize("data:" + "A".repeat(100)));
+    }
+
+    @Test
+    void tokenize_IndexingAlsoEmitsCjkUnigrams() {
+        List<String> tokens = new ArrayList<>();
+        List<Integer> starts = new ArrayList<>();
+        SearchTokenizer tokenizer = new SearchTokenizer(true);
+        tokenizer.tokenize("全文检索 字", (buffer, length) -> {
+            tokens.add(new String(buffer, 0, length));
+            starts.add(tokenizer.start());
+        });
+
+        assertEquals(List.of("全", "全文", "文", "文检", "检", "检索", "索", "字"), tokens);
+        assertEquals(List.of(0, 0, 1, 1, 2, 2, 3, 5), starts);
+    }
+
+    @Test
+    void analyze_IndexesCjkBigramsAcrossFields() {
+        SearchIndex.Analyzed analyzed = SearchIndex.analyze(
+                document(1, "Redis缓存", List.of("redis"), ArticleStatus.PUBLISHED), "缓存 REDIS redis 缓存穿透");
+        index.put(analyzed);
+
+        SearchIndex.TopHits hits = index.search(SearchTokenizer.tokenize("缓存"), null, 0, 10);
+        assertEquals(List.of(1L), ids(hits));
+        assertEquals(1, index.search(SearchTokenizer.tokenize("穿透"), null, 0, 10).total());
+        // 单字查询命中索引中的单字
+        assertEquals(List.of(1L), ids(index.search(SearchTokenizer.tokenize("存"), null, 0, 10)));
+        assertEquals(1, index.search(SearchTokenizer.tokenize("透"), null, 0, 10).total());
+        assertEquals(0, index.search(SearchTokenizer.tokenize("存缓"), null, 0, 10).total());
+    }
+
+    @Test
+    void search_RanksByRelevance() {
+        put(1, "日常随笔", List.of(), "今天写了一点 java 代码");
+        put(2, "Java并发编程", List.of("java"), "线程池与锁");
+        put(3, "Java与Spring", List.of(), "spring boot 配置");
+        put(4, "Python入门", List.of(), "没有相关内容");
+
+        SearchIndex.TopHits hits = index.search(SearchTokenizer.tokenize("java spring"), null, 0, 10);
+
+        assertEquals(3, hits.total());
+        assertEquals(List.of(3L, 2L, 1L), ids(hits));
+        assertTrue(hits.hits().get(0).score() > hits.hits().get(1).score());
+    }
+
+    @Test
+    void put_ReplacesPreviousVersionAndFiltersByStatus() {
+        put(1, "旧标题", List.of(), "kafka");
+        put(1, "新标题", List.of(), "rabbitmq");
+        index.put(SearchIndex.analyze(document(2, "草稿", List.of(), ArticleStatus.DRAFT), "rabbitmq"));
+
+        assertEquals(0, index.search(List.of("kafka"), null, 0, 10).total());
+        assertEquals(List.of(1L), ids(index.search(List.of("rabbitmq"), ArticleStatus.PUBLISHED, 0, 10)));
+        assertEquals(2, index.search(List.of("rabbitmq"), null, 0, 10).total());
+
+        assertTrue(index.remove(1));
+        assertEquals(List.of(2L), ids(index.search(List.of("rabbitmq"), null, 0, 10)));
+    }
+
+    @Test
+    void search_PagesThroughResultsAfterManyUpdates() {
+        for (int round = 0; round < 5; round++) {
+            for (int id = 1; id <= 50; id++) {
+                put(id, "文章" + id, List.of(), "redis " + "cache ".repeat(id) + round);
+            }
+        }
+
+        SearchIndex.TopHits first = index.search(List.of("cache"), null, 0, 20);
+        SearchIndex.TopHits third = index.search(List.of("cache"), null, 40, 20);
+
+        assertEquals(50, first.total());
+        assertEquals(20, first.hits().size());
+        assertEquals(10, third.hits().size());
+        assertEquals(50L, first.hits().get(0).document().id());
+        assertEquals(50, index.search(List.of("4"), null, 0, 100).total());
+        assertEquals(0, index.search(List.of("0"), null, 0, 100).total());
+    }
+
+    @Test
+    void snapshot_RestoresIndexAndRejectsCorruptData() throws IOException {
+        put(1, "持久化", List.of("存储"), "segment store");
+        put(2, "删除", List.of(), "segment");
+        index.remove(2);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        index.writeTo(out);
+        SearchIndex restored = SearchIndex.readFrom(new ByteArrayInputStream(out.toByteArray()));
+
+        assertEquals(1, restored.size());
+        assertEquals(index.get(1), restored.get(1));
+        assertEquals(ids(index.search(List.of("segment", "存储"), null, 0, 10)),
+                ids(restored.search(List.of("segment", "存储"), null, 0, 10)));
+        assertEquals(index.search(List.of("segment"), null, 0, 10).hits().get(0).score(),
+                restored.search(List.of("segment"), null, 0, 10).hits().get(0).score());
+        SearchIndex.Highlights highlights = restored.highlights(1, List.of("store")).orElseThrow();
+        assertArrayEquals(new int[]{8}, highlights.starts());
+        assertArrayEquals(new int[]{13}, highlights.ends());
+
+        byte[] corrupt = out.toByteArray();
+        corrupt[corrupt.length / 2] ^= 0x5a;
+        assertThrows(IOException.class, () -> SearchIndex.readFrom(new ByteArrayInputStream(corrupt)));
+    }
+
+    @Test
+    void toPlainText_StripsMarkdownSyntax() {
+        String markdown = "# 标题\n\n> 引用 **加粗** 文字\n\n- 列表 `code` [链接](https://example.com) ![图片](a.png)\n"
+                + "```java\nint x;\n```\n<b>标签</b> | 表格 |\n1. 第一项";
+
+        assertEquals("标题 引用 加粗 文字 列表 code 链接 图片 int x; 标签 表格 第一项", MarkdownText.toPlainText(markdown));
+        assertEquals("", MarkdownText.toPlainText(null));
+    }
+
+    @Test
+    void highlights_ReturnsContentPositionsOfQueryTerms() {
+        String content = MarkdownText.toPlainText("标题里有 Kafka\n\n正文介绍 **Kafka** 的消息队列");
+        put(1, "Kafka入门", List.of(), content);
+
+        SearchIndex.Highlights highlights = index.highlights(1, SearchTokenizer.tokenize("kafka 队列")).orElseThrow();
+
+        assertEquals(content.length(), highlights.textLength());
+        assertEquals(List.of("Kafka", "Kafka", "队列"), substrings(content, highlights.starts(), highlights.ends()));
+        assertArrayEquals(new int[]{0, 0, 1}, highlights.terms());
+        // 只出现在标题中的词没有正文位置
+        assertEquals(0, index.highlights(1, List.of("入门")).orElseThrow().starts().length);
+        assertTrue(index.highlights(2, List.of("kafka")).isEmpty());
+    }
+
+    @Test
+    void snippets_PreferWindowsWithMoreDistinctTerms() {
+        String content = "redis ".repeat(10) + "filler ".repeat(30) + "redis 与 kafka 的对比" + " tail".repeat(30);
+        put(1, "对比", List.of(), content);
+        SearchIndex.Highlights highlights = index.highlights(1, SearchTokenizer.tokenize("redis kafka")).orElseThrow();
+
+        List<SearchService.Fragment> fragments = SnippetBuilder.build(content, highlights, 40, 2);
+
+        assertEquals(2, fragments.size());
+        SearchService.Fragment best = fragments.get(0);
+        assertTrue(best.text().startsWith("…") && best.text().endsWith("…"));
+        assertEquals(List.of("redis", "kafka"), best.highlights().stream()
+                .map(highlight -> best.text().substring(highlight.start(), highlight.end())).toList());
+        assertTrue(fragments.get(1).text().startsWith("redis redis"));
+
+        // 后选的片段优先展示前面片段中没有的查询词
+        String capped = "redis ".repeat(40) + "filler ".repeat(30) + "kafka";
+        put(3, "上限", List.of(), capped);
+        List<SearchService.Fragment> spread = SnippetBuilder.build(capped,
+                index.highlights(3, SearchTokenizer.tokenize("redis kafka")).orElseThrow(), 40, 2);
+        assertTrue(spread.get(0).text().startsWith("redis"));
+        assertTrue(spread.get(1).text().endsWith("kafka"));
+
+        // 相邻的二元词合并为一个高亮区间
+        String cjk = "介绍全文检索的实现";
+        put(2, "检索", List.of(), cjk);
+        List<SearchService.Fragment> merged = SnippetBuilder.build(cjk,
+                index.highlights(2, SearchTokenizer.tokenize("全文检索")).orElseThrow(), 40, 2);
+        assertEquals(List.of(new SearchService.Highlight(2, 6)), merged.get(0).highlights());
+
+        // 没有位置信息时返回正文开头
+        List<SearchService.Fragment> leading = SnippetBuilder.build(content, null, 20, 2);
+        assertEquals(List.of(new SearchService.Fragment("redis ".repeat(3) + "re…", List.of())), leading);
+    }
+
+    private static List<String> substrings(String text, int[] starts, int[] ends) {
+        return IntStream.range(0, starts.length)
+                .mapToObj(i -> text.substring(starts[i], ends[i])).toList();
+    }
+
+    private void put(long id, String title, List<String> tags, String content) {
+        index.put(SearchIndex.analyze(document(id, title, tags, ArticleStatus.PUBLISHED), content));
+    }
+
+    private static SearchDocument document(long id, String title, List<String> tags, ArticleStatus status) {
+        return new SearchDocument(id, title, "article-" + id, null, tags, status, "ab/cd/article-" + id + ".md",
+                "v" + id);
+    }
+
+    private static List<Long> ids(SearchIndex.TopHits hits) {
+        return hits.hits().stream().map(hit -> hit.document().id()).toList();
+    }
+}
@@ -0,0 +1,260 @@
+package com.blog.service;
+
+import com.blog.config.SegmentStoreProperties;
+import com.blog.config.StorageProperties;
+import com.blog.exception.FileOperationException;
+import com.blog.job.SegmentStoreMigrationJob;
+import com.blog.service.impl.SegmentFileService;
+import com.blog.util.ContentFingerprint;
+import com.blog.util.SegmentStore;
+import com.blog.util.StorageBackend;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SegmentFileServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private StorageProperties storageProperties;
+    private SegmentStoreProperties properties;
+    private SegmentFileService fileService;
+
+    @BeforeEach
+    void setUp() {
+        storageProperties = new StorageProperties();
+        storageProperties.setBackend(StorageBackend.SEGMENT);
+        storageProperties.setMarkdownPath(tempDir.resolve("markdown").toString());
+        properties = new SegmentStoreProperties();
+        properties.setPath(tempDir.resolve("segments").toString());
+        fileService = open();
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.invokeMethod(fileService, "close");
+    }
+
+    @Test
+    void saveAndUpdate_ReadsLatestVersion() throws IOException {
+        String path = fileService.saveMarkdownFile("segment", "# 第一版");
+        ContentFingerprint fingerprint = fileService.updateMarkdownFile(path, "# 第二版");
+
+        assertEquals("# 第二版", fileService.readMarkdownFile(path));
+        assertEquals(ContentFingerprint.of("# 第二版"), fingerprint);
+        assertEquals("# 第二版".getBytes(StandardCharsets.UTF_8).length, fileService.readAttributes(path).size());
+        assertNull(fileService.getAbsolutePath(path));
+        assertEquals(List.of(path), fileService.listMarkdownFiles());
+    }
+
+    @Test
+    void updateMarkdownFile_StreamSkipsUnchangedContent() throws IOException {
+        String path = fileService.saveMarkdownFile("stream", "# 内容");
+        long before = segmentBytes();
+
+        ContentFingerprint fingerprint = fileService.updateMarkdownFile(path,
+                channel -> channel.write(ByteBuffer.wrap("# 内容".getBytes(StandardCharsets.UTF_8))),
+                ContentFingerprint.of("# 内容"));
+
+        assertEquals(ContentFingerprint.of("# 内容"), fingerprint);
+        assertEquals(before, segmentBytes());
+    }
+
+    @Test
+    void open_RebuildsIndexFromSealedSegments() throws IOException {
+        properties.setMaxSegmentBytes(256);
+        reopen();
+        String kept = fileService.saveMarkdownFile("kept", "# 保留");
+        String deleted = fileService.saveMarkdownFile("deleted", "# 删除");
+        for (int i = 0; i < 10; i++) {
+            fileService.updateMarkdownFile(kept, "# 保留 " + i + " " + "x".repeat(64));
+        }
+        fileService.deleteMarkdownFile(deleted);
+
+        reopen();
+
+        assertTrue(segmentFiles().size() > 2);
+        assertEquals("# 保留 9 " + "x".repeat(64), fileService.readMarkdownFile(kept));
+        assertFalse(fileService.fileExists(deleted));
+    }
+
+    @Test
+    void open_TruncatesTornRecordAtEnd() throws IOException {
+        String path = fileService.saveMarkdownFile("torn", "# 完整记录");
+        Path segment = segmentFiles().get(segmentFiles().size() - 1);
+        ReflectionTestUtils.invokeMethod(fileService, "close");
+        // 模拟崩溃：末尾留下半条记录
+        Files.write(segment, new byte[]{0x4d, 0x44, 0x53, 0x31, 1, 0, 0}, StandardOpenOption.APPEND);
+
+        fileService = open();
+        fileService.updateMarkdownFile(path, "# 截断后继续写入");
+        reopen();
+
+        assertEquals("# 截断后继续写入", fileService.readMarkdownFile(path));
+    }
+
+    @Test
+    void compact_RemovesSupersededVersionsWithoutResurrectingDeletes() throws IOException {
+        properties.setMaxSegmentBytes(512);
+        reopen();
+        String kept = fileService.saveMarkdownFile("kept", "# 保留");
+        String deleted = fileService.saveMarkdownFile("deleted", "# 删除");
+        for (int i = 0; i < 40; i++) {
+            fileService.updateMarkdownFile(kept, "# 版本 " + i + " " + "y".repeat(64));
+        }
+        fileService.deleteMarkdownFile(deleted);
+        for (int i = 0; i < 10; i++) {
+            fileService.updateMarkdownFile(kept, "# 最终 " + i + " " + "z".repeat(64));
+        }
+        long before = segmentBytes();
+
+        fileService.compact();
+        reopen();
+
+        assertTrue(segmentBytes() < before / 2);
+        assertEquals("# 最终 9 " + "z".repeat(64), fileService.readMarkdownFile(kept));
+        assertFalse(fileService.fileExists(deleted));
+    }
+
+    @Test
+    void compact_SkipsSegmentsWhoseRecordsAreAllLive() throws IOException {
+        properties.setMaxSegmentBytes(512);
+        reopen();
+        for (int i = 0; i < 20; i++) {
+            fileService.saveMarkdownFile("small-" + i, "# " + i);
+        }
+        List<Path> before = segmentFiles();
+        assertTrue(before.size() > 2);
+
+        fileService.compact();
+
+        // 小文档的记录头和键远大于值，但没有旧版本的段不需要压缩
+        assertEquals(before, segmentFiles());
+    }
+
+    @Test
+    void readAfterInterrupt_ReopensSharedChannel() throws IOException {
+        String path = fileService.saveMarkdownFile("interrupted", "# 中断前");
+
+        // 被中断的线程读取时通道被关闭，读取失败
+        Thread.currentThread().interrupt();
+        try {
+            assertThrows(FileOperationException.class, () -> fileService.readMarkdownFile(path));
+        } finally {
+            Thread.interrupted();
+        }
+
+        assertEquals("# 中断前", fileService.readMarkdownFile(path));
+        fileService.updateMarkdownFile(path, "# 中断后写入");
+        assertEquals("# 中断后写入", fileService.readMarkdownFile(path));
+    }
+
+    @Test
+    void read_FailsFastOnSegmentCompactedUnderReader() throws IOException {
+        properties.setMaxSegmentBytes(512);
+        reopen();
+        String path = fileService.saveMarkdownFile("compacted", "# 初始");
+        // 读取方已查到的位置和段，之后该段被压缩删除
+        SegmentStore store = (SegmentStore) ReflectionTestUtils.getField(fileService, "store");
+        SegmentStore.Location location = store.locate(path);
+        Object segment = ((Map<?, ?>) ReflectionTestUtils.getField(store, "segments")).get(location.segmentId());
+        for (int i = 0; i < 20; i++) {
+            fileService.updateMarkdownFile(path, "# 版本 " + i + " " + "y".repeat(64));
+        }
+        fileService.updateMarkdownFile(path, "# 最终版本");
+
+        fileService.compact();
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            Exception e = assertThrows(Exception.class, () -> ReflectionTestUtils.invokeMethod(SegmentStore.class,
+                    "readFully", segment, ByteBuffer.allocate(location.length()), location.offset()));
+            assertInstanceOf(ClosedChannelException.class, e.getCause());
+        });
+        assertEquals("# 最终版本", fileService.readMarkdownFile(path));
+    }
+
+    @Test
+    void read_FailsAfterClose() throws IOException {
+        String path = fileService.saveMarkdownFile("closed", "# 关闭前");
+
+        ReflectionTestUtils.invokeMethod(fileService, "close");
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5),
+                () -> assertThrows(FileOperationException.class, () -> fileService.readMarkdownFile(path)));
+    }
+
+    @Test
+    void migrate_ImportsLegacyFilesAndKeepsNewerWrites() throws IOException {
+        Path legacyRoot = tempDir.resolve("markdown");
+        writeLegacy(legacyRoot.resolve("ab/cd/legacy.md"), "# 原有文件");
+        writeLegacy(legacyRoot.resolve("ab/cd/edited.md"), "# 旧内容");
+        writeLegacy(legacyRoot.resolve(".quarantine/orphan.md"), "# 隔离区");
+        assertEquals("# 原有文件", fileService.readMarkdownFile("ab/cd/legacy.md"));
+        fileService.updateMarkdownFile("ab/cd/edited.md", "# 切换后写入");
+
+        SegmentStoreMigrationJob job = new SegmentStoreMigrationJob(fileService, storageProperties);
+        ReflectionTestUtils.setField(job, "batchSize", 100);
+        SegmentStoreMigrationJob.Status status = job.migrate();
+        Files.delete(legacyRoot.resolve("ab/cd/legacy.md"));
+
+        assertEquals(1, status.imported());
+        assertEquals(1, status.skipped());
+        assertEquals("# 原有文件", fileService.readMarkdownFile("ab/cd/legacy.md"));
+        assertEquals("# 切换后写入", fileService.readMarkdownFile("ab/cd/edited.md"));
+        assertEquals(List.of("ab/cd/edited.md", "ab/cd/legacy.md"), fileService.listMarkdownFiles());
+    }
+
+    @Test
+    void readAttributes_ThrowsForMissingFile() {
+        assertThrows(NoSuchFileException.class, () -> fileService.readAttributes("missing.md"));
+        assertThrows(FileOperationException.class, () -> fileService.readMarkdownFile("missing.md"));
+        assertThrows(FileOperationException.class, () -> fileService.readMarkdownFile("../escape.md"));
+    }
+
+    private SegmentFileService open() {
+        return new SegmentFileService(storageProperties, properties, new SimpleMeterRegistry());
+    }
+
+    private void reopen() {
+        ReflectionTestUtils.invokeMethod(fileService, "close");
+        fileService = open();
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(tempDir.resolve("segments"))) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".seg")).sorted().toList();
+        }
+    }
+
+    private long segmentBytes() throws IOException {
+        long total = 0;
+        for (Path file : segmentFiles()) {
+            total += Files.size(file);
+        }
+        return total;
+    }
+
+    private void writeLegacy(Path file, String content) throws IOException {
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content);
+    }
+}
@@ -0,0 +1,150 @@
+package com.blog.service;
+
+import com.blog.config.SuggestProperties;
+import com.blog.entity.Article;
+import com.blog.event.ArticleChangedEvent;
+import com.blog.repository.ArticleRepository;
+import com.blog.repository.ArticleSuggestSource;
+import com.blog.service.impl.SuggestServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+/**
+ * 输入提示服务测试
+ */
+@ExtendWith(MockitoExtension.class)
+class SuggestServiceTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Mock
+    private ArticleRepository articleRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SuggestServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        service = new SuggestServiceImpl(articleRepository, new SuggestProperties(), transactionManager,
+                new SimpleMeterRegistry());
+    }
+
+    @Test
+    void build_MergesTagsIgnoringCase() {
+        when(articleRepository.findSuggestSourcesAfter(eq(0L), any()))
+                .thenReturn(List.of(source(1, "JVM内存模型"), source(2, "JVM调优实战")));
+        when(articleRepository.findTagsByArticleIds(any())).thenReturn(List.of(
+                new Object[]{1L, "Java"}, new Object[]{2L, "java"}, new Object[]{2L, "JAVA"}));
+
+        ReflectionTestUtils.invokeMethod(service, "build");
+
+        assertTrue(service.isReady());
+        assertEquals(List.of(new SuggestService.Suggestion("Java", null, 2)),
+                service.suggest("ja", SuggestService.Type.TAG, 10));
+        assertEquals(List.of(2L, 1L), titleIds("jvm"));
+    }
+
+    @Test
+    void onArticleChanged_IndexesCreatedArticle() {
+        build();
+        changed(1, ArticleChangedEvent.Kind.SAVED, article(1, "Spring Boot实践", NOW, "Spring", "Java"));
+
+        assertEquals(List.of(1L), titleIds("spring"));
+        assertEquals(List.of(new SuggestService.Suggestion("Spring", null, 1)),
+                service.suggest("spr", SuggestService.Type.TAG, 10));
+    }
+
+    @Test
+    void onArticleChanged_UpdateDiffsTagsIgnoringCase() {
+        build();
+        changed(1, ArticleChangedEvent.Kind.SAVED, article(1, "Spring Boot实践", NOW, "Java"));
+        changed(2, ArticleChangedEvent.Kind.SAVED, article(2, "JVM调优", NOW.plusDays(1), "java", "JVM"));
+
+        // 只改变大小写不影响计数
+        changed(2, ArticleChangedEvent.Kind.SAVED, article(2, "JVM调优", NOW.plusDays(1), "JAVA", "JVM"));
+        assertEquals(List.of(new SuggestService.Suggestion("Java", null, 2)),
+                service.suggest("java", SuggestService.Type.TAG, 10));
+
+        // 移除标签时减少的是同一个条目
+        changed(1, ArticleChangedEvent.Kind.SAVED, article(1, "Spring Boot进阶", NOW.plusDays(2)));
+        assertEquals(List.of(new SuggestService.Suggestion("Java", null, 1)),
+                service.suggest("java", SuggestService.Type.TAG, 10));
+        assertEquals(List.of(1L), titleIds("spring boot进"));
+        assertTrue(titleIds("spring boot实").isEmpty());
+    }
+
+    @Test
+    void onArticleChanged_RemovesDeletedArticle() {
+        build();
+        changed(1, ArticleChangedEvent.Kind.SAVED, article(1, "Spring Boot实践", NOW, "Java"));
+        changed(2, ArticleChangedEvent.Kind.SAVED, article(2, "Spring事务", NOW.plusDays(1), "java", "Spring"));
+
+        service.onArticleChanged(new ArticleChangedEvent(2L, ArticleChangedEvent.Kind.DELETED));
+
+        assertEquals(List.of(1L), titleIds("spring"));
+        assertEquals(List.of(new SuggestService.Suggestion("Java", null, 1)),
+                service.suggest("j", SuggestService.Type.TAG, 10));
+        assertTrue(service.suggest("spr", SuggestService.Type.TAG, 10).isEmpty());
+    }
+
+    private void build() {
+        when(articleRepository.findSuggestSourcesAfter(eq(0L), any())).thenReturn(List.of());
+        ReflectionTestUtils.invokeMethod(service, "build");
+    }
+
+    private void changed(long id, ArticleChangedEvent.Kind kind, Article article) {
+        when(articleRepository.findById(id)).thenReturn(Optional.of(article));
+        service.onArticleChanged(new ArticleChangedEvent(id, kind));
+    }
+
+    private List<Long> titleIds(String prefix) {
+        return service.suggest(prefix, SuggestService.Type.TITLE, 10).stream()
+                .map(SuggestService.Suggestion::articleId)
+                .toList();
+    }
+
+    private static Article article(long id, String title, LocalDateTime updatedAt, String... tags) {
+        Article article = new Article(title, "article-" + id, "article-" + id + ".md");
+        article.setId(id);
+        article.setUpdatedAt(updatedAt);
+        article.setTags(new ArrayList<>(List.of(tags)));
+        return article;
+    }
+
+    private static ArticleSuggestSource source(long id, String title) {
+        return new ArticleSuggestSource() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getTitle() {
+                return title;
+            }
+
+            @Override
+            public LocalDateTime getUpdatedAt() {
+                return NOW.plusDays(id);
+            }
+        };
+    }
+}
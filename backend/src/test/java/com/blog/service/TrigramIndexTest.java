@@ -0,0 +1,70 @@
+package com.blog.service;
+
+import com.blog.service.impl.TrigramIndex;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 标题筛选三元组索引测试
+ */
+class TrigramIndexTest {
+
+    private final TrigramIndex index = new TrigramIndex();
+
+    @Test
+    void find_MatchesSubstringIgnoringCase() {
+        index.put(3, "Spring Boot 缓存实践", "Redis与本地缓存");
+        index.put(1, "深入理解JVM", "垃圾回收");
+        index.put(2, "spring cloud 入门", null);
+
+        assertArrayEquals(new long[]{2, 3}, index.find("SPRING", 100, TrigramIndex.Field.TITLE));
+        assertArrayEquals(new long[]{3}, index.find("缓存实践", 100, TrigramIndex.Field.TITLE));
+        assertArrayEquals(new long[]{1}, index.find("jvm", 100, TrigramIndex.Field.TITLE));
+        // 三元组都存在但不连续时不匹配
+        assertArrayEquals(new long[0], index.find("spring boot cloud", 100, TrigramIndex.Field.TITLE));
+        assertArrayEquals(new long[0], index.find("redis", 100, TrigramIndex.Field.TITLE));
+        assertArrayEquals(new long[]{3}, index.find("redis", 100, TrigramIndex.Field.TITLE, TrigramIndex.Field.SUMMARY));
+    }
+
+    @Test
+    void find_ScansForShortQueries() {
+        index.put(1, "缓存", null);
+        index.put(2, "分布式缓存", null);
+        index.put(3, "Go", null);
+
+        assertArrayEquals(new long[]{1, 2}, index.find("缓存", 100, TrigramIndex.Field.TITLE));
+        assertArrayEquals(new long[]{3}, index.find("g", 100, TrigramIndex.Field.TITLE));
+    }
+
+    @Test
+    void put_UpdatesAndRemovesPostings() {
+        index.put(1, "Kafka消息队列", null);
+        index.put(1, "RabbitMQ消息队列", null);
+        index.put(2, "Kafka源码", null);
+
+        assertArrayEquals(new long[]{2}, index.find("kafka", 100, TrigramIndex.Field.TITLE));
+        assertArrayEquals(new long[]{1}, index.find("rabbit", 100, TrigramIndex.Field.TITLE));
+
+        assertTrue(index.remove(1));
+        assertFalse(index.remove(1));
+        assertArrayEquals(new long[0], index.find("消息队列", 100, TrigramIndex.Field.TITLE));
+
+        // 复用已删除文章的序号
+        index.put(5, "消息队列选型", null);
+        assertArrayEquals(new long[]{5}, index.find("消息队列", 100, TrigramIndex.Field.TITLE));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void find_ReturnsNullWhenLimitExceeded() {
+        for (int id = 1; id <= 20; id++) {
+            index.put(id, "Java笔记" + id, null);
+        }
+
+        assertNull(index.find("java", 10, TrigramIndex.Field.TITLE));
+        assertEquals(20, index.find("java", 20, TrigramIndex.Field.TITLE).length);
+        assertArrayEquals(new long[]{1, 10, 11, 12, 13, 14, 15, 16, 17, 18, 19},
+                index.find("笔记1", 100, TrigramIndex.Field.TITLE));
+    }
+}
@@ -5,6 +5,7 @@ import { Button, Modal, Space } from 'antd'
 import { PictureOutlined } from '@ant-design/icons'
 import ImageUpload from '../image/ImageUpload'
 import { Image as ApiImage } from '../../types/api'
+import { API_ENDPOINTS } from '../../config/api'
 
 interface MarkdownEditorProps {
   value: string
@@ -28,7 +29,8 @@ const MarkdownEditor: React.FC<MarkdownEditorProps> = ({
   const handleImageUploaded = (image: ApiImage) => {
     if (editorRef.current) {
       // 插入Markdown图片语法
-      const imageMarkdown = `\n![${image.originalName}](/api/v1/images/${image.id})\n`
+      // 使用内容寻址地址，图片可被浏览器和nginx永久缓存
+      const imageMarkdown = `\n![${image.originalName}](/api/v1${API_ENDPOINTS.IMAGE_RAW_BY_FILENAME(image.filename)})\n`
 
       // 获取当前光标位置
       const position = editorRef.current.getPosition()
@@ -88,9 +88,6 @@ const ImageUpload: React.FC<ImageUploadProps> = ({
         i === index ? { ...item, status: 'uploading' as const, progress: 0 } : item
       ))
 
-      // 转换为Base64
-      const base64Content = await ImageService.fileToBase64(file)
-      
       // 模拟上传进度
       const progressInterval = setInterval(() => {
         setUploadingImages(prev => prev.map((item, i) => 
@@ -101,10 +98,7 @@ const ImageUpload: React.FC<ImageUploadProps> = ({
       }, 100)
 
       // 上传图片
-      const result = await ImageService.uploadImage({
-        file,
-        base64Content
-      })
+      const result = await ImageService.uploadImage({ file })
 
       clearInterval(progressInterval)
 
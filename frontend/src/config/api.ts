@@ -14,6 +14,9 @@ export const API_ENDPOINTS = {
   IMAGES: '/images',
   IMAGE_DETAIL: (id: number | string) => `/images/${id}`,
   IMAGE_PREVIEW: (id: number | string) => `/images/${id}/preview`,
+  IMAGE_RAW: (id: number | string) => `/images/${id}/raw`,
+  // 以内容哈希命名的地址，内容不变，浏览器可永久缓存
+  IMAGE_RAW_BY_FILENAME: (filename: string) => `/images/raw/${encodeURIComponent(filename)}`,
   IMAGES_BATCH: '/images/batch',
   
   // 系统相关
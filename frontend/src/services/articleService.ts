@@ -56,11 +56,11 @@ export class ArticleService {
     return response.data
   }
 
-  // 保存文章Markdown内容
+  // 保存文章Markdown内容，手动保存以流的方式直接写入文件
   static async saveArticleContent(id: number, content: string): Promise<void> {
     await apiRequest.put(`/files/markdown/${id}`, content, {
       headers: {
-        'Content-Type': 'text/plain',
+        'Content-Type': 'text/markdown',
       },
       showSuccessMessage: true,
       successMessage: '文章内容保存成功',
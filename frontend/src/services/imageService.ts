@@ -1,4 +1,5 @@
 import { apiRequest } from './api'
+import { API_ENDPOINTS } from '../config/api'
 import { Image as ApiImage, UploadImageRequest, PaginatedResponse, PaginationParams } from '../types/api'
 
 export class ImageService {
@@ -111,11 +112,14 @@ export class ImageService {
   }
 
   // 获取图片预览URL
-  static getImagePreviewUrl(image: Image): string {
+  static getImagePreviewUrl(image: ApiImage): string {
     if (image.base64Content) {
       return `data:${image.mimeType};base64,${image.base64Content}`
     }
-    return `/api/v1/images/${image.id}/preview`
+    // 优先使用内容寻址地址，浏览器和nginx可长期缓存
+    return image.filename
+      ? `/api/v1${API_ENDPOINTS.IMAGE_RAW_BY_FILENAME(image.filename)}`
+      : `/api/v1${API_ENDPOINTS.IMAGE_RAW(image.id)}`
   }
 }
 